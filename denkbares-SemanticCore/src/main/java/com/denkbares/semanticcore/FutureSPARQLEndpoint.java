@@ -20,6 +20,11 @@
 package com.denkbares.semanticcore;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.repository.RepositoryException;
@@ -30,15 +35,25 @@ import com.denkbares.semanticcore.sparql.SPARQLEndpoint;
 
 /**
  * An implementation of a sparql endpoint that will be constructed on demand by some factory method, the first time it
- * is queried or a query is prepared.
+ * is queried or a query is prepared. Optionally, the endpoint can be warmed up in the background, so that the first
+ * query does not have to wait for the whole creation. Once created, accessing the endpoint requires no locking.
  *
  * @author Volker Belli (denkbares GmbH)
  * @created 13.01.2015
  */
 public class FutureSPARQLEndpoint extends AbstractDelegateEndpoint {
 
+	private static final Executor WARM_UP_EXECUTOR = runnable -> {
+		Thread thread = new Thread(runnable, "FutureSPARQLEndpoint-WarmUp");
+		thread.setDaemon(true);
+		thread.start();
+	};
+
 	private final SPARQLEndpointFactory factory;
-	private SPARQLEndpoint delegate = null;
+	// the created endpoint is published through the volatile field, to avoid locking after the creation
+	private volatile SPARQLEndpoint delegate = null;
+	// the future of the creation that is currently in progress or completed, guarded by this
+	private CompletableFuture<SPARQLEndpoint> creation = null;
 
 	/**
 	 * Creates a new sparql endpoint based on some factory method. The factory method will be used to create the
@@ -48,40 +63,163 @@ public class FutureSPARQLEndpoint extends AbstractDelegateEndpoint {
 	 * @param factory the factory method to be used to create the endpoint on demand
 	 */
 	public FutureSPARQLEndpoint(SPARQLEndpointFactory factory) {
+		this(factory, false);
+	}
+
+	/**
+	 * Creates a new sparql endpoint based on some factory method. The factory method will be used to create the
+	 * underlying endpoint that is delegated for each query. If warm-up is requested, the factory method is
+	 * immediately called in a background thread, otherwise it is not called until the first time a query or
+	 * preparation is performed, or {@link #warmUp()} is called.
+	 *
+	 * @param factory the factory method to be used to create the endpoint on demand
+	 * @param warmUp  if the endpoint should be created in the background immediately
+	 */
+	public FutureSPARQLEndpoint(SPARQLEndpointFactory factory, boolean warmUp) {
 		this.factory = factory;
+		if (warmUp) warmUp();
+	}
+
+	/**
+	 * Hints that the endpoint will be used soon, and starts to create the endpoint in a background thread, if the
+	 * creation has not been started yet. The method returns immediately.
+	 */
+	public void warmUp() {
+		warmUp(WARM_UP_EXECUTOR);
+	}
+
+	/**
+	 * Hints that the endpoint will be used soon, and starts to create the endpoint using the specified executor, if
+	 * the creation has not been started yet. The method returns immediately, unless the executor runs the creation in
+	 * the calling thread.
+	 *
+	 * @param executor the executor to create the endpoint with
+	 */
+	public void warmUp(Executor executor) {
+		if (delegate == null) startCreation(executor);
+	}
+
+	/**
+	 * Returns true if the underlying endpoint has been created, so that queries will not block for the creation.
+	 *
+	 * @return if the endpoint is created and ready to use
+	 */
+	public boolean isReady() {
+		return delegate != null;
+	}
+
+	/**
+	 * Waits at most the specified time until the underlying endpoint has been created. If the creation has not been
+	 * started yet, it is started in the background. The method allows callers to signal that the endpoint is not
+	 * ready yet, instead of blocking until the creation has been completed.
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit    the time unit of the timeout argument
+	 * @return true if the endpoint is ready to use, false if the timeout elapsed before
+	 * @throws InterruptedException if the current thread was interrupted while waiting
+	 * @throws QueryFailedException if the endpoint could not be created
+	 */
+	public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+		if (delegate != null) return true;
+		CompletableFuture<SPARQLEndpoint> future = startCreation(WARM_UP_EXECUTOR);
+		try {
+			future.get(timeout, unit);
+			return true;
+		}
+		catch (TimeoutException e) {
+			return false;
+		}
+		catch (ExecutionException e) {
+			throw createFailure(e.getCause());
+		}
 	}
 
 	@Override
-	public synchronized void close() throws RepositoryException {
-		if (delegate != null) {
-			delegate.close();
+	public void close() throws RepositoryException {
+		SPARQLEndpoint endpoint;
+		synchronized (this) {
+			// if the creation is still in progress, the created endpoint will be closed when completed
+			endpoint = delegate;
 			delegate = null;
+			creation = null;
 		}
+		if (endpoint != null) endpoint.close();
 	}
 
 	@Override
-	public synchronized ValueFactory getValueFactory() {
-		if (delegate == null) return null;
-		return delegate.getValueFactory();
+	public ValueFactory getValueFactory() {
+		SPARQLEndpoint endpoint = delegate;
+		if (endpoint == null) return null;
+		return endpoint.getValueFactory();
 	}
 
 	@Override
 	@NotNull
 	protected SPARQLEndpoint getDelegate() {
-		if (delegate == null) initEndpoint();
-		return delegate;
+		SPARQLEndpoint endpoint = delegate;
+		if (endpoint != null) return endpoint;
+
+		// if nobody started the creation yet, we create the endpoint in the calling thread
+		CompletableFuture<SPARQLEndpoint> future = startCreation(Runnable::run);
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QueryFailedException("interrupted while waiting for sparql endpoint", e);
+		}
+		catch (ExecutionException e) {
+			throw createFailure(e.getCause());
+		}
+	}
+
+	private CompletableFuture<SPARQLEndpoint> startCreation(Executor executor) {
+		CompletableFuture<SPARQLEndpoint> future;
+		synchronized (this) {
+			// as we now entered the synchronized area,
+			// we have to check if the creation has been started, to avoid duplicate initialization
+			if (creation != null) return creation;
+			future = new CompletableFuture<>();
+			creation = future;
+		}
+		executor.execute(() -> create(future));
+		return future;
 	}
 
-	private synchronized void initEndpoint() {
-		// as we now entered the synchronized area,
-		// we have to check if the endpoint is still null, to avoid duplicate initialization
-		if (delegate != null) return;
+	private void create(CompletableFuture<SPARQLEndpoint> future) {
+		SPARQLEndpoint endpoint;
 		try {
-			delegate = factory.createEndpoint();
+			endpoint = factory.createEndpoint();
 		}
-		catch (IOException e) {
-			throw new QueryFailedException("cannot create sparql endpoint", e);
+		catch (IOException | RuntimeException | Error e) {
+			// allow the next access to retry the creation
+			synchronized (this) {
+				if (creation == future) creation = null;
+			}
+			future.completeExceptionally(e);
+			// errors are not only passed to the waiting callers, but also to the creating thread
+			if (e instanceof Error) throw (Error) e;
+			return;
 		}
+
+		boolean closed;
+		synchronized (this) {
+			closed = (creation != future);
+			if (!closed) delegate = endpoint;
+		}
+		if (closed) {
+			endpoint.close();
+			future.completeExceptionally(new RepositoryException("sparql endpoint closed during creation"));
+		}
+		else {
+			future.complete(endpoint);
+		}
+	}
+
+	private RuntimeException createFailure(Throwable cause) {
+		if (cause instanceof Error) throw (Error) cause;
+		if (cause instanceof RuntimeException) return (RuntimeException) cause;
+		return new QueryFailedException("cannot create sparql endpoint", cause);
 	}
 
 	/**
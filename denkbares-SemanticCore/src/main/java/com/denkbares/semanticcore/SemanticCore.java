@@ -30,14 +30,23 @@ import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
@@ -58,13 +67,18 @@ import org.eclipse.rdf4j.query.UpdateExecutionException;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.config.RepositoryConfigException;
+import org.eclipse.rdf4j.repository.config.RepositoryImplConfig;
 import org.eclipse.rdf4j.repository.manager.LocalRepositoryManager;
+import org.eclipse.rdf4j.repository.sail.config.SailRepositoryConfig;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFParseException;
 import org.eclipse.rdf4j.rio.RDFWriter;
 import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
+import org.eclipse.rdf4j.sail.config.DelegatingSailImplConfig;
+import org.eclipse.rdf4j.sail.config.SailImplConfig;
+import org.eclipse.rdf4j.sail.nativerdf.config.NativeStoreConfig;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -88,7 +102,7 @@ public final class SemanticCore implements SPARQLEndpoint {
 	public static final String SEMANTIC_CORE_REPOSITORY_PATH_SUFFIX = "semanticCore.repository.path.suffix";
 
 	public enum State {
-		active, shutdown
+		active, evicted, shutdown
 	}
 
 	private volatile State state;
@@ -101,9 +115,24 @@ public final class SemanticCore implements SPARQLEndpoint {
 	private volatile static LocalRepositoryManager repositoryManager = null;
 	private static final int THRESHOLD_TIME = 1000 * 60 * 2; // 2 min...
 	public static final String DEFAULT_NAMESPACE = "http://www.denkbares.com/ssc/ds#";
+
+	// rough estimations of the heap used per statement, for in-memory stores and for the caches of native stores
+	private static final long MEMORY_STORE_BYTES_PER_STATEMENT = 256;
+	private static final long NATIVE_STORE_BYTES_PER_STATEMENT = 32;
+	private static final Object evictionMutex = new Object();
+	private static volatile long maxIdleMillis = Long.MAX_VALUE;
+	private static volatile long maxEstimatedMemory = Long.MAX_VALUE;
+	private static volatile ScheduledExecutorService evictionScheduler = null;
+
 	private final String repositoryId;
-	private final Repository repository;
+	private final boolean reopenable;
+	private volatile Repository repository;
 	private final AtomicLong allocationCounter = new AtomicLong(0);
+	private final AtomicInteger openConnections = new AtomicInteger(0);
+	private volatile long lastAccess = System.currentTimeMillis();
+	private volatile String sourceHash = null;
+	private long estimatedMemory = -1;
+	private long estimatedMemoryTime = 0;
 
 	public static SemanticCore getInstance(String key) {
 		AtomicReference<SemanticCore> reference = instances.get(key);
@@ -161,6 +190,111 @@ public final class SemanticCore implements SPARQLEndpoint {
 		return instance;
 	}
 
+	/**
+	 * Sets the policy to evict semantic cores that are not allocated, to limit the resources used by cores nobody is
+	 * currently interested in. A core is evicted if it has not been accessed for the specified idle time, or if the
+	 * estimated memory of all active cores exceeds the specified limit, starting with the least recently used core.
+	 * Cores that are allocated or that have open connections are never evicted.
+	 * <p>
+	 * Cores based on a native store (see {@link #isReopenable()}) only shut down their repository when evicted, and
+	 * will transparently reopen the repository from its data directory on the next access. All other cores are
+	 * closed when evicted, as if {@link #requestShutdown()} was called.
+	 *
+	 * @param maxIdleTime        the time an unallocated core may be unused before it is evicted, or null to not evict
+	 *                           cores by their idle time
+	 * @param maxEstimatedMemory the estimated number of bytes all active cores may use before unallocated cores are
+	 *                           evicted, or a value &lt;= 0 to not evict cores by their memory
+	 * @see #evictInstances()
+	 */
+	public static void setEvictionPolicy(@Nullable Duration maxIdleTime, long maxEstimatedMemory) {
+		synchronized (evictionMutex) {
+			SemanticCore.maxIdleMillis = (maxIdleTime == null) ? Long.MAX_VALUE : maxIdleTime.toMillis();
+			SemanticCore.maxEstimatedMemory = (maxEstimatedMemory <= 0) ? Long.MAX_VALUE : maxEstimatedMemory;
+			if (evictionScheduler != null) {
+				evictionScheduler.shutdownNow();
+				evictionScheduler = null;
+			}
+			if (SemanticCore.maxIdleMillis == Long.MAX_VALUE && SemanticCore.maxEstimatedMemory == Long.MAX_VALUE) {
+				return;
+			}
+			// check regularly, but not too often, and fast enough to detect idle cores in time
+			long period = Math.max(1000, Math.min(TimeUnit.MINUTES.toMillis(1), SemanticCore.maxIdleMillis / 4));
+			evictionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "SemanticCore-Eviction");
+				thread.setDaemon(true);
+				return thread;
+			});
+			evictionScheduler.scheduleAtFixedRate(SemanticCore::evictInstancesQuietly, period, period, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Evicts all cores that should be evicted according to the current eviction policy. The method is called
+	 * regularly if there is an eviction policy set, but may be called manually at any time.
+	 *
+	 * @return the number of cores that have been evicted
+	 * @see #setEvictionPolicy(Duration, long)
+	 */
+	public static int evictInstances() {
+		synchronized (evictionMutex) {
+			List<SemanticCore> cores = new ArrayList<>();
+			for (AtomicReference<SemanticCore> reference : instances.values()) {
+				SemanticCore core = reference.get();
+				if (core != null && core.state == State.active) cores.add(core);
+			}
+
+			// first evict all cores that are idle for too long
+			int evicted = 0;
+			long now = System.currentTimeMillis();
+			for (Iterator<SemanticCore> iterator = cores.iterator(); iterator.hasNext(); ) {
+				SemanticCore core = iterator.next();
+				if (now - core.lastAccess > maxIdleMillis && core.evict()) {
+					iterator.remove();
+					evicted++;
+				}
+			}
+
+			// then evict the least recently used cores, until the memory limit is reached
+			if (maxEstimatedMemory == Long.MAX_VALUE) return evicted;
+			long memory = 0;
+			for (SemanticCore core : cores) {
+				memory += core.estimateMemory();
+			}
+			cores.sort(Comparator.comparingLong(core -> core.lastAccess));
+			for (SemanticCore core : cores) {
+				if (memory <= maxEstimatedMemory) break;
+				long coreMemory = core.estimatedMemory;
+				if (core.evict()) {
+					memory -= coreMemory;
+					evicted++;
+				}
+			}
+			return evicted;
+		}
+	}
+
+	private static void evictInstancesQuietly() {
+		try {
+			int evicted = evictInstances();
+			if (evicted > 0) LOGGER.info("Evicted " + Strings.pluralOf(evicted, "unused SemanticCore"));
+		}
+		catch (RuntimeException e) {
+			// never let the exception escape, otherwise the scheduled eviction would be cancelled
+			LOGGER.error("Unexpected exception while evicting SemanticCores", e);
+		}
+	}
+
+	private static void scheduleEviction() {
+		ScheduledExecutorService scheduler = evictionScheduler;
+		if (scheduler == null) return;
+		try {
+			scheduler.execute(SemanticCore::evictInstancesQuietly);
+		}
+		catch (RejectedExecutionException e) {
+			// the policy has been changed concurrently, so the new scheduler will take care
+		}
+	}
+
 	private static void createInstance(AtomicReference<SemanticCore> reference, String key, RepositoryConfig reasoning, File tmpFolder) throws IOException {
 		if (reference.get() != null) return;
 		try {
@@ -172,6 +306,8 @@ public final class SemanticCore implements SPARQLEndpoint {
 				instances.remove(key);
 			}
 		}
+		// the new core may exceed the memory limit, so check the policy without blocking the caller
+		if (maxEstimatedMemory != Long.MAX_VALUE) scheduleEviction();
 	}
 
 	public static File createRepositoryManagerDir(String suffix) throws IOException {
@@ -194,6 +330,7 @@ public final class SemanticCore implements SPARQLEndpoint {
 
 			org.eclipse.rdf4j.repository.config.RepositoryConfig openRdfRepositoryConfig = repositoryConfig.createRepositoryConfig(repositoryId, repositoryLabel, overrides);
 			repositoryManager.addRepositoryConfig(openRdfRepositoryConfig);
+			this.reopenable = isNativeStore(openRdfRepositoryConfig.getRepositoryImplConfig());
 
 			// Get the repository and connect to it!
 			this.repository = repositoryManager.getRepository(repositoryId);
@@ -222,10 +359,60 @@ public final class SemanticCore implements SPARQLEndpoint {
 		}
 	}
 
+	private static boolean isNativeStore(RepositoryImplConfig config) {
+		if (!(config instanceof SailRepositoryConfig)) return false;
+		SailImplConfig sailConfig = ((SailRepositoryConfig) config).getSailImplConfig();
+		while (sailConfig instanceof DelegatingSailImplConfig) {
+			sailConfig = ((DelegatingSailImplConfig) sailConfig).getDelegate();
+		}
+		return sailConfig instanceof NativeStoreConfig;
+	}
+
 	public String getRepositoryId() {
 		return repositoryId;
 	}
 
+	/**
+	 * Returns the current state of this core. An evicted core becomes active again when it is accessed the next time.
+	 *
+	 * @return the state of this core
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * Returns true if the repository of this core persists its data in its data directory (e.g. a native store), so
+	 * that the repository can be evicted and transparently reopened later on, without loading the data again.
+	 *
+	 * @return if the repository of this core can be reopened after eviction
+	 */
+	public boolean isReopenable() {
+		return reopenable;
+	}
+
+	/**
+	 * Returns the hash of the sources the data of this core has been loaded from, or null if the sources are not
+	 * known. The hash is used to reuse (persisted) cores if the sources are unchanged.
+	 *
+	 * @return the hash of the sources of this core
+	 * @see TurtleFileEndpoint
+	 */
+	@Nullable
+	public String getSourceHash() {
+		return sourceHash;
+	}
+
+	/**
+	 * Sets the hash of the sources the data of this core has been loaded from. The hash should only be set if the
+	 * core contains exactly the data of the sources, and no data has been added from elsewhere.
+	 *
+	 * @param sourceHash the hash of the sources of this core, or null if the sources are not known
+	 */
+	public void setSourceHash(@Nullable String sourceHash) {
+		this.sourceHash = sourceHash;
+	}
+
 	/**
 	 * Allocates the semantic core for longer use.
 	 *
@@ -247,6 +434,99 @@ public final class SemanticCore implements SPARQLEndpoint {
 		}
 	}
 
+	/**
+	 * Releases a previously allocated core, similar to {@link #release()}. But if the core has been released as many
+	 * times as it has been allocated, and the core is {@link #isReopenable() reopenable}, the core is only evicted
+	 * instead of closed. So the persisted data remains available and will be reopened if the core is accessed again.
+	 *
+	 * @see #release()
+	 * @see #evict()
+	 */
+	public void releaseAndEvict() {
+		long counter = allocationCounter.decrementAndGet();
+		if (counter == 0) {
+			if (reopenable) {
+				evict();
+			}
+			else {
+				close();
+			}
+		}
+	}
+
+	/**
+	 * Evicts this semantic core, if it is not allocated and there are no open connections. If the core is {@link
+	 * #isReopenable() reopenable}, the underlying repository is shut down, but its persisted data is kept, and the
+	 * repository is reopened from its data directory the next time the core is accessed. Otherwise the core is
+	 * closed, as if {@link #requestShutdown()} was called.
+	 *
+	 * @return true if the core has been evicted, false if it is in use or not active
+	 * @see #setEvictionPolicy(Duration, long)
+	 */
+	public synchronized boolean evict() {
+		if (state != State.active || isAllocated()) return false;
+		// mark as evicted before checking the connections, so any concurrent connection request
+		// will either be detected here, or has to wait for reopening the repository
+		state = State.evicted;
+		if (openConnections.get() > 0) {
+			state = State.active;
+			return false;
+		}
+		if (!reopenable) {
+			close();
+			return true;
+		}
+		try {
+			repository.shutDown();
+			LOGGER.info("Evicted SemanticCore " + repositoryId);
+		}
+		catch (RepositoryException e) {
+			LOGGER.error("Exception while evicting repository " + repositoryId, e);
+		}
+		return true;
+	}
+
+	private synchronized Repository reopen() {
+		if (state == State.evicted) {
+			Stopwatch stopwatch = new Stopwatch();
+			Repository reopened;
+			try {
+				// the manager creates a new repository instance, based on the existing data directory
+				reopened = repositoryManager.getRepository(repositoryId);
+			}
+			catch (RDF4JException e) {
+				throw new RepositoryException("Cannot reopen evicted repository " + repositoryId, e);
+			}
+			if (reopened == null) {
+				throw new RepositoryException("Evicted repository " + repositoryId + " no longer exists");
+			}
+			repository = reopened;
+			state = State.active;
+			LOGGER.info("Reopened SemanticCore " + repositoryId + " in " + stopwatch.getDisplay());
+		}
+		return repository;
+	}
+
+	private Repository getActiveRepository() {
+		return (state == State.evicted) ? reopen() : repository;
+	}
+
+	private long estimateMemory() {
+		// only recount the statements if the core has been accessed since the last estimation
+		if (estimatedMemory < 0 || lastAccess > estimatedMemoryTime) {
+			estimatedMemoryTime = System.currentTimeMillis();
+			try (org.eclipse.rdf4j.repository.RepositoryConnection connection = repository.getConnection()) {
+				long bytesPerStatement = reopenable ? NATIVE_STORE_BYTES_PER_STATEMENT : MEMORY_STORE_BYTES_PER_STATEMENT;
+				estimatedMemory = connection.size() * bytesPerStatement;
+			}
+			catch (RepositoryException e) {
+				LOGGER.warn("Cannot estimate memory of repository " + repositoryId, e);
+				estimatedMemory = 0;
+			}
+		}
+		return estimatedMemory;
+	}
+
 	/**
 	 * Shuts down this semantic core, if it is not allocated. In this case destroys this instance so that is should not
 	 * be used any longer. It is also removed from the internal SemanticCore caches. If this instance is allocated at
@@ -359,14 +639,25 @@ public final class SemanticCore implements SPARQLEndpoint {
 
 	@Override
 	public ValueFactory getValueFactory() {
-		return repository.getValueFactory();
+		return getActiveRepository().getValueFactory();
 	}
 
 	public RepositoryConnection getConnection() throws RepositoryException {
 		// check state also before synchronizing to avoid having to wait for connection shutdown
 		// just to learn that the core is already shut down
 		if (state == State.shutdown) throwShutdownException();
-		return new RepositoryConnection(repository.getConnection());
+		lastAccess = System.currentTimeMillis();
+		// count the connection before accessing the repository, so that it cannot be evicted concurrently
+		openConnections.incrementAndGet();
+		try {
+			Repository repository = getActiveRepository();
+			if (state == State.shutdown) throwShutdownException();
+			return new CountedRepositoryConnection(repository.getConnection());
+		}
+		catch (RuntimeException e) {
+			openConnections.decrementAndGet();
+			throw e;
+		}
 	}
 
 	private void throwShutdownException() throws RepositoryException {
@@ -695,6 +986,30 @@ public final class SemanticCore implements SPARQLEndpoint {
 		return shortURI;
 	}
 
+	/**
+	 * Connection that keeps track of the open connections of this core, to never evict a core that is in use.
+	 */
+	private class CountedRepositoryConnection extends RepositoryConnection {
+
+		private final AtomicBoolean closed = new AtomicBoolean(false);
+
+		private CountedRepositoryConnection(org.eclipse.rdf4j.repository.RepositoryConnection connection) {
+			super(connection);
+		}
+
+		@Override
+		public void close() throws RepositoryException {
+			try {
+				super.close();
+			}
+			finally {
+				if (closed.compareAndSet(false, true)) {
+					openConnections.decrementAndGet();
+				}
+			}
+		}
+	}
+
 	private interface DataAdder {
 
 		void run(org.eclipse.rdf4j.repository.RepositoryConnection connection) throws IOException, RDFParseException, RepositoryException;
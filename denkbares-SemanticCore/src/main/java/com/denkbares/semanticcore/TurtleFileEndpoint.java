@@ -31,6 +31,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.rio.RDFFormat;
@@ -40,12 +41,18 @@ import org.jetbrains.annotations.Nullable;
 
 import com.denkbares.semanticcore.config.RepositoryConfig;
 import com.denkbares.semanticcore.sparql.AbstractDelegateEndpoint;
+import com.denkbares.util.nio.Paths;
 import com.denkbares.utils.Stopwatch;
 import com.denkbares.utils.Streams;
 
 /**
  * Implementation of a SesameEndpoint for a single turtle file that gets the connection from the SemanticCore and
  * handles its allocation/release well.
+ * <p>
+ * If the endpoint is created from files, the content hash of the files is remembered at the core. If the core is
+ * {@link SemanticCore#isReopenable() reopenable}, closing the endpoint only evicts the core, and a new endpoint for
+ * the same ontology reuses the persisted repository instead of parsing the files again, as long as the content hash
+ * of the files is unchanged.
  */
 public class TurtleFileEndpoint extends AbstractDelegateEndpoint {
 
@@ -103,8 +110,7 @@ public class TurtleFileEndpoint extends AbstractDelegateEndpoint {
 	 * @throws IOException if the turtle could not be loaded or the repository could not be created
 	 */
 	public TurtleFileEndpoint(Path source, RepositoryConfig reasoning, String ontologyName, @Nullable File tempFolder) throws IOException {
-		this(Collections.singleton(new BufferedReader(new InputStreamReader(new FileInputStream(source.toFile()), StandardCharsets.UTF_8))),
-				reasoning, true, ontologyName, tempFolder);
+		this(ontologyName, openCore(Collections.singleton(source), reasoning, ontologyName, tempFolder));
 	}
 
 	/**
@@ -156,6 +162,11 @@ public class TurtleFileEndpoint extends AbstractDelegateEndpoint {
 		stopwatch.log("Created " + this.getClass().getSimpleName());
 	}
 
+	private TurtleFileEndpoint(String ontologyName, SemanticCore sc) {
+		this.ontologyName = ontologyName;
+		this.sc = sc;
+	}
+
 	/**
 	 * Creates a new endpoint by loading the turtle files into a newly created semantic core. The ontologyName should be
 	 * unique otherwise a semantic core with that id will be reused, if there is any.
@@ -167,11 +178,62 @@ public class TurtleFileEndpoint extends AbstractDelegateEndpoint {
 	 * @throws IOException if the turtle could not be loaded or the repository could not be created
 	 */
 	public static TurtleFileEndpoint fromPaths(Collection<Path> sources, RepositoryConfig reasoning, String ontologyName, @Nullable File tempFolder) throws IOException {
+		return new TurtleFileEndpoint(ontologyName, openCore(sources, reasoning, ontologyName, tempFolder));
+	}
+
+	/**
+	 * Returns the allocated semantic core for the specified turtle files. If there is already a core for the ontology
+	 * that has been loaded from the files with the same content hash, the core is reused (and reopened if it has been
+	 * evicted). Otherwise the files are loaded into the core.
+	 */
+	private static SemanticCore openCore(Collection<Path> sources, RepositoryConfig reasoning, String ontologyName, @Nullable File tempFolder) throws IOException {
+		Stopwatch stopwatch = new Stopwatch();
+		String sourceHash = createSourceHash(sources);
+		SemanticCore core = SemanticCore.getOrCreateInstance(ontologyName, reasoning, tempFolder);
+		if (core.getSourceHash() != null && !sourceHash.equals(core.getSourceHash()) && !core.isAllocated()) {
+			// the (persisted) core is outdated, and nobody else uses it, so drop it and load the sources into a new one
+			core.close();
+			core = SemanticCore.getOrCreateInstance(ontologyName, reasoning, tempFolder);
+		}
+		boolean shared = core.isAllocated();
+		// allocate core early, to not get it evicted while loading
+		core.allocate();
+		if (sourceHash.equals(core.getSourceHash())) {
+			stopwatch.log("Reused repository of " + TurtleFileEndpoint.class.getSimpleName() + " " + ontologyName);
+			return core;
+		}
+
 		Collection<Reader> streams = new ArrayList<>(sources.size());
+		try {
+			for (Path source : sources) {
+				streams.add(new BufferedReader(new InputStreamReader(new FileInputStream(source.toFile()), StandardCharsets.UTF_8)));
+			}
+			for (Reader stream : streams) {
+				core.addData(stream, RDFFormat.TURTLE);
+			}
+		}
+		catch (IOException | RepositoryException | RDFParseException e) {
+			core.release();
+			if (e instanceof IOException) throw (IOException) e;
+			throw new IOException("cannot initialize ontology from resource stream", e);
+		}
+		finally {
+			for (Reader stream : streams) {
+				Streams.closeQuietly(stream);
+			}
+		}
+		// only remember the hash if the core contains exactly the data of the sources
+		core.setSourceHash(shared ? null : sourceHash);
+		stopwatch.log("Created " + TurtleFileEndpoint.class.getSimpleName());
+		return core;
+	}
+
+	private static String createSourceHash(Collection<Path> sources) throws IOException {
+		List<String> hashes = new ArrayList<>(sources.size());
 		for (Path source : sources) {
-			streams.add(new BufferedReader(new InputStreamReader(new FileInputStream(source.toFile()), StandardCharsets.UTF_8)));
+			hashes.add(Long.toHexString(Paths.getContentHash(source, false)));
 		}
-		return new TurtleFileEndpoint(streams, reasoning, true, ontologyName, tempFolder);
+		return String.join("-", hashes);
 	}
 
 	/**
@@ -210,15 +272,17 @@ public class TurtleFileEndpoint extends AbstractDelegateEndpoint {
 
 	@Override
 	public synchronized void close() throws RepositoryException {
+		if (sc == null) return;
 		try {
-			sc.close();
+			// keep the core of unchanged sources for reuse, if it can be reopened, otherwise shut it down
+			if (sc.getSourceHash() == null || !sc.isReopenable()) {
+				sc.close();
+			}
 		}
 		finally {
 			// release core when this instance is closed, but only once!
-			if (sc != null) {
-				sc.release();
-				sc = null;
-			}
+			sc.releaseAndEvict();
+			sc = null;
 		}
 	}
 }
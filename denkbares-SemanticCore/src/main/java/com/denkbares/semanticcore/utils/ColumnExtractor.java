@@ -0,0 +1,451 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.semanticcore.utils;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.base.CoreDatatype;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryEvaluationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.denkbares.semanticcore.CachedTupleQueryResult;
+import com.denkbares.semanticcore.ClosableTupleQueryResult;
+
+/**
+ * Extracts columns of a query result into primitive arrays, iterating the query result only once. In contrast to the
+ * single value methods of {@link Sparqls}, the values are not boxed, and literals of the common numeric xsd datatypes
+ * are converted directly, without parsing their label again. Cells that are unbound, or that cannot be converted, are
+ * marked in the null mask of the column.
+ * <p>
+ * Usage:
+ * <pre>
+ * ColumnExtractor extractor = new ColumnExtractor();
+ * IntColumn ids = extractor.addInteger("id");
+ * DoubleColumn weights = extractor.addDouble("weight");
+ * extractor.extract(queryResult);
+ * </pre>
+ *
+ * @created 19.10.2026
+ */
+public class ColumnExtractor {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final List<Column> columns = new ArrayList<>();
+	private boolean extracted = false;
+	private int rows = 0;
+
+	/**
+	 * Adds a column that extracts the values of the specified variable as int numbers.
+	 *
+	 * @param variable the name of the binding (sparql variable name without the leading "?")
+	 * @return the column that will be filled by {@link #extract(ClosableTupleQueryResult)}
+	 */
+	public IntColumn addInteger(String variable) {
+		return add(new IntColumn(variable));
+	}
+
+	/**
+	 * Adds a column that extracts the values of the specified variable as double numbers.
+	 *
+	 * @param variable the name of the binding (sparql variable name without the leading "?")
+	 * @return the column that will be filled by {@link #extract(ClosableTupleQueryResult)}
+	 */
+	public DoubleColumn addDouble(String variable) {
+		return add(new DoubleColumn(variable));
+	}
+
+	/**
+	 * Adds a column that extracts the values of the specified variable as epoch milliseconds. Date and date time
+	 * literals without time zone are interpreted as UTC, dates are taken at the start of the day in their time zone.
+	 * Numeric literals are used as epoch milliseconds directly, decimal values are rounded to whole milliseconds.
+	 *
+	 * @param variable the name of the binding (sparql variable name without the leading "?")
+	 * @return the column that will be filled by {@link #extract(ClosableTupleQueryResult)}
+	 */
+	public LongColumn addEpochMillis(String variable) {
+		return add(new LongColumn(variable));
+	}
+
+	/**
+	 * Adds a column that extracts the values of the specified variable as uris, see {@link Sparqls#asURI(Value)}.
+	 *
+	 * @param variable the name of the binding (sparql variable name without the leading "?")
+	 * @return the column that will be filled by {@link #extract(ClosableTupleQueryResult)}
+	 */
+	public URIColumn addURI(String variable) {
+		return add(new URIColumn(variable));
+	}
+
+	private <C extends Column> C add(C column) {
+		if (extracted) throw new IllegalStateException("columns cannot be added after extraction");
+		columns.add(column);
+		return column;
+	}
+
+	/**
+	 * Iterates the complete query result and fills all added columns. The specified queryResult ist not (!)
+	 * automatically closed. The extractor can only be used once.
+	 *
+	 * @param queryResult the query result to be iterated
+	 * @return the number of rows extracted
+	 * @throws QueryEvaluationException if the query could not been iterated correctly
+	 */
+	public int extract(ClosableTupleQueryResult queryResult) throws QueryEvaluationException {
+		if (extracted) throw new IllegalStateException("extractor has already been used");
+		extracted = true;
+		if (queryResult instanceof CachedTupleQueryResult) {
+			((CachedTupleQueryResult) queryResult).resetIterator();
+		}
+		Column[] columns = this.columns.toArray(new Column[0]);
+		int row = 0;
+		while (queryResult.hasNext()) {
+			BindingSet bindingSet = queryResult.next();
+			for (Column column : columns) {
+				Value value = bindingSet.getValue(column.variable);
+				if (value == null || !column.set(row, value)) {
+					column.unbound.set(row);
+				}
+			}
+			row++;
+		}
+		for (Column column : columns) {
+			column.trim(row);
+		}
+		this.rows = row;
+		return row;
+	}
+
+	/**
+	 * Returns the number of extracted rows.
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	private static boolean isIntegerType(CoreDatatype datatype) {
+		return datatype == CoreDatatype.XSD.INT || datatype == CoreDatatype.XSD.INTEGER
+				|| datatype == CoreDatatype.XSD.LONG || datatype == CoreDatatype.XSD.SHORT
+				|| datatype == CoreDatatype.XSD.BYTE;
+	}
+
+	private static boolean isDecimalType(CoreDatatype datatype) {
+		return datatype == CoreDatatype.XSD.DOUBLE || datatype == CoreDatatype.XSD.FLOAT
+				|| datatype == CoreDatatype.XSD.DECIMAL;
+	}
+
+	/**
+	 * Base class of a column of primitive values, with a null mask of the rows that have no (valid) value.
+	 */
+	public abstract static class Column {
+		private final String variable;
+		private final BitSet unbound = new BitSet();
+		private int size = 0;
+
+		private Column(String variable) {
+			this.variable = variable;
+		}
+
+		/**
+		 * Returns the name of the variable of this column.
+		 */
+		public String getVariable() {
+			return variable;
+		}
+
+		/**
+		 * Returns the number of rows in this column.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Returns true if the specified row has a valid value in this column, false if the cell is unbound, or the
+		 * value could not be converted.
+		 *
+		 * @param row the row index
+		 * @return if there is a value for the row
+		 */
+		public boolean isBound(int row) {
+			return !unbound.get(row);
+		}
+
+		/**
+		 * Returns the null mask of this column, with all rows set that have no valid value. The returned mask must not
+		 * be modified.
+		 */
+		@NotNull
+		public BitSet getUnbound() {
+			return unbound;
+		}
+
+		/**
+		 * Sets the value of the specified row, and returns false if the value cannot be converted.
+		 */
+		abstract boolean set(int row, Value value);
+
+		abstract void trim(int size);
+
+		void setSize(int size) {
+			this.size = size;
+		}
+
+		static int grow(int length, int row) {
+			return (row < length) ? length : Math.max(INITIAL_CAPACITY, Math.max(row + 1, length * 2));
+		}
+	}
+
+	/**
+	 * Column of int values. Unbound cells have the value 0.
+	 */
+	public static final class IntColumn extends Column {
+		private int[] values = new int[0];
+
+		private IntColumn(String variable) {
+			super(variable);
+		}
+
+		@Override
+		boolean set(int row, Value value) {
+			if (row >= values.length) values = Arrays.copyOf(values, grow(values.length, row));
+			if (value instanceof Literal && isIntegerType(((Literal) value).getCoreDatatype())) {
+				try {
+					values[row] = ((Literal) value).intValue();
+					return true;
+				}
+				catch (NumberFormatException e) {
+					return false;
+				}
+			}
+			try {
+				values[row] = Integer.parseInt(value.stringValue());
+				return true;
+			}
+			catch (NumberFormatException e) {
+				return false;
+			}
+		}
+
+		@Override
+		void trim(int size) {
+			values = Arrays.copyOf(values, size);
+			setSize(size);
+		}
+
+		/**
+		 * Returns the value of the specified row, or 0 if the cell is unbound.
+		 */
+		public int get(int row) {
+			return values[row];
+		}
+
+		/**
+		 * Returns the values of this column. The returned array must not be modified.
+		 */
+		public int[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Column of double values. Unbound cells have the value {@link Double#NaN}.
+	 */
+	public static final class DoubleColumn extends Column {
+		private double[] values = new double[0];
+
+		private DoubleColumn(String variable) {
+			super(variable);
+		}
+
+		@Override
+		boolean set(int row, Value value) {
+			if (row >= values.length) {
+				int length = values.length;
+				values = Arrays.copyOf(values, grow(length, row));
+				Arrays.fill(values, length, values.length, Double.NaN);
+			}
+			if (value instanceof Literal) {
+				CoreDatatype datatype = ((Literal) value).getCoreDatatype();
+				if (isDecimalType(datatype) || isIntegerType(datatype)) {
+					try {
+						values[row] = ((Literal) value).doubleValue();
+						return true;
+					}
+					catch (NumberFormatException ignore) {
+					}
+				}
+			}
+			try {
+				values[row] = Double.parseDouble(value.stringValue());
+				return true;
+			}
+			catch (NumberFormatException e) {
+				return false;
+			}
+		}
+
+		@Override
+		void trim(int size) {
+			int length = values.length;
+			values = Arrays.copyOf(values, size);
+			if (length < size) Arrays.fill(values, length, size, Double.NaN);
+			setSize(size);
+		}
+
+		/**
+		 * Returns the value of the specified row, or {@link Double#NaN} if the cell is unbound.
+		 */
+		public double get(int row) {
+			return values[row];
+		}
+
+		/**
+		 * Returns the values of this column. The returned array must not be modified.
+		 */
+		public double[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Column of epoch milliseconds. Unbound cells have the value 0.
+	 */
+	public static final class LongColumn extends Column {
+		private long[] values = new long[0];
+
+		private LongColumn(String variable) {
+			super(variable);
+		}
+
+		@Override
+		boolean set(int row, Value value) {
+			if (row >= values.length) values = Arrays.copyOf(values, grow(values.length, row));
+			if (!(value instanceof Literal)) return false;
+			Literal literal = (Literal) value;
+			CoreDatatype datatype = literal.getCoreDatatype();
+			try {
+				if (isIntegerType(datatype)) {
+					values[row] = literal.longValue();
+				}
+				else if (isDecimalType(datatype)) {
+					double millis = literal.doubleValue();
+					if (!Double.isFinite(millis)) return false;
+					values[row] = Math.round(millis);
+				}
+				else if (datatype == CoreDatatype.XSD.DATE) {
+					TemporalAccessor date = DateTimeFormatter.ISO_DATE.parse(literal.getLabel());
+					ZoneOffset offset = date.isSupported(ChronoField.OFFSET_SECONDS) ? ZoneOffset.from(date) : ZoneOffset.UTC;
+					values[row] = LocalDate.from(date).atStartOfDay().toInstant(offset).toEpochMilli();
+				}
+				else {
+					values[row] = parseDateTime(literal.getLabel());
+				}
+				return true;
+			}
+			catch (NumberFormatException | DateTimeParseException e) {
+				return false;
+			}
+		}
+
+		private static long parseDateTime(String label) {
+			TemporalAccessor dateTime = DateTimeFormatter.ISO_DATE_TIME.parseBest(label, OffsetDateTime::from, LocalDateTime::from);
+			if (dateTime instanceof OffsetDateTime) {
+				return ((OffsetDateTime) dateTime).toInstant().toEpochMilli();
+			}
+			return ((LocalDateTime) dateTime).toInstant(ZoneOffset.UTC).toEpochMilli();
+		}
+
+		@Override
+		void trim(int size) {
+			values = Arrays.copyOf(values, size);
+			setSize(size);
+		}
+
+		/**
+		 * Returns the value of the specified row, or 0 if the cell is unbound.
+		 */
+		public long get(int row) {
+			return values[row];
+		}
+
+		/**
+		 * Returns the values of this column. The returned array must not be modified.
+		 */
+		public long[] getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * Column of uris. Unbound cells have the value null.
+	 */
+	public static final class URIColumn extends Column {
+		private URI[] values = new URI[0];
+
+		private URIColumn(String variable) {
+			super(variable);
+		}
+
+		@Override
+		boolean set(int row, Value value) {
+			if (row >= values.length) values = Arrays.copyOf(values, grow(values.length, row));
+			values[row] = Sparqls.asURI(value);
+			return values[row] != null;
+		}
+
+		@Override
+		void trim(int size) {
+			values = Arrays.copyOf(values, size);
+			setSize(size);
+		}
+
+		/**
+		 * Returns the value of the specified row, or null if the cell is unbound.
+		 */
+		@Nullable
+		public URI get(int row) {
+			return values[row];
+		}
+
+		/**
+		 * Returns the values of this column. The returned array must not be modified.
+		 */
+		public URI[] getValues() {
+			return values;
+		}
+	}
+}
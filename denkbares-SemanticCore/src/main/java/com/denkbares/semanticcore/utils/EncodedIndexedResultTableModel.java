@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.semanticcore.utils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.model.Value;
+import org.jetbrains.annotations.NotNull;
+
+import com.denkbares.semanticcore.TupleQueryResult;
+
+/**
+ * Variant of the {@link IndexedResultTableModel} that uses a dictionary encoded index. The values of the key variable
+ * are interned to int ids, and the rows are grouped by these ids in flat int arrays, instead of creating a list for each
+ * key value. This is much more compact for large tables with many distinct keys.
+ *
+ * @created 19.10.2026
+ */
+public class EncodedIndexedResultTableModel extends ResultTableModel {
+
+	private final String keyVariable;
+	private final TableRow[] rows;
+	private final ValueDictionary keys;
+	private final int[] keyIds;
+	private final RowIndex index;
+
+	public EncodedIndexedResultTableModel(@NotNull List<TableRow> rows, @NotNull List<String> variables, @NotNull String keyVariable) {
+		super(rows, variables);
+		this.keyVariable = keyVariable;
+		this.rows = rows.toArray(new TableRow[0]);
+		this.keys = new ValueDictionary(this.rows.length);
+		this.keyIds = new int[this.rows.length];
+		for (int i = 0; i < this.rows.length; i++) {
+			this.keyIds[i] = this.keys.intern(this.rows[i].getValue(keyVariable));
+		}
+		this.index = RowIndex.group(this.keyIds, this.keys.size());
+	}
+
+	/**
+	 * Returns an unmodifiable list of all rows that have the specified value for the key variable.
+	 */
+	public final List<TableRow> getRowsForKey(Value key) {
+		return this.index.getRows(this.rows, this.keys.getId(key));
+	}
+
+	/**
+	 * Returns the id of the specified value of the key variable, or -1 if there is no row with that key value.
+	 */
+	public int getKeyId(Value key) {
+		return this.keys.getId(key);
+	}
+
+	/**
+	 * Returns the id of the key value of the row with the specified index.
+	 */
+	public int getKeyId(int rowIndex) {
+		return this.keyIds[rowIndex];
+	}
+
+	/**
+	 * Returns the number of distinct values of the key variable.
+	 */
+	public int getKeyCount() {
+		return this.keys.size();
+	}
+
+	/**
+	 * Returns the dictionary of the values of the key variable.
+	 */
+	@NotNull
+	public ValueDictionary getKeyDictionary() {
+		return this.keys;
+	}
+
+	/**
+	 * Returns the row with the specified index.
+	 */
+	public TableRow getRow(int rowIndex) {
+		return this.rows[rowIndex];
+	}
+
+	public static EncodedIndexedResultTableModel create(TupleQueryResult result) {
+		final List<String> variables = result.getBindingNames();
+		final String keyVariable = variables.get(0);
+		List<TableRow> rows = result.getBindingSets()
+				.stream()
+				.map(bs -> createRowFromBindingSet(bs, variables))
+				.collect(Collectors.toList());
+		return new EncodedIndexedResultTableModel(rows, variables, keyVariable);
+	}
+
+	public String getKeyVariable() {
+		return this.keyVariable;
+	}
+
+	@Override
+	protected ResultTableModel createResultTableModel(List<TableRow> rows, List<String> variables) {
+		return new EncodedIndexedResultTableModel(rows, variables, this.keyVariable);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.semanticcore.utils;
+
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.base.CoreDatatype;
+
+import com.denkbares.strings.Strings;
+
+/**
+ * Variant of the {@link ResultTableHierarchy} for large hierarchies. The subjects are interned to int ids, the
+ * parent/child links are stored in flat int arrays, and the sort keys are computed only once per row. The roots and
+ * children are sorted once when the hierarchy is created, using the same order as the {@link ResultTableHierarchy}.
+ * <p>
+ * As for the {@link ResultTableHierarchy}, the first column of the data is the subject of the row, and the second column
+ * is the subject of the parent row. The rows are sorted by the column {@link ResultTableHierarchy#SORT_VALUE} if
+ * existing, otherwise by the subject.
+ *
+ * @created 19.10.2026
+ */
+public class EncodedResultTableHierarchy {
+
+	private final String subjectColumn;
+	private final TableRow[] rows;
+	private final ValueDictionary subjects;
+	private final int[] subjectIds;
+	private final RowIndex children;
+	private final int[] roots;
+
+	// precomputed sort keys of each row
+	private final boolean[] isInteger;
+	private final int[] integerKeys;
+	private final boolean[] isParsable;
+	private final int[] parsedKeys;
+	private final String[] stringKeys;
+
+	public EncodedResultTableHierarchy(ResultTableModel data) {
+		int size = data.getSize();
+		this.rows = new TableRow[size];
+		int index = 0;
+		for (TableRow row : data) {
+			this.rows[index++] = row;
+		}
+
+		// the first column is supposed to be the row identifier = subject
+		// note that the subject may not be unique
+		List<String> variables = data.getVariables();
+		String subjectColumn = variables.get(0);
+		this.subjectColumn = subjectColumn;
+		this.subjects = new ValueDictionary(size);
+		this.subjectIds = new int[size];
+		for (int i = 0; i < size; i++) {
+			this.subjectIds[i] = this.subjects.intern(this.rows[i].getValue(subjectColumn));
+		}
+
+		// link each row to the subject of its parent, rows without parent are roots
+		String parentColumn = variables.get(1);
+		int[] parentIds = new int[size];
+		int rootCount = 0;
+		for (int i = 0; i < size; i++) {
+			parentIds[i] = this.subjects.getId(this.rows[i].getValue(parentColumn));
+			if (parentIds[i] < 0) rootCount++;
+		}
+		this.children = RowIndex.group(parentIds, this.subjects.size());
+		this.roots = new int[rootCount];
+		for (int i = 0, r = 0; i < size; i++) {
+			if (parentIds[i] < 0) this.roots[r++] = i;
+		}
+
+		// compute the sort keys, then sort all rows once, to get the unique rank of each row
+		String sortColumn = variables.contains(ResultTableHierarchy.SORT_VALUE)
+				? ResultTableHierarchy.SORT_VALUE : subjectColumn;
+		this.isInteger = new boolean[size];
+		this.integerKeys = new int[size];
+		this.isParsable = new boolean[size];
+		this.parsedKeys = new int[size];
+		this.stringKeys = new String[size];
+		for (int i = 0; i < size; i++) {
+			initSortKey(i, this.rows[i].getValue(sortColumn));
+		}
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		mergeSort(order, new int[size], 0, size);
+		int[] ranks = new int[size];
+		for (int rank = 0; rank < size; rank++) {
+			ranks[order[rank]] = rank;
+		}
+		RowIndex.sortByRank(this.roots, 0, rootCount, ranks, order);
+		this.children.sortGroups(ranks, order);
+	}
+
+	private void initSortKey(int row, Value value) {
+		if (value instanceof Literal && ((Literal) value).getCoreDatatype() == CoreDatatype.XSD.INTEGER) {
+			Integer integer = parseInteger(((Literal) value).getLabel());
+			if (integer != null) {
+				this.isInteger[row] = true;
+				this.integerKeys[row] = integer;
+			}
+		}
+		String string = (value == null) ? "" : Strings.unquote(value.toString());
+		Integer parsed = parseInteger(string);
+		if (parsed != null) {
+			this.isParsable[row] = true;
+			this.parsedKeys[row] = parsed;
+		}
+		this.stringKeys[row] = string;
+	}
+
+	private static Integer parseInteger(String text) {
+		try {
+			return Integer.parseInt(text);
+		}
+		catch (NumberFormatException e) {
+			// cannot be parsed as Integer, hence to String sorting
+			return null;
+		}
+	}
+
+	private int compare(int row1, int row2) {
+		if (this.isInteger[row1] && this.isInteger[row2]) {
+			return Integer.compare(this.integerKeys[row1], this.integerKeys[row2]);
+		}
+		if (this.isParsable[row1] && this.isParsable[row2]) {
+			return Integer.compare(this.parsedKeys[row1], this.parsedKeys[row2]);
+		}
+		return this.stringKeys[row1].compareTo(this.stringKeys[row2]);
+	}
+
+	/**
+	 * Stable merge sort of the row indices, to keep rows of the same sort key in their original order.
+	 */
+	private void mergeSort(int[] rows, int[] buffer, int from, int to) {
+		if (to - from < 8) {
+			// insertion sort for small ranges
+			for (int i = from + 1; i < to; i++) {
+				int row = rows[i];
+				int j = i;
+				while (j > from && compare(rows[j - 1], row) > 0) {
+					rows[j] = rows[j - 1];
+					j--;
+				}
+				rows[j] = row;
+			}
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		mergeSort(rows, buffer, from, middle);
+		mergeSort(rows, buffer, middle, to);
+		if (compare(rows[middle - 1], rows[middle]) <= 0) return;
+		System.arraycopy(rows, from, buffer, from, to - from);
+		int left = from, right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+				rows[i] = buffer[left++];
+			}
+			else {
+				rows[i] = buffer[right++];
+			}
+		}
+	}
+
+	/**
+	 * Returns an unmodifiable, sorted list of the root rows.
+	 */
+	public List<TableRow> getRoots() {
+		return new RowIndex.RowList(this.rows, this.roots, 0, this.roots.length);
+	}
+
+	/**
+	 * Returns an unmodifiable, sorted list of the children of the specified row.
+	 */
+	public List<TableRow> getChildren(TableRow row) {
+		return getChildren(row.getValue(this.subjectColumn));
+	}
+
+	/**
+	 * Returns an unmodifiable, sorted list of the children of the rows with the specified subject.
+	 */
+	public List<TableRow> getChildren(Value subject) {
+		return this.children.getRows(this.rows, this.subjects.getId(subject));
+	}
+}
@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.Value;
@@ -127,17 +126,21 @@ public class ResultTableChecker {
 	}
 
 	/**
-	 * Checks that each row in the expected table is contained in the actual table
+	 * Checks that each row in the expected table is contained in the actual table. The actual rows are counted in a
+	 * hash multiset, so each expected row is matched in constant time, and each actual row is only matched once.
 	 */
 	private static void doCheckSubset(ResultTableModel expectedResultTable, ResultTableModel actualResultTable, List<Failure> findings) {
-		final List<TableRow> actualRows = actualResultTable.rows().collect(Collectors.toList());
+		final Map<RowKey, int[]> actualRows = new HashMap<>(actualResultTable.getSize() * 2);
+		for (TableRow actualRow : actualResultTable) {
+			actualRows.computeIfAbsent(new RowKey(actualRow), k -> new int[1])[0]++;
+		}
 
 		expectedResultTable.rows().filter(row -> !containsBlankNode(row)).forEach(expectedRow -> {
-			int actualIndex = findRow(expectedRow, actualRows);
-			if (actualIndex >= 0) {
+			int[] count = actualRows.get(new RowKey(expectedRow));
+			if (count != null && count[0] > 0) {
 				// we have found the row
-				// remove it from the list so it won't be found again
-				actualRows.remove(actualIndex);
+				// decrease the count so it won't be found again
+				count[0]--;
 			}
 			else {
 
@@ -190,15 +193,27 @@ public class ResultTableChecker {
 		return index;
 	}
 
-	private static int findRow(TableRow search, List<TableRow> rows) {
-		int i = 0;
-		for (TableRow current : rows) {
-			if (current.deepEquals(search)) {
-				return i;
-			}
-			i++;
+	/**
+	 * Wrapper for table rows to use them as hash keys, using {@link TableRow#deepEquals(TableRow)}.
+	 */
+	private static final class RowKey {
+		private final TableRow row;
+		private final int hash;
+
+		private RowKey(TableRow row) {
+			this.row = row;
+			this.hash = row.deepHashCode();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof RowKey && this.hash == ((RowKey) other).hash && this.row.deepEquals(((RowKey) other).row);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
 		}
-		return -1;
 	}
 
 	public static String generateErrorsText(List<Failure> failures) {
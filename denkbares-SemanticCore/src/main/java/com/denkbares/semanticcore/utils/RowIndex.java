@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.semanticcore.utils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Groups row indices by int keys, using two flat arrays (compressed sparse rows): the row indices, ordered by key, and
+ * the offsets of the first row of each key.
+ *
+ * @created 19.10.2026
+ */
+class RowIndex {
+
+	private final int[] offsets;
+	private final int[] rows;
+
+	private RowIndex(int[] offsets, int[] rows) {
+		this.offsets = offsets;
+		this.rows = rows;
+	}
+
+	/**
+	 * Groups the row indices by the specified keys, preserving the order of the rows within each group. Rows with a
+	 * negative key are not grouped.
+	 *
+	 * @param keys     the key of each row
+	 * @param keyCount the number of distinct keys, all keys must be below this number
+	 * @return the grouped rows
+	 */
+	static RowIndex group(int[] keys, int keyCount) {
+		int[] offsets = new int[keyCount + 1];
+		int grouped = 0;
+		for (int key : keys) {
+			if (key < 0) continue;
+			offsets[key + 1]++;
+			grouped++;
+		}
+		for (int key = 0; key < keyCount; key++) {
+			offsets[key + 1] += offsets[key];
+		}
+		int[] rows = new int[grouped];
+		int[] next = new int[keyCount];
+		System.arraycopy(offsets, 0, next, 0, keyCount);
+		for (int row = 0; row < keys.length; row++) {
+			int key = keys[row];
+			if (key >= 0) rows[next[key]++] = row;
+		}
+		return new RowIndex(offsets, rows);
+	}
+
+	int start(int key) {
+		return offsets[key];
+	}
+
+	int end(int key) {
+		return offsets[key + 1];
+	}
+
+	int row(int position) {
+		return rows[position];
+	}
+
+	int keyCount() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Sorts the rows within each group by the specified rank of each row.
+	 *
+	 * @param ranks the unique rank of each row
+	 * @param order the row of each rank, the inverse of ranks
+	 */
+	void sortGroups(int[] ranks, int[] order) {
+		for (int key = 0; key < keyCount(); key++) {
+			sortByRank(rows, offsets[key], offsets[key + 1], ranks, order);
+		}
+	}
+
+	static void sortByRank(int[] rows, int from, int to, int[] ranks, int[] order) {
+		for (int i = from; i < to; i++) {
+			rows[i] = ranks[rows[i]];
+		}
+		Arrays.sort(rows, from, to);
+		for (int i = from; i < to; i++) {
+			rows[i] = order[rows[i]];
+		}
+	}
+
+	/**
+	 * Returns an unmodifiable view of the table rows of the specified key.
+	 */
+	List<TableRow> getRows(TableRow[] tableRows, int key) {
+		if (key < 0 || key >= keyCount()) return Collections.emptyList();
+		return new RowList(tableRows, rows, offsets[key], offsets[key + 1]);
+	}
+
+	/**
+	 * Unmodifiable list view of a range of row indices, resolved to their table rows.
+	 */
+	static final class RowList extends AbstractList<TableRow> implements RandomAccess {
+		private final TableRow[] tableRows;
+		private final int[] rows;
+		private final int from;
+		private final int to;
+
+		RowList(TableRow[] tableRows, int[] rows, int from, int to) {
+			this.tableRows = tableRows;
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public TableRow get(int index) {
+			if (index < 0 || index >= to - from) throw new IndexOutOfBoundsException("index: " + index);
+			return tableRows[rows[from + index]];
+		}
+
+		@Override
+		public int size() {
+			return to - from;
+		}
+	}
+}
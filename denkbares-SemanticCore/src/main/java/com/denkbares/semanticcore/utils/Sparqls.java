@@ -307,7 +307,7 @@ public class Sparqls {
 			return Integer.parseInt(value.stringValue());
 		}
 		catch (NumberFormatException e) {
-			LOGGER.warn("cannot parse binding of '" + value + "' as float");
+			LOGGER.warn("cannot parse binding of '" + value + "' as integer");
 			return null;
 		}
 	}
@@ -591,6 +591,74 @@ public class Sparqls {
 				b -> valueExtractor.apply(b.getBinding(variable)));
 	}
 
+	/**
+	 * Iterates the complete query result and extracts the binding of the specified variable as int numbers into a
+	 * primitive array. The specified queryResult ist not (!) automatically closed. Use {@link ColumnExtractor} to
+	 * extract multiple columns at once.
+	 *
+	 * @param queryResult the query result to be iterated
+	 * @param variable    the name of the binding to be used (sparql variable name without the leading "?")
+	 * @return the column of the extracted values, including the null mask of the unbound cells
+	 * @throws QueryEvaluationException if the query could not been iterated correctly
+	 */
+	public static ColumnExtractor.IntColumn toIntColumn(ClosableTupleQueryResult queryResult, String variable) throws QueryEvaluationException {
+		ColumnExtractor extractor = new ColumnExtractor();
+		ColumnExtractor.IntColumn column = extractor.addInteger(variable);
+		extractor.extract(queryResult);
+		return column;
+	}
+
+	/**
+	 * Iterates the complete query result and extracts the binding of the specified variable as double numbers into a
+	 * primitive array. The specified queryResult ist not (!) automatically closed. Use {@link ColumnExtractor} to
+	 * extract multiple columns at once.
+	 *
+	 * @param queryResult the query result to be iterated
+	 * @param variable    the name of the binding to be used (sparql variable name without the leading "?")
+	 * @return the column of the extracted values, including the null mask of the unbound cells
+	 * @throws QueryEvaluationException if the query could not been iterated correctly
+	 */
+	public static ColumnExtractor.DoubleColumn toDoubleColumn(ClosableTupleQueryResult queryResult, String variable) throws QueryEvaluationException {
+		ColumnExtractor extractor = new ColumnExtractor();
+		ColumnExtractor.DoubleColumn column = extractor.addDouble(variable);
+		extractor.extract(queryResult);
+		return column;
+	}
+
+	/**
+	 * Iterates the complete query result and extracts the binding of the specified variable as epoch milliseconds into
+	 * a primitive array. The specified queryResult ist not (!) automatically closed. Use {@link ColumnExtractor} to
+	 * extract multiple columns at once.
+	 *
+	 * @param queryResult the query result to be iterated
+	 * @param variable    the name of the binding to be used (sparql variable name without the leading "?")
+	 * @return the column of the extracted values, including the null mask of the unbound cells
+	 * @throws QueryEvaluationException if the query could not been iterated correctly
+	 */
+	public static ColumnExtractor.LongColumn toEpochMillisColumn(ClosableTupleQueryResult queryResult, String variable) throws QueryEvaluationException {
+		ColumnExtractor extractor = new ColumnExtractor();
+		ColumnExtractor.LongColumn column = extractor.addEpochMillis(variable);
+		extractor.extract(queryResult);
+		return column;
+	}
+
+	/**
+	 * Iterates the complete query result and extracts the binding of the specified variable as uris into an array.
+	 * The specified queryResult ist not (!) automatically closed. Use {@link ColumnExtractor} to extract multiple
+	 * columns at once.
+	 *
+	 * @param queryResult the query result to be iterated
+	 * @param variable    the name of the binding to be used (sparql variable name without the leading "?")
+	 * @return the column of the extracted values, including the null mask of the unbound cells
+	 * @throws QueryEvaluationException if the query could not been iterated correctly
+	 */
+	public static ColumnExtractor.URIColumn toURIColumn(ClosableTupleQueryResult queryResult, String variable) throws QueryEvaluationException {
+		ColumnExtractor extractor = new ColumnExtractor();
+		ColumnExtractor.URIColumn column = extractor.addURI(variable);
+		extractor.extract(queryResult);
+		return column;
+	}
+
 	private static <V> void collect(ClosableTupleQueryResult queryResult, Function<BindingSet, V> valueExtractor, Collection<V> result) {
 		if (queryResult instanceof CachedTupleQueryResult) {
 			((CachedTupleQueryResult) queryResult).resetIterator();
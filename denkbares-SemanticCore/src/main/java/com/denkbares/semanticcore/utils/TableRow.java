@@ -76,6 +76,19 @@ public final class TableRow {
 		return true;
 	}
 
+	/**
+	 * Returns a hash code that is consistent with {@link #deepEquals(TableRow)}, so rows can be compared by hash
+	 * lookups. Variables bound to null are ignored, as they are not distinguishable from unbound variables.
+	 */
+	public int deepHashCode() {
+		int hash = 0;
+		for (Map.Entry<String, Value> valueEntry : this.values.entrySet()) {
+			Value value = valueEntry.getValue();
+			if (value != null) hash += valueEntry.getKey().hashCode() ^ value.hashCode();
+		}
+		return (hash * 31 + this.values.size()) * 31 + getVariables().size();
+	}
+
 	public List<String> getVariables() {
 		return this.variables;
 	}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.semanticcore.utils;
+
+import java.util.Arrays;
+
+import org.eclipse.rdf4j.model.Value;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Dictionary that interns rdf4j values to dense int ids, starting from 0, in the order of their first occurrence. The
+ * dictionary uses an open addressing hash table, so there are no objects allocated per entry. The value null is also
+ * supported and gets its own id.
+ *
+ * @created 19.10.2026
+ */
+public class ValueDictionary {
+
+	private Value[] values;
+	// the hash table contains the ids + 1, 0 marks empty slots
+	private int[] table;
+	private int size = 0;
+	private int nullId = -1;
+
+	public ValueDictionary() {
+		this(16);
+	}
+
+	/**
+	 * Creates a new dictionary with an initial capacity for the expected number of distinct values.
+	 *
+	 * @param expectedSize the expected number of distinct values
+	 */
+	public ValueDictionary(int expectedSize) {
+		this.values = new Value[Math.max(4, expectedSize)];
+		this.table = new int[tableSize(expectedSize)];
+	}
+
+	private static int tableSize(int expectedSize) {
+		// keep the load factor below 0.5, with a power of two for masking
+		return Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+	}
+
+	/**
+	 * Returns the id of the specified value, adding the value to the dictionary if it is not contained yet.
+	 *
+	 * @param value the value to get the id for
+	 * @return the id of the value
+	 */
+	public int intern(@Nullable Value value) {
+		if (value == null) {
+			if (nullId < 0) nullId = append(null);
+			return nullId;
+		}
+		int mask = table.length - 1;
+		int slot = hash(value) & mask;
+		while (table[slot] != 0) {
+			int id = table[slot] - 1;
+			if (value.equals(values[id])) return id;
+			slot = (slot + 1) & mask;
+		}
+		int id = append(value);
+		table[slot] = id + 1;
+		if (size * 2 > table.length) rehash();
+		return id;
+	}
+
+	/**
+	 * Returns the id of the specified value, or -1 if the value is not contained in this dictionary.
+	 *
+	 * @param value the value to get the id for
+	 * @return the id of the value or -1
+	 */
+	public int getId(@Nullable Value value) {
+		if (value == null) return nullId;
+		int mask = table.length - 1;
+		int slot = hash(value) & mask;
+		while (table[slot] != 0) {
+			int id = table[slot] - 1;
+			if (value.equals(values[id])) return id;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the value of the specified id.
+	 *
+	 * @param id the id of the value
+	 * @return the value of the id
+	 * @throws IndexOutOfBoundsException if there is no value for the id
+	 */
+	@Nullable
+	public Value getValue(int id) {
+		if (id < 0 || id >= size) throw new IndexOutOfBoundsException("no value for id " + id);
+		return values[id];
+	}
+
+	/**
+	 * Returns the number of distinct values in this dictionary, which is also the next id to be assigned.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private int append(Value value) {
+		if (size == values.length) values = Arrays.copyOf(values, size * 2);
+		values[size] = value;
+		return size++;
+	}
+
+	private void rehash() {
+		int[] table = new int[this.table.length * 2];
+		int mask = table.length - 1;
+		for (int id = 0; id < size; id++) {
+			Value value = values[id];
+			if (value == null) continue;
+			int slot = hash(value) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = id + 1;
+		}
+		this.table = table;
+	}
+
+	private static int hash(Value value) {
+		int hash = value.hashCode();
+		return hash ^ (hash >>> 16);
+	}
+}
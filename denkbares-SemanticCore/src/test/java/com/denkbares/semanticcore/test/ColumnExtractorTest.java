@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.semanticcore.test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.ListBindingSet;
+import org.junit.Test;
+
+import com.denkbares.semanticcore.CachedTupleQueryResult;
+import com.denkbares.semanticcore.utils.ColumnExtractor;
+
+import static org.junit.Assert.*;
+
+/**
+ * @created 19.10.2026
+ */
+public class ColumnExtractorTest {
+	private static final ValueFactory factory = SimpleValueFactory.getInstance();
+	private static final List<String> VARIABLES = Arrays.asList("int", "double", "date", "uri");
+
+	private static BindingSet row(Value... values) {
+		return new ListBindingSet(VARIABLES, values);
+	}
+
+	@Test
+	public void extractColumns() {
+		CachedTupleQueryResult result = new CachedTupleQueryResult(VARIABLES, Arrays.asList(
+				row(factory.createLiteral(1), factory.createLiteral(1.5), factory.createLiteral("1970-01-02", XSD.DATE), factory.createIRI("http://example.com/a")),
+				row(null, null, null, null),
+				row(factory.createLiteral("42"), factory.createLiteral("2", XSD.INTEGER), factory.createLiteral("1970-01-01T00:00:01Z", XSD.DATETIME), factory.createLiteral("b")),
+				row(factory.createLiteral("no number"), factory.createLiteral("x"), factory.createLiteral("no date"), null)
+		), new Date());
+
+		ColumnExtractor extractor = new ColumnExtractor();
+		ColumnExtractor.IntColumn ints = extractor.addInteger("int");
+		ColumnExtractor.DoubleColumn doubles = extractor.addDouble("double");
+		ColumnExtractor.LongColumn dates = extractor.addEpochMillis("date");
+		ColumnExtractor.URIColumn uris = extractor.addURI("uri");
+		assertEquals(4, extractor.extract(result));
+
+		assertArrayEquals(new int[] { 1, 0, 42, 0 }, ints.getValues());
+		assertArrayEquals(new double[] { 1.5, Double.NaN, 2, Double.NaN }, doubles.getValues(), 0);
+		assertArrayEquals(new long[] { 86_400_000L, 0, 1000, 0 }, dates.getValues());
+		assertEquals("http://example.com/a", String.valueOf(uris.get(0)));
+		assertNull(uris.get(1));
+
+		assertTrue(ints.isBound(0));
+		assertFalse(ints.isBound(1));
+		assertTrue(ints.isBound(2));
+		assertFalse(ints.isBound(3));
+		assertEquals(2, doubles.getUnbound().cardinality());
+		assertEquals(2, dates.getUnbound().cardinality());
+		assertEquals(2, uris.getUnbound().cardinality());
+	}
+
+	@Test
+	public void extractEpochMillis() {
+		CachedTupleQueryResult result = new CachedTupleQueryResult(VARIABLES, Arrays.asList(
+				row(null, null, factory.createLiteral("1500", XSD.DECIMAL), null),
+				row(null, null, factory.createLiteral("1500.6", XSD.DOUBLE), null),
+				row(null, null, factory.createLiteral("NaN", XSD.DOUBLE), null),
+				row(null, null, factory.createLiteral("1970-01-02+01:00", XSD.DATE), null),
+				row(null, null, factory.createLiteral("1970-01-02Z", XSD.DATE), null)
+		), new Date());
+
+		ColumnExtractor extractor = new ColumnExtractor();
+		ColumnExtractor.LongColumn dates = extractor.addEpochMillis("date");
+		assertEquals(5, extractor.extract(result));
+
+		assertArrayEquals(new long[] { 1500, 1501, 0, 82_800_000L, 86_400_000L }, dates.getValues());
+		assertFalse(dates.isBound(2));
+		assertEquals(1, dates.getUnbound().cardinality());
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.semanticcore.test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.denkbares.semanticcore.FutureSPARQLEndpoint;
+import com.denkbares.semanticcore.sparql.SPARQLEndpoint;
+
+import static org.junit.Assert.*;
+
+/**
+ * @created 19.10.2026
+ */
+public class FutureSPARQLEndpointTest {
+
+	private static SPARQLEndpoint createEndpoint(AtomicInteger closed) {
+		return (SPARQLEndpoint) Proxy.newProxyInstance(SPARQLEndpoint.class.getClassLoader(),
+				new Class<?>[] { SPARQLEndpoint.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "close":
+							closed.incrementAndGet();
+							return null;
+						case "getNamespaces":
+							return Collections.emptyList();
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	@Test
+	public void awaitReadyTimeout() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger created = new AtomicInteger();
+		FutureSPARQLEndpoint endpoint = new FutureSPARQLEndpoint(() -> {
+			created.incrementAndGet();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			return createEndpoint(new AtomicInteger());
+		});
+
+		assertFalse(endpoint.isReady());
+		assertFalse(endpoint.awaitReady(50, TimeUnit.MILLISECONDS));
+		assertFalse(endpoint.isReady());
+		// waiting again must not start another creation
+		assertFalse(endpoint.awaitReady(10, TimeUnit.MILLISECONDS));
+
+		release.countDown();
+		assertTrue(endpoint.awaitReady(10, TimeUnit.SECONDS));
+		assertTrue(endpoint.isReady());
+		assertEquals(Collections.emptyList(), endpoint.getNamespaces());
+		assertEquals(1, created.get());
+		endpoint.close();
+	}
+
+	@Test
+	public void creationFailure() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		FutureSPARQLEndpoint endpoint = new FutureSPARQLEndpoint(() -> {
+			if (attempts.incrementAndGet() < 4) throw new IOException("attempt " + attempts.get());
+			return createEndpoint(new AtomicInteger());
+		});
+
+		// the warm-up does not throw, but the endpoint is not ready
+		endpoint.warmUp(Runnable::run);
+		assertFalse(endpoint.isReady());
+		assertEquals(1, attempts.get());
+
+		// the failure is propagated to the waiting caller, a failed creation is retried
+		try {
+			endpoint.awaitReady(10, TimeUnit.SECONDS);
+			fail("expected QueryFailedException");
+		}
+		catch (SPARQLEndpoint.QueryFailedException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			assertEquals("attempt 2", e.getCause().getMessage());
+		}
+		assertFalse(endpoint.isReady());
+
+		// the failure is also propagated when accessing the endpoint
+		try {
+			endpoint.getNamespaces();
+			fail("expected QueryFailedException");
+		}
+		catch (SPARQLEndpoint.QueryFailedException e) {
+			assertEquals("attempt 3", e.getCause().getMessage());
+		}
+		assertFalse(endpoint.isReady());
+
+		// a later creation may succeed
+		assertTrue(endpoint.awaitReady(10, TimeUnit.SECONDS));
+		assertTrue(endpoint.isReady());
+		assertEquals(4, attempts.get());
+		endpoint.close();
+	}
+
+	@Test
+	public void creationRuntimeFailure() throws Exception {
+		FutureSPARQLEndpoint endpoint = new FutureSPARQLEndpoint(() -> {
+			throw new IllegalStateException("broken");
+		});
+		try {
+			endpoint.awaitReady(10, TimeUnit.SECONDS);
+			fail("expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("broken", e.getMessage());
+		}
+		assertFalse(endpoint.isReady());
+	}
+
+	@Test
+	public void creationError() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		FutureSPARQLEndpoint endpoint = new FutureSPARQLEndpoint(() -> {
+			attempts.incrementAndGet();
+			throw new LinkageError("broken");
+		});
+
+		// errors are passed unchanged to the creating thread and to the waiting caller
+		try {
+			endpoint.warmUp(Runnable::run);
+			fail("expected LinkageError");
+		}
+		catch (LinkageError e) {
+			assertEquals("broken", e.getMessage());
+		}
+		try {
+			endpoint.awaitReady(10, TimeUnit.SECONDS);
+			fail("expected LinkageError");
+		}
+		catch (LinkageError e) {
+			assertEquals("broken", e.getMessage());
+		}
+		assertFalse(endpoint.isReady());
+		assertEquals(2, attempts.get());
+	}
+
+	@Test
+	public void closeDuringCreation() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger closed = new AtomicInteger();
+		FutureSPARQLEndpoint endpoint = new FutureSPARQLEndpoint(() -> {
+			started.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			return createEndpoint(closed);
+		});
+
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		endpoint.warmUp(runnable -> {
+			thread.set(new Thread(runnable));
+			thread.get().start();
+		});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		// close while the creation is still running
+		endpoint.close();
+		release.countDown();
+		thread.get().join(10000);
+		assertFalse(thread.get().isAlive());
+
+		// the endpoint created after closing is closed immediately and not published
+		assertEquals(1, closed.get());
+		assertFalse(endpoint.isReady());
+	}
+}
@@ -206,6 +206,48 @@ public class ResultTableCheckerTest {
 		Assert.assertEquals(ResultTableChecker.FailureType.UNEXPECTED_ROW_FOUND, result.get(1).getFailureType());
 	}
 
+	@Test
+	public void testDuplicateRows() {
+		List<TableRow> expectedRows = createRows(10, variables);
+		expectedRows.add(createRowValues(3, variables));
+		expectedRows.add(createRowValues(3, variables));
+		List<TableRow> actualRows = createRows(10, variables);
+		actualRows.add(createRowValues(3, variables));
+
+		ResultTableModel expected = new ResultTableModel(expectedRows, variables);
+		ResultTableModel actual = new ResultTableModel(actualRows, variables);
+
+		// each actual row can only match one expected row
+		List<ResultTableChecker.Failure> result = ResultTableChecker.checkEquality(expected, actual, true);
+		assertEquals(1, result.size());
+		assertEquals(ResultTableChecker.FailureType.EXPECTED_ROW_MISSING, result.get(0).getFailureType());
+		assertTrue(result.get(0).getDetails().toString().contains("\"a@3\""));
+
+		result = ResultTableChecker.checkEquality(expected, actual, false);
+		List<ResultTableChecker.Failure> mismatchFailures = getFailuresOfType(result, ResultTableChecker.FailureType.ROWS_FOR_SUBJECT_MISMATCH);
+		assertEquals(1, mismatchFailures.size());
+		ResultTableChecker.RowMismatch mismatchDetails = (ResultTableChecker.RowMismatch) mismatchFailures.get(0).getDetails();
+		assertEquals(3, mismatchDetails.getExpected());
+		assertEquals(2, mismatchDetails.getActual());
+	}
+
+	@Test
+	public void testLargeTables() {
+		int numRows = 50000;
+		List<TableRow> expectedRows = createRows(numRows, variables);
+		List<TableRow> actualRows = createRows(numRows, variables);
+		actualRows.remove(0);
+		actualRows.add(createRowValues(numRows, variables));
+
+		ResultTableModel expected = new ResultTableModel(expectedRows, variables);
+		ResultTableModel actual = new ResultTableModel(actualRows, variables);
+
+		List<ResultTableChecker.Failure> result = ResultTableChecker.checkEquality(expected, actual, false);
+		assertEquals(1, getFailuresOfType(result, ResultTableChecker.FailureType.EXPECTED_ROW_MISSING).size());
+		assertEquals(1, getFailuresOfType(result, ResultTableChecker.FailureType.UNEXPECTED_ROW_FOUND).size());
+		assertTrue(ResultTableChecker.checkEquality(actual, actual, false).isEmpty());
+	}
+
 	private List<TableRow> createRows(int numRows, List<String> variables, String... excludeValue) {
 		List<TableRow> rows = new ArrayList<>(numRows);
 		for (int i = 0; i < numRows; i++) {
@@ -21,11 +21,15 @@ package com.denkbares.semanticcore.test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.junit.Test;
 
+import com.denkbares.semanticcore.utils.EncodedIndexedResultTableModel;
+import com.denkbares.semanticcore.utils.EncodedResultTableHierarchy;
 import com.denkbares.semanticcore.utils.ResultTableHierarchy;
 import com.denkbares.semanticcore.utils.ResultTableModel;
 import com.denkbares.semanticcore.utils.TableRow;
@@ -92,6 +96,66 @@ public class ResultTableHierarchyTest {
 		assertSame(child, hierarchy.getChildren(root1).get(0));
 	}
 
+	@Test
+	public void testEncodedChildInMultipleParents() {
+		ResultTableModel.Builder tableModelBuilder = ResultTableModel.builder(VARIABLES);
+
+		TableRow root0 = addRow(tableModelBuilder, "root", null, "Root0");
+		TableRow root1 = addRow(tableModelBuilder, "root", null, "Root1");
+		TableRow child = addRow(tableModelBuilder, "child", "root");
+
+		EncodedResultTableHierarchy hierarchy = new EncodedResultTableHierarchy(tableModelBuilder.build());
+		List<TableRow> roots = hierarchy.getRoots();
+		assertEquals(2, roots.size());
+		assertSame(root0, roots.get(0));
+		assertSame(root1, roots.get(1));
+		assertSame(child, hierarchy.getChildren(root0).get(0));
+		assertSame(child, hierarchy.getChildren(root1).get(0));
+		assertTrue(hierarchy.getChildren(child).isEmpty());
+	}
+
+	@Test
+	public void testEncodedSameOrder() {
+		ValueFactory factory = SimpleValueFactory.getInstance();
+		ResultTableModel.Builder builder = ResultTableModel.builder(Arrays.asList("rowid", "parent", ResultTableHierarchy.SORT_VALUE));
+		builder.addRow(factory.createLiteral("root"), null, factory.createLiteral("0"));
+		for (int i = 0; i < 200; i++) {
+			// mix of integer literals, parsable strings and plain strings, with duplicate sort keys
+			int parent = i / 7;
+			Value sortValue = (i % 3 == 0) ? factory.createLiteral(String.valueOf(i % 50), factory.createIRI("http://www.w3.org/2001/XMLSchema#integer"))
+					: (i % 3 == 1) ? factory.createLiteral(String.valueOf(i % 40))
+					: factory.createLiteral("node" + (i % 30));
+			builder.addRow(factory.createLiteral("n" + i), factory.createLiteral(parent == 0 ? "root" : "n" + parent), sortValue);
+		}
+		builder.addRow(factory.createLiteral("orphan"), factory.createLiteral("unknown"), factory.createLiteral("1"));
+		ResultTableModel model = builder.build();
+
+		ResultTableHierarchy expected = new ResultTableHierarchy(model);
+		EncodedResultTableHierarchy actual = new EncodedResultTableHierarchy(model);
+		assertEquals(expected.getRoots(), actual.getRoots());
+		for (TableRow row : model) {
+			assertEquals(expected.getChildren(row), actual.getChildren(row));
+		}
+	}
+
+	@Test
+	public void testEncodedIndex() {
+		ValueFactory factory = SimpleValueFactory.getInstance();
+		ResultTableModel.Builder builder = ResultTableModel.builder(VARIABLES);
+		TableRow a1 = addRow(builder, "a", null, "1");
+		TableRow b = addRow(builder, "b", null, "2");
+		TableRow a2 = addRow(builder, "a", null, "3");
+		List<TableRow> rows = builder.build().rows().collect(Collectors.toList());
+
+		EncodedIndexedResultTableModel model = new EncodedIndexedResultTableModel(rows, VARIABLES, "rowid");
+		assertEquals(2, model.getKeyCount());
+		assertEquals(Arrays.asList(a1, a2), model.getRowsForKey(factory.createLiteral("a")));
+		assertEquals(List.of(b), model.getRowsForKey(factory.createLiteral("b")));
+		assertTrue(model.getRowsForKey(factory.createLiteral("c")).isEmpty());
+		assertEquals(model.getKeyId(0), model.getKeyId(2));
+		assertEquals(-1, model.getKeyId(factory.createLiteral("c")));
+	}
+
 	private void validateRow(TableRow row, String expectedRowId, String expectedText) {
 		assertNotNull(row);
 		assertEquals(expectedRowId, row.getValue("rowid").stringValue());
@@ -34,10 +34,13 @@ import org.eclipse.rdf4j.rio.RDFParseException;
 import com.denkbares.semanticcore.SemanticCore;
 import com.denkbares.semanticcore.TupleQueryResult;
 import com.denkbares.semanticcore.config.RdfConfig;
+import com.denkbares.semanticcore.config.RdfFSConfig;
 import com.denkbares.semanticcore.config.RepositoryConfigs;
 import com.denkbares.plugin.test.InitPluginManager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Default test class for SemanticCore.
@@ -64,4 +67,26 @@ public class SemanticCoreTest {
 		// check if we get the 87 triples from the rdf
 		assertEquals(87, query.cachedAndClosed().getBindingSets().size());
 	}
+
+	/**
+	 * Evict a native store and check that the data is still available after reopening.
+	 */
+	@Test
+	public void evictAndReopen() throws IOException, RDFParseException, RepositoryException, QueryEvaluationException, MalformedQueryException {
+		SemanticCore instance = SemanticCore.createInstance("Eviction test", RepositoryConfigs.get(RdfFSConfig.class), new File("target/SemanticCoreTest"));
+		instance.addData(new FileInputStream("src/test/resources/rdf-schema.xml"), RDFFormat.RDFXML);
+		assertTrue(instance.isReopenable());
+
+		// allocated cores are never evicted
+		instance.allocate();
+		assertFalse(instance.evict());
+		instance.releaseAndEvict();
+		assertEquals(SemanticCore.State.evicted, instance.getState());
+
+		// the data is reopened from the data directory on the next access
+		TupleQueryResult query = instance.sparqlSelect("SELECT * WHERE { ?x ?y ?z} ");
+		assertEquals(87, query.cachedAndClosed().getBindingSets().size());
+		assertEquals(SemanticCore.State.active, instance.getState());
+		instance.close();
+	}
 }
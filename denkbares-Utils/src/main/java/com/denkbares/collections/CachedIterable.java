@@ -28,7 +28,8 @@ import java.util.NoSuchElementException;
 
 /**
  * Class that caches the entries of an iterable or iterator for repeatable and fast access to the
- * elements.
+ * elements. The class is not thread-safe, use {@link ConcurrentCachedIterable} to share the
+ * cached elements between multiple threads.
  *
  * @author Volker Belli (denkbares GmbH)
  * @created 30.12.2014
@@ -19,12 +19,19 @@
 
 package com.denkbares.collections;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,18 +42,44 @@ import java.util.stream.Stream;
  * <pre>
  *     CombinedIterator( [1,3,5] , [2,8,9], [4,6,7] ) --> [1,2,3,4,5,6,7,8,9]
  * </pre>
+ * <p>
+ * The iterators are merged using a tournament tree (loser tree), so each element requires
+ * O(log k) comparisons for k iterators. Equal elements are returned in the order of the iterators
+ * they are contained in. If the iterators are expensive to proceed (e.g. because they are reading
+ * from files or network resources), use {@link #prefetching(Collection, Comparator, int,
+ * Executor)} to read ahead each iterator in parallel. The first element of each iterator is not
+ * read before the combined iterator is accessed for the first time.
  *
  * @author Volker Belli (denkbares GmbH)
  * @created 07.07.2016
  */
-public class CombinedOrderedIterator<E> implements Iterator<E> {
+public class CombinedOrderedIterator<E> implements CloseableIterator<E> {
 
 	/**
-	 * List of all iterators, without any empty iterator.
+	 * List of all iterators, the index of each iterator is used in the tournament tree.
 	 */
-	private final List<PeekableIterator<? extends E>> iterators;
+	private final List<Iterator<? extends E>> iterators;
 	private final Comparator<E> order;
 
+	/**
+	 * The current head element of each iterator, and if the iterator has been exhausted.
+	 */
+	private final Object[] heads;
+	private final boolean[] exhausted;
+
+	/**
+	 * The loser tree, the index 0 contains the index of the iterator with the best head element,
+	 * the other indices contain the loser of the match at that node.
+	 */
+	private final int[] tree;
+	private int active;
+	private boolean initialized = false;
+
+	/**
+	 * Exception of any iterator, that is thrown when the combined iterator reaches that position.
+	 */
+	private RuntimeException failure = null;
+
 	/**
 	 * Creates a new iterator that combines all the specified iterators into one. The iterators
 	 * itself must already be sorted according to their natural order, otherwise the iteration order
@@ -92,16 +125,19 @@ public class CombinedOrderedIterator<E> implements Iterator<E> {
 	 * <p>
 	 * In contrast to the other constructor methods, here a parallel stream of iterators may be
 	 * specified. Because the combined iterator has to prepare at least one item from each iterator
-	 * (to detect the initial order), this can be done in parallel here.
+	 * (to detect the initial order), this can be done in parallel here. Unlike the other
+	 * constructors, the first item of each iterator is read when creating the combined iterator.
 	 *
 	 * @param iterators the iterators to be combined
 	 * @param order the order of the items
 	 */
 	public CombinedOrderedIterator(Stream<? extends Iterator<? extends E>> iterators, Comparator<E> order) {
-		this.iterators = iterators.filter(Iterator::hasNext).map(PeekableIterator::new)
-				// create a linked list, which is mutable, because we will delete items later on
-				.collect(Collectors.toCollection(LinkedList::new));
-		this.order = order;
+		// read the first item of each iterator as part of the stream, so for a parallel stream
+		// the first items are read in parallel before the stream is collected
+		this(iterators.map(iterator -> new HeadIterator<E>(iterator))
+				.filter(HeadIterator::hasNext)
+				.collect(Collectors.toList())
+				.iterator(), order);
 	}
 
 	/**
@@ -126,45 +162,350 @@ public class CombinedOrderedIterator<E> implements Iterator<E> {
 	 * @param order the order of the items
 	 */
 	public CombinedOrderedIterator(Iterator<? extends Iterator<? extends E>> iterators, Comparator<E> order) {
-		this.iterators = new LinkedList<>();
-		iterators.forEachRemaining(subset -> {
-			if (subset.hasNext()) {
-				this.iterators.add(new PeekableIterator<>(subset));
-			}
-		});
+		this.iterators = new ArrayList<>();
+		iterators.forEachRemaining(this.iterators::add);
 		this.order = order;
+		int size = this.iterators.size();
+		this.heads = new Object[size];
+		this.exhausted = new boolean[size];
+		this.tree = new int[Math.max(1, size)];
+		this.active = size;
+	}
+
+	/**
+	 * Reads the first element of each iterator and builds the tournament tree, if not already
+	 * done. Any exception of an iterator is thrown when accessing the combined iterator.
+	 */
+	private void init() {
+		if (initialized) return;
+		initialized = true;
+		for (int i = 0; i < heads.length; i++) {
+			Iterator<? extends E> iterator = iterators.get(i);
+			if (iterator instanceof HeadIterator) {
+				// the first element has already been read, so continue with the source iterator
+				HeadIterator<? extends E> head = (HeadIterator<? extends E>) iterator;
+				heads[i] = head.first;
+				iterators.set(i, head.source);
+				continue;
+			}
+			try {
+				if (iterator.hasNext()) {
+					heads[i] = iterator.next();
+					continue;
+				}
+			}
+			catch (RuntimeException e) {
+				if (failure == null) failure = e;
+			}
+			exhausted[i] = true;
+			active--;
+		}
+		initTree();
+	}
+
+	/**
+	 * Creates a new iterator that combines all the specified iterators into one, where each
+	 * iterator is read ahead in the background. This is useful if the iterators are expensive to
+	 * proceed, e.g. because they are reading from files or network resources, so that the
+	 * iterators are proceeded in parallel, while the combined elements are consumed. The iterators
+	 * are read in chunks of the specified buffer size, and each iterator is accessed by only one
+	 * thread at a time. Any exception thrown by an iterator is rethrown when the combined iterator
+	 * reaches the failed chunk. If the combined iterator is not consumed completely, it should be
+	 * closed to cancel the pending read ahead tasks.
+	 *
+	 * @param iterators  the iterators to be combined
+	 * @param order      the order of the items
+	 * @param bufferSize the number of elements to read ahead for each iterator
+	 * @param executor   the executor to read ahead the iterators
+	 * @return the combined iterator
+	 */
+	public static <E> CombinedOrderedIterator<E> prefetching(Collection<? extends Iterator<? extends E>> iterators, Comparator<E> order, int bufferSize, Executor executor) {
+		if (bufferSize <= 0) throw new IllegalArgumentException("buffer size must be positive: " + bufferSize);
+		// create all prefetch iterators first, so the first chunks are read in parallel,
+		// the prefetching is stopped when the combined iterator is closed
+		List<Iterator<? extends E>> prefetching = new ArrayList<>(iterators.size());
+		for (Iterator<? extends E> iterator : iterators) {
+			prefetching.add(new PrefetchIterator<>(iterator, bufferSize, executor));
+		}
+		return new CombinedOrderedIterator<>(prefetching.iterator(), order);
+	}
+
+	/**
+	 * Creates a new iterator that combines all the specified iterators into one, where each
+	 * iterator is read ahead in the background, using the common fork join pool.
+	 *
+	 * @param iterators  the iterators to be combined
+	 * @param order      the order of the items
+	 * @param bufferSize the number of elements to read ahead for each iterator
+	 * @return the combined iterator
+	 * @see #prefetching(Collection, Comparator, int, Executor)
+	 */
+	public static <E> CombinedOrderedIterator<E> prefetching(Collection<? extends Iterator<? extends E>> iterators, Comparator<E> order, int bufferSize) {
+		return prefetching(iterators, order, bufferSize, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns true if the iterator of index a has a better head element than the iterator of index
+	 * b. Exhausted iterators are worse than any other, and on equal elements the lower index wins,
+	 * to preserve the order of the iterators.
+	 */
+	private boolean beats(int a, int b) {
+		if (exhausted[a]) return false;
+		if (exhausted[b]) return true;
+		//noinspection unchecked
+		int compare = order.compare((E) heads[a], (E) heads[b]);
+		return compare < 0 || (compare == 0 && a < b);
+	}
+
+	private void initTree() {
+		int size = heads.length;
+		if (size <= 1) return;
+		// play all matches bottom up, the leaves are virtually located at [size, 2*size)
+		int[] winners = new int[2 * size];
+		for (int i = 0; i < size; i++) winners[size + i] = i;
+		for (int node = size - 1; node >= 1; node--) {
+			int left = winners[2 * node];
+			int right = winners[2 * node + 1];
+			if (beats(left, right)) {
+				winners[node] = left;
+				tree[node] = right;
+			}
+			else {
+				winners[node] = right;
+				tree[node] = left;
+			}
+		}
+		tree[0] = winners[1];
+	}
+
+	/**
+	 * Replays the matches from the leaf of the specified iterator to the root, after its head
+	 * element has been changed.
+	 */
+	private void replay(int winner) {
+		for (int node = (winner + heads.length) >>> 1; node >= 1; node >>>= 1) {
+			int loser = tree[node];
+			if (beats(loser, winner)) {
+				tree[node] = winner;
+				winner = loser;
+			}
+		}
+		tree[0] = winner;
+	}
+
+	/**
+	 * Proceeds the specified iterator and returns its previous head element.
+	 */
+	private E advance(int index) {
+		//noinspection unchecked
+		E next = (E) heads[index];
+		Iterator<? extends E> iterator = iterators.get(index);
+		try {
+			if (iterator.hasNext()) {
+				heads[index] = iterator.next();
+				return next;
+			}
+		}
+		catch (RuntimeException e) {
+			// do not lose the current element, throw the exception on the next access instead
+			failure = e;
+		}
+		heads[index] = null;
+		exhausted[index] = true;
+		active--;
+		return next;
+	}
+
+	private void throwFailure() {
+		if (failure == null) return;
+		RuntimeException e = failure;
+		failure = null;
+		throw e;
 	}
 
 	@Override
 	public boolean hasNext() {
-		// because of having no empty iterators in out list, we can simply check if we have any left
-		return !iterators.isEmpty();
+		init();
+		// exhausted iterators are counted, so we can simply check if we have any left
+		return active > 0 || failure != null;
 	}
 
 	@Override
 	public E next() {
-		if (iterators.isEmpty()) throw new NoSuchElementException();
+		init();
+		throwFailure();
+		if (active == 0) throw new NoSuchElementException();
+		int winner = tree[0];
+		E next = advance(winner);
+		replay(winner);
+		return next;
+	}
 
-		// find iterator with best rating
-		PeekableIterator<? extends E> bestIterator = null;
-		for (PeekableIterator<? extends E> iterator : iterators) {
-			if (bestIterator == null || order.compare(bestIterator.peek(), iterator.peek()) > 0) {
-				bestIterator = iterator;
-			}
+	@Override
+	public void forEachRemaining(Consumer<? super E> action) {
+		init();
+		throwFailure();
+		while (active > 1 && failure == null) {
+			int winner = tree[0];
+			action.accept(advance(winner));
+			replay(winner);
+		}
+		if (active == 1 && failure == null) {
+			// only one iterator left, so we can drain it without any comparisons
+			int winner = tree[0];
+			//noinspection unchecked
+			E head = (E) heads[winner];
+			heads[winner] = null;
+			exhausted[winner] = true;
+			active = 0;
+			action.accept(head);
+			iterators.get(winner).forEachRemaining(action);
 		}
+		throwFailure();
+	}
 
-		// and use next method of that iterator
-		// and also remove iterator if it will become empty
-		assert bestIterator != null;
-		E next = bestIterator.next();
-		if (!bestIterator.hasNext()) {
-			iterators.remove(bestIterator);
+	/**
+	 * Cancels the read ahead of all iterators, if the combined iterator has been created by {@link
+	 * #prefetching(Collection, Comparator, int, Executor)}, and stops the iteration. The combined
+	 * iterators are not closed, as they are still owned by the caller.
+	 */
+	@Override
+	public void close() {
+		for (Iterator<? extends E> iterator : iterators) {
+			if (iterator instanceof PrefetchIterator) {
+				((PrefetchIterator<? extends E>) iterator).cancel();
+			}
 		}
-		return next;
+		initialized = true;
+		Arrays.fill(heads, null);
+		Arrays.fill(exhausted, true);
+		active = 0;
+		failure = null;
 	}
 
 	@Override
 	public String toString() {
 		return "CombinedOrderedIterator{" + iterators + '}';
 	}
+
+	/**
+	 * Iterator that reads the first element of another iterator when being created. The combined
+	 * iterator takes the first element and continues with the source iterator, so this iterator is
+	 * never proceeded itself.
+	 */
+	private static class HeadIterator<E> implements Iterator<E> {
+
+		private final Iterator<? extends E> source;
+		private final E first;
+		private final boolean hasFirst;
+
+		HeadIterator(Iterator<? extends E> source) {
+			this.source = source;
+			this.hasFirst = source.hasNext();
+			this.first = hasFirst ? source.next() : null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return hasFirst;
+		}
+
+		@Override
+		public E next() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String toString() {
+			return source.toString();
+		}
+	}
+
+	/**
+	 * Iterator that reads ahead the elements of another iterator in chunks, using the specified
+	 * executor. While the elements of the current chunk are consumed, the next chunk is read in the
+	 * background.
+	 */
+	private static class PrefetchIterator<E> implements Iterator<E> {
+
+		private final Iterator<? extends E> source;
+		private final int bufferSize;
+		private final Executor executor;
+
+		private List<E> current = Collections.emptyList();
+		private int position = 0;
+		private CompletableFuture<List<E>> pending;
+		private RuntimeException failure = null;
+
+		PrefetchIterator(Iterator<? extends E> source, int bufferSize, Executor executor) {
+			this.source = source;
+			this.bufferSize = bufferSize;
+			this.executor = executor;
+			this.pending = fetch();
+		}
+
+		private CompletableFuture<List<E>> fetch() {
+			return CompletableFuture.supplyAsync(() -> {
+				List<E> chunk = new ArrayList<>(bufferSize);
+				try {
+					while (chunk.size() < bufferSize && source.hasNext()) {
+						chunk.add(source.next());
+					}
+				}
+				catch (RuntimeException e) {
+					// keep the elements read so far, the failure is visible after completing the future
+					failure = e;
+				}
+				return chunk;
+			}, executor);
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (position >= current.size()) {
+				if (pending == null) {
+					if (failure == null) return false;
+					RuntimeException e = failure;
+					failure = null;
+					throw e;
+				}
+				try {
+					current = pending.join();
+				}
+				catch (CompletionException e) {
+					pending = null;
+					current = Collections.emptyList();
+					if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+					if (e.getCause() instanceof Error) throw (Error) e.getCause();
+					throw e;
+				}
+				position = 0;
+				// a partial chunk indicates the end of the source, otherwise read ahead the next one
+				pending = (failure != null || current.size() < bufferSize) ? null : fetch();
+			}
+			return true;
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return current.get(position++);
+		}
+
+		/**
+		 * Cancels the pending read ahead, a chunk that is currently read is completed in the
+		 * background, but no further chunk is read.
+		 */
+		void cancel() {
+			if (pending != null) pending.cancel(false);
+			pending = null;
+			current = Collections.emptyList();
+			failure = null;
+		}
+
+		@Override
+		public String toString() {
+			return "PrefetchIterator{" + source + '}';
+		}
+	}
 }
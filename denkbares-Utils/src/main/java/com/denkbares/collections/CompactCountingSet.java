@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Memory-efficient variant of the {@link CountingSet}, with the same semantics, but without creating any objects per
+ * counted element. The elements and their counts are stored in dense arrays, and are found by an open addressing hash
+ * table of primitive int indices. This is the preferred implementation to count large numbers of distinct elements,
+ * e.g. term frequencies.
+ * <p>
+ * The set supports null elements. The iteration order is the order of insertion, as long as no elements are removed.
+ * This implementation is not thread-safe, use the {@link ConcurrentCountingSet} for concurrent updates.
+ *
+ * @created 19.10.2026
+ */
+public class CompactCountingSet<E> extends AbstractSet<E> implements FrequencyCounter<E> {
+
+	private static final Object NULL = new Object();
+
+	// the dense arrays of the elements, their hash codes and their counts
+	private Object[] elements;
+	private int[] hashes;
+	private int[] counts;
+	private int size = 0;
+
+	// open addressing hash table of the element indices + 1
+	private int[] table;
+	private int modCount = 0;
+
+	/**
+	 * Constructs a new, empty counting set.
+	 */
+	public CompactCountingSet() {
+		this(16);
+	}
+
+	/**
+	 * Constructs a new, empty counting set, with initial capacity for the specified number of distinct elements.
+	 *
+	 * @param expectedSize the expected number of distinct elements
+	 */
+	public CompactCountingSet(int expectedSize) {
+		int capacity = Math.max(4, expectedSize);
+		this.elements = new Object[capacity];
+		this.hashes = new int[capacity];
+		this.counts = new int[capacity];
+		this.table = new int[tableSize(capacity)];
+	}
+
+	/**
+	 * Constructs a new counting set containing the elements in the specified collection. If the specified collections
+	 * contains equal elements multiple times, they are already counted by this set.
+	 *
+	 * @param c the collection whose elements are to be placed into this set
+	 */
+	public CompactCountingSet(Collection<? extends E> c) {
+		this(c.size());
+		addAll(c);
+	}
+
+	@Override
+	public int inc(E object, int amount) {
+		if (amount <= 0) return dec(object, -amount);
+		Object element = mask(object);
+		int hash = spread(element.hashCode());
+		int index = find(element, hash);
+		if (index >= 0) {
+			counts[index] += amount;
+			return counts[index];
+		}
+		if (size == elements.length) grow();
+		index = size++;
+		elements[index] = element;
+		hashes[index] = hash;
+		counts[index] = amount;
+		modCount++;
+		if (size * 3 > table.length * 2) {
+			rehash(table.length * 2);
+		}
+		else {
+			insert(table, index);
+		}
+		return amount;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int dec(Object object, int amount) {
+		if (amount < 0) return inc((E) object, -amount);
+		Object element = mask(object);
+		int index = find(element, spread(element.hashCode()));
+		if (index < 0) return -amount;
+		counts[index] -= amount;
+		int count = counts[index];
+		if (count <= 0) removeIndex(index);
+		return count;
+	}
+
+	@Override
+	public int getCount(E object) {
+		Object element = mask(object);
+		int index = find(element, spread(element.hashCode()));
+		return (index < 0) ? 0 : counts[index];
+	}
+
+	@Override
+	public Iterator<E> iteratorDescendingOrder() {
+		// sort by count (descending) and index (ascending), using a single primitive sort
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = ((long) (Integer.MAX_VALUE - counts[i]) << 32) | i;
+		}
+		Arrays.sort(keys);
+		List<E> result = new ArrayList<>(size);
+		for (long key : keys) {
+			result.add(elementAt((int) key));
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public boolean add(E object) {
+		return inc(object) == 1;
+	}
+
+	/**
+	 * Removes an object from the set. If the object has been added multiple times, the object still remains in the set,
+	 * but its counter will be decreased by 1 instead. The method returns true if the object has been removed from the
+	 * set.
+	 */
+	@Override
+	public boolean remove(Object object) {
+		return dec(object) == 0;
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		Object element = mask(object);
+		return find(element, spread(element.hashCode())) >= 0;
+	}
+
+	@Override
+	public boolean removeAll(@NotNull Collection<?> c) {
+		boolean changed = false;
+		for (Object object : c) {
+			changed |= remove(object);
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean retainAll(@NotNull Collection<?> c) {
+		boolean changed = false;
+		Collection<E> copy = new ArrayList<>(this);
+		if (!(c instanceof Set)) c = new HashSet<>(c);
+		for (Object o : copy) {
+			if (!c.contains(o)) {
+				changed |= remove(o);
+			}
+		}
+		return changed;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		Arrays.fill(table, 0);
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns an iterator over the elements of this set. Removing an element by the iterator removes the element
+	 * completely, regardless of its count.
+	 */
+	@NotNull
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private int next = 0;
+			private int current = -1;
+			private int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public E next() {
+				if (modCount != expectedModCount) throw new ConcurrentModificationException();
+				if (next >= size) throw new NoSuchElementException();
+				current = next++;
+				return elementAt(current);
+			}
+
+			@Override
+			public void remove() {
+				if (current < 0) throw new IllegalStateException();
+				if (modCount != expectedModCount) throw new ConcurrentModificationException();
+				// the last element is moved into the removed index, so we have to visit the index again
+				removeIndex(current);
+				next = current;
+				current = -1;
+				expectedModCount = modCount;
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("{");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) result.append(", ");
+			result.append(elementAt(i)).append('=').append(counts[i]);
+		}
+		return result.append('}').toString();
+	}
+
+	private E elementAt(int index) {
+		Object element = elements[index];
+		//noinspection unchecked
+		return (element == NULL) ? null : (E) element;
+	}
+
+	private static Object mask(Object object) {
+		return (object == null) ? NULL : object;
+	}
+
+	private int find(Object element, int hash) {
+		int mask = table.length - 1;
+		for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			int index = table[slot] - 1;
+			if (hashes[index] == hash && element.equals(elements[index])) return index;
+		}
+		return -1;
+	}
+
+	private int slotOf(int index) {
+		int mask = table.length - 1;
+		int slot = hashes[index] & mask;
+		while (table[slot] != index + 1) slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Removes the element at the specified index, and moves the last element into the index, to keep the arrays
+	 * dense.
+	 */
+	private void removeIndex(int index) {
+		int mask = table.length - 1;
+		// backward shift deletion, moving the following elements of the cluster into the hole, if allowed
+		int hole = slotOf(index);
+		for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+			int home = hashes[table[next] - 1] & mask;
+			boolean movable = (hole <= next) ? (home <= hole || home > next) : (home <= hole && home > next);
+			if (movable) {
+				table[hole] = table[next];
+				hole = next;
+			}
+		}
+		table[hole] = 0;
+
+		int last = size - 1;
+		if (index != last) {
+			table[slotOf(last)] = index + 1;
+			elements[index] = elements[last];
+			hashes[index] = hashes[last];
+			counts[index] = counts[last];
+		}
+		elements[last] = null;
+		size--;
+		modCount++;
+	}
+
+	private void grow() {
+		int capacity = elements.length * 2;
+		elements = Arrays.copyOf(elements, capacity);
+		hashes = Arrays.copyOf(hashes, capacity);
+		counts = Arrays.copyOf(counts, capacity);
+	}
+
+	private void rehash(int tableSize) {
+		int[] table = new int[tableSize];
+		for (int index = 0; index < size; index++) {
+			insert(table, index);
+		}
+		this.table = table;
+	}
+
+	private void insert(int[] table, int index) {
+		int mask = table.length - 1;
+		int slot = hashes[index] & mask;
+		while (table[slot] != 0) slot = (slot + 1) & mask;
+		table[slot] = index + 1;
+	}
+
+	private static int spread(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+
+	private static int tableSize(int expectedSize) {
+		// keep the load factor below 2/3, with a power of two for masking
+		return Integer.highestOneBit(Math.max(8, expectedSize * 3 / 2)) << 1;
+	}
+}
@@ -0,0 +1,701 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This class provides a memory-efficient implementation for a {@link MultiMap} that is efficient (= O(1) on average) in
+ * both directions, accessing values for keys and accessing keys for values, like the {@link N2MMap}.
+ * <p/>
+ * In contrast to the {@link N2MMap}, there are no set or entry objects created for the keys, values or key-value-pairs.
+ * The keys and values are interned to int ids, using open addressing hash tables of primitive ints. Each key-value-pair
+ * is an int-indexed entry, that is linked to the other entries of the same key, and to the other entries of the same
+ * value. An additional hash table on the (key id, value id) pairs allows to check or remove single pairs in constant
+ * time.
+ * <p/>
+ * The sets returned by {@link #getValues(Object)}, {@link #getKeys(Object)}, {@link #keySet()} and {@link #valueSet()}
+ * are unmodifiable views, and the iteration order is not specified. Null keys and values are supported.
+ *
+ * @created 19.10.2026
+ */
+// we are suppressing warnings when using "Object"s as key and value.
+// They are used when accessing entries, because java.util.Map also does it this way.
+// only methods that adds items are forcing to have the correct parameter types.
+@SuppressWarnings("SuspiciousMethodCalls")
+public class CompactN2MMap<K, V> extends AbstractMultiMap<K, V> {
+
+	private static final Object NULL = new Object();
+	private static final int FREE = -1;
+
+	private final Dictionary keys;
+	private final Dictionary values;
+
+	// the entries (= key-value-pairs), entryKey is FREE for unused entries
+	private int[] entryKey;
+	private int[] entryValue;
+	private int[] nextOfKey;
+	private int[] prevOfKey;
+	private int[] nextOfValue;
+	private int[] prevOfValue;
+	private int entryLimit = 0;
+	private int freeEntry = FREE;
+	private int size = 0;
+
+	// open addressing hash table of the entries by key id and value id, containing the entry index + 1
+	private int[] pairSlots;
+
+	private int modCount = 0;
+
+	/**
+	 * Creates a new, empty map.
+	 */
+	public CompactN2MMap() {
+		this(16);
+	}
+
+	/**
+	 * Creates a new, empty map, with initial capacity for the specified number of key-value-pairs.
+	 *
+	 * @param expectedSize the number of key-value-pairs that are expected to be added
+	 */
+	public CompactN2MMap(int expectedSize) {
+		int capacity = Math.max(4, expectedSize);
+		this.keys = new Dictionary(capacity);
+		this.values = new Dictionary(capacity);
+		this.entryKey = new int[capacity];
+		this.entryValue = new int[capacity];
+		this.nextOfKey = new int[capacity];
+		this.prevOfKey = new int[capacity];
+		this.nextOfValue = new int[capacity];
+		this.prevOfValue = new int[capacity];
+		this.pairSlots = new int[tableSize(capacity)];
+	}
+
+	@Override
+	public boolean put(K key, V value) {
+		Object k = mask(key), v = mask(value);
+		int keyId = keys.find(k);
+		int valueId = values.find(v);
+		if (keyId >= 0 && valueId >= 0 && findEntry(keyId, valueId) >= 0) return false;
+		if (keyId < 0) keyId = keys.add(k);
+		if (valueId < 0) valueId = values.add(v);
+		addEntry(keyId, valueId);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		keys.clear();
+		values.clear();
+		Arrays.fill(pairSlots, 0);
+		entryLimit = 0;
+		freeEntry = FREE;
+		size = 0;
+		modCount++;
+	}
+
+	@NotNull
+	@Override
+	public Set<K> removeValue(Object value) {
+		int valueId = values.find(mask(value));
+		if (valueId < 0) return Collections.emptySet();
+		Set<K> removed = new LinkedHashSet<>();
+		for (int entry = values.head[valueId]; entry != FREE; ) {
+			int next = nextOfValue[entry];
+			removed.add(this.<K>unmask(keys.objects[entryKey[entry]]));
+			removeEntry(entry);
+			entry = next;
+		}
+		return Collections.unmodifiableSet(removed);
+	}
+
+	@NotNull
+	@Override
+	public Set<V> removeKey(Object key) {
+		int keyId = keys.find(mask(key));
+		if (keyId < 0) return Collections.emptySet();
+		Set<V> removed = new LinkedHashSet<>();
+		for (int entry = keys.head[keyId]; entry != FREE; ) {
+			int next = nextOfKey[entry];
+			removed.add(this.<V>unmask(values.objects[entryValue[entry]]));
+			removeEntry(entry);
+			entry = next;
+		}
+		return Collections.unmodifiableSet(removed);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		int entry = findEntry(key, value);
+		if (entry < 0) return false;
+		removeEntry(entry);
+		return true;
+	}
+
+	@NotNull
+	@Override
+	public Set<K> getKeys(Object value) {
+		int valueId = values.find(mask(value));
+		if (valueId < 0) return Collections.emptySet();
+		return new LinkedView<>(valueId, values, false);
+	}
+
+	@NotNull
+	@Override
+	public Set<V> getValues(Object key) {
+		int keyId = keys.find(mask(key));
+		if (keyId < 0) return Collections.emptySet();
+		return new LinkedView<>(keyId, keys, true);
+	}
+
+	@Override
+	public boolean contains(Object key, Object value) {
+		return findEntry(key, value) >= 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return keys.find(mask(key)) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return values.find(mask(value)) >= 0;
+	}
+
+	@NotNull
+	@Override
+	public Set<K> keySet() {
+		return new DictionaryView<>(keys, true);
+	}
+
+	@NotNull
+	@Override
+	public Set<V> valueSet() {
+		return new DictionaryView<>(values, false);
+	}
+
+	@NotNull
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<Entry<K, V>>() {
+			@NotNull
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new IdIterator<Entry<K, V>>() {
+					@Override
+					int nextId(int id) {
+						while (id < entryLimit && entryKey[id] == FREE) id++;
+						return id < entryLimit ? id : FREE;
+					}
+
+					@Override
+					Entry<K, V> get(int entry) {
+						return new AbstractMap.SimpleImmutableEntry<>(
+								unmask(keys.objects[entryKey[entry]]), unmask(values.objects[entryValue[entry]]));
+					}
+
+					@Override
+					void remove(int entry) {
+						removeEntry(entry);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public boolean contains(Object entry) {
+				if (entry instanceof Entry) {
+					Entry<?, ?> e = (Entry<?, ?>) entry;
+					return CompactN2MMap.this.contains(e.getKey(), e.getValue());
+				}
+				return false;
+			}
+
+			@Override
+			public boolean remove(Object entry) {
+				if (entry instanceof Entry) {
+					Entry<?, ?> e = (Entry<?, ?>) entry;
+					return CompactN2MMap.this.remove(e.getKey(), e.getValue());
+				}
+				return false;
+			}
+
+			@Override
+			public void clear() {
+				CompactN2MMap.this.clear();
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private static Object mask(Object object) {
+		return (object == null) ? NULL : object;
+	}
+
+	private <T> T unmask(Object object) {
+		//noinspection unchecked
+		return (object == NULL) ? null : (T) object;
+	}
+
+	private int findEntry(Object key, Object value) {
+		int keyId = keys.find(mask(key));
+		if (keyId < 0) return FREE;
+		int valueId = values.find(mask(value));
+		if (valueId < 0) return FREE;
+		return findEntry(keyId, valueId);
+	}
+
+	private int findEntry(int keyId, int valueId) {
+		int mask = pairSlots.length - 1;
+		for (int slot = pairHash(keyId, valueId) & mask; pairSlots[slot] != 0; slot = (slot + 1) & mask) {
+			int entry = pairSlots[slot] - 1;
+			if (entryKey[entry] == keyId && entryValue[entry] == valueId) return entry;
+		}
+		return FREE;
+	}
+
+	private void addEntry(int keyId, int valueId) {
+		int entry;
+		if (freeEntry != FREE) {
+			entry = freeEntry;
+			freeEntry = nextOfKey[entry];
+		}
+		else {
+			if (entryLimit == entryKey.length) growEntries();
+			entry = entryLimit++;
+		}
+		entryKey[entry] = keyId;
+		entryValue[entry] = valueId;
+
+		// link as first entry of the key and of the value
+		prevOfKey[entry] = FREE;
+		nextOfKey[entry] = keys.head[keyId];
+		if (keys.head[keyId] != FREE) prevOfKey[keys.head[keyId]] = entry;
+		keys.head[keyId] = entry;
+		keys.degree[keyId]++;
+		prevOfValue[entry] = FREE;
+		nextOfValue[entry] = values.head[valueId];
+		if (values.head[valueId] != FREE) prevOfValue[values.head[valueId]] = entry;
+		values.head[valueId] = entry;
+		values.degree[valueId]++;
+
+		size++;
+		modCount++;
+		if (size * 2 > pairSlots.length) {
+			rehashPairs(pairSlots.length * 2);
+		}
+		else {
+			insertPair(pairSlots, entry);
+		}
+	}
+
+	private void removeEntry(int entry) {
+		int keyId = entryKey[entry];
+		int valueId = entryValue[entry];
+		deletePair(entry);
+
+		// unlink from the entries of the key and of the value
+		if (prevOfKey[entry] == FREE) keys.head[keyId] = nextOfKey[entry];
+		else nextOfKey[prevOfKey[entry]] = nextOfKey[entry];
+		if (nextOfKey[entry] != FREE) prevOfKey[nextOfKey[entry]] = prevOfKey[entry];
+		if (prevOfValue[entry] == FREE) values.head[valueId] = nextOfValue[entry];
+		else nextOfValue[prevOfValue[entry]] = nextOfValue[entry];
+		if (nextOfValue[entry] != FREE) prevOfValue[nextOfValue[entry]] = prevOfValue[entry];
+
+		if (--keys.degree[keyId] == 0) keys.remove(keyId);
+		if (--values.degree[valueId] == 0) values.remove(valueId);
+
+		entryKey[entry] = FREE;
+		nextOfKey[entry] = freeEntry;
+		freeEntry = entry;
+		size--;
+		modCount++;
+	}
+
+	private void growEntries() {
+		int capacity = entryKey.length * 2;
+		entryKey = Arrays.copyOf(entryKey, capacity);
+		entryValue = Arrays.copyOf(entryValue, capacity);
+		nextOfKey = Arrays.copyOf(nextOfKey, capacity);
+		prevOfKey = Arrays.copyOf(prevOfKey, capacity);
+		nextOfValue = Arrays.copyOf(nextOfValue, capacity);
+		prevOfValue = Arrays.copyOf(prevOfValue, capacity);
+	}
+
+	private void rehashPairs(int tableSize) {
+		int[] slots = new int[tableSize];
+		for (int entry = 0; entry < entryLimit; entry++) {
+			if (entryKey[entry] != FREE) insertPair(slots, entry);
+		}
+		pairSlots = slots;
+	}
+
+	private void insertPair(int[] slots, int entry) {
+		int mask = slots.length - 1;
+		int slot = pairHash(entryKey[entry], entryValue[entry]) & mask;
+		while (slots[slot] != 0) slot = (slot + 1) & mask;
+		slots[slot] = entry + 1;
+	}
+
+	private void deletePair(int entry) {
+		int mask = pairSlots.length - 1;
+		int slot = pairHash(entryKey[entry], entryValue[entry]) & mask;
+		while (pairSlots[slot] != entry + 1) slot = (slot + 1) & mask;
+		// backward shift deletion, moving the following entries of the cluster into the hole, if allowed
+		int hole = slot;
+		for (int next = (slot + 1) & mask; pairSlots[next] != 0; next = (next + 1) & mask) {
+			int moved = pairSlots[next] - 1;
+			int home = pairHash(entryKey[moved], entryValue[moved]) & mask;
+			if (isOutside(home, hole, next)) {
+				pairSlots[hole] = pairSlots[next];
+				hole = next;
+			}
+		}
+		pairSlots[hole] = 0;
+	}
+
+	/**
+	 * Returns true if the home slot is not cyclically within (hole, slot], so the entry at slot can be moved into the
+	 * hole.
+	 */
+	private static boolean isOutside(int home, int hole, int slot) {
+		return (hole <= slot) ? (home <= hole || home > slot) : (home <= hole && home > slot);
+	}
+
+	private static int pairHash(int keyId, int valueId) {
+		return spread(keyId * 0x9E3779B9 + valueId);
+	}
+
+	private static int spread(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+
+	private static int tableSize(int expectedSize) {
+		// keep the load factor below 0.5, with a power of two for masking
+		return Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+	}
+
+	/**
+	 * Interns objects to int ids, using an open addressing hash table. For each id, it stores the first entry and the
+	 * number of entries of the object.
+	 */
+	private static final class Dictionary {
+		private Object[] objects;
+		private int[] hashes;
+		private int[] head;
+		private int[] degree;
+		private int limit = 0;
+		private int freeId = FREE;
+		private int size = 0;
+		// the hash table, containing the id + 1
+		private int[] slots;
+
+		private Dictionary(int capacity) {
+			this.objects = new Object[capacity];
+			this.hashes = new int[capacity];
+			this.head = new int[capacity];
+			this.degree = new int[capacity];
+			this.slots = new int[tableSize(capacity)];
+		}
+
+		private int find(Object object) {
+			int hash = spread(object.hashCode());
+			int mask = slots.length - 1;
+			for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+				int id = slots[slot] - 1;
+				if (hashes[id] == hash && object.equals(objects[id])) return id;
+			}
+			return FREE;
+		}
+
+		private int add(Object object) {
+			int id;
+			if (freeId != FREE) {
+				id = freeId;
+				freeId = head[id];
+			}
+			else {
+				if (limit == objects.length) grow();
+				id = limit++;
+			}
+			objects[id] = object;
+			hashes[id] = spread(object.hashCode());
+			head[id] = FREE;
+			degree[id] = 0;
+			size++;
+			if (size * 2 > slots.length) {
+				rehash(slots.length * 2);
+			}
+			else {
+				insert(slots, id);
+			}
+			return id;
+		}
+
+		private void remove(int id) {
+			int mask = slots.length - 1;
+			int slot = hashes[id] & mask;
+			while (slots[slot] != id + 1) slot = (slot + 1) & mask;
+			// backward shift deletion, see CompactN2MMap#deletePair
+			int hole = slot;
+			for (int next = (slot + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+				int home = hashes[slots[next] - 1] & mask;
+				if (isOutside(home, hole, next)) {
+					slots[hole] = slots[next];
+					hole = next;
+				}
+			}
+			slots[hole] = 0;
+			objects[id] = null;
+			head[id] = freeId;
+			freeId = id;
+			size--;
+		}
+
+		private void clear() {
+			Arrays.fill(objects, 0, limit, null);
+			Arrays.fill(slots, 0);
+			limit = 0;
+			freeId = FREE;
+			size = 0;
+		}
+
+		private void grow() {
+			int capacity = objects.length * 2;
+			objects = Arrays.copyOf(objects, capacity);
+			hashes = Arrays.copyOf(hashes, capacity);
+			head = Arrays.copyOf(head, capacity);
+			degree = Arrays.copyOf(degree, capacity);
+		}
+
+		private void rehash(int tableSize) {
+			int[] slots = new int[tableSize];
+			for (int id = 0; id < limit; id++) {
+				if (objects[id] != null) insert(slots, id);
+			}
+			this.slots = slots;
+		}
+
+		private void insert(int[] slots, int id) {
+			int mask = slots.length - 1;
+			int slot = hashes[id] & mask;
+			while (slots[slot] != 0) slot = (slot + 1) & mask;
+			slots[slot] = id + 1;
+		}
+	}
+
+	/**
+	 * Iterator over int ids, that checks for concurrent modifications and supports removal of the current id.
+	 */
+	private abstract class IdIterator<T> implements Iterator<T> {
+		private int expectedModCount = modCount;
+		private boolean initialized = false;
+		private int current = FREE;
+		private int next = FREE;
+
+		/**
+		 * Returns the next valid id, starting with the specified one, or FREE if there is no such id.
+		 */
+		abstract int nextId(int id);
+
+		abstract T get(int id);
+
+		abstract void remove(int id);
+
+		/**
+		 * Returns the first id to iterate, may be overwritten for linked iterations.
+		 */
+		int firstId() {
+			return nextId(0);
+		}
+
+		/**
+		 * Returns the id after the specified one, may be overwritten for linked iterations.
+		 */
+		int advance(int id) {
+			return nextId(id + 1);
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (!initialized) {
+				next = firstId();
+				initialized = true;
+			}
+			return next != FREE;
+		}
+
+		@Override
+		public T next() {
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			if (!hasNext()) throw new NoSuchElementException();
+			current = next;
+			next = advance(current);
+			return get(current);
+		}
+
+		@Override
+		public void remove() {
+			if (current == FREE) throw new IllegalStateException();
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			remove(current);
+			current = FREE;
+			expectedModCount = modCount;
+		}
+	}
+
+	/**
+	 * Unmodifiable view of the keys or values of a dictionary.
+	 */
+	private final class DictionaryView<T> extends AbstractSet<T> {
+		private final Dictionary dictionary;
+		private final boolean isKeys;
+
+		private DictionaryView(Dictionary dictionary, boolean isKeys) {
+			this.dictionary = dictionary;
+			this.isKeys = isKeys;
+		}
+
+		@NotNull
+		@Override
+		public Iterator<T> iterator() {
+			return new IdIterator<T>() {
+				@Override
+				int nextId(int id) {
+					while (id < dictionary.limit && dictionary.objects[id] == null) id++;
+					return id < dictionary.limit ? id : FREE;
+				}
+
+				@Override
+				T get(int id) {
+					return unmask(dictionary.objects[id]);
+				}
+
+				@Override
+				void remove(int id) {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public boolean contains(Object object) {
+			return dictionary.find(mask(object)) >= 0;
+		}
+
+		@Override
+		public int size() {
+			return dictionary.size;
+		}
+	}
+
+	/**
+	 * Unmodifiable view of the values of a particular key (or the keys of a particular value). The view is backed by
+	 * the map, but only as long as the key (or value) is contained in the map.
+	 */
+	private final class LinkedView<T> extends AbstractSet<T> {
+		private final int id;
+		private final Dictionary dictionary;
+		private final Object object;
+		private final boolean ofKey;
+
+		private LinkedView(int id, Dictionary dictionary, boolean ofKey) {
+			this.id = id;
+			this.dictionary = dictionary;
+			this.object = dictionary.objects[id];
+			this.ofKey = ofKey;
+		}
+
+		private boolean isValid() {
+			// the id may have been removed or reused for another object
+			return dictionary.objects[id] == object;
+		}
+
+		@NotNull
+		@Override
+		public Iterator<T> iterator() {
+			if (!isValid()) return Collections.emptyIterator();
+			return new IdIterator<T>() {
+				@Override
+				int firstId() {
+					return dictionary.head[id];
+				}
+
+				@Override
+				int nextId(int entry) {
+					return entry;
+				}
+
+				@Override
+				int advance(int entry) {
+					return ofKey ? nextOfKey[entry] : nextOfValue[entry];
+				}
+
+				@Override
+				T get(int entry) {
+					return unmask(ofKey ? values.objects[entryValue[entry]] : keys.objects[entryKey[entry]]);
+				}
+
+				@Override
+				void remove(int entry) {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public boolean contains(Object other) {
+			if (!isValid()) return false;
+			Dictionary others = ofKey ? values : keys;
+			int otherId = others.find(mask(other));
+			if (otherId < 0) return false;
+			return ofKey ? findEntry(id, otherId) >= 0 : findEntry(otherId, id) >= 0;
+		}
+
+		@Override
+		public int size() {
+			return isValid() ? dictionary.degree[id] : 0;
+		}
+	}
+}
@@ -0,0 +1,673 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A thread-safe cache, complementing the {@link CacheMap} for concurrent usage. In contrast to the {@link CacheMap},
+ * reading an entry does not require any lock, it only marks the entry as recently used. Write operations and evictions
+ * are serialized by a single eviction lock, but the map itself is a {@link ConcurrentHashMap}.
+ * <p>
+ * The cache is bounded by the total weight of its entries, where each entry has the weight 1 by default, so the
+ * maximum weight is the maximum number of entries. The entries are evicted by a CLOCK policy (second chance), combined
+ * with a TinyLFU admission policy: if a new entry would evict an existing one, it is only admitted if it has been
+ * requested at least as frequently as the entry to be evicted. So a scan over many rarely used keys does not flush the
+ * frequently used entries from the cache. Additionally, entries may expire after a fixed time since they have been
+ * written or accessed.
+ * <p>
+ * Keys and values must not be null. Use {@link #builder()} to create new instances.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ * @created 19.10.2026
+ */
+public class ConcurrentCache<K, V> {
+
+	private final ConcurrentHashMap<K, Node<K, V>> map;
+	private final long maximumWeight;
+	private final ToIntBiFunction<? super K, ? super V> weigher;
+	private final long expireAfterWriteNanos;
+	private final long expireAfterAccessNanos;
+	private final LongSupplier ticker;
+	private final Function<? super K, ? extends V> loader;
+	private final FrequencySketch sketch;
+
+	// the clock of all entries, guarded by the eviction lock, removed nodes are skipped lazily
+	private final ArrayDeque<Node<K, V>> clock = new ArrayDeque<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private volatile long weightedSize = 0;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadSuccessCount = new LongAdder();
+	private final LongAdder loadFailureCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder evictionWeight = new LongAdder();
+
+	private ConcurrentCache(Builder<K, V> builder, Function<? super K, ? extends V> loader) {
+		this.maximumWeight = builder.maximumWeight;
+		this.weigher = (builder.weigher == null) ? (key, value) -> 1 : builder.weigher;
+		this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+		this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+		this.ticker = builder.ticker;
+		this.loader = loader;
+		// the sketch grows with the number of entries, so it starts at the initial capacity
+		int expectedSize = (int) Math.min(builder.initialCapacity, this.maximumWeight);
+		this.map = new ConcurrentHashMap<>(expectedSize);
+		this.sketch = new FrequencySketch(expectedSize);
+	}
+
+	/**
+	 * Creates a new builder for a concurrent cache.
+	 */
+	public static <K, V> Builder<K, V> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Returns the value of the specified key if it is cached and not expired, or null otherwise.
+	 *
+	 * @param key the key to get the cached value for
+	 * @return the cached value or null
+	 */
+	@Nullable
+	public V getIfPresent(@NotNull K key) {
+		Node<K, V> node = getNode(key);
+		if (node == null) {
+			this.missCount.increment();
+			return null;
+		}
+		this.hitCount.increment();
+		return node.value;
+	}
+
+	/**
+	 * Returns the value of the specified key. If the key is not cached, the value is loaded by the loader of this
+	 * cache, or null is returned if the cache has no loader.
+	 *
+	 * @param key the key to get the value for
+	 * @return the cached or loaded value
+	 */
+	@Nullable
+	public V get(@NotNull K key) {
+		return (this.loader == null) ? getIfPresent(key) : get(key, this.loader);
+	}
+
+	/**
+	 * Returns the value of the specified key. If the key is not cached, the value is loaded by the specified loader and
+	 * added to the cache. The key is loaded only once, even if it is requested concurrently by multiple threads. If the
+	 * loader returns null, nothing is cached and null is returned. If the loader throws an exception, the exception is
+	 * propagated to the caller.
+	 *
+	 * @param key    the key to get the value for
+	 * @param loader the function to load the value if it is not cached
+	 * @return the cached or loaded value
+	 */
+	@Nullable
+	public V get(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+		Node<K, V> node = getNode(key);
+		if (node != null) {
+			this.hitCount.increment();
+			return node.value;
+		}
+		this.missCount.increment();
+
+		Load<K, V> load = new Load<>();
+		Node<K, V> result = this.map.compute(key, (k, current) -> {
+			if (current != null && !isExpired(current, now())) return current;
+			load.replaced = current;
+			V value;
+			try {
+				value = loader.apply(k);
+			}
+			catch (RuntimeException | Error e) {
+				this.loadFailureCount.increment();
+				throw e;
+			}
+			if (value == null) {
+				this.loadFailureCount.increment();
+				return null;
+			}
+			this.loadSuccessCount.increment();
+			return load.created = createNode(k, value);
+		});
+		if (load.replaced != null || load.created != null) {
+			this.evictionLock.lock();
+			try {
+				if (load.replaced != null) onRemoved(load.replaced);
+				if (load.created != null) onAdded(load.created);
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+		return (result == null) ? null : result.value;
+	}
+
+	/**
+	 * Adds the value for the specified key to the cache, replacing any previously cached value.
+	 *
+	 * @param key   the key to cache the value for
+	 * @param value the value to be cached
+	 */
+	public void put(@NotNull K key, @NotNull V value) {
+		Objects.requireNonNull(value);
+		Node<K, V> node = createNode(key, value);
+		Node<K, V> replaced = this.map.put(key, node);
+		this.evictionLock.lock();
+		try {
+			if (replaced != null) onRemoved(replaced);
+			onAdded(node);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the specified key from the cache.
+	 *
+	 * @param key the key to be removed
+	 * @return the previously cached value, or null if the key was not cached (or has been expired)
+	 */
+	@Nullable
+	public V remove(@NotNull K key) {
+		Node<K, V> node = this.map.remove(key);
+		if (node == null) return null;
+		this.evictionLock.lock();
+		try {
+			onRemoved(node);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+		return isExpired(node, now()) ? null : node.value;
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public void invalidateAll() {
+		this.evictionLock.lock();
+		try {
+			for (Node<K, V> node : this.clock) {
+				if (node.removed) continue;
+				this.map.remove(node.key, node);
+				onRemoved(node);
+			}
+			this.clock.clear();
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all expired entries from the cache. Expired entries are never returned by the cache, but they are only
+	 * removed lazily, when they are accessed or swept by the clock. Call this method to free them immediately.
+	 */
+	public void cleanUp() {
+		if (!expires()) return;
+		this.evictionLock.lock();
+		try {
+			long now = now();
+			for (Node<K, V> node : this.clock) {
+				if (!node.removed && isExpired(node, now) && this.map.remove(node.key, node)) {
+					onRemoved(node);
+				}
+			}
+			this.clock.removeIf(node -> node.removed);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the (approximate) number of entries in this cache. The number may contain entries that are expired, but
+	 * not removed yet.
+	 */
+	public int size() {
+		return this.map.size();
+	}
+
+	/**
+	 * Returns the total weight of the entries in this cache.
+	 */
+	public long weightedSize() {
+		return this.weightedSize;
+	}
+
+	/**
+	 * Returns the maximum total weight of the entries in this cache.
+	 */
+	public long getMaximumWeight() {
+		return this.maximumWeight;
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of this cache.
+	 */
+	@NotNull
+	public Stats stats() {
+		return new Stats(this.hitCount.sum(), this.missCount.sum(), this.loadSuccessCount.sum(),
+				this.loadFailureCount.sum(), this.evictionCount.sum(), this.evictionWeight.sum());
+	}
+
+	private Node<K, V> getNode(K key) {
+		Node<K, V> node = this.map.get(key);
+		if (node == null) return null;
+		long now = now();
+		if (isExpired(node, now)) {
+			if (this.map.remove(key, node)) {
+				this.evictionLock.lock();
+				try {
+					onRemoved(node);
+				}
+				finally {
+					this.evictionLock.unlock();
+				}
+			}
+			return null;
+		}
+		// avoid unnecessary writes of the shared fields
+		if (!node.referenced) node.referenced = true;
+		if (this.expireAfterAccessNanos > 0) node.accessTime = now;
+		this.sketch.increment(key);
+		return node;
+	}
+
+	private Node<K, V> createNode(K key, V value) {
+		int weight = this.weigher.applyAsInt(key, value);
+		if (weight < 0) throw new IllegalArgumentException("negative weight " + weight + " for key " + key);
+		long now = now();
+		this.sketch.increment(key);
+		return new Node<>(key, value, weight, now);
+	}
+
+	private void onAdded(Node<K, V> node) {
+		// the node may already be removed concurrently, before the lock has been acquired
+		if (node.removed) return;
+		node.accounted = true;
+		this.weightedSize += node.weight;
+		this.clock.addLast(node);
+		this.sketch.ensureCapacity(this.map.size());
+		evict(node);
+		if (this.clock.size() > 2 * this.map.size() + 16) {
+			this.clock.removeIf(n -> n.removed);
+		}
+	}
+
+	private void onRemoved(Node<K, V> node) {
+		node.removed = true;
+		if (node.accounted) {
+			node.accounted = false;
+			this.weightedSize -= node.weight;
+		}
+	}
+
+	/**
+	 * Evicts entries until the weighted size is below the maximum weight. If the candidate would be admitted by
+	 * evicting a more frequently used victim, the candidate itself is evicted instead.
+	 */
+	private void evict(Node<K, V> candidate) {
+		long now = now();
+		while (this.weightedSize > this.maximumWeight) {
+			Node<K, V> victim = this.clock.pollFirst();
+			if (victim == null) break;
+			if (victim.removed) continue;
+			boolean expired = isExpired(victim, now);
+			if (victim.referenced && !expired) {
+				// second chance for recently used entries
+				victim.referenced = false;
+				this.clock.addLast(victim);
+				continue;
+			}
+			if (!expired && candidate != null && candidate != victim && !candidate.removed
+					&& this.sketch.frequency(candidate.key) < this.sketch.frequency(victim.key)) {
+				// admission policy: keep the victim, as it is more frequently used than the candidate
+				this.clock.addFirst(victim);
+				victim = candidate;
+			}
+			candidate = null;
+			if (this.map.remove(victim.key, victim)) {
+				this.evictionCount.increment();
+				this.evictionWeight.add(victim.weight);
+			}
+			onRemoved(victim);
+		}
+	}
+
+	private boolean expires() {
+		return this.expireAfterWriteNanos > 0 || this.expireAfterAccessNanos > 0;
+	}
+
+	private long now() {
+		return expires() ? this.ticker.getAsLong() : 0;
+	}
+
+	private boolean isExpired(Node<K, V> node, long now) {
+		return (this.expireAfterWriteNanos > 0 && now - node.writeTime >= this.expireAfterWriteNanos)
+				|| (this.expireAfterAccessNanos > 0 && now - node.accessTime >= this.expireAfterAccessNanos);
+	}
+
+	private static final class Node<K, V> {
+		private final K key;
+		private final V value;
+		private final int weight;
+		private final long writeTime;
+		private volatile long accessTime;
+		private volatile boolean referenced = false;
+		// guarded by the eviction lock
+		private boolean removed = false;
+		private boolean accounted = false;
+
+		private Node(K key, V value, int weight, long now) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+	}
+
+	private static final class Load<K, V> {
+		private Node<K, V> replaced;
+		private Node<K, V> created;
+	}
+
+	/**
+	 * Count-Min sketch of 4-bit counters, to estimate the access frequency of the keys. The counters are halved
+	 * periodically, so the frequencies age over time. Increments are lossy under contention, which is acceptable for an
+	 * estimate. The sketch grows with the number of entries of the cache, keeping the frequencies collected so far.
+	 */
+	private static final class FrequencySketch {
+		private static final long[] SEEDS = {
+				0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+		private static final long RESET_MASK = 0x7777777777777777L;
+
+		private static final int MAXIMUM_SIZE = 1 << 30;
+
+		// replaced when growing, the mask is always the table length - 1
+		private volatile AtomicLongArray table;
+		private final AtomicInteger samples = new AtomicInteger();
+
+		private FrequencySketch(int expectedSize) {
+			this.table = new AtomicLongArray(tableSize(expectedSize));
+		}
+
+		private static int tableSize(int expectedSize) {
+			return Math.min(MAXIMUM_SIZE, Integer.highestOneBit(Math.max(16, expectedSize) - 1) << 1);
+		}
+
+		/**
+		 * Grows the sketch, if it is too small for the specified number of entries. Must only be called under the
+		 * eviction lock.
+		 */
+		private void ensureCapacity(int expectedSize) {
+			if (expectedSize <= this.table.length()) return;
+			AtomicLongArray table = this.table;
+			int size = tableSize(expectedSize);
+			if (size <= table.length()) return;
+			// the index of a counter only gains additional high bits by growing,
+			// so copying the table into each part of the larger one keeps the frequencies
+			AtomicLongArray grown = new AtomicLongArray(size);
+			int mask = table.length() - 1;
+			for (int i = 0; i < size; i++) {
+				grown.set(i, table.get(i & mask));
+			}
+			this.table = grown;
+		}
+
+		private void increment(Object key) {
+			AtomicLongArray table = this.table;
+			int hash = spread(key.hashCode());
+			boolean added = false;
+			for (int i = 0; i < 4; i++) {
+				int index = index(table, hash, i);
+				int shift = shift(hash, i);
+				long word = table.get(index);
+				if (((word >>> shift) & 0xF) < 15 && table.compareAndSet(index, word, word + (1L << shift))) {
+					added = true;
+				}
+			}
+			if (added && this.samples.incrementAndGet() == 10 * table.length()) {
+				reset(table);
+			}
+		}
+
+		private int frequency(Object key) {
+			AtomicLongArray table = this.table;
+			int hash = spread(key.hashCode());
+			int frequency = 15;
+			for (int i = 0; i < 4; i++) {
+				long word = table.get(index(table, hash, i));
+				frequency = Math.min(frequency, (int) ((word >>> shift(hash, i)) & 0xF));
+			}
+			return frequency;
+		}
+
+		private void reset(AtomicLongArray table) {
+			for (int i = 0; i < table.length(); i++) {
+				table.updateAndGet(i, word -> (word >>> 1) & RESET_MASK);
+			}
+			this.samples.set(0);
+		}
+
+		private static int index(AtomicLongArray table, int hash, int i) {
+			long h = (hash + SEEDS[i]) * SEEDS[i];
+			return (int) (h >>> 32) & (table.length() - 1);
+		}
+
+		private static int shift(int hash, int i) {
+			// each long contains 16 counters of 4 bits
+			return ((hash >>> (i << 3)) & 0xF) << 2;
+		}
+
+		private static int spread(int hash) {
+			hash ^= hash >>> 17;
+			hash *= 0xed5ad4bb;
+			hash ^= hash >>> 11;
+			return hash;
+		}
+	}
+
+	/**
+	 * Immutable snapshot of the statistics of a {@link ConcurrentCache}.
+	 */
+	public static final class Stats {
+		private final long hitCount;
+		private final long missCount;
+		private final long loadSuccessCount;
+		private final long loadFailureCount;
+		private final long evictionCount;
+		private final long evictionWeight;
+
+		private Stats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long evictionCount, long evictionWeight) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.loadSuccessCount = loadSuccessCount;
+			this.loadFailureCount = loadFailureCount;
+			this.evictionCount = evictionCount;
+			this.evictionWeight = evictionWeight;
+		}
+
+		public long getHitCount() {
+			return this.hitCount;
+		}
+
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		public long getRequestCount() {
+			return this.hitCount + this.missCount;
+		}
+
+		/**
+		 * Returns the ratio of requests that have been hits, or 1 if there have been no requests yet.
+		 */
+		public double getHitRate() {
+			long requests = getRequestCount();
+			return (requests == 0) ? 1.0 : (double) this.hitCount / requests;
+		}
+
+		/**
+		 * Returns the number of successfully loaded values.
+		 */
+		public long getLoadSuccessCount() {
+			return this.loadSuccessCount;
+		}
+
+		/**
+		 * Returns the number of loads that have thrown an exception or returned null.
+		 */
+		public long getLoadFailureCount() {
+			return this.loadFailureCount;
+		}
+
+		public long getEvictionCount() {
+			return this.evictionCount;
+		}
+
+		public long getEvictionWeight() {
+			return this.evictionWeight;
+		}
+
+		@Override
+		public String toString() {
+			return "Stats{hits=" + this.hitCount + ", misses=" + this.missCount
+					+ ", loadSuccesses=" + this.loadSuccessCount + ", loadFailures=" + this.loadFailureCount
+					+ ", evictions=" + this.evictionCount + ", evictionWeight=" + this.evictionWeight + "}";
+		}
+	}
+
+	/**
+	 * Builder to configure and create new {@link ConcurrentCache} instances.
+	 */
+	public static final class Builder<K, V> {
+		private long maximumWeight = Long.MAX_VALUE;
+		private int initialCapacity = 16;
+		private ToIntBiFunction<? super K, ? super V> weigher = null;
+		private long expireAfterWriteNanos = 0;
+		private long expireAfterAccessNanos = 0;
+		private LongSupplier ticker = System::nanoTime;
+
+		private Builder() {
+		}
+
+		/**
+		 * Specifies the number of entries the cache is initially sized for. The cache grows beyond this number if
+		 * required, but specifying the expected number of entries avoids resizing the cache while it is filled.
+		 */
+		public Builder<K, V> initialCapacity(int initialCapacity) {
+			if (initialCapacity < 0) throw new IllegalArgumentException("initial capacity must not be negative");
+			this.initialCapacity = initialCapacity;
+			return this;
+		}
+
+		/**
+		 * Bounds the number of entries of the cache. This is the same as the maximum weight, if no weigher is
+		 * specified.
+		 */
+		public Builder<K, V> maximumSize(long maximumSize) {
+			return maximumWeight(maximumSize);
+		}
+
+		/**
+		 * Bounds the total weight of the entries of the cache.
+		 */
+		public Builder<K, V> maximumWeight(long maximumWeight) {
+			if (maximumWeight < 0) throw new IllegalArgumentException("maximum weight must not be negative");
+			this.maximumWeight = maximumWeight;
+			return this;
+		}
+
+		/**
+		 * Specifies the function to calculate the weight of an entry, when the entry is added to the cache. The weight
+		 * must not be negative.
+		 */
+		public Builder<K, V> weigher(@NotNull ToIntBiFunction<? super K, ? super V> weigher) {
+			this.weigher = Objects.requireNonNull(weigher);
+			return this;
+		}
+
+		/**
+		 * Entries expire after the specified duration since they have been added or replaced.
+		 */
+		public Builder<K, V> expireAfterWrite(@NotNull Duration duration) {
+			this.expireAfterWriteNanos = requirePositive(duration);
+			return this;
+		}
+
+		/**
+		 * Entries expire after the specified duration since they have been added, replaced or read.
+		 */
+		public Builder<K, V> expireAfterAccess(@NotNull Duration duration) {
+			this.expireAfterAccessNanos = requirePositive(duration);
+			return this;
+		}
+
+		/**
+		 * Specifies the time source in nanoseconds for the expiration, defaults to {@link System#nanoTime()}. This is
+		 * mainly useful for testing.
+		 */
+		public Builder<K, V> ticker(@NotNull LongSupplier ticker) {
+			this.ticker = Objects.requireNonNull(ticker);
+			return this;
+		}
+
+		private static long requirePositive(Duration duration) {
+			if (duration.isNegative() || duration.isZero()) {
+				throw new IllegalArgumentException("duration must be positive: " + duration);
+			}
+			return duration.toNanos();
+		}
+
+		/**
+		 * Creates a new cache without a loader.
+		 */
+		public ConcurrentCache<K, V> build() {
+			return new ConcurrentCache<>(this, null);
+		}
+
+		/**
+		 * Creates a new cache that loads missing values with the specified loader, when calling {@link
+		 * ConcurrentCache#get(Object)}.
+		 */
+		public ConcurrentCache<K, V> build(@NotNull Function<? super K, ? extends V> loader) {
+			return new ConcurrentCache<>(this, Objects.requireNonNull(loader));
+		}
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thread-safe variant of {@link CachedIterable}, that caches the entries of an iterable or iterator for repeatable
+ * access to the elements from multiple threads. The elements of the wrapped iterator are pulled by a single producer at
+ * a time, either by an iterating thread that requires an element that has not been cached yet, or by a background task
+ * that prefetches the elements ahead of the iterating threads. Reading elements that are already cached does not
+ * block.
+ * <p>
+ * For one-pass consumers of large iterations, the number of retained elements can be limited. In this case the oldest
+ * elements are discarded, and iterators that are lagging behind more than the retained elements will fail with an
+ * {@link IllegalStateException}.
+ *
+ * @created 19.10.2026
+ */
+public class ConcurrentCachedIterable<E> implements Iterable<E>, Closeable {
+
+	private static final int CHUNK_BITS = 8;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private final Iterator<E> futures;
+	private final int prefetchCount;
+	private final Executor executor;
+	private final int maxRetained;
+
+	// guards the access to the wrapped iterator and the modification of the chunks
+	private final ReentrantLock producer = new ReentrantLock();
+	private volatile Object[][] chunks = new Object[1][];
+	// number of cached elements, written after the element has been stored, to publish the element
+	private volatile int size = 0;
+	// index of the first element that is still retained, always a multiple of the chunk size
+	private volatile int discarded = 0;
+	private volatile boolean exhausted = false;
+	private volatile boolean closed = false;
+	private volatile RuntimeException failure = null;
+
+	private final AtomicInteger prefetchTarget = new AtomicInteger();
+	private final AtomicBoolean prefetching = new AtomicBoolean();
+
+	/**
+	 * Creates a new instance for the remaining elements of the specified iterator. Please note that the iterator shall
+	 * no longer be used outside this instance after the instance has been created.
+	 *
+	 * @param elements the elements of this instance
+	 */
+	public ConcurrentCachedIterable(Iterator<E> elements) {
+		this(elements, 0, null, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a new instance for the elements of the specified iterable.
+	 *
+	 * @param elements the elements of this instance
+	 */
+	public ConcurrentCachedIterable(Iterable<E> elements) {
+		this(elements.iterator());
+	}
+
+	/**
+	 * Creates a new instance for the remaining elements of the specified iterator. Please note that the iterator shall
+	 * no longer be used outside this instance after the instance has been created.
+	 * <p>
+	 * If a prefetch count and an executor is specified, the executor is used to pull the elements of the wrapped
+	 * iterator in the background, until the specified number of elements after the element that has been accessed most
+	 * recently are cached. If the number of retained elements is limited, the elements are discarded if more than the
+	 * specified number of elements have been cached after them. In this case, the prefetch count should be smaller
+	 * than the number of retained elements.
+	 *
+	 * @param elements      the elements of this instance
+	 * @param prefetchCount the number of elements to be prefetched, 0 for no prefetching
+	 * @param executor      the executor to prefetch the elements, null for no prefetching
+	 * @param maxRetained   the maximum number of elements to retain, {@link Integer#MAX_VALUE} for all
+	 */
+	public ConcurrentCachedIterable(Iterator<E> elements, int prefetchCount, @Nullable Executor executor, int maxRetained) {
+		if (prefetchCount < 0) {
+			throw new IllegalArgumentException("prefetch count must not be negative: " + prefetchCount);
+		}
+		if (maxRetained <= 0) {
+			throw new IllegalArgumentException("number of retained elements must be positive: " + maxRetained);
+		}
+		this.futures = elements;
+		this.prefetchCount = prefetchCount;
+		this.executor = (prefetchCount == 0) ? null : executor;
+		this.maxRetained = maxRetained;
+	}
+
+	/**
+	 * Fills the cache with at least count elements. After this call the cache will contain at least the specified
+	 * number of elements, or less elements if the underlying iterator does not provide this many elements at all.
+	 *
+	 * @param count the minimum number of elements to be contained, if possible
+	 */
+	private void fillCache(int count) {
+		producer.lock();
+		try {
+			while (size < count) {
+				if (failure != null) throw failure;
+				if (closed || !futures.hasNext()) {
+					exhausted = true;
+					return;
+				}
+				append(futures.next());
+			}
+		}
+		catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		}
+		finally {
+			producer.unlock();
+		}
+	}
+
+	private void append(E element) {
+		int index = size;
+		int chunkIndex = index >>> CHUNK_BITS;
+		Object[][] chunks = this.chunks;
+		if (chunkIndex == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+		}
+		if (chunks[chunkIndex] == null) {
+			chunks[chunkIndex] = new Object[CHUNK_SIZE];
+		}
+		chunks[chunkIndex][index & (CHUNK_SIZE - 1)] = element;
+		this.chunks = chunks;
+		this.size = index + 1;
+
+		// discard the chunks that are completely outside the retained elements
+		int floor = index + 1 - maxRetained;
+		int discarded = this.discarded;
+		if (floor - discarded >= CHUNK_SIZE) {
+			int newDiscarded = floor & ~(CHUNK_SIZE - 1);
+			for (int i = discarded >>> CHUNK_BITS; i < newDiscarded >>> CHUNK_BITS; i++) {
+				chunks[i] = null;
+			}
+			this.discarded = newDiscarded;
+		}
+	}
+
+	/**
+	 * Returns true if the element at the specified index is available, pulling the element from the wrapped iterator
+	 * if required.
+	 */
+	private boolean isAvailable(int index) {
+		if (index < size) return true;
+		if (exhausted) return false;
+		fillCache(index + 1);
+		return index < size;
+	}
+
+	@SuppressWarnings("unchecked")
+	private E get(int index) {
+		Object[] chunk = (index < discarded) ? null : chunks[index >>> CHUNK_BITS];
+		if (chunk == null) {
+			throw new IllegalStateException("element " + index + " is no longer retained, only the last " + maxRetained + " elements are");
+		}
+		return (E) chunk[index & (CHUNK_SIZE - 1)];
+	}
+
+	/**
+	 * Starts prefetching the elements after the specified index in the background, if required.
+	 */
+	private void prefetch(int index) {
+		if (executor == null || exhausted || closed) return;
+		int target = (int) Math.min((long) index + prefetchCount, Integer.MAX_VALUE);
+		prefetchTarget.accumulateAndGet(target, Math::max);
+		if (size < target && prefetching.compareAndSet(false, true)) {
+			startPrefetch();
+		}
+	}
+
+	private void startPrefetch() {
+		try {
+			executor.execute(this::prefetch);
+		}
+		catch (RejectedExecutionException e) {
+			// the executor is shut down or saturated, so the iterating threads have to pull the elements themselves
+			prefetching.set(false);
+		}
+	}
+
+	private void prefetch() {
+		try {
+			int target;
+			while (!closed && !exhausted && failure == null && size < (target = prefetchTarget.get())) {
+				// pull one element at a time, so iterating threads are not blocked for the whole prefetch
+				fillCache(Math.min(size + 1, target));
+			}
+		}
+		catch (RuntimeException ignored) {
+			// the failure has been stored, and will be thrown to the iterating threads
+		}
+		finally {
+			prefetching.set(false);
+		}
+		// check if the target has been raised while we have been finishing
+		if (!closed && !exhausted && failure == null && size < prefetchTarget.get()
+				&& prefetching.compareAndSet(false, true)) {
+			startPrefetch();
+		}
+	}
+
+	@NotNull
+	@Override
+	public Iterator<E> iterator() {
+		return iterator(0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns an iterator over a subset of the elements of type {@code T}, starting from the element at startIndex
+	 * (inclusively; where 0 is the first element) and stopping before the element at endIndex (exclusively).
+	 * <p>
+	 * If startIndex is below 0, the iteration start from the first element. If endIndex is ≤ 0 or ≤ startIndex the
+	 * iterator will be empty. If endIndex is larger than the number of elements contained in this iterator the
+	 * iteration will stop before endIndex is reached.
+	 *
+	 * @return an Iterator.
+	 */
+	public Iterator<E> iterator(final int startIndex, final int endIndex) {
+		return new Iterator<>() {
+			private int index = Math.max(startIndex, 0);
+
+			@Override
+			public boolean hasNext() {
+				return index < endIndex && isAvailable(index);
+			}
+
+			@Override
+			public E next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				E element = get(index++);
+				prefetch(index);
+				return element;
+			}
+
+			@Override
+			public String toString() {
+				return futures.toString();
+			}
+		};
+	}
+
+	/**
+	 * Closes the wrapped iterator, if it is closeable, and stops prefetching. Elements that are already cached can
+	 * still be iterated.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		if (this.futures instanceof Closeable closeable) {
+			producer.lock();
+			try {
+				closeable.close();
+			}
+			finally {
+				producer.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thread-safe variant of the {@link CountingSet}. The counters are striped {@link LongAdder}s, so incrementing and
+ * reading the counts is lock-free, and threads incrementing the same element rarely contend. Decrementing an element
+ * locks the element's bin of the {@link ConcurrentHashMap}, to remove the element exactly when its count drops to
+ * zero. A removed counter is marked as retired, and increments that have been applied to a retired counter are
+ * reverted and retried on a new counter, so no increment gets lost. The counts returned by the update methods are the
+ * counts right after the update, but may include concurrent updates of other threads.
+ * <p>
+ * The set does not support null elements.
+ *
+ * @created 19.10.2026
+ */
+public class ConcurrentCountingSet<E> extends AbstractSet<E> implements FrequencyCounter<E> {
+
+	private final ConcurrentHashMap<E, Counter> counters;
+
+	/**
+	 * Striped counter of an element, that is marked as retired before it is removed from the map.
+	 */
+	private static final class Counter extends LongAdder {
+		private volatile boolean retired = false;
+	}
+
+	/**
+	 * Constructs a new, empty counting set.
+	 */
+	public ConcurrentCountingSet() {
+		this.counters = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Constructs a new, empty counting set, with initial capacity for the specified number of distinct elements.
+	 *
+	 * @param expectedSize the expected number of distinct elements
+	 */
+	public ConcurrentCountingSet(int expectedSize) {
+		this.counters = new ConcurrentHashMap<>(expectedSize);
+	}
+
+	@Override
+	public int inc(@NotNull E object, int amount) {
+		if (amount <= 0) return dec(object, -amount);
+		while (true) {
+			Counter counter = counters.get(object);
+			if (counter == null) counter = counters.computeIfAbsent(object, key -> new Counter());
+			counter.add(amount);
+			// dec marks the counter as retired before reading its sum, so if it is not retired yet,
+			// the increment is included in that sum and the counter will not be removed
+			if (!counter.retired) return saturate(counter.sum());
+			// the counter has been (or is about to be) removed, revert and retry on a new counter
+			counter.add(-amount);
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public int dec(Object object, int amount) {
+		if (amount < 0) {
+			//noinspection unchecked
+			return inc((E) object, -amount);
+		}
+		if (object == null) return -amount;
+		int[] result = { -amount };
+		//noinspection unchecked
+		counters.computeIfPresent((E) object, (key, counter) -> {
+			counter.add(-amount);
+			counter.retired = true;
+			long count = counter.sum();
+			result[0] = saturate(count);
+			if (count <= 0) return null;
+			// still in use, so increments may continue to use this counter
+			counter.retired = false;
+			return counter;
+		});
+		return result[0];
+	}
+
+	@Override
+	public int getCount(E object) {
+		if (object == null) return 0;
+		Counter counter = counters.get(object);
+		return (counter == null) ? 0 : saturate(counter.sum());
+	}
+
+	@Override
+	public Iterator<E> iteratorDescendingOrder() {
+		// take a snapshot of the current counts, to have a consistent sort order
+		List<Map.Entry<E, Long>> entries = new ArrayList<>(counters.size());
+		counters.forEach((key, counter) -> entries.add(Map.entry(key, counter.sum())));
+		entries.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+		List<E> result = new ArrayList<>(entries.size());
+		for (Map.Entry<E, Long> entry : entries) {
+			result.add(entry.getKey());
+		}
+		return result.iterator();
+	}
+
+	@Override
+	public boolean add(E object) {
+		return inc(object) == 1;
+	}
+
+	/**
+	 * Removes an object from the set. If the object has been added multiple times, the object still remains in the set,
+	 * but its counter will be decreased by 1 instead. The method returns true if the object has been removed from the
+	 * set.
+	 */
+	@Override
+	public boolean remove(Object object) {
+		return dec(object) == 0;
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		//noinspection SuspiciousMethodCalls
+		return object != null && counters.containsKey(object);
+	}
+
+	@Override
+	public void clear() {
+		counters.clear();
+	}
+
+	@Override
+	public int size() {
+		return counters.size();
+	}
+
+	/**
+	 * Returns a weakly consistent iterator over the elements of this set. Removing an element by the iterator removes
+	 * the element completely, regardless of its count.
+	 */
+	@NotNull
+	@Override
+	public Iterator<E> iterator() {
+		return counters.keySet().iterator();
+	}
+
+	@Override
+	public String toString() {
+		return counters.toString();
+	}
+
+	private static int saturate(long sum) {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, sum));
+	}
+}
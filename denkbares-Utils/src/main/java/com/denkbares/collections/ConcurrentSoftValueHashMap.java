@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+
+/**
+ * Thread-safe implementation of a Map that will remove entries when the value in the map has been cleaned from garbage
+ * collection, see {@link ConcurrentWeakValueHashMap}. The values are stored as soft references, making the map usable
+ * as concurrent in-memory cache.
+ *
+ * @created 19.10.2026
+ */
+public class ConcurrentSoftValueHashMap<K, V> extends ConcurrentWeakValueHashMap<K, V> {
+
+	/**
+	 * Constructs a new, empty map with the default initial capacity.
+	 */
+	public ConcurrentSoftValueHashMap() {
+		super();
+	}
+
+	/**
+	 * Constructs a new, empty map with the given initial capacity.
+	 *
+	 * @param initialCapacity the number of elements the map can hold without resizing
+	 * @throws IllegalArgumentException If the initial capacity is less than zero
+	 */
+	public ConcurrentSoftValueHashMap(int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	/**
+	 * Constructs a new map with the same mappings as the specified <tt>Map</tt>.
+	 *
+	 * @param map the map whose mappings are to be placed in this map
+	 */
+	public ConcurrentSoftValueHashMap(Map<? extends K, ? extends V> map) {
+		super(map);
+	}
+
+	private static class SoftValueRef<K, V> extends SoftReference<V> implements ValueRef<K, V> {
+		public final K key;
+
+		public SoftValueRef(K key, V val, ReferenceQueue<V> q) {
+			super(val, q);
+			this.key = key;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return get();
+		}
+	}
+
+	@Override
+	protected ValueRef<K, V> wrap(K key, V value) {
+		if (value == null) return null;
+		return new SoftValueRef<>(key, value, queue);
+	}
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.denkbares.collections.StablePriorityQueue.ElementWrapper;
+import com.denkbares.collections.StablePriorityQueue.ItemCompare;
+
+/**
+ * Bounded, blocking and thread-safe variant of {@link StablePriorityQueue}, e.g. to be used as the queue of ready tasks
+ * of a pool of worker threads. Elements of equal priority are returned in the order they have been added.
+ * <p>
+ * The elements are distributed over a number of shards, each shard being a priority queue guarded by its own lock.
+ * Elements are added to a random shard, and removed from the better one of two randomly chosen shards, so there is no
+ * global lock for adding or removing elements. The number of available elements and free capacity is tracked by
+ * semaphores, which allow to block until an element or space is available. With a single shard, the queue is strictly
+ * ordered. With multiple shards, the order is relaxed: the returned element is not always the best one, but one of the
+ * best elements in the queue, and the stable order is only preserved within each shard. For high numbers of worker
+ * threads, about two shards per thread are recommended.
+ * <p>
+ * The iterator of this queue is a weakly consistent snapshot of the elements, in no particular order, and does not
+ * support removal. Null elements are not permitted.
+ *
+ * @param <T> the type of the elements of the queue
+ * @created 19.10.2026
+ */
+public class ConcurrentStablePriorityQueue<T> extends AbstractQueue<T> implements BlockingQueue<T> {
+
+	private final Shard<T>[] shards;
+	private final AtomicLong counter = new AtomicLong();
+	// permits for the elements that can be removed, and for the free capacity
+	private final Semaphore available = new Semaphore(0);
+	private final Semaphore space;
+
+	/**
+	 * Creates a new strictly ordered queue for comparable elements, with the specified capacity.
+	 *
+	 * @param capacity the maximum number of elements of the queue
+	 */
+	public ConcurrentStablePriorityQueue(int capacity) {
+		//noinspection unchecked
+		this(capacity, (Comparator<T>) Comparator.<Comparable>naturalOrder());
+	}
+
+	/**
+	 * Creates a new strictly ordered queue with the specified capacity and comparator.
+	 *
+	 * @param capacity   the maximum number of elements of the queue
+	 * @param comparator the comparator to order the elements
+	 */
+	public ConcurrentStablePriorityQueue(int capacity, Comparator<T> comparator) {
+		this(capacity, comparator, 1);
+	}
+
+	/**
+	 * Creates a new queue with the specified capacity and comparator, that distributes the elements over the specified
+	 * number of shards. If there are more than one shard, the order of the queue is relaxed, see class comment.
+	 *
+	 * @param capacity   the maximum number of elements of the queue
+	 * @param comparator the comparator to order the elements
+	 * @param shards     the number of shards to be used
+	 */
+	public ConcurrentStablePriorityQueue(int capacity, Comparator<T> comparator, int shards) {
+		if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		if (shards <= 0) throw new IllegalArgumentException("number of shards must be positive: " + shards);
+		this.space = new Semaphore(capacity);
+		ItemCompare<T> compare = new ItemCompare<>(comparator);
+		//noinspection unchecked
+		this.shards = new Shard[shards];
+		for (int i = 0; i < shards; i++) {
+			this.shards[i] = new Shard<>(compare);
+		}
+	}
+
+	/*
+	 * methods to add elements
+	 */
+
+	@Override
+	public boolean offer(@NotNull T element) {
+		Objects.requireNonNull(element);
+		if (!space.tryAcquire()) return false;
+		insert(element);
+		return true;
+	}
+
+	@Override
+	public boolean offer(@NotNull T element, long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+		Objects.requireNonNull(element);
+		if (!space.tryAcquire(timeout, unit)) return false;
+		insert(element);
+		return true;
+	}
+
+	@Override
+	public void put(@NotNull T element) throws InterruptedException {
+		Objects.requireNonNull(element);
+		space.acquire();
+		insert(element);
+	}
+
+	private void insert(T element) {
+		ElementWrapper<T> wrapper = new ElementWrapper<>(element, counter.getAndIncrement());
+		Shard<T> shard = shards[shards.length == 1 ? 0 : ThreadLocalRandom.current().nextInt(shards.length)];
+		shard.lock.lock();
+		try {
+			shard.queue.offer(wrapper);
+			shard.updateTop();
+		}
+		finally {
+			shard.lock.unlock();
+		}
+		// publish the element after it has been added
+		available.release();
+	}
+
+	/*
+	 * methods to remove elements
+	 */
+
+	@Override
+	public T poll() {
+		if (!available.tryAcquire()) return null;
+		return extract();
+	}
+
+	@Override
+	public T poll(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+		if (!available.tryAcquire(timeout, unit)) return null;
+		return extract();
+	}
+
+	@NotNull
+	@Override
+	public T take() throws InterruptedException {
+		available.acquire();
+		return extract();
+	}
+
+	@Override
+	public int drainTo(@NotNull Collection<? super T> collection) {
+		return drainTo(collection, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(@NotNull Collection<? super T> collection, int maxElements) {
+		if (collection == this) throw new IllegalArgumentException("cannot drain to itself");
+		int count = 0;
+		while (count < maxElements && available.tryAcquire()) {
+			count++;
+		}
+		List<T> elements = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			elements.add(removeBest());
+		}
+		space.release(count);
+		collection.addAll(elements);
+		return count;
+	}
+
+	/**
+	 * Removes an element, after one of the available permits has been acquired for it, and frees its space.
+	 */
+	private T extract() {
+		T element = removeBest();
+		space.release();
+		return element;
+	}
+
+	/**
+	 * Removes the better of the elements of two random shards. The caller must have acquired one of the available
+	 * permits, so there is at least one element that is not requested by other threads.
+	 */
+	private T removeBest() {
+		if (shards.length == 1) {
+			return shards[0].poll();
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int attempt = 0; attempt < 2 * shards.length; attempt++) {
+			Shard<T> shard = shards[random.nextInt(shards.length)];
+			Shard<T> other = shards[random.nextInt(shards.length)];
+			ElementWrapper<T> top = shard.top;
+			ElementWrapper<T> otherTop = other.top;
+			if (top == null || (otherTop != null && shard.queue.comparator().compare(otherTop, top) < 0)) {
+				shard = other;
+			}
+			if (shard.top != null && shard.lock.tryLock()) {
+				try {
+					ElementWrapper<T> wrapper = shard.queue.poll();
+					if (wrapper != null) {
+						shard.updateTop();
+						return wrapper.element;
+					}
+				}
+				finally {
+					shard.lock.unlock();
+				}
+			}
+		}
+		// the random shards have been empty or contended, so scan all shards until the element is found
+		while (true) {
+			for (Shard<T> shard : shards) {
+				if (shard.top == null) continue;
+				T element = shard.poll();
+				if (element != null) return element;
+			}
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (o == null || !available.tryAcquire()) return false;
+		for (Shard<T> shard : shards) {
+			shard.lock.lock();
+			try {
+				for (Iterator<ElementWrapper<T>> iterator = shard.queue.iterator(); iterator.hasNext(); ) {
+					if (o.equals(iterator.next().element)) {
+						iterator.remove();
+						shard.updateTop();
+						space.release();
+						return true;
+					}
+				}
+			}
+			finally {
+				shard.lock.unlock();
+			}
+		}
+		available.release();
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		drainTo(new ArrayList<>());
+	}
+
+	/*
+	 * methods to inspect the queue
+	 */
+
+	@Override
+	public T peek() {
+		ElementWrapper<T> best = null;
+		for (Shard<T> shard : shards) {
+			ElementWrapper<T> top = shard.top;
+			if (top != null && (best == null || shard.queue.comparator().compare(top, best) < 0)) {
+				best = top;
+			}
+		}
+		return (best == null) ? null : best.element;
+	}
+
+	@Override
+	public int size() {
+		return available.availablePermits();
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return space.availablePermits();
+	}
+
+	@NotNull
+	@Override
+	public Iterator<T> iterator() {
+		List<T> snapshot = new ArrayList<>();
+		for (Shard<T> shard : shards) {
+			shard.lock.lock();
+			try {
+				for (ElementWrapper<T> wrapper : shard.queue) {
+					snapshot.add(wrapper.element);
+				}
+			}
+			finally {
+				shard.lock.unlock();
+			}
+		}
+		return new UnmodifiableIterator<>(snapshot.iterator());
+	}
+
+	/**
+	 * A single priority queue of the shards, with a volatile copy of its head, to compare the shards without locking.
+	 */
+	private static final class Shard<T> {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final PriorityQueue<ElementWrapper<T>> queue;
+		private volatile ElementWrapper<T> top = null;
+
+		private Shard(Comparator<ElementWrapper<T>> comparator) {
+			this.queue = new PriorityQueue<>(comparator);
+		}
+
+		private void updateTop() {
+			top = queue.peek();
+		}
+
+		private T poll() {
+			lock.lock();
+			try {
+				ElementWrapper<T> wrapper = queue.poll();
+				updateTop();
+				return (wrapper == null) ? null : wrapper.element;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+}
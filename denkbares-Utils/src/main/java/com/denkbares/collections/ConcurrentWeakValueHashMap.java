@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thread-safe implementation of a Map that will remove entries when the value in the map has been cleaned from garbage
+ * collection, see {@link WeakValueHashMap}. The map is based on a {@link ConcurrentHashMap}, so reads are lock-free and
+ * writes only lock the affected hash bin. The entries of garbage collected values are removed in small batches during
+ * the write operations (and occasionally during read operations), by at most one thread at a time, without blocking
+ * any other thread.
+ * <p>
+ * The map is intended for canonical mappings (interning), use {@link #computeIfAbsent(Object, Function)} to get or
+ * create the canonical instance, which never returns a value that has already been cleared. The map does not support
+ * null keys or values.
+ *
+ * @created 19.10.2026
+ */
+public class ConcurrentWeakValueHashMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	/* maximum number of cleared references to be removed by a single operation */
+	private static final int DRAIN_LIMIT = 64;
+
+	/* reads only drain the queue with this (inverse) probability, to avoid contention on the drain flag */
+	private static final int READ_DRAIN_INTERVAL = 64;
+
+	/* Hash table mapping keys to it weak values references */
+	private final ConcurrentHashMap<K, ValueRef<K, V>> hash;
+
+	/* Reference queue for cleared weak values references */
+	protected final ReferenceQueue<V> queue = new ReferenceQueue<>();
+	private final AtomicBoolean draining = new AtomicBoolean(false);
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder clearedCount = new LongAdder();
+
+	/**
+	 * Constructs a new, empty map with the default initial capacity.
+	 */
+	public ConcurrentWeakValueHashMap() {
+		this(16);
+	}
+
+	/**
+	 * Constructs a new, empty map with the given initial capacity.
+	 *
+	 * @param initialCapacity the number of elements the map can hold without resizing
+	 * @throws IllegalArgumentException If the initial capacity is less than zero
+	 */
+	public ConcurrentWeakValueHashMap(int initialCapacity) {
+		hash = new ConcurrentHashMap<>(initialCapacity);
+	}
+
+	/**
+	 * Constructs a new map with the same mappings as the specified <tt>Map</tt>.
+	 *
+	 * @param map the map whose mappings are to be placed in this map
+	 */
+	public ConcurrentWeakValueHashMap(Map<? extends K, ? extends V> map) {
+		this(Math.max(16, map.size()));
+		putAll(map);
+	}
+
+	/**
+	 * Removes the entries of the values that have been garbage collected, by removing up to {@link #DRAIN_LIMIT}
+	 * entries. If any other thread is currently draining the queue, the method returns immediately. We must be a
+	 * little careful here, because the key's value might be already overwritten by some other (newer) value. In this
+	 * case the key must remain in the hash table.
+	 */
+	private void drainQueue() {
+		if (draining.get() || !draining.compareAndSet(false, true)) return;
+		try {
+			for (int i = 0; i < DRAIN_LIMIT; i++) {
+				Reference<? extends V> reference = queue.poll();
+				if (reference == null) break;
+				@SuppressWarnings("unchecked") ValueRef<K, V> valueRef = (ValueRef<K, V>) reference;
+				// only remove if the stored value in the hash-table is still the queued one
+				if (hash.remove(valueRef.getKey(), valueRef)) {
+					clearedCount.increment();
+				}
+			}
+		}
+		finally {
+			draining.set(false);
+		}
+	}
+
+	private void drainQueueOnRead() {
+		if (ThreadLocalRandom.current().nextInt(READ_DRAIN_INTERVAL) == 0) drainQueue();
+	}
+
+	/**
+	 * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key, or
+	 * the value has already been garbage collected. The lookup is counted in the statistics of this map.
+	 *
+	 * @param key The key whose associated value, if any, is to be returned
+	 */
+	@Override
+	public V get(Object key) {
+		drainQueueOnRead();
+		ValueRef<K, V> reference = hash.get(key);
+		V value = unwrap(reference);
+		if (value != null) {
+			hitCount.increment();
+			return value;
+		}
+		missCount.increment();
+		// remove the cleared entry, if it has not been drained yet
+		if (reference != null && hash.remove(key, reference)) clearedCount.increment();
+		return null;
+	}
+
+	/**
+	 * Returns the value for the specified key. If the key is not mapped to a value, or the value has been garbage
+	 * collected, the mapping function is used to create a new value, which is stored in this map. The method is
+	 * atomic, the function is called at most once per call, and never concurrently for the same key. The returned
+	 * value is never a cleared (null) value, unless the function returns null, in this case no mapping is stored.
+	 *
+	 * @param key             the key to get the value for
+	 * @param mappingFunction the function to create the value if absent
+	 * @return the current (existing or created) value
+	 */
+	@Override
+	public V computeIfAbsent(K key, @NotNull Function<? super K, ? extends V> mappingFunction) {
+		drainQueueOnRead();
+		V value = unwrap(hash.get(key));
+		if (value != null) {
+			hitCount.increment();
+			return value;
+		}
+		missCount.increment();
+		// the result array keeps a strong reference to the value, so it cannot be cleared before returning
+		Object[] result = new Object[1];
+		hash.compute(key, (k, reference) -> {
+			V existing = unwrap(reference);
+			if (existing != null) {
+				result[0] = existing;
+				return reference;
+			}
+			if (reference != null) clearedCount.increment();
+			V created = mappingFunction.apply(k);
+			result[0] = created;
+			return wrap(k, created);
+		});
+		drainQueue();
+		//noinspection unchecked
+		return (V) result[0];
+	}
+
+	@Override
+	public V putIfAbsent(@NotNull K key, V value) {
+		Objects.requireNonNull(value);
+		drainQueue();
+		Object[] result = new Object[1];
+		hash.compute(key, (k, reference) -> {
+			V existing = unwrap(reference);
+			if (existing != null) {
+				result[0] = existing;
+				return reference;
+			}
+			if (reference != null) clearedCount.increment();
+			return wrap(k, value);
+		});
+		//noinspection unchecked
+		return (V) result[0];
+	}
+
+	@Override
+	public V put(K key, V value) {
+		Objects.requireNonNull(value);
+		drainQueue();
+		return unwrap(hash.put(key, wrap(key, value)));
+	}
+
+	@Override
+	public V remove(Object key) {
+		drainQueue();
+		return unwrap(hash.remove(key));
+	}
+
+	@Override
+	public boolean remove(@NotNull Object key, Object value) {
+		drainQueue();
+		while (true) {
+			ValueRef<K, V> reference = hash.get(key);
+			V existing = unwrap(reference);
+			if (existing == null || !existing.equals(value)) return false;
+			if (hash.remove(key, reference)) return true;
+		}
+	}
+
+	@Override
+	public boolean replace(@NotNull K key, @NotNull V oldValue, @NotNull V newValue) {
+		Objects.requireNonNull(newValue);
+		drainQueue();
+		boolean[] replaced = { false };
+		hash.computeIfPresent(key, (k, reference) -> {
+			V existing = unwrap(reference);
+			if (existing == null) return null;
+			if (!existing.equals(oldValue)) return reference;
+			replaced[0] = true;
+			return wrap(k, newValue);
+		});
+		return replaced[0];
+	}
+
+	@Override
+	public V replace(@NotNull K key, @NotNull V value) {
+		Objects.requireNonNull(value);
+		drainQueue();
+		Object[] result = new Object[1];
+		hash.computeIfPresent(key, (k, reference) -> {
+			V existing = unwrap(reference);
+			if (existing == null) return null;
+			result[0] = existing;
+			return wrap(k, value);
+		});
+		//noinspection unchecked
+		return (V) result[0];
+	}
+
+	/**
+	 * Returns <code>true</code> if this map contains a mapping for the specified key, with a value that has not been
+	 * garbage collected yet.
+	 *
+	 * @param key The key whose presence in this map is to be tested
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		drainQueueOnRead();
+		return unwrap(hash.get(key)) != null;
+	}
+
+	/**
+	 * Returns the number of key-value mappings in this map. The number may include entries whose values are already
+	 * garbage collected, but not removed yet.
+	 */
+	@Override
+	public int size() {
+		drainQueue();
+		return hash.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		drainQueue();
+		return hash.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		hash.clear();
+		drainQueue();
+	}
+
+	/**
+	 * Returns a weakly consistent view of the entries of this map, skipping the entries whose values are already
+	 * garbage collected.
+	 */
+	@NotNull
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		drainQueue();
+		return new AbstractSet<Entry<K, V>>() {
+			@NotNull
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				final Iterator<Entry<K, ValueRef<K, V>>> iterator = hash.entrySet().iterator();
+				return new Iterator<Entry<K, V>>() {
+					private Entry<K, V> next = null;
+					private Entry<K, ValueRef<K, V>> current = null;
+
+					@Override
+					public boolean hasNext() {
+						while (next == null && iterator.hasNext()) {
+							Entry<K, ValueRef<K, V>> entry = iterator.next();
+							V value = unwrap(entry.getValue());
+							if (value != null) {
+								current = entry;
+								next = new SimpleEntry<K, V>(entry.getKey(), value) {
+									@Override
+									public V setValue(V value) {
+										super.setValue(value);
+										return ConcurrentWeakValueHashMap.this.put(getKey(), value);
+									}
+								};
+							}
+						}
+						return next != null;
+					}
+
+					@Override
+					public Entry<K, V> next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						Entry<K, V> result = next;
+						next = null;
+						return result;
+					}
+
+					@Override
+					public void remove() {
+						if (current == null) throw new IllegalStateException();
+						hash.remove(current.getKey(), current.getValue());
+						current = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return ConcurrentWeakValueHashMap.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of this map. Lookups by {@link #get(Object)} and {@link
+	 * #computeIfAbsent(Object, Function)} are counted as hits or misses.
+	 */
+	@NotNull
+	public Stats stats() {
+		return new Stats(hitCount.sum(), missCount.sum(), clearedCount.sum());
+	}
+
+	/**
+	 * Immutable snapshot of the statistics of a {@link ConcurrentWeakValueHashMap}.
+	 */
+	public static final class Stats {
+		private final long hitCount;
+		private final long missCount;
+		private final long clearedCount;
+
+		private Stats(long hitCount, long missCount, long clearedCount) {
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.clearedCount = clearedCount;
+		}
+
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		public long getMissCount() {
+			return missCount;
+		}
+
+		public long getRequestCount() {
+			return hitCount + missCount;
+		}
+
+		/**
+		 * Returns the ratio of requests that have been hits, or 1 if there have been no requests yet.
+		 */
+		public double getHitRate() {
+			long requests = getRequestCount();
+			return (requests == 0) ? 1.0 : (double) hitCount / requests;
+		}
+
+		/**
+		 * Returns the number of entries that have been removed, because their values have been garbage collected.
+		 */
+		public long getClearedCount() {
+			return clearedCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Stats{hits=" + hitCount + ", misses=" + missCount + ", cleared=" + clearedCount + "}";
+		}
+	}
+
+	protected interface ValueRef<K, V> {
+		K getKey();
+
+		V getValue();
+	}
+
+	/**
+	 * Weak reference to the value, that also knows the key this reference is stored for, to remove the entry after the
+	 * value has been garbage collected.
+	 *
+	 * @param <K> the key type stored in the enclosing map
+	 * @param <V> the value type stored in the enclosing map
+	 * @see #drainQueue()
+	 */
+	private static class WeakValueRef<K, V> extends WeakReference<V> implements ValueRef<K, V> {
+		public final K key;
+
+		public WeakValueRef(K key, V val, ReferenceQueue<V> q) {
+			super(val, q);
+			this.key = key;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return get();
+		}
+	}
+
+	protected ValueRef<K, V> wrap(K key, V value) {
+		if (value == null) return null;
+		return new WeakValueRef<>(key, value, queue);
+	}
+
+	private V unwrap(ValueRef<K, V> reference) {
+		return (reference == null) ? null : reference.getValue();
+	}
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate frequency counter with fixed memory consumption, based on a Count-Min sketch. The counts are never
+ * underestimated (as long as each element is not decremented more often than it has been incremented), but may be
+ * overestimated by at most <code>epsilon * total</code> with a probability of <code>confidence</code>, where total is
+ * the sum of all increments.
+ * <p>
+ * As the sketch itself does not store the counted elements, the counter additionally keeps track of a limited number
+ * of the most frequent elements (heavy hitters), that are returned by {@link #iteratorDescendingOrder()}. The heavy
+ * hitters are organized in a min-heap, so each update requires O(log topK) time to maintain them.
+ * <p>
+ * The counter supports null elements. This implementation is not thread-safe.
+ *
+ * @created 19.10.2026
+ */
+public class CountMinSketch<E> implements FrequencyCounter<E> {
+
+	private static final Object NULL = new Object();
+
+	private final int width;
+	private final int depth;
+	private final int[] table;
+	private long total = 0;
+
+	// min-heap of the heavy hitters, ordered by their estimated count
+	private final Object[] heavyHitters;
+	private final int[] heavyCounts;
+	private final Map<Object, Integer> positions;
+	private int size = 0;
+
+	/**
+	 * Creates a new sketch of the specified dimensions.
+	 *
+	 * @param width the number of counters per row, rounded up to the next power of two
+	 * @param depth the number of rows, each using an independent hash function
+	 * @param topK  the number of heavy hitters to keep track of, may be 0
+	 */
+	public CountMinSketch(int width, int depth, int topK) {
+		if (width <= 0) throw new IllegalArgumentException("width must be positive: " + width);
+		if (depth <= 0) throw new IllegalArgumentException("depth must be positive: " + depth);
+		if (topK < 0) throw new IllegalArgumentException("topK must not be negative: " + topK);
+		this.width = (width == 1) ? 1 : Integer.highestOneBit(width - 1) << 1;
+		this.depth = depth;
+		this.table = new int[this.width * depth];
+		this.heavyHitters = new Object[topK];
+		this.heavyCounts = new int[topK];
+		this.positions = new HashMap<>(topK * 4 / 3 + 1);
+	}
+
+	/**
+	 * Creates a new sketch with the specified error bounds. The estimated counts exceed the true counts by at most
+	 * <code>epsilon * total</code>, with the specified probability.
+	 *
+	 * @param epsilon    the relative error, e.g. 0.001
+	 * @param confidence the probability of the error to be within bounds, e.g. 0.99
+	 * @param topK       the number of heavy hitters to keep track of, may be 0
+	 * @return the created sketch
+	 */
+	public static <E> CountMinSketch<E> create(double epsilon, double confidence, int topK) {
+		if (epsilon <= 0 || epsilon >= 1) throw new IllegalArgumentException("invalid epsilon: " + epsilon);
+		if (confidence <= 0 || confidence >= 1) throw new IllegalArgumentException("invalid confidence: " + confidence);
+		int width = (int) Math.ceil(Math.E / epsilon);
+		int depth = (int) Math.ceil(Math.log(1 / (1 - confidence)));
+		return new CountMinSketch<>(width, depth, topK);
+	}
+
+	@Override
+	public int inc(E object, int amount) {
+		if (amount <= 0) return dec(object, -amount);
+		Object element = mask(object);
+		int hash1 = hash(element);
+		int hash2 = rehash(hash1);
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			int index = row * width + ((hash1 + row * hash2) & (width - 1));
+			int count = table[index] = saturatedAdd(table[index], amount);
+			estimate = Math.min(estimate, count);
+		}
+		total += amount;
+		updateHeavyHitter(element, estimate);
+		return estimate;
+	}
+
+	/**
+	 * Decreases the counter of the specified object. As the sketch cannot determine if an object has been counted,
+	 * the counters are never decreased below zero, and the method returns -amount if the estimated count already has
+	 * been zero.
+	 */
+	@Override
+	public int dec(Object object, int amount) {
+		if (amount < 0) {
+			//noinspection unchecked
+			return inc((E) object, -amount);
+		}
+		Object element = mask(object);
+		int hash1 = hash(element);
+		int hash2 = rehash(hash1);
+		int estimate = estimate(hash1, hash2);
+		if (estimate == 0) return -amount;
+		int delta = Math.min(amount, estimate);
+		for (int row = 0; row < depth; row++) {
+			int index = row * width + ((hash1 + row * hash2) & (width - 1));
+			table[index] -= delta;
+		}
+		total -= delta;
+		int count = estimate(hash1, hash2);
+		updateHeavyHitter(element, count);
+		return count;
+	}
+
+	@Override
+	public int getCount(E object) {
+		int hash1 = hash(mask(object));
+		return estimate(hash1, rehash(hash1));
+	}
+
+	/**
+	 * Returns the heavy hitters of this sketch, ordered by their estimated count. The iterator returns at most the
+	 * number of topK elements specified when creating the sketch.
+	 */
+	@Override
+	public Iterator<E> iteratorDescendingOrder() {
+		// sort by count (descending), using a single primitive sort
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = ((long) (Integer.MAX_VALUE - heavyCounts[i]) << 32) | i;
+		}
+		Arrays.sort(keys);
+		List<E> result = new ArrayList<>(size);
+		for (long key : keys) {
+			result.add(unmask(heavyHitters[(int) key]));
+		}
+		return result.iterator();
+	}
+
+	/**
+	 * Returns the sum of all counts of this sketch.
+	 *
+	 * @return the total number of counted objects
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Resets all counters of this sketch.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+		Arrays.fill(heavyHitters, null);
+		positions.clear();
+		size = 0;
+		total = 0;
+	}
+
+	private int estimate(int hash1, int hash2) {
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, table[row * width + ((hash1 + row * hash2) & (width - 1))]);
+		}
+		return estimate;
+	}
+
+	private void updateHeavyHitter(Object element, int count) {
+		if (heavyHitters.length == 0) return;
+		Integer position = positions.get(element);
+		if (position != null) {
+			if (count <= 0) {
+				removeAt(position);
+			}
+			else {
+				heavyCounts[position] = count;
+				siftDown(siftUp(position));
+			}
+		}
+		else if (count <= 0) {
+			return;
+		}
+		else if (size < heavyHitters.length) {
+			int index = size++;
+			set(index, element, count);
+			siftUp(index);
+		}
+		else if (count > heavyCounts[0]) {
+			// replace the least frequent heavy hitter
+			positions.remove(heavyHitters[0]);
+			set(0, element, count);
+			siftDown(0);
+		}
+	}
+
+	private void removeAt(int position) {
+		positions.remove(heavyHitters[position]);
+		int last = --size;
+		if (position != last) {
+			set(position, heavyHitters[last], heavyCounts[last]);
+			heavyHitters[last] = null;
+			siftDown(siftUp(position));
+		}
+		else {
+			heavyHitters[last] = null;
+		}
+	}
+
+	private void set(int position, Object element, int count) {
+		heavyHitters[position] = element;
+		heavyCounts[position] = count;
+		positions.put(element, position);
+	}
+
+	private int siftUp(int position) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (heavyCounts[parent] <= heavyCounts[position]) break;
+			swap(position, parent);
+			position = parent;
+		}
+		return position;
+	}
+
+	private int siftDown(int position) {
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size) break;
+			if (child + 1 < size && heavyCounts[child + 1] < heavyCounts[child]) child++;
+			if (heavyCounts[position] <= heavyCounts[child]) break;
+			swap(position, child);
+			position = child;
+		}
+		return position;
+	}
+
+	private void swap(int a, int b) {
+		Object element = heavyHitters[a];
+		int count = heavyCounts[a];
+		set(a, heavyHitters[b], heavyCounts[b]);
+		set(b, element, count);
+	}
+
+	private static int saturatedAdd(int count, int amount) {
+		int sum = count + amount;
+		return (sum < count) ? Integer.MAX_VALUE : sum;
+	}
+
+	private static int hash(Object element) {
+		int hash = element.hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int rehash(int hash) {
+		// second hash function for the double hashing scheme, must be odd to reach all counters of a row
+		hash *= 0x9e3779b9;
+		return (hash ^ (hash >>> 15)) | 1;
+	}
+
+	private static Object mask(Object object) {
+		return (object == null) ? NULL : object;
+	}
+
+	private static <E> E unmask(Object element) {
+		//noinspection unchecked
+		return (element == NULL) ? null : (E) element;
+	}
+
+	@Override
+	public String toString() {
+		return "CountMinSketch[" + width + "x" + depth + ", total=" + total + "]";
+	}
+}
@@ -40,7 +40,7 @@ import org.jetbrains.annotations.NotNull;
  * @author Volker Belli (denkbares GmbH)
  * @created 14.02.2013
  */
-public class CountingSet<E> implements Set<E> {
+public class CountingSet<E> implements Set<E>, FrequencyCounter<E> {
 
 	private static class Count {
 
@@ -90,6 +90,7 @@ public class CountingSet<E> implements Set<E> {
 	 *
 	 * @return iterator with descending count order
 	 */
+	@Override
 	public Iterator<E> iteratorDescendingOrder() {
 		List<E> list = new ArrayList<>(counters.keySet());
 		list.sort((o1, o2) -> Integer.compare(getCount(o2), getCount(o1)));
@@ -153,6 +154,7 @@ public class CountingSet<E> implements Set<E> {
 	 * @return how often the object has been added
 	 * @created 14.02.2013
 	 */
+	@Override
 	public int getCount(E object) {
 		Count count = counters.get(object);
 		return (count != null) ? count.count : 0;
@@ -208,6 +210,7 @@ public class CountingSet<E> implements Set<E> {
 	 * @return the actual counter of that object
 	 * @created 14.02.2013
 	 */
+	@Override
 	public int inc(E object) {
 		return inc(object, 1);
 	}
@@ -222,6 +225,7 @@ public class CountingSet<E> implements Set<E> {
 	 * @return the actual counter of that object
 	 * @created 14.02.2013
 	 */
+	@Override
 	public int inc(E object, int amount) {
 		if (amount <= 0) return dec(object, -amount);
 		Count count = counters.computeIfAbsent(object, k -> new Count());
@@ -241,6 +245,7 @@ public class CountingSet<E> implements Set<E> {
 	 * @return the actual counter of that object
 	 * @created 14.02.2013
 	 */
+	@Override
 	public int dec(Object object) {
 		return dec(object, 1);
 	}
@@ -259,6 +264,7 @@ public class CountingSet<E> implements Set<E> {
 	 * @return the actual counter of that object
 	 * @created 14.02.2013
 	 */
+	@Override
 	@SuppressWarnings({ "SuspiciousMethodCalls", "unchecked" })
 	public int dec(Object object, int amount) {
 		if (amount < 0) return inc((E) object, -amount);
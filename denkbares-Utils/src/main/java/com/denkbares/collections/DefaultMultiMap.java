@@ -19,10 +19,15 @@
 package com.denkbares.collections;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -44,6 +49,8 @@ import org.jetbrains.annotations.NotNull;
 public class DefaultMultiMap<K, V> extends AbstractMultiMap<K, V> implements Serializable {
 
 	private int size = 0;
+	// the size of concurrent maps, to be updated by multiple threads, or null for non-concurrent maps
+	private final LongAdder concurrentSize;
 	final Map<K, Set<V>> k2v;
 
 	private final MultiMaps.CollectionFactory<K> keyFactory;
@@ -68,6 +75,7 @@ public class DefaultMultiMap<K, V> extends AbstractMultiMap<K, V> implements Ser
 		this.keyFactory = keyFactory;
 		this.valueFactory = valueFactory;
 		this.k2v = keyFactory.createMap();
+		this.concurrentSize = (k2v instanceof ConcurrentMap) ? new LongAdder() : null;
 	}
 
 	/**
@@ -94,14 +102,62 @@ public class DefaultMultiMap<K, V> extends AbstractMultiMap<K, V> implements Ser
 		// connect source to term
 		Set<V> values = k2v.computeIfAbsent(key, _k -> valueFactory.createSet());
 		boolean isNew = values.add(value);
-		if (isNew) size++;
+		if (isNew) addSize(1);
 		return isNew;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the key is not contained in this map, the set of values is created with the required capacity at once,
+	 * instead of growing it incrementally while adding the values.
+	 */
+	@Override
+	public boolean putAll(K key, Collection<? extends V> values) {
+		if (values.isEmpty()) return false;
+		Set<V> existing = k2v.computeIfAbsent(key, _k -> valueFactory.createSet(values.size()));
+		int added;
+		if (concurrentSize == null) {
+			int before = existing.size();
+			existing.addAll(values);
+			added = existing.size() - before;
+		}
+		else {
+			// other threads may add to the same set, so count the added values
+			added = 0;
+			for (V value : values) {
+				if (existing.add(value)) added++;
+			}
+		}
+		addSize(added);
+		return added > 0;
+	}
+
+	@NotNull
+	@Override
+	public Stream<Entry<K, V>> entryStream() {
+		return StreamSupport.stream(new MultiMaps.EntrySpliterator<>(k2v.keySet().spliterator(),
+				key -> k2v.getOrDefault(key, Collections.emptySet()), size()), false);
+	}
+
 	@Override
 	public void clear() {
 		k2v.clear();
-		size = 0;
+		if (concurrentSize == null) {
+			size = 0;
+		}
+		else {
+			concurrentSize.reset();
+		}
+	}
+
+	private void addSize(int delta) {
+		if (concurrentSize == null) {
+			size += delta;
+		}
+		else {
+			concurrentSize.add(delta);
+		}
 	}
 
 	@NotNull
@@ -117,7 +173,7 @@ public class DefaultMultiMap<K, V> extends AbstractMultiMap<K, V> implements Ser
 				k2v.remove(key);
 			}
 		}
-		size -= keys.size();
+		addSize(-keys.size());
 		return Collections.unmodifiableSet(keys);
 	}
 
@@ -126,7 +182,7 @@ public class DefaultMultiMap<K, V> extends AbstractMultiMap<K, V> implements Ser
 	public Set<V> removeKey(Object key) {
 		Set<V> values = k2v.remove(key);
 		if (values == null) return Collections.emptySet();
-		size -= values.size();
+		addSize(-values.size());
 		return Collections.unmodifiableSet(values);
 	}
 
@@ -136,7 +192,7 @@ public class DefaultMultiMap<K, V> extends AbstractMultiMap<K, V> implements Ser
 		if (values == null) return false;
 		boolean isRemoved = values.remove(value);
 		if (isRemoved) {
-			size--;
+			addSize(-1);
 			// and check if the list has become empty
 			// and can be removed completely
 			if (values.isEmpty()) {
@@ -202,6 +258,6 @@ public class DefaultMultiMap<K, V> extends AbstractMultiMap<K, V> implements Ser
 
 	@Override
 	public int size() {
-		return size;
+		return (concurrentSize == null) ? size : concurrentSize.intValue();
 	}
 }
@@ -22,14 +22,14 @@ package com.denkbares.collections;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Class that creates a depth first order, based on se set of start nodes, and a successor function. It considers that
@@ -38,6 +38,10 @@ import java.util.function.Function;
  * If a node can be reached by multiple paths, the node will be placed behind each other node that comes before in any
  * of the paths, so in fact this class creates a mixed depth-first-breads-first order. If creates a depth-first order,
  * but stops before any node that will be reached by a later depth-first-path.
+ * <p>
+ * Additionally, the class provides a level-based topological order (Kahn's algorithm) and the strongly connected
+ * components (Tarjan's algorithm) of the graph reachable from the start nodes. All algorithms are iterative and run in
+ * linear time of the reachable graph, the successor function is called only once for each node.
  *
  * @author Volker Belli (denkbares GmbH)
  * @created 22.09.2019
@@ -47,8 +51,13 @@ public class DepthFirstOrder<Node> {
 	private final Set<Node> startNodes = new LinkedHashSet<>();
 	private final Function<Node, ? extends Collection<Node>> successors;
 
-	private Map<Node, Integer> positions;
-	private int nextPosition;
+	// the reachable graph, each node is identified by its index
+	private List<Node> nodes;
+	private int[][] edges;
+
+	private List<Node> orderedNodes;
+	private List<List<Node>> levels;
+	private List<List<Node>> components;
 
 	@SafeVarargs
 	public DepthFirstOrder(Function<Node, ? extends Collection<Node>> successors, Node... startNodes) {
@@ -60,33 +69,273 @@ public class DepthFirstOrder<Node> {
 		this.startNodes.addAll(startNodes);
 	}
 
+	/**
+	 * Returns the nodes in the depth first order, as described in the class comment. For acyclic graphs this is a
+	 * topological order of the nodes. For cyclic graphs, the edges that are closing a cycle are ignored.
+	 *
+	 * @return the ordered nodes
+	 */
 	public List<Node> getOrderedNodes() {
-		if (positions == null) {
-			positions = new HashMap<>();
-			nextPosition = 0;
-			for (Node node : startNodes) {
-				recurse(node, new HashSet<>());
+		if (orderedNodes == null) {
+			initGraph(false);
+			orderedNodes = Collections.unmodifiableList(Arrays.asList(createOrder()));
+		}
+		return new ArrayList<>(orderedNodes);
+	}
+
+	/**
+	 * Returns a topological order of the nodes, where each node is placed behind all of its predecessors. The order is
+	 * the concatenation of the {@link #getLevels() levels} of the graph.
+	 *
+	 * @return the topologically ordered nodes
+	 * @throws IllegalStateException if the graph contains cycles
+	 */
+	public List<Node> getTopologicalOrder() {
+		List<Node> result = new ArrayList<>(getLevels().stream().mapToInt(List::size).sum());
+		getLevels().forEach(result::addAll);
+		return result;
+	}
+
+	/**
+	 * Returns the levels of the graph (Kahn's algorithm). The first level contains the nodes without any predecessors,
+	 * each other level contains the nodes that only have predecessors in the previous levels. Therefore the nodes of
+	 * one level are independent of each other, and may be processed concurrently.
+	 *
+	 * @return the levels of the nodes
+	 * @throws IllegalStateException if the graph contains cycles
+	 */
+	public List<List<Node>> getLevels() {
+		return getLevels(false);
+	}
+
+	/**
+	 * Returns the levels of the graph (Kahn's algorithm), see {@link #getLevels()}. If parallel is specified, the
+	 * successor function is called concurrently for all nodes of the same breadth-first level, when exploring the
+	 * graph for the first time. This is useful if the successor function is expensive, but requires the successor
+	 * function to be thread-safe. The result is the same as for the sequential exploration.
+	 *
+	 * @param parallel if the successor function shall be called concurrently
+	 * @return the levels of the nodes
+	 * @throws IllegalStateException if the graph contains cycles
+	 */
+	public List<List<Node>> getLevels(boolean parallel) {
+		if (levels == null) {
+			initGraph(parallel);
+			levels = Collections.unmodifiableList(createLevels());
+		}
+		return levels;
+	}
+
+	/**
+	 * Returns the strongly connected components of the graph (Tarjan's algorithm). The components are ordered
+	 * topologically, so a component is placed behind all components that have an edge into this component.
+	 *
+	 * @return the strongly connected components
+	 */
+	public List<List<Node>> getStronglyConnectedComponents() {
+		if (components == null) {
+			initGraph(false);
+			components = Collections.unmodifiableList(createComponents());
+		}
+		return components;
+	}
+
+	/**
+	 * Returns true if the graph reachable from the start nodes does not contain any cycles.
+	 *
+	 * @return if the graph is acyclic
+	 */
+	public boolean isAcyclic() {
+		if (getStronglyConnectedComponents().size() < nodes.size()) return false;
+		// check for self-references, the only cycles within single-node components
+		for (int node = 0; node < edges.length; node++) {
+			for (int successor : edges[node]) {
+				if (successor == node) return false;
 			}
 		}
+		return true;
+	}
 
-		List<Node> order = new ArrayList<>(positions.keySet());
-		order.sort(Comparator.comparingInt(positions::get));
+	/**
+	 * Explores the graph reachable from the start nodes breadth-first, and assigns an index to each node, so the
+	 * indices are independent of the parallel exploration.
+	 */
+	private void initGraph(boolean parallel) {
+		if (nodes != null) return;
+		List<Node> nodes = new ArrayList<>(startNodes);
+		Map<Node, Integer> indices = new HashMap<>();
+		for (Node node : nodes) indices.put(node, indices.size());
+		List<int[]> edges = new ArrayList<>();
+
+		int levelStart = 0;
+		while (levelStart < nodes.size()) {
+			List<Node> level = nodes.subList(levelStart, nodes.size());
+			List<Collection<Node>> levelSuccessors = (parallel && level.size() > 1)
+					? new ArrayList<>(level).parallelStream().map(successors).collect(Collectors.toList())
+					: level.stream().map(successors).collect(Collectors.toList());
+			levelStart = nodes.size();
+			for (Collection<Node> successorNodes : levelSuccessors) {
+				int[] successorIndices = new int[successorNodes.size()];
+				int i = 0;
+				for (Node successor : successorNodes) {
+					Integer index = indices.get(successor);
+					if (index == null) {
+						index = nodes.size();
+						indices.put(successor, index);
+						nodes.add(successor);
+					}
+					successorIndices[i++] = index;
+				}
+				edges.add(successorIndices);
+			}
+		}
+		this.nodes = nodes;
+		this.edges = edges.toArray(new int[0][]);
+	}
+
+	/**
+	 * Creates the depth first order. Instead of re-visiting a node each time it is reached (to move it behind the
+	 * latest path), the reversed post-order of a depth-first search is used, running through the start nodes and
+	 * successors backwards. For acyclic graphs both orders are identical: the latest visit of a node in forward
+	 * direction is the first completed visit in backward direction.
+	 */
+	private Node[] createOrder() {
+		int count = nodes.size();
+		//noinspection unchecked
+		Node[] order = (Node[]) new Object[count];
+		int position = count;
+
+		boolean[] visited = new boolean[count];
+		int[] stack = new int[count];
+		int[] nextEdge = new int[count];
+		for (int start = startNodes.size() - 1; start >= 0; start--) {
+			if (visited[start]) continue;
+			int depth = 0;
+			stack[depth++] = start;
+			visited[start] = true;
+			nextEdge[start] = edges[start].length - 1;
+			while (depth > 0) {
+				int node = stack[depth - 1];
+				if (nextEdge[node] >= 0) {
+					int successor = edges[node][nextEdge[node]--];
+					if (!visited[successor]) {
+						visited[successor] = true;
+						nextEdge[successor] = edges[successor].length - 1;
+						stack[depth++] = successor;
+					}
+				}
+				else {
+					depth--;
+					order[--position] = nodes.get(node);
+				}
+			}
+		}
 		return order;
 	}
 
-	private void recurse(Node node, Set<Node> stackNodes) {
-		// if we reach a node for the second time, we continue to recurse,
-		// because we have to re-mark them with a higher number,
-		// but if we have it in the call-stack of the recursion, we skip to resolve cycles
-		if (!stackNodes.add(node)) return;
+	private List<List<Node>> createLevels() {
+		int count = nodes.size();
+		int[] predecessors = new int[count];
+		for (int[] successorIndices : edges) {
+			for (int successor : successorIndices) predecessors[successor]++;
+		}
 
-		// mark the node with the position
-		positions.put(node, nextPosition++);
-		for (Node next : successors.apply(node)) {
-			recurse(next, stackNodes);
+		List<List<Node>> result = new ArrayList<>();
+		int[] level = new int[count];
+		int levelSize = 0;
+		for (int node = 0; node < count; node++) {
+			if (predecessors[node] == 0) level[levelSize++] = node;
+		}
+		int[] next = new int[count];
+		int processed = 0;
+		while (levelSize > 0) {
+			List<Node> levelNodes = new ArrayList<>(levelSize);
+			int nextSize = 0;
+			for (int i = 0; i < levelSize; i++) {
+				int node = level[i];
+				levelNodes.add(nodes.get(node));
+				for (int successor : edges[node]) {
+					if (--predecessors[successor] == 0) next[nextSize++] = successor;
+				}
+			}
+			result.add(Collections.unmodifiableList(levelNodes));
+			processed += levelSize;
+			int[] swap = level;
+			level = next;
+			next = swap;
+			levelSize = nextSize;
 		}
 
-		// finally we remove the node before returning, to have only the nodes of the call stack
-		stackNodes.remove(node);
+		if (processed < count) {
+			List<Node> cyclic = new ArrayList<>();
+			for (int node = 0; node < count; node++) {
+				if (predecessors[node] > 0) cyclic.add(nodes.get(node));
+			}
+			throw new IllegalStateException("the graph contains cycles, involving the nodes " + cyclic);
+		}
+		return result;
+	}
+
+	private List<List<Node>> createComponents() {
+		int count = nodes.size();
+		int[] index = new int[count];
+		Arrays.fill(index, -1);
+		int[] lowLink = new int[count];
+		boolean[] onStack = new boolean[count];
+		int[] componentStack = new int[count];
+		int componentDepth = 0;
+		int[] callStack = new int[count];
+		int[] nextEdge = new int[count];
+		int nextIndex = 0;
+
+		List<List<Node>> result = new ArrayList<>();
+		for (int start = 0; start < count; start++) {
+			if (index[start] >= 0) continue;
+			int depth = 0;
+			callStack[depth++] = start;
+			index[start] = lowLink[start] = nextIndex++;
+			componentStack[componentDepth++] = start;
+			onStack[start] = true;
+			nextEdge[start] = 0;
+			while (depth > 0) {
+				int node = callStack[depth - 1];
+				if (nextEdge[node] < edges[node].length) {
+					int successor = edges[node][nextEdge[node]++];
+					if (index[successor] < 0) {
+						// "recurse" into the successor
+						index[successor] = lowLink[successor] = nextIndex++;
+						componentStack[componentDepth++] = successor;
+						onStack[successor] = true;
+						nextEdge[successor] = 0;
+						callStack[depth++] = successor;
+					}
+					else if (onStack[successor]) {
+						lowLink[node] = Math.min(lowLink[node], index[successor]);
+					}
+					continue;
+				}
+
+				// all successors are processed, so check if the node is the root of a component
+				if (lowLink[node] == index[node]) {
+					List<Node> component = new ArrayList<>();
+					int member;
+					do {
+						member = componentStack[--componentDepth];
+						onStack[member] = false;
+						component.add(nodes.get(member));
+					} while (member != node);
+					Collections.reverse(component);
+					result.add(Collections.unmodifiableList(component));
+				}
+				depth--;
+				if (depth > 0) {
+					int parent = callStack[depth - 1];
+					lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+				}
+			}
+		}
+		// tarjan creates the components in reverse topological order
+		Collections.reverse(result);
+		return result;
 	}
 }
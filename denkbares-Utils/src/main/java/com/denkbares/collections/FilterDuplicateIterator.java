@@ -22,20 +22,92 @@ package com.denkbares.collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
+ * Iterator that skips all elements that have already been returned before. By default, all returned elements are kept
+ * in a hash set. For huge iterations, the iterator can be created using a {@link ScalableBloomFilter}, either in front
+ * of an exact set (see {@link #prefiltered(Iterator, Set, int, double)}), or as the only set of returned elements, which
+ * requires only a few bits per element, but may skip some unique elements (see {@link #approximate(Iterator, int,
+ * double)}).
+ *
  * @author Volker Belli (denkbares GmbH)
  * @created 13.03.2014
  */
 public class FilterDuplicateIterator<E> extends FilterIterator<E> {
-	private final Set<E> accepted = new HashSet<>();
+	private final Set<E> accepted;
+	private final ScalableBloomFilter<E> filter;
 
 	public FilterDuplicateIterator(Iterator<E> source) {
+		this(source, new HashSet<>(), null);
+	}
+
+	private FilterDuplicateIterator(Iterator<E> source, @Nullable Set<E> accepted, @Nullable ScalableBloomFilter<E> filter) {
 		super(source);
+		this.accepted = accepted;
+		this.filter = filter;
+	}
+
+	/**
+	 * Creates an iterator that skips the duplicates of the specified source, using only a bloom filter to remember the
+	 * returned elements. The memory only requires a few bytes per returned element, independent of the elements'
+	 * size, but each unique element is skipped with the specified false positive probability.
+	 *
+	 * @param source            the iterator to skip the duplicates of
+	 * @param expectedSize      the expected number of unique elements, used as initial capacity of the filter
+	 * @param falsePositiveRate the maximum probability that a unique element is skipped
+	 * @return the iterator without duplicates
+	 */
+	public static <E> FilterDuplicateIterator<E> approximate(Iterator<E> source, int expectedSize, double falsePositiveRate) {
+		return new FilterDuplicateIterator<>(source, null, new ScalableBloomFilter<>(expectedSize, falsePositiveRate));
+	}
+
+	/**
+	 * Creates an iterator that skips the duplicates of the specified source, using only a bloom filter to remember the
+	 * returned elements, that uses the specified 64 bit hash function of the elements.
+	 *
+	 * @param source            the iterator to skip the duplicates of
+	 * @param expectedSize      the expected number of unique elements, used as initial capacity of the filter
+	 * @param falsePositiveRate the maximum probability that a unique element is skipped
+	 * @param hasher            the function to create a 64 bit hash of an element
+	 * @return the iterator without duplicates
+	 * @see ScalableBloomFilter#ScalableBloomFilter(int, double, ToLongFunction)
+	 */
+	public static <E> FilterDuplicateIterator<E> approximate(Iterator<E> source, int expectedSize, double falsePositiveRate, ToLongFunction<? super E> hasher) {
+		return new FilterDuplicateIterator<>(source, null, new ScalableBloomFilter<>(expectedSize, falsePositiveRate, hasher));
+	}
+
+	/**
+	 * Creates an iterator that skips all duplicates of the specified source, using the specified set to remember the
+	 * returned elements, with a bloom filter in front of it. The set is only queried for elements that are possibly
+	 * duplicates, which are the actual duplicates and the false positives of the filter. Elements that are definitely
+	 * unique are only added to the set. This allows the specified set to be an expensive, e.g. a disk-backed or
+	 * off-heap, implementation.
+	 *
+	 * @param source            the iterator to skip the duplicates of
+	 * @param accepted          the (empty) set to remember the returned elements
+	 * @param expectedSize      the expected number of unique elements, used as initial capacity of the filter
+	 * @param falsePositiveRate the probability that the set is queried for a unique element
+	 * @return the iterator without duplicates
+	 */
+	public static <E> FilterDuplicateIterator<E> prefiltered(Iterator<E> source, @NotNull Set<E> accepted, int expectedSize, double falsePositiveRate) {
+		return new FilterDuplicateIterator<>(source, accepted, new ScalableBloomFilter<>(expectedSize, falsePositiveRate));
 	}
 
 	@Override
 	public boolean accept(E item) {
-		return accepted.add(item);
+		if (filter == null) {
+			return accepted.add(item);
+		}
+		if (filter.add(item)) {
+			// definitely not returned before
+			if (accepted != null) accepted.add(item);
+			return true;
+		}
+		// possibly returned before, so check the exact set, if there is any
+		return accepted != null && accepted.add(item);
 	}
 }
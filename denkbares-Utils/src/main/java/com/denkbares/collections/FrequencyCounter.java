@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.util.Iterator;
+
+/**
+ * Common interface of the classes that count the occurrences of objects, exactly (like {@link CountingSet}) or
+ * approximately (like {@link CountMinSketch}).
+ *
+ * @param <E> the type of the counted objects
+ * @created 19.10.2026
+ */
+public interface FrequencyCounter<E> {
+
+	/**
+	 * Increases the counter of the specified object by 1.
+	 *
+	 * @param object the object to increase the counter for
+	 * @return the (estimated) counter of that object after it has been increased
+	 */
+	default int inc(E object) {
+		return inc(object, 1);
+	}
+
+	/**
+	 * Increases the counter of the specified object by the specified amount. If the amount is negative, the counter is
+	 * decreased instead.
+	 *
+	 * @param object the object to increase the counter for
+	 * @param amount how often the object shall be added
+	 * @return the (estimated) counter of that object after it has been increased
+	 */
+	int inc(E object, int amount);
+
+	/**
+	 * Decreases the counter of the specified object by 1. The object is removed if its counter drops to 0.
+	 *
+	 * @param object the object to decrease the counter for
+	 * @return the (estimated) counter of that object after it has been decreased, or -1 if the object has not been
+	 * counted before
+	 */
+	default int dec(Object object) {
+		return dec(object, 1);
+	}
+
+	/**
+	 * Decreases the counter of the specified object by the specified amount. The object is removed if its counter
+	 * drops to 0 or below. If the amount is negative, the counter is increased instead.
+	 *
+	 * @param object the object to decrease the counter for
+	 * @param amount how often the object shall be removed
+	 * @return the (estimated) counter of that object after it has been decreased, or -amount if the object has not
+	 * been counted before
+	 */
+	int dec(Object object, int amount);
+
+	/**
+	 * Returns the (estimated) number of times the object has been added, or 0 if the object is not counted.
+	 *
+	 * @param object the object to access its count
+	 * @return how often the object has been added
+	 */
+	int getCount(E object);
+
+	/**
+	 * Returns an iterator for the counted objects, ordered by their count. The first element of this iterator, if
+	 * existing, is the element with max count. Approximate counters only return the most frequent objects they keep
+	 * track of.
+	 *
+	 * @return iterator with descending count order
+	 */
+	Iterator<E> iteratorDescendingOrder();
+}
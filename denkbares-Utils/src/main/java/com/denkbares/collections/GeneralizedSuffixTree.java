@@ -44,7 +44,8 @@ import com.denkbares.utils.Pair;
  * tree, keeping track if the specified combination has been inserted or not.
  * <p/>
  * The implementation is based of a DefaultMultiMap mapping each key to the values. Additionally for each key there is a
- * tree-map of all suffixes to the keys.
+ * tree-map of all suffixes to the keys. Alternatively, a compact suffix array can be used to index the suffixes, see
+ * {@link Backend#SUFFIX_ARRAY}.
  *
  * @author Volker Belli (denkbares GmbH)
  * @created 13.03.2014
@@ -52,16 +53,31 @@ import com.denkbares.utils.Pair;
 public class GeneralizedSuffixTree<E> extends DefaultMultiMap<String, E> {
 
 	/**
-	 * Here we store for each suffix all the key strings that have been used to generate the suffix. This map uses a
-	 * tree-map to easily allow to access for any suffix all suffixes that are stored, because they are a sub-map of the
-	 * tree-map. Using this, searching an infix is looking for the node in the suffix-tree, getting a sub-map of all
-	 * suffixes starting with the infix and for them get the values that have been added.
-	 * <p/>
-	 * We use the tree-set also for the values, so we get a natural ordering of the keys.
+	 * The backend to store the suffixes of the keys.
 	 */
-	@SuppressWarnings("RedundantTypeArguments") // Seems to need some help here with type inference
-	private final DefaultMultiMap<String, String> suffixTree = new DefaultMultiMap<>(
-			MultiMaps.<String>treeFactory(), MultiMaps.<String>treeFactory());
+	public enum Backend {
+		/**
+		 * Stores each suffix as a separate string in a tree-map. Keys can be added and removed efficiently, but the
+		 * memory consumption grows quadratic with the length of the words.
+		 */
+		TREE,
+		/**
+		 * Stores the keys in a single char buffer, and searches the suffixes in a suffix array. This requires a few bytes
+		 * per character only, but the suffix array is rebuilt in batches when keys are added or removed. Use this
+		 * backend for large indexes that are rarely modified.
+		 */
+		SUFFIX_ARRAY
+	}
+
+	private final SuffixIndex suffixIndex;
+
+	public GeneralizedSuffixTree() {
+		this(Backend.TREE);
+	}
+
+	public GeneralizedSuffixTree(@NotNull Backend backend) {
+		this.suffixIndex = (backend == Backend.SUFFIX_ARRAY) ? new SuffixArrayIndex() : new TreeIndex();
+	}
 
 	@Override
 	public boolean put(String key, E value) {
@@ -73,6 +89,16 @@ public class GeneralizedSuffixTree<E> extends DefaultMultiMap<String, E> {
 		return added;
 	}
 
+	@Override
+	public boolean putAll(String key, Collection<? extends E> values) {
+		boolean isNewKey = !containsKey(key);
+		boolean added = super.putAll(key, values);
+		if (isNewKey && added) {
+			addSuffixes(key);
+		}
+		return added;
+	}
+
 	@NotNull
 	@Override
 	public Set<E> removeKey(Object key) {
@@ -106,7 +132,7 @@ public class GeneralizedSuffixTree<E> extends DefaultMultiMap<String, E> {
 	@Override
 	public void clear() {
 		super.clear();
-		suffixTree.clear();
+		suffixIndex.clear();
 	}
 
 	/**
@@ -203,56 +229,94 @@ public class GeneralizedSuffixTree<E> extends DefaultMultiMap<String, E> {
 	}
 
 	private Iterable<String> findKeys(String infix) {
-		final NavigableMap<String, Set<String>> range = getSuffixSubTree(infix);
-		if (range == null) return Collections.emptyList();
-		final Collection<Set<String>> keysOfSuffixes = range.values();
-		return () -> new FlattingIterator<>(keysOfSuffixes);
-	}
-
-	private NavigableMap<String, Set<String>> getSuffixSubTree(String infix) {
-		// get sub-map of prefixes that start with the infix
-		TreeMap<String, Set<String>> tree = (TreeMap<String, Set<String>>) suffixTree.k2v;
-		// get the first suffix that starts with infix
-		String start = tree.ceilingKey(infix);
-		if (start == null) return null;
-		// get the last suffix that starts with infix
-		// (we accept that the following will only work well if \uffff is not
-		// used)
-		String end = tree.floorKey(infix + '\uffff');
-		if (end == null) return null;
-		if (start.compareTo(end) > 0) return null;
-		return tree.subMap(start, true, end, true);
+		return suffixIndex.findKeys(infix);
 	}
 
 	private void addSuffixes(String key) {
-		for (String suffix : suffixes(key)) {
-			suffixTree.put(suffix, key);
-		}
+		suffixIndex.add(key);
 	}
 
 	private void removeSuffixes(Object key) {
 		if (key instanceof String) {
-			for (String suffix : suffixes((String) key)) {
-				suffixTree.remove(suffix, key);
-			}
+			suffixIndex.remove((String) key);
 		}
 	}
 
 	/**
-	 * Creates all suffixes for a given phrase. The phrase is split by whitespaces and each resulting token is indexed
-	 * separately.
-	 *
-	 * @param phrase the phrase to get the suffixes for
-	 * @return all suffixes of all contained words
+	 * Suffix index that stores each suffix separately in a tree-map.
 	 */
-	private Set<String> suffixes(String phrase) {
-		phrase = phrase.toLowerCase();
-		Set<String> result = new HashSet<>();
-		for (String word : phrase.split("\\s+")) {
-			for (int i = 0; i < word.length(); i++) {
-				result.add(word.substring(i));
+	private static class TreeIndex implements SuffixIndex {
+
+		/**
+		 * Here we store for each suffix all the key strings that have been used to generate the suffix. This map uses
+		 * a tree-map to easily allow to access for any suffix all suffixes that are stored, because they are a sub-map
+		 * of the tree-map. Using this, searching an infix is looking for the node in the suffix-tree, getting a sub-map
+		 * of all suffixes starting with the infix and for them get the values that have been added.
+		 * <p/>
+		 * We use the tree-set also for the values, so we get a natural ordering of the keys.
+		 */
+		@SuppressWarnings("RedundantTypeArguments") // Seems to need some help here with type inference
+		private final DefaultMultiMap<String, String> suffixTree = new DefaultMultiMap<>(
+				MultiMaps.<String>treeFactory(), MultiMaps.<String>treeFactory());
+
+		@Override
+		public void add(String key) {
+			for (String suffix : suffixes(key)) {
+				suffixTree.put(suffix, key);
+			}
+		}
+
+		@Override
+		public void remove(String key) {
+			for (String suffix : suffixes(key)) {
+				suffixTree.remove(suffix, key);
+			}
+		}
+
+		@Override
+		public void clear() {
+			suffixTree.clear();
+		}
+
+		@Override
+		public Iterable<String> findKeys(String infix) {
+			final NavigableMap<String, Set<String>> range = getSuffixSubTree(infix);
+			if (range == null) return Collections.emptyList();
+			final Collection<Set<String>> keysOfSuffixes = range.values();
+			return () -> new FlattingIterator<>(keysOfSuffixes);
+		}
+
+		private NavigableMap<String, Set<String>> getSuffixSubTree(String infix) {
+			// get sub-map of prefixes that start with the infix
+			TreeMap<String, Set<String>> tree = (TreeMap<String, Set<String>>) suffixTree.k2v;
+			// get the first suffix that starts with infix
+			String start = tree.ceilingKey(infix);
+			if (start == null) return null;
+			// get the last suffix that starts with infix
+			// (we accept that the following will only work well if \uffff is not
+			// used)
+			String end = tree.floorKey(infix + '\uffff');
+			if (end == null) return null;
+			if (start.compareTo(end) > 0) return null;
+			return tree.subMap(start, true, end, true);
+		}
+
+		/**
+		 * Creates all suffixes for a given phrase. The phrase is split by whitespaces and each resulting token is
+		 * indexed separately.
+		 *
+		 * @param phrase the phrase to get the suffixes for
+		 * @return all suffixes of all contained words
+		 */
+		private static Set<String> suffixes(String phrase) {
+			phrase = phrase.toLowerCase();
+			Set<String> result = new HashSet<>();
+			for (String word : phrase.split("\\s+")) {
+				for (int i = 0; i < word.length(); i++) {
+					result.add(word.substring(i));
+				}
 			}
+			return result;
 		}
-		return result;
 	}
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable index of intervals that is built in bulk and answers stabbing and overlap queries in O(log n + k), where k
+ * is the number of reported intervals. The intervals are half-open, i.e. an item with start s and end e covers the
+ * positions s &lt;= x &lt; e, so empty intervals are never reported.
+ * <p>
+ * The index is an implicit augmented interval tree: the intervals are sorted by their start and stored in plain arrays,
+ * the element in the middle of each index range is the root of that range, and each root stores the maximum end of its
+ * range. Queries skip all ranges whose maximum end lies before the query, and all ranges whose start lies behind it.
+ * The results are reported in the order of the interval starts, intervals with equal starts in the order of the
+ * collection the index has been built from.
+ *
+ * @param <T> the kind of items that are indexed
+ * @created 19.10.2026
+ */
+public final class IntervalIndex<T> {
+
+	private final int[] starts;
+	private final int[] ends;
+	private final int[] maxEnds;
+	private final Object[] items;
+
+	private IntervalIndex(int[] starts, int[] ends, Object[] items) {
+		this.starts = starts;
+		this.ends = ends;
+		this.items = items;
+		this.maxEnds = new int[starts.length];
+		initMaxEnds(0, starts.length);
+	}
+
+	/**
+	 * Builds a new index for the specified items, using the specified functions to access the start and end of each
+	 * item. The functions are called once for each item, later changes to the items are not reflected by the index.
+	 *
+	 * @param items the items to be indexed
+	 * @param start the function to get the (inclusive) start of an item
+	 * @param end   the function to get the (exclusive) end of an item
+	 * @return the created index
+	 */
+	public static <T> IntervalIndex<T> build(@NotNull Collection<? extends T> items, @NotNull ToIntFunction<? super T> start, @NotNull ToIntFunction<? super T> end) {
+		int size = items.size();
+		Integer[] order = new Integer[size];
+		int[] unsortedStarts = new int[size];
+		int[] unsortedEnds = new int[size];
+		Object[] unsortedItems = items.toArray();
+		for (int i = 0; i < size; i++) {
+			//noinspection unchecked
+			T item = (T) unsortedItems[i];
+			order[i] = i;
+			unsortedStarts[i] = start.applyAsInt(item);
+			unsortedEnds[i] = end.applyAsInt(item);
+		}
+		// stable sort, so items of equal start keep their order
+		Arrays.sort(order, Comparator.comparingInt(i -> unsortedStarts[i]));
+
+		int[] starts = new int[size];
+		int[] ends = new int[size];
+		Object[] sortedItems = new Object[size];
+		for (int i = 0; i < size; i++) {
+			int index = order[i];
+			starts[i] = unsortedStarts[index];
+			ends[i] = unsortedEnds[index];
+			sortedItems[i] = unsortedItems[index];
+		}
+		return new IntervalIndex<>(starts, ends, sortedItems);
+	}
+
+	private int initMaxEnds(int from, int to) {
+		if (from >= to) return Integer.MIN_VALUE;
+		int mid = (from + to) >>> 1;
+		int max = Math.max(ends[mid], Math.max(initMaxEnds(from, mid), initMaxEnds(mid + 1, to)));
+		maxEnds[mid] = max;
+		return max;
+	}
+
+	/**
+	 * Returns the number of items in this index.
+	 */
+	public int size() {
+		return items.length;
+	}
+
+	/**
+	 * Returns true if there are no items in this index.
+	 */
+	public boolean isEmpty() {
+		return items.length == 0;
+	}
+
+	/**
+	 * Returns all items that contain the specified position, i.e. items with start &lt;= position &lt; end.
+	 *
+	 * @param position the position to be searched for
+	 * @return the items containing the position, ordered by their start
+	 */
+	@NotNull
+	public List<T> getContaining(int position) {
+		List<T> result = new ArrayList<>();
+		forEachContaining(position, result::add);
+		return result;
+	}
+
+	/**
+	 * Calls the specified action for all items that contain the specified position, i.e. items with start &lt;=
+	 * position &lt; end. The items are reported ordered by their start.
+	 *
+	 * @param position the position to be searched for
+	 * @param action   the action to be called for each item containing the position
+	 */
+	public void forEachContaining(int position, @NotNull Consumer<? super T> action) {
+		query(0, items.length, position, position, action);
+	}
+
+	/**
+	 * Returns all items that overlap the half-open interval [start, end), i.e. items that share at least one position
+	 * with the interval.
+	 *
+	 * @param start the (inclusive) start of the interval
+	 * @param end   the (exclusive) end of the interval
+	 * @return the items overlapping the interval, ordered by their start
+	 */
+	@NotNull
+	public List<T> getOverlapping(int start, int end) {
+		List<T> result = new ArrayList<>();
+		forEachOverlapping(start, end, result::add);
+		return result;
+	}
+
+	/**
+	 * Calls the specified action for all items that overlap the half-open interval [start, end), i.e. items that share
+	 * at least one position with the interval. The items are reported ordered by their start.
+	 *
+	 * @param start  the (inclusive) start of the interval
+	 * @param end    the (exclusive) end of the interval
+	 * @param action the action to be called for each overlapping item
+	 */
+	public void forEachOverlapping(int start, int end, @NotNull Consumer<? super T> action) {
+		if (start >= end) return;
+		query(0, items.length, start, end - 1, action);
+	}
+
+	/**
+	 * Reports all items in the index range [from, to) that end after the first position and start at or before the
+	 * last position.
+	 */
+	private void query(int from, int to, int first, int last, Consumer<? super T> action) {
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			// no interval of this range ends after the first position
+			if (maxEnds[mid] <= first) return;
+			query(from, mid, first, last, action);
+			// this and all subsequent intervals start behind the last position
+			if (starts[mid] > last) return;
+			if (ends[mid] > first) {
+				//noinspection unchecked
+				action.accept((T) items[mid]);
+			}
+			from = mid + 1;
+		}
+	}
+}
@@ -18,30 +18,56 @@
  */
 package com.denkbares.collections;
 
-import java.util.Collection;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import org.jetbrains.annotations.NotNull;
+
+import com.denkbares.strings.LowerCaseNormalizer;
 import com.denkbares.strings.TokenNormalizer;
 import com.denkbares.strings.Tokenizer;
-import com.denkbares.strings.LowerCaseNormalizer;
+import com.denkbares.utils.Pair;
 
 /**
  * Class that represents an inverted index. It stores elements of a specified generic type E by text
  * phrases. the text phrases are tokenized. It allows to retrieve the stored elements by other text
  * phrases that shares one / multiple tokens.
+ * <p>
+ * Each element gets a dense integer id, and each token stores the sorted ids of its elements,
+ * together with the number of occurrences of the token for the element. Conjunctive queries
+ * intersect the posting lists smallest-first using galloping search, disjunctive queries merge
+ * them. The query results are snapshots, later changes of the index are not reflected.
  *
  * @param <E>
  */
 public class InvertedIndex<E> {
 
-	private final Map<String, Set<E>> index = new HashMap<>();
+	private final Map<String, Postings> index = new HashMap<>();
 	private final TokenNormalizer normalizer;
 
+	// dense ids of the elements, the ids of elements that are no longer indexed are reused
+	private final Map<E, Integer> ids = new HashMap<>();
+	private final List<E> elements = new ArrayList<>();
+	private final Deque<Integer> freeIds = new ArrayDeque<>();
+	// number of tokens each element id is associated to
+	private int[] tokenCounts = new int[16];
+
+	// sorted term dictionary for prefix queries, created lazily
+	private String[] terms = null;
+
 	/**
 	 * Creates a new case insensitive inverted index
 	 */
@@ -71,7 +97,20 @@ public class InvertedIndex<E> {
 	 * @created 06.11.2013
 	 */
 	public boolean put(String text, E element) {
-		return addElement(Tokenizer.tokenize(text), element);
+		return addElement(normalize(Tokenizer.tokenize(text)), element);
+	}
+
+	/**
+	 * Adds all the specified pairs of text and element to this index, as {@link #put(String,
+	 * Object)} does for each single pair. If the specified stream is parallel, the texts are
+	 * tokenized and normalized concurrently, so the normalizer of this index must be thread-safe
+	 * in this case. The elements are added in the order of the stream.
+	 *
+	 * @param entries the pairs of text and element to be added
+	 */
+	public void putAll(Stream<? extends Pair<String, ? extends E>> entries) {
+		entries.map(entry -> new Pair<List<String>, E>(normalize(Tokenizer.tokenize(entry.getA())), entry.getB()))
+				.forEachOrdered(entry -> addElement(entry.getA(), entry.getB()));
 	}
 
 	/**
@@ -85,90 +124,100 @@ public class InvertedIndex<E> {
 	 * @created 06.11.2013
 	 */
 	public boolean remove(String text, E element) {
-		return removeElement(Tokenizer.tokenize(text), element);
+		return removeElement(normalize(Tokenizer.tokenize(text)), element);
 	}
 
-	/**
-	 * Adds the specified element to all the specified tokens' texts. Returns true if the index has
-	 * been changed. If false is returned, the index remains unchanged, because the specified
-	 * combinations has already been added.
-	 *
-	 * @param tokens the tokens to add the element to
-	 * @param element the element to be added
-	 * @return if this index has been changed
-	 * @created 06.11.2013
-	 */
-	private boolean addElement(Collection<String> tokens, E element) {
-		boolean changed = false;
+	private List<String> normalize(List<String> tokens) {
+		List<String> keys = new ArrayList<>(tokens.size());
 		for (String token : tokens) {
-			changed |= addElement(token, element);
+			keys.add(normalizer.normalize(token));
 		}
-		return changed;
+		return keys;
 	}
 
 	/**
-	 * Adds the specified element to the specified token's text. Returns true if the index has been
-	 * changed. If false is returned, the index remains unchanged, because the specified combination
-	 * has already been added.
+	 * Adds the specified element to all the specified (normalized) tokens. Returns true if the
+	 * index has been changed. If false is returned, the index remains unchanged, because the
+	 * specified combinations has already been added.
 	 *
-	 * @param token the token to add the element to
+	 * @param keys the normalized tokens to add the element to
 	 * @param element the element to be added
 	 * @return if this index has been changed
 	 * @created 06.11.2013
 	 */
-	private boolean addElement(String token, E element) {
-		String key = normalizer.normalize(token);
-		Set<E> set = index.get(key);
-		if (set == null) {
-			set = new HashSet<>();
-			index.put(key, set);
-		}
-		return set.add(element);
-	}
-
-	/**
-	 * Removes the specified element from all specified tokens. Returns true if the index has been
-	 * changed. If false is returned, the index remains unchanged, because not any of the specified
-	 * combinations did exist.
-	 *
-	 * @param tokens the tokens to remove the element from
-	 * @param element the element to be removed
-	 * @return if this index has been changed
-	 * @created 06.11.2013
-	 */
-	private boolean removeElement(Collection<String> tokens, E element) {
+	private boolean addElement(List<String> keys, E element) {
+		if (keys.isEmpty()) return false;
+		int id = acquireId(element);
 		boolean changed = false;
-		for (String token : tokens) {
-			changed |= removeElement(token, element);
+		for (String key : keys) {
+			Postings postings = index.get(key);
+			if (postings == null) {
+				postings = new Postings();
+				index.put(key, postings);
+				terms = null;
+			}
+			if (postings.add(id)) {
+				tokenCounts[id]++;
+				changed = true;
+			}
 		}
 		return changed;
 	}
 
 	/**
-	 * Removes the specified element from the specified token. Returns true if the index has been
-	 * changed. If false is returned, the index remains unchanged, because not any of the specified
-	 * combinations did exist.
+	 * Removes the specified element from all specified (normalized) tokens. Returns true if the
+	 * index has been changed. If false is returned, the index remains unchanged, because not any
+	 * of the specified combinations did exist.
 	 *
-	 * @param token the token to remove the element from
+	 * @param keys the normalized tokens to remove the element from
 	 * @param element the element to be removed
 	 * @return if this index has been changed
 	 * @created 06.11.2013
 	 */
-	private boolean removeElement(String token, E element) {
-		String key = normalizer.normalize(token);
-		Set<E> set = index.get(key);
+	private boolean removeElement(List<String> keys, E element) {
+		Integer id = ids.get(element);
+		// if the element is not indexed, we do not require to change the index
+		if (id == null) return false;
 
-		// if there is no such set, we no not require to change the index
-		if (set == null) return false;
+		boolean changed = false;
+		for (String key : keys) {
+			Postings postings = index.get(key);
+			// if the element is not found for the token, we do not require to change the index
+			if (postings == null || !postings.remove(id)) continue;
 
-		// if the element if not found, we do not require to change the index
-		if (!set.remove(element)) return false;
+			// otherwise we changed the postings, so we clean up if they are empty
+			changed = true;
+			if (postings.size == 0) {
+				index.remove(key);
+				terms = null;
+			}
+			// if the element is no longer associated to any token, release its id
+			if (--tokenCounts[id] == 0) {
+				ids.remove(element);
+				elements.set(id, null);
+				freeIds.push(id);
+				break;
+			}
+		}
+		return changed;
+	}
 
-		// otherwise we changed the set, so we clean up if the set is empty
-		if (set.isEmpty()) {
-			index.remove(key);
+	private int acquireId(E element) {
+		Integer id = ids.get(element);
+		if (id != null) return id;
+		if (freeIds.isEmpty()) {
+			id = elements.size();
+			elements.add(element);
+			if (id == tokenCounts.length) {
+				tokenCounts = Arrays.copyOf(tokenCounts, id * 2);
+			}
+		}
+		else {
+			id = freeIds.pop();
+			elements.set(id, element);
 		}
-		return true;
+		ids.put(element, id);
+		return id;
 	}
 
 	/**
@@ -180,14 +229,7 @@ public class InvertedIndex<E> {
 	 * @created 06.11.2013
 	 */
 	public Set<E> getAny(String phrase) {
-		List<String> tokens = Tokenizer.tokenize(phrase);
-		if (tokens.isEmpty()) return Collections.emptySet();
-		if (tokens.size() == 1) return get(tokens.get(0));
-		Set<E> result = new HashSet<>();
-		for (String token : tokens) {
-			result.addAll(get(token));
-		}
-		return Collections.unmodifiableSet(result);
+		return toSet(union(getPostings(phrase), null, null));
 	}
 
 	/**
@@ -199,37 +241,312 @@ public class InvertedIndex<E> {
 	 * @created 06.11.2013
 	 */
 	public Set<E> getAll(String phrase) {
-		List<String> tokens = Tokenizer.tokenize(phrase);
-		if (tokens.isEmpty()) return Collections.emptySet();
-		if (tokens.size() == 1) return get(tokens.get(0));
-		Set<E> result = null;
-		for (String token : tokens) {
-			Set<E> elements = get(token);
-			if (result == null) {
-				result = new HashSet<>(elements);
+		List<String> keys = normalize(Tokenizer.tokenize(phrase));
+		if (keys.isEmpty()) return Collections.emptySet();
+		List<int[]> lists = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			Postings postings = index.get(key);
+			if (postings == null) return Collections.emptySet();
+			lists.add(Arrays.copyOf(postings.ids, postings.size));
+		}
+		return toSet(intersect(lists));
+	}
+
+	/**
+	 * Returns all elements where each token of the specified phrase is a prefix of at least one
+	 * token the element is associated to. The prefixes are normalized using the normalizer of this
+	 * index, so the normalizer should preserve prefixes (e.g. lower-casing does). If there are no
+	 * tokens in the specified phrase, an empty set is returned.
+	 *
+	 * @param phrase the phrase of prefixes to get the elements for
+	 * @return the elements associated to tokens starting with each of the phrase's tokens
+	 */
+	public Set<E> getAllWithPrefix(String phrase) {
+		List<String> keys = normalize(Tokenizer.tokenize(phrase));
+		if (keys.isEmpty()) return Collections.emptySet();
+		List<int[]> lists = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			int[] matches = union(getPostingsWithPrefix(key), null, null);
+			if (matches.length == 0) return Collections.emptySet();
+			lists.add(matches);
+		}
+		return toSet(intersect(lists));
+	}
+
+	/**
+	 * Returns the normalized tokens of this index that start with the specified prefix, in
+	 * lexicographical order. The prefix is normalized using the normalizer of this index.
+	 *
+	 * @param prefix the prefix of the tokens to get
+	 * @return the tokens starting with the prefix
+	 */
+	@NotNull
+	public List<String> getTokens(String prefix) {
+		String key = normalizer.normalize(prefix);
+		String[] terms = getTerms();
+		int from = prefixStart(terms, key);
+		int to = from;
+		while (to < terms.length && terms[to].startsWith(key)) to++;
+		return Collections.unmodifiableList(Arrays.asList(terms).subList(from, to));
+	}
+
+	/**
+	 * Returns the elements that are associated to any of the tokens of the specified phrase,
+	 * ranked by their TF-IDF score, best matches first. For each token of the phrase, an element
+	 * scores (1 + ln(tf)) * ln(1 + n / df), where tf is the number of occurrences of the token in
+	 * the texts the element has been added with, n is the number of elements in the index and df
+	 * is the number of elements associated to the token. Elements with equal scores are ordered
+	 * by their internal id, which usually is the order they have been added to the index.
+	 *
+	 * @param phrase the phrase to get the elements for
+	 * @param maxCount the maximum number of elements to be returned
+	 * @return the best matching elements, in descending order of their scores
+	 */
+	@NotNull
+	public List<E> getRanked(String phrase, int maxCount) {
+		List<Postings> lists = getPostings(phrase);
+		double[] weights = new double[lists.size()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = Math.log(1 + ids.size() / (double) lists.get(i).size);
+		}
+		double[][] scores = new double[1][];
+		int[] result = union(lists, weights, scores);
+		double[] score = scores[0];
+
+		// select the best results, using a heap that has the worst selected result on top
+		PriorityQueue<Integer> best = new PriorityQueue<>((a, b) -> (score[a] != score[b])
+				? Double.compare(score[a], score[b])
+				: Integer.compare(result[b], result[a]));
+		for (int i = 0; i < result.length && maxCount > 0; i++) {
+			best.add(i);
+			if (best.size() > maxCount) best.poll();
+		}
+		Object[] ranked = new Object[best.size()];
+		for (int i = ranked.length - 1; i >= 0; i--) {
+			//noinspection ConstantConditions
+			ranked[i] = elements.get(result[best.poll()]);
+		}
+		//noinspection unchecked
+		return (List<E>) Collections.unmodifiableList(Arrays.asList(ranked));
+	}
+
+	/**
+	 * Returns the distinct postings of the tokens of the specified phrase.
+	 */
+	private List<Postings> getPostings(String phrase) {
+		List<Postings> lists = new ArrayList<>();
+		for (String key : normalize(Tokenizer.tokenize(phrase))) {
+			Postings postings = index.get(key);
+			if (postings != null && !lists.contains(postings)) lists.add(postings);
+		}
+		return lists;
+	}
+
+	/**
+	 * Returns the postings of all tokens that start with the specified normalized prefix.
+	 */
+	private List<Postings> getPostingsWithPrefix(String prefix) {
+		String[] terms = getTerms();
+		List<Postings> lists = new ArrayList<>();
+		for (int i = prefixStart(terms, prefix); i < terms.length && terms[i].startsWith(prefix); i++) {
+			lists.add(index.get(terms[i]));
+		}
+		return lists;
+	}
+
+	private String[] getTerms() {
+		if (terms == null) {
+			terms = index.keySet().toArray(new String[0]);
+			Arrays.sort(terms);
+		}
+		return terms;
+	}
+
+	private static int prefixStart(String[] terms, String prefix) {
+		int pos = Arrays.binarySearch(terms, prefix);
+		return (pos >= 0) ? pos : -pos - 1;
+	}
+
+	private Set<E> toSet(int[] ids) {
+		if (ids.length == 0) return Collections.emptySet();
+		Object[] result = new Object[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			result[i] = elements.get(ids[i]);
+		}
+		return new ElementSet<>(result);
+	}
+
+	/**
+	 * Intersects the specified sorted id arrays, starting with the smallest one, and using galloping
+	 * search to skip the non-matching ids of the larger ones. The arrays may be modified.
+	 */
+	private static int[] intersect(List<int[]> lists) {
+		lists.sort((a, b) -> Integer.compare(a.length, b.length));
+		int[] result = lists.get(0);
+		int count = result.length;
+		for (int l = 1; l < lists.size() && count > 0; l++) {
+			int[] ids = lists.get(l);
+			int matched = 0;
+			int pos = 0;
+			for (int i = 0; i < count && pos < ids.length; i++) {
+				int id = result[i];
+				pos = gallop(ids, pos, id);
+				if (pos < ids.length && ids[pos] == id) {
+					result[matched++] = id;
+				}
+			}
+			count = matched;
+		}
+		return (count == result.length) ? result : Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Returns the first index at or after the specified start index, where the sorted ids are
+	 * greater or equal to the specified key, or the length of the ids if there is no such index.
+	 */
+	private static int gallop(int[] ids, int from, int key) {
+		if (ids[from] >= key) return from;
+		int low = from;
+		int step = 1;
+		int high = from + 1;
+		while (high < ids.length && ids[high] < key) {
+			low = high;
+			step <<= 1;
+			high = from + step;
+		}
+		high = Math.min(high, ids.length);
+		int pos = Arrays.binarySearch(ids, low + 1, high, key);
+		return (pos >= 0) ? pos : -pos - 1;
+	}
+
+	/**
+	 * Merges the specified posting lists into a sorted array of distinct ids. If weights are
+	 * specified, the score of each resulting id is calculated as the weighted sum of the
+	 * logarithmic term frequencies, and the scores are stored in scores[0].
+	 */
+	private static int[] union(List<Postings> lists, double[] weights, double[][] scores) {
+		int total = 0;
+		for (Postings postings : lists) {
+			total += postings.size;
+		}
+		int[] result = new int[total];
+		double[] resultScores = (weights == null) ? null : new double[total];
+		int count = 0;
+
+		// the heap contains the index of each non-exhausted list, ordered by the current id
+		int[] positions = new int[lists.size()];
+		PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, lists.size()),
+				(a, b) -> Integer.compare(lists.get(a).ids[positions[a]], lists.get(b).ids[positions[b]]));
+		for (int l = 0; l < lists.size(); l++) {
+			if (lists.get(l).size > 0) heap.add(l);
+		}
+		while (!heap.isEmpty()) {
+			int l = heap.poll();
+			Postings postings = lists.get(l);
+			int pos = positions[l];
+			int id = postings.ids[pos];
+			if (count == 0 || result[count - 1] != id) {
+				result[count++] = id;
 			}
-			else {
-				result.retainAll(elements);
+			if (resultScores != null) {
+				resultScores[count - 1] += (1 + Math.log(postings.frequencies[pos])) * weights[l];
 			}
-			if (result.isEmpty()) break;
+			if (++positions[l] < postings.size) heap.add(l);
 		}
-		return (result == null) ? Collections.emptySet() : Collections.unmodifiableSet(result);
+		if (scores != null) scores[0] = resultScores;
+		return (count == result.length) ? result : Arrays.copyOf(result, count);
 	}
 
 	/**
-	 * Returns all elements that are associated to the specified token. If there are no such
-	 * elements, an empty set is returned.
-	 *
-	 * @param token the token to get the elements for
-	 * @return the elements associated to the token
-	 * @created 06.11.2013
+	 * The sorted ids of the elements associated to a token, with the number of occurrences of the
+	 * token for each element.
 	 */
-	private Set<E> get(String token) {
-		String key = normalizer.normalize(token);
-		Set<E> result = index.get(key);
-		return (result == null)
-				? Collections.emptySet()
-				: Collections.unmodifiableSet(result);
+	private static final class Postings {
+		private int[] ids = new int[2];
+		private int[] frequencies = new int[2];
+		private int size = 0;
+
+		/**
+		 * Adds the id, or increases its frequency if it is already contained. Returns true if the
+		 * id has been added.
+		 */
+		boolean add(int id) {
+			// new elements usually get the highest id, so appending is the common case
+			int pos = (size == 0 || ids[size - 1] < id) ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+			if (pos >= 0) {
+				frequencies[pos]++;
+				return false;
+			}
+			pos = -pos - 1;
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				frequencies = Arrays.copyOf(frequencies, size * 2);
+			}
+			System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+			System.arraycopy(frequencies, pos, frequencies, pos + 1, size - pos);
+			ids[pos] = id;
+			frequencies[pos] = 1;
+			size++;
+			return true;
+		}
+
+		/**
+		 * Removes the id with its frequency. Returns true if the id has been removed.
+		 */
+		boolean remove(int id) {
+			int pos = Arrays.binarySearch(ids, 0, size, id);
+			if (pos < 0) return false;
+			size--;
+			System.arraycopy(ids, pos + 1, ids, pos, size - pos);
+			System.arraycopy(frequencies, pos + 1, frequencies, pos, size - pos);
+			return true;
+		}
+	}
+
+	/**
+	 * Unmodifiable set of query results, backed by an array. The hash set to look up elements is
+	 * only created if required.
+	 */
+	private static final class ElementSet<E> extends AbstractSet<E> {
+		private final Object[] elements;
+		private Set<Object> lookup = null;
+
+		private ElementSet(Object[] elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (lookup == null) {
+				lookup = new HashSet<>(Arrays.asList(elements));
+			}
+			return lookup.contains(o);
+		}
+
+		@NotNull
+		@Override
+		public Iterator<E> iterator() {
+			return new Iterator<>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < elements.length;
+				}
+
+				@SuppressWarnings("unchecked")
+				@Override
+				public E next() {
+					if (index >= elements.length) throw new NoSuchElementException();
+					return (E) elements[index++];
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
 	}
 
 	/**
@@ -26,33 +26,41 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
-import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import com.denkbares.strings.Strings;
 import com.denkbares.utils.Consoles;
-import com.denkbares.utils.Pair;
 
 /**
  * Utility collection class that provides a two-dimensional array that dynamically expands in both dimensions as values
  * are added. Both dimensions have indices starting from 0, as usual for arrays.
+ * <p>
+ * The cells are stored row by row, in chunks of rows, without creating any objects for the individual cells. Each row
+ * starts with a sparse layout (sorted column indices and values), and automatically switches to a dense array layout,
+ * if the row is filled sufficiently.
  *
  * @author Volker Belli (denkbares GmbH)
  * @created 28.03.2014
  */
 public class Matrix<E> {
 
-	private final Map<Pair<Integer, Integer>, E> elements = new HashMap<>();
+	private static final int CHUNK_BITS = 8;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final Pattern NUMBER = Pattern.compile("\\s*(-*[0-9.,]*|\\?*|NaN|Infinity)\\s*");
+	// number of rows that are formatted together when dumping the matrix
+	private static final int DUMP_BLOCK_SIZE = 1024;
+
+	private Row[][] chunks = new Row[0][];
 	private int rows = 0;
 	private int cols = 0;
 
@@ -67,9 +75,12 @@ public class Matrix<E> {
 	 * @throws IndexOutOfBoundsException if any of the indices is negative
 	 */
 	public E set(int row, int col, E element) {
+		checkIndices(row, col);
 		rows = Math.max(rows, row + 1);
 		cols = Math.max(cols, col + 1);
-		return elements.put(getKey(row, col), element);
+		Row cells = getCells(row, element != null);
+		//noinspection unchecked
+		return (cells == null) ? null : (E) cells.set(col, element);
 	}
 
 	/**
@@ -79,7 +90,7 @@ public class Matrix<E> {
 	public void clear() {
 		rows = 0;
 		cols = 0;
-		elements.clear();
+		chunks = new Row[0][];
 	}
 
 	/**
@@ -92,7 +103,10 @@ public class Matrix<E> {
 	 * @throws IndexOutOfBoundsException if any of the indices is negative
 	 */
 	public E get(int row, int col) {
-		return elements.get(getKey(row, col));
+		checkIndices(row, col);
+		Row cells = getCells(row, false);
+		//noinspection unchecked
+		return (cells == null) ? null : (E) cells.get(col);
 	}
 
 	/**
@@ -123,11 +137,9 @@ public class Matrix<E> {
 	 * @return the entire row as an array
 	 */
 	public List<E> getRow(int row) {
-		int size = getColSize();
-		List<E> result = new ArrayList<>(size);
-		for (int col = 0; col < size; col++) {
-			result.add(get(row, col));
-		}
+		checkIndices(row, 0);
+		List<E> result = new ArrayList<>(Collections.nCopies(cols, null));
+		forEachInRow(row, (element, col) -> result.set(col, element));
 		return result;
 	}
 
@@ -139,18 +151,74 @@ public class Matrix<E> {
 	 * @return the entire column as an array
 	 */
 	public List<E> getColumn(int col) {
-		int size = getRowSize();
-		List<E> result = new ArrayList<>(size);
-		for (int row = 0; row < size; row++) {
-			result.add(get(row, col));
-		}
+		checkIndices(0, col);
+		List<E> result = new ArrayList<>(Collections.nCopies(rows, null));
+		forEachInColumn(col, (element, row) -> result.set(row, element));
 		return result;
 	}
 
-	private Pair<Integer, Integer> getKey(int row, int col) {
+	/**
+	 * Performs the specified action for each element of the specified row, in the order of the columns. Cells that
+	 * are not set (or set to null) are skipped. The action is called with the element and its column index. In
+	 * contrast to {@link #getRow(int)}, this method does not create any intermediate objects.
+	 *
+	 * @param row    the row to iterate
+	 * @param action the action to be called for each element and its column index
+	 */
+	public void forEachInRow(int row, ObjIntConsumer<? super E> action) {
+		checkIndices(row, 0);
+		Row cells = getCells(row, false);
+		if (cells != null) cells.forEach(action);
+	}
+
+	/**
+	 * Performs the specified action for each element of the specified column, in the order of the rows. Cells that
+	 * are not set (or set to null) are skipped. The action is called with the element and its row index. In contrast
+	 * to {@link #getColumn(int)}, this method does not create any intermediate objects.
+	 *
+	 * @param col    the column to iterate
+	 * @param action the action to be called for each element and its row index
+	 */
+	public void forEachInColumn(int col, ObjIntConsumer<? super E> action) {
+		checkIndices(0, col);
+		for (int chunk = 0; chunk < chunks.length; chunk++) {
+			Row[] chunkRows = chunks[chunk];
+			if (chunkRows == null) continue;
+			for (int i = 0; i < CHUNK_SIZE; i++) {
+				if (chunkRows[i] == null) continue;
+				Object element = chunkRows[i].get(col);
+				//noinspection unchecked
+				if (element != null) action.accept((E) element, (chunk << CHUNK_BITS) + i);
+			}
+		}
+	}
+
+	private void checkIndices(int row, int col) {
 		if (row < 0) throw new IndexOutOfBoundsException("row must not be negative");
 		if (col < 0) throw new IndexOutOfBoundsException("col must not be negative");
-		return new Pair<>(row, col);
+	}
+
+	/**
+	 * Returns the cells of the specified row. If the row does not exist, null is returned, or an empty row is created
+	 * if requested.
+	 */
+	private Row getCells(int row, boolean create) {
+		int chunk = row >>> CHUNK_BITS;
+		if (chunk >= chunks.length) {
+			if (!create) return null;
+			chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+		}
+		Row[] chunkRows = chunks[chunk];
+		if (chunkRows == null) {
+			if (!create) return null;
+			chunkRows = chunks[chunk] = new Row[CHUNK_SIZE];
+		}
+		int index = row & (CHUNK_SIZE - 1);
+		Row cells = chunkRows[index];
+		if (cells == null && create) {
+			cells = chunkRows[index] = new Row();
+		}
+		return cells;
 	}
 
 	/**
@@ -163,11 +231,14 @@ public class Matrix<E> {
 	public void append(Matrix<E> other) {
 		int thisRow = getRowSize();
 		int rowSize = other.getRowSize();
-		int colSize = other.getColSize();
 		for (int otherRow = 0; otherRow < rowSize; thisRow++, otherRow++) {
-			for (int col = 0; col < colSize; col++) {
-				set(thisRow, col, other.get(otherRow, col));
-			}
+			int row = thisRow;
+			other.forEachInRow(otherRow, (element, col) -> set(row, col, element));
+		}
+		// also expand the matrix, if there are no elements in the last rows or columns
+		if (rowSize > 0) {
+			rows = thisRow;
+			cols = Math.max(cols, other.cols);
 		}
 	}
 
@@ -206,42 +277,47 @@ public class Matrix<E> {
 		int firstRow = (headings == null) ? 0 : -1;
 		int lastRow = Math.min(rows, maxRows); // excluding
 
-		String[] cache = new String[lastRow * cols];
-		BiFunction<Integer, Integer, String> textFun = (row, col) -> {
-			if (row == -1 && headings != null) return (col < headings.size()) ? headings.get(col) : "";
-			int index = row * cols + col;
-			if (cache[index] == null) cache[index] = String.valueOf(get(row, col));
-			return cache[index];
-		};
-
-		// prepare column lengths and alignment
+		// the rows are dumped in blocks, only the texts of the current block are kept, and the column lengths and
+		// alignment are adjusted to each block, so the columns only widen if later rows require so
 		int[] lengths = new int[cols];
 		boolean[] lefts = new boolean[cols];
-		for (int row = firstRow; row < lastRow; row++) {
-			for (int col = 0; col < cols; col++) {
-				String text = Consoles.toPlainText(textFun.apply(row, col));
-				lengths[col] = Math.max(lengths[col], text.length());
-				if (row > firstRow) {
-					lefts[col] |= !text.matches("\\s*(-*[0-9.,]*|\\?*|NaN|Infinity)\\s*");
+		String[][] texts = new String[DUMP_BLOCK_SIZE][cols];
+		int[][] plainLengths = new int[DUMP_BLOCK_SIZE][cols];
+		out.println();
+		for (int blockStart = firstRow; blockStart < lastRow; blockStart += DUMP_BLOCK_SIZE) {
+			int blockEnd = (int) Math.min((long) blockStart + DUMP_BLOCK_SIZE, lastRow);
+
+			// prepare column lengths and alignment of the block
+			for (int row = blockStart; row < blockEnd; row++) {
+				String[] rowTexts = texts[row - blockStart];
+				int[] rowLengths = plainLengths[row - blockStart];
+				getTexts(headings, row, rowTexts);
+				for (int col = 0; col < cols; col++) {
+					String text = Consoles.toPlainText(rowTexts[col]);
+					rowLengths[col] = text.length();
+					lengths[col] = Math.max(lengths[col], text.length());
+					if (row > firstRow) {
+						lefts[col] |= !NUMBER.matcher(text).matches();
+					}
 				}
 			}
-		}
 
-		// dump the matrix
-		out.println();
-		for (int row = firstRow; row < lastRow; row++) {
-			for (int col = 0; col < cols; col++) {
-				if (col > 0) out.print(" │ ");
-				String value = textFun.apply(row, col);
-				String pad = Strings.nTimes(' ', lengths[col] - Consoles.toPlainText(value).length());
-				if (!lefts[col]) out.print(pad);
-				out.print(value);
-				if (lefts[col]) out.print(pad);
-			}
-			out.println();
-			if (row == firstRow) {
-				out.println(IntStream.of(lengths).mapToObj(len ->
-						Strings.nTimes('─', len)).collect(Collectors.joining("─┼─")));
+			// dump the block
+			for (int row = blockStart; row < blockEnd; row++) {
+				String[] rowTexts = texts[row - blockStart];
+				int[] rowLengths = plainLengths[row - blockStart];
+				for (int col = 0; col < cols; col++) {
+					if (col > 0) out.print(" │ ");
+					String pad = Strings.nTimes(' ', lengths[col] - rowLengths[col]);
+					if (!lefts[col]) out.print(pad);
+					out.print(rowTexts[col]);
+					if (lefts[col]) out.print(pad);
+				}
+				out.println();
+				if (row == firstRow) {
+					out.println(IntStream.of(lengths).mapToObj(len ->
+							Strings.nTimes('─', len)).collect(Collectors.joining("─┼─")));
+				}
 			}
 		}
 		if (lastRow < rows) {
@@ -249,6 +325,21 @@ public class Matrix<E> {
 		}
 	}
 
+	/**
+	 * Fills the texts of the cells of the specified row into the specified array. The row -1 denotes the specified
+	 * headings.
+	 */
+	private void getTexts(List<String> headings, int row, String[] texts) {
+		if (row == -1) {
+			for (int col = 0; col < texts.length; col++) {
+				texts[col] = (col < headings.size()) ? headings.get(col) : "";
+			}
+			return;
+		}
+		Arrays.fill(texts, "null");
+		forEachInRow(row, (element, col) -> texts[col] = String.valueOf(element));
+	}
+
 	@Override
 	public String toString() {
 		return toString(5);
@@ -393,4 +484,94 @@ public class Matrix<E> {
 			}
 		};
 	}
+
+	/**
+	 * The cells of a single row. The row starts with a sparse layout, storing the sorted column indices and the values
+	 * of the non-null cells. If the row is filled sufficiently, it switches to a dense layout, storing the values by
+	 * their column index.
+	 */
+	private static final class Row {
+
+		private static final int MIN_DENSE_SIZE = 8;
+
+		// the column indices of the sparse layout, or null if the row is dense
+		private int[] columns = new int[4];
+		private Object[] values = new Object[4];
+		private int size = 0;
+
+		Object get(int col) {
+			if (columns == null) {
+				return (col < values.length) ? values[col] : null;
+			}
+			int index = Arrays.binarySearch(columns, 0, size, col);
+			return (index >= 0) ? values[index] : null;
+		}
+
+		Object set(int col, Object value) {
+			if (columns == null) {
+				if (col >= values.length) {
+					if (value == null) return null;
+					values = Arrays.copyOf(values, Math.max(col + 1, values.length + (values.length >> 1)));
+				}
+				Object previous = values[col];
+				values[col] = value;
+				return previous;
+			}
+
+			int index = Arrays.binarySearch(columns, 0, size, col);
+			if (index >= 0) {
+				Object previous = values[index];
+				if (value == null) {
+					// remove the cell from the sparse layout
+					System.arraycopy(columns, index + 1, columns, index, size - index - 1);
+					System.arraycopy(values, index + 1, values, index, size - index - 1);
+					values[--size] = null;
+				}
+				else {
+					values[index] = value;
+				}
+				return previous;
+			}
+			if (value == null) return null;
+
+			// insert the cell into the sparse layout
+			index = -index - 1;
+			if (size == columns.length) {
+				columns = Arrays.copyOf(columns, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+			System.arraycopy(columns, index, columns, index + 1, size - index);
+			System.arraycopy(values, index, values, index + 1, size - index);
+			columns[index] = col;
+			values[index] = value;
+			size++;
+
+			// switch to dense layout, if the dense array is at most twice as big as the sparse arrays
+			int width = columns[size - 1] + 1;
+			if (size >= MIN_DENSE_SIZE && size * 2 >= width) {
+				Object[] dense = new Object[width];
+				for (int i = 0; i < size; i++) {
+					dense[columns[i]] = values[i];
+				}
+				columns = null;
+				values = dense;
+			}
+			return null;
+		}
+
+		<E> void forEach(ObjIntConsumer<? super E> action) {
+			if (columns == null) {
+				for (int col = 0; col < values.length; col++) {
+					//noinspection unchecked
+					if (values[col] != null) action.accept((E) values[col], col);
+				}
+			}
+			else {
+				for (int i = 0; i < size; i++) {
+					//noinspection unchecked
+					action.accept((E) values[i], columns[i]);
+				}
+			}
+		}
+	}
 }
@@ -24,6 +24,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -459,6 +461,20 @@ public interface MultiMap<K, V> {
 	@NotNull
 	Set<Map.Entry<K, V>> entrySet();
 
+	/**
+	 * Returns a sequential {@link Stream} of the mappings contained in this multi map. In contrast to streaming the
+	 * {@link #entrySet()}, the stream is based on a spliterator that splits along the keys of this map, so a parallel
+	 * stream of the entries (see {@link Stream#parallel()}) is processed concurrently as well as the {@link #keySet()}
+	 * would be. If the map is modified while the stream is processed, the results are undefined.
+	 *
+	 * @return a stream of the mappings contained in this map
+	 */
+	@NotNull
+	default Stream<Map.Entry<K, V>> entryStream() {
+		Set<K> keys = keySet();
+		return StreamSupport.stream(new MultiMaps.EntrySpliterator<>(keys.spliterator(), this::getValues, size()), false);
+	}
+
 	/**
 	 * Performs the given action for each entry in this multi map until all entries have been processed or the action
 	 * throws an exception. Unless otherwise specified by the implementing class, actions are performed in the order of
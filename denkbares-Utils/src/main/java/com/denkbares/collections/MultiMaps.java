@@ -20,22 +20,26 @@ package com.denkbares.collections;
 
 import java.io.Serializable;
 import java.util.AbstractMap;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
@@ -69,6 +73,17 @@ public class MultiMaps {
 		 */
 		Set<T> createSet();
 
+		/**
+		 * Creates a new set used for storing the elements, with initial capacity for the specified number of elements,
+		 * if the set implementation supports it.
+		 *
+		 * @param expectedSize the number of elements expected to be added
+		 * @return a newly created set
+		 */
+		default Set<T> createSet(int expectedSize) {
+			return createSet();
+		}
+
 		/**
 		 * Creates a new map used for storing objects by keys of this class' elements.
 		 *
@@ -114,6 +129,11 @@ public class MultiMaps {
 			return new LinkedHashSet<>(capacity);
 		}
 
+		@Override
+		public Set<T> createSet(int expectedSize) {
+			return new LinkedHashSet<>(Math.max(capacity, initialCapacity(expectedSize)));
+		}
+
 		@Override
 		public <E> Map<T, E> createMap() {
 			return new LinkedHashMap<>(capacity);
@@ -133,6 +153,11 @@ public class MultiMaps {
 			return new HashSet<>(capacity);
 		}
 
+		@Override
+		public Set<T> createSet(int expectedSize) {
+			return new HashSet<>(Math.max(capacity, initialCapacity(expectedSize)));
+		}
+
 		@Override
 		public <E> Map<T, E> createMap() {
 			return new HashMap<>();
@@ -152,6 +177,11 @@ public class MultiMaps {
 			return Collections.newSetFromMap(createMap());
 		}
 
+		@Override
+		public Set<T> createSet(int expectedSize) {
+			return Collections.newSetFromMap(new ConcurrentHashMap<>(Math.max(capacity, expectedSize)));
+		}
+
 		@Override
 		public <E> Map<T, E> createMap() {
 			return new ConcurrentHashMap<>(capacity);
@@ -184,6 +214,14 @@ public class MultiMaps {
 		}
 	}
 
+	/**
+	 * Returns the initial capacity of a hash set or map to contain the expected number of elements without rehashing,
+	 * based on the default load factor.
+	 */
+	private static int initialCapacity(int expectedSize) {
+		return (int) Math.min(Integer.MAX_VALUE, (long) expectedSize * 4 / 3 + 1);
+	}
+
 	@SuppressWarnings("rawtypes")
 	private static final CollectionFactory HASH = new HashFactory(16);
 
@@ -299,6 +337,28 @@ public class MultiMaps {
 		return (CollectionFactory<T>) CONCURRENT;
 	}
 
+	/**
+	 * Creates a new, empty multi map that is efficient in both directions (O(1) on average), for accessing the values
+	 * of keys and the keys of values. In contrast to an {@link N2MMap}, the returned map stores the key-value-pairs in
+	 * primitive int tables, without creating sets for each key or value. See {@link CompactN2MMap} for details.
+	 *
+	 * @return a newly created, empty bidirectional multi map
+	 */
+	public static <K, V> CompactN2MMap<K, V> compactBidirectional() {
+		return new CompactN2MMap<>();
+	}
+
+	/**
+	 * Creates a new, empty multi map that is efficient in both directions (O(1) on average), with initial capacity for
+	 * the specified number of key-value-pairs. See {@link #compactBidirectional()} for details.
+	 *
+	 * @param expectedSize the number of key-value-pairs that are expected to be added
+	 * @return a newly created, empty bidirectional multi map
+	 */
+	public static <K, V> CompactN2MMap<K, V> compactBidirectional(int expectedSize) {
+		return new CompactN2MMap<>(expectedSize);
+	}
+
 	public static <K, V> MultiMap<K, V> synchronizedMultiMap(MultiMap<K, V> map) {
 		return new SynchronizedMultiMap<>(map);
 	}
@@ -1210,4 +1270,119 @@ public class MultiMaps {
 			}
 		};
 	}
+
+	/**
+	 * Returns a concurrent {@code Collector} implementing a "group by" operation on input elements of type {@code V},
+	 * see {@link #toMultiMap(Function)}. In contrast to the sequential collector, all threads of a parallel stream are
+	 * putting the elements directly into a single {@link DefaultMultiMap#newConcurrent() concurrent multi map}, so no
+	 * intermediate maps are created and merged. The collector is unordered, so the encounter order of the elements is
+	 * not preserved.
+	 *
+	 * @param <V>          the type of the input elements
+	 * @param <K>          the type of the keys
+	 * @param keyExtractor the classifier function mapping input elements to keys
+	 * @return a concurrent {@code Collector} implementing the group-by operation
+	 * @see java.util.stream.Collectors#groupingByConcurrent(Function)
+	 */
+	public static <K, V> Collector<V, ?, MultiMap<K, V>> toConcurrentMultiMap(Function<V, K> keyExtractor) {
+		return toConcurrentMultiMap(keyExtractor, Function.identity());
+	}
+
+	/**
+	 * Returns a concurrent {@code Collector} implementing a "group by" operation on input elements of type {@code E},
+	 * see {@link #toMultiMap(Function, Function)}. In contrast to the sequential collector, all threads of a parallel
+	 * stream are putting the elements directly into a single {@link DefaultMultiMap#newConcurrent() concurrent multi
+	 * map}, so no intermediate maps are created and merged. The collector is unordered, so the encounter order of the
+	 * elements is not preserved.
+	 *
+	 * @param <E>            the type of the input elements
+	 * @param <K>            the type of the keys
+	 * @param <V>            the type of the values
+	 * @param keyExtractor   the classifier function mapping input elements to keys
+	 * @param valueExtractor the classifier function mapping input elements to values
+	 * @return a concurrent {@code Collector} implementing the group-by operation
+	 * @see java.util.stream.Collectors#groupingByConcurrent(Function)
+	 */
+	public static <E, K, V> Collector<E, ?, MultiMap<K, V>> toConcurrentMultiMap(Function<E, K> keyExtractor, Function<E, V> valueExtractor) {
+		return Collector.of(DefaultMultiMap::newConcurrent,
+				(mmap, item) -> mmap.put(keyExtractor.apply(item), valueExtractor.apply(item)),
+				(mmap1, mmap2) -> {
+					mmap1.putAll(mmap2);
+					return mmap1;
+				},
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED,
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	/**
+	 * Spliterator over the key-value-pairs of a multi map, that is split along the spliterator of the keys. Therefore,
+	 * the spliterator splits as well as the key set of the multi map, e.g. balanced for hash maps.
+	 */
+	static final class EntrySpliterator<K, V> implements Spliterator<Entry<K, V>> {
+
+		private final Spliterator<K> keys;
+		private final Function<? super K, ? extends Collection<V>> values;
+		private final double valuesPerKey;
+
+		// the key and values that are currently traversed
+		private K currentKey = null;
+		private Iterator<V> currentValues = null;
+
+		EntrySpliterator(Spliterator<K> keys, Function<? super K, ? extends Collection<V>> values, long size) {
+			this(keys, values, (double) size / Math.max(1, keys.estimateSize()));
+		}
+
+		private EntrySpliterator(Spliterator<K> keys, Function<? super K, ? extends Collection<V>> values, double valuesPerKey) {
+			this.keys = keys;
+			this.values = values;
+			this.valuesPerKey = valuesPerKey;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			while (currentValues == null || !currentValues.hasNext()) {
+				currentValues = null;
+				if (!keys.tryAdvance(key -> {
+					currentKey = key;
+					currentValues = values.apply(key).iterator();
+				})) {
+					return false;
+				}
+			}
+			action.accept(new AbstractMap.SimpleImmutableEntry<>(currentKey, currentValues.next()));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			if (currentValues != null) {
+				K key = currentKey;
+				currentValues.forEachRemaining(value -> action.accept(new AbstractMap.SimpleImmutableEntry<>(key, value)));
+				currentValues = null;
+			}
+			keys.forEachRemaining(key -> {
+				for (V value : values.apply(key)) {
+					action.accept(new AbstractMap.SimpleImmutableEntry<>(key, value));
+				}
+			});
+		}
+
+		@Override
+		public Spliterator<Entry<K, V>> trySplit() {
+			// do not split while traversing the values of a key, to preserve the encounter order
+			if (currentValues != null && currentValues.hasNext()) return null;
+			Spliterator<K> prefix = keys.trySplit();
+			return (prefix == null) ? null : new EntrySpliterator<>(prefix, values, valuesPerKey);
+		}
+
+		@Override
+		public long estimateSize() {
+			return (long) Math.ceil(keys.estimateSize() * valuesPerKey);
+		}
+
+		@Override
+		public int characteristics() {
+			return (keys.characteristics() & (ORDERED | DISTINCT | CONCURRENT)) | NONNULL;
+		}
+	}
 }
@@ -22,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -41,6 +42,12 @@ import org.jetbrains.annotations.NotNull;
  * <p>
  * NOTE: This data structure only works correct for well-formed hierarchies,
  * this is each node has at most one parent and the hierarchy is free of cycles.
+ * <p>
+ * The nodes are indexed by their data, so finding a node is done in constant time,
+ * and the depth level of each node is cached until the tree is modified below the
+ * node. The nodes of the tree must therefore only be modified through the tree.
+ * Modifications are synchronized on the tree, for reading while other threads modify
+ * the tree, use {@link #getSnapshot()}.
  *
  * @author Jochen Reutelshöfer
  * @created 12.04.2013
@@ -51,6 +58,8 @@ public class PartialHierarchyTree<T> {
 	private final Node<T> root;
 	private final Comparator<T> comparator;
 	private final PartialHierarchy<T> hierarchy;
+	private final Map<T, Node<T>> index = new ConcurrentHashMap<>();
+	private volatile Snapshot<T> snapshot = null;
 
 	public PartialHierarchyTree(PartialHierarchy<T> h) {
 		this(h, (T) null, null);
@@ -74,6 +83,15 @@ public class PartialHierarchyTree<T> {
 		this.hierarchy = h;
 		this.comparator = comparator;
 		this.root = root;
+		indexSubTree(root);
+	}
+
+	private void indexSubTree(Node<T> node) {
+		for (Node<T> child : node.children) {
+			if (index.putIfAbsent(child.data, child) == null) {
+				indexSubTree(child);
+			}
+		}
 	}
 
 	/**
@@ -131,7 +149,25 @@ public class PartialHierarchyTree<T> {
 	 * @created 12.04.2013
 	 */
 	public synchronized boolean remove(T term) throws PartialHierarchyException {
-		return remove(term, root);
+		if (term == null) return false;
+		Node<T> node = index.remove(term);
+		if (node == null) return false;
+
+		Collection<Node<T>> parents = node.getParents();
+		if (parents.isEmpty()) {
+			removeChildNode(node, root);
+		}
+		else {
+			for (Node<T> parent : new ArrayList<>(parents)) {
+				removeChildNode(node, parent);
+			}
+		}
+		// the grand-children have been moved up, so their depth has been changed
+		for (Node<T> grandChild : node.children) {
+			invalidateDepth(grandChild);
+		}
+		snapshot = null;
+		return true;
 	}
 
 	/**
@@ -153,7 +189,8 @@ public class PartialHierarchyTree<T> {
 
 	/**
 	 * Returns the node with value t if existing in this tree. Search runs in
-	 * logarithmic time using the hierarchy relation.
+	 * constant time using an index of the node values, and does not block while
+	 * other threads are modifying this tree.
 	 *
 	 * @created 25.11.2013
 	 */
@@ -161,45 +198,60 @@ public class PartialHierarchyTree<T> {
 		if (t == null) {
 			return null;
 		}
-		try {
-			return findRecursiveNode(t, root);
-		}
-		catch (PartialHierarchyException e) {
-			return null;
+		if (t.equals(root.data)) {
+			return root;
 		}
+		return index.get(t);
 	}
 
 	/**
 	 * Returns the maximum depth level of this node in the tree. Since the can be multiple parents for each node, it is
 	 * possible to have different depth level depending on the path to the root. We return the length of longest path to
-	 * the root.
+	 * the root. The depth levels are cached, so this method runs in amortized constant time.
 	 */
-	public int getMaxDepthLevel(Node<T> node) {
-		int max = -1;
-		for (Node<T> parent : node.getParents()) {
-			int depthLevel = getMaxDepthLevel(parent);
-			if (depthLevel > max) max = depthLevel;
+	public synchronized int getMaxDepthLevel(Node<T> node) {
+		if (node.maxDepthLevel < 0) {
+			int max = -1;
+			for (Node<T> parent : node.getParents()) {
+				int depthLevel = getMaxDepthLevel(parent);
+				if (depthLevel > max) max = depthLevel;
+			}
+			node.maxDepthLevel = max + 1;
 		}
-		return max + 1;
+		return node.maxDepthLevel;
 	}
 
-	private synchronized Node<T> findRecursiveNode(T externalNode, Node<T> treeNode) throws PartialHierarchyException {
-		if (externalNode.equals(treeNode.data)) {
-			return treeNode;
+	/**
+	 * Clears the cached depth level of the node and its successors. If the depth
+	 * of a node is not cached, none of its successors can be cached, as the depth
+	 * of a node is always calculated from the depth of its parents.
+	 */
+	private static <T> void invalidateDepth(Node<T> node) {
+		if (node.maxDepthLevel < 0) return;
+		node.maxDepthLevel = -1;
+		for (Node<T> child : node.children) {
+			invalidateDepth(child);
 		}
+	}
 
-		// descending tree for search only makes sense for sub-node
-		if (treeNode.equals(root) || hierarchy.isSuccessorOf(externalNode, treeNode.data)) {
-			List<Node<T>> children = treeNode.getChildren();
-			for (Node<T> child : children) {
-				// other search recursive
-				Node<T> found = findRecursiveNode(externalNode, child);
-				if (found != null) {
-					return found;
-				}
+	/**
+	 * Returns an immutable snapshot of the current state of this tree. The snapshot
+	 * is shared until the tree is modified, and the first call after a modification
+	 * creates a new one. Reading from the snapshot never blocks, even if other
+	 * threads are modifying the tree.
+	 *
+	 * @return the current snapshot of this tree
+	 */
+	@NotNull
+	public Snapshot<T> getSnapshot() {
+		Snapshot<T> current = snapshot;
+		if (current != null) return current;
+		synchronized (this) {
+			if (snapshot == null) {
+				snapshot = new Snapshot<>(this);
 			}
+			return snapshot;
 		}
-		return null;
 	}
 
 	/**
@@ -208,9 +260,7 @@ public class PartialHierarchyTree<T> {
 	 * @created 12.04.2013
 	 */
 	public Set<Node<T>> getNodes() {
-		Set<Node<T>> result = new HashSet<>();
-		collectNodes(root, result);
-		return Collections.unmodifiableSet(result);
+		return Collections.unmodifiableSet(new HashSet<>(index.values()));
 	}
 
 	/**
@@ -239,25 +289,7 @@ public class PartialHierarchyTree<T> {
 	 * @created 12.04.2013
 	 */
 	public Set<T> getNodeContents() {
-		Set<Node<T>> nodes = new HashSet<>();
-		collectNodes(root, nodes);
-		Set<T> result = new HashSet<>();
-		for (Node<T> node : nodes) {
-			result.add(node.data);
-		}
-		return Collections.unmodifiableSet(result);
-	}
-
-	/**
-	 * @created 12.04.2013
-	 */
-	private void collectNodes(Node<T> n, Set<Node<T>> result) {
-		result.add(n);
-		List<Node<T>> children = n.getChildren();
-		for (Node<T> child : children) {
-			collectNodes(child, result);
-		}
-		result.remove(root);
+		return Collections.unmodifiableSet(new HashSet<>(index.keySet()));
 	}
 
 	/**
@@ -287,9 +319,7 @@ public class PartialHierarchyTree<T> {
 	}
 
 	public int getNodeCount() {
-		Set<Node<T>> set = new HashSet<>();
-		collectNodes(getRoot(), set);
-		return set.size();
+		return index.size();
 	}
 
 	/**
@@ -304,12 +334,15 @@ public class PartialHierarchyTree<T> {
 	 *                                   thrown.
 	 * @created 12.04.2013
 	 */
-	public boolean insert(T t) throws PartialHierarchyException {
+	public synchronized boolean insert(T t) throws PartialHierarchyException {
 		if (t == null) {
 			return false;
 		}
 		if (find(t) == null) {
-			insertNodeUnder(new Node<>(t, comparator), root);
+			Node<T> node = new Node<>(t, comparator);
+			insertNodeUnder(node, root);
+			index.put(t, node);
+			snapshot = null;
 			return true;
 		}
 		else {
@@ -383,29 +416,11 @@ public class PartialHierarchyTree<T> {
 				newNode.addChild(successorSibling);
 				successorSibling.removeParent(parent);
 				successorSibling.addParent(newNode);
+				invalidateDepth(successorSibling);
 			}
 		}
 	}
 
-	private boolean remove(T term, Node<T> node) throws PartialHierarchyException {
-		if (term != null && node.getData() != null && !hierarchy.isSuccessorOf(term, node.getData())) return false;
-		boolean found = false;
-		for (Node<T> child : new ArrayList<>(node.getChildren())) {
-			if (Objects.equals(child.getData(), term)) {
-				// if found, delete child node and hook up grand-children
-				removeChildNode(child, node);
-				found = true;
-			}
-			else {
-				// other search recursive
-				if (remove(term, child)) {
-					found = true;
-				}
-			}
-		}
-		return found;
-	}
-
 	private void removeChildNode(Node<T> child, Node<T> parent) {
 		List<Node<T>> grandChildren = child.getChildren();
 		parent.removeChild(child);
@@ -437,12 +452,109 @@ public class PartialHierarchyTree<T> {
 		}
 	}
 
+	/**
+	 * Immutable snapshot of the data of a {@link PartialHierarchyTree}, including
+	 * the parents, children and depth level of each contained element.
+	 *
+	 * @param <T> the type of the elements of the tree
+	 */
+	public static final class Snapshot<T> {
+
+		private final Map<T, Entry<T>> entries;
+		private final List<T> rootLevel;
+
+		private Snapshot(PartialHierarchyTree<T> tree) {
+			Map<T, Entry<T>> entries = new HashMap<>();
+			for (Node<T> node : tree.index.values()) {
+				List<T> parents = new ArrayList<>(node.parents.size());
+				for (Node<T> parent : node.parents) {
+					parents.add(parent.data);
+				}
+				entries.put(node.data, new Entry<>(tree.getMaxDepthLevel(node),
+						Collections.unmodifiableList(parents), toData(node.getChildren())));
+			}
+			this.entries = entries;
+			this.rootLevel = toData(tree.root.getChildren());
+		}
+
+		private static <T> List<T> toData(List<Node<T>> nodes) {
+			List<T> result = new ArrayList<>(nodes.size());
+			for (Node<T> node : nodes) {
+				result.add(node.data);
+			}
+			return Collections.unmodifiableList(result);
+		}
+
+		/**
+		 * Returns true if the element is contained in the snapshot.
+		 */
+		public boolean contains(T t) {
+			return entries.containsKey(t);
+		}
+
+		/**
+		 * Returns the number of elements in the snapshot.
+		 */
+		public int size() {
+			return entries.size();
+		}
+
+		/**
+		 * Returns all elements of this snapshot.
+		 */
+		@NotNull
+		public Set<T> getNodeContents() {
+			return Collections.unmodifiableSet(entries.keySet());
+		}
+
+		/**
+		 * Returns the top level elements of this snapshot.
+		 */
+		@NotNull
+		public List<T> getRootLevelNodes() {
+			return rootLevel;
+		}
+
+		/**
+		 * Returns the maximum depth level of the element, see {@link PartialHierarchyTree#getMaxDepthLevel(Node)}, or
+		 * -1 if the element is not contained.
+		 */
+		public int getMaxDepthLevel(T t) {
+			Entry<T> entry = entries.get(t);
+			return (entry == null) ? -1 : entry.depth;
+		}
+
+		/**
+		 * Returns the parent elements of the element, or an empty list if the element is on top level or not
+		 * contained.
+		 */
+		@NotNull
+		public List<T> getParents(T t) {
+			Entry<T> entry = entries.get(t);
+			return (entry == null) ? Collections.emptyList() : entry.parents;
+		}
+
+		/**
+		 * Returns the child elements of the element, or an empty list if the element is a leaf or not contained.
+		 */
+		@NotNull
+		public List<T> getChildren(T t) {
+			Entry<T> entry = entries.get(t);
+			return (entry == null) ? Collections.emptyList() : entry.children;
+		}
+
+		private record Entry<T>(int depth, List<T> parents, List<T> children) {
+		}
+	}
+
 	public static class Node<T> {
 		private static final Logger LOGGER = LoggerFactory.getLogger(Node.class);
 
 		final T data;
 		private final transient Collection<Node<T>> parents = new MinimizedHashSet<>();
 		private final List<Node<T>> children = new ArrayList<>();
+		// cached depth level, maintained by the tree, -1 if unknown
+		private transient int maxDepthLevel = -1;
 
 		private Comparator<T> comparator;
 
@@ -464,13 +576,22 @@ public class PartialHierarchyTree<T> {
 		}
 
 		/**
-		 * Creates a copy of the subtree of this node.
+		 * Creates a copy of the subtree of this node. A node with multiple
+		 * parents in the subtree is copied only once, so the copy has the same
+		 * shape as the original subtree.
 		 *
 		 * @return root node of the subtree copy
 		 */
 		public Node<T> copyWithSubTree() {
+			return copyWithSubTree(new IdentityHashMap<>());
+		}
+
+		private Node<T> copyWithSubTree(Map<Node<T>, Node<T>> copies) {
+			Node<T> copy = copies.get(this);
+			if (copy != null) return copy;
 			Node<T> copyRoot = new Node<>(this.data, this.comparator);
-			this.children.forEach(child -> copyRoot.addChild(child.copyWithSubTree()));
+			copies.put(this, copyRoot);
+			this.children.forEach(child -> copyRoot.addChild(child.copyWithSubTree(copies)));
 			return copyRoot;
 		}
 
@@ -20,15 +20,21 @@
 package com.denkbares.collections;
 
 import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -40,11 +46,15 @@ import com.denkbares.utils.EqualsUtils;
  * priority, a well-defined priority is assumed (see various method
  * documentations for more details).
  * <p>
- * The implementation of this PriorityList is focused on access optimization.
- * Therefore all access methods to single items priorities or sub-lists of
- * elements of the same priority are returning in constant O(1) calculation
- * complexity. On the other hand insert operations are taking up to O(n)
- * complexity.
+ * The elements are stored in groups of equal priority, each group keeping its
+ * elements in insertion order. The groups are organized in a balanced tree
+ * (a treap) by their priority, and the elements of each group in a treap by
+ * their position, where each tree node also knows the number of elements in
+ * its subtree. Therefore inserting elements by priority, as well as accessing,
+ * inserting or removing elements by index, takes O(log n) calculation
+ * complexity, while iterating the list takes O(1) per element. The sub-lists of
+ * elements of the same priority and the priority map are unmodifiable live
+ * views, backed by the tree, so they are never rebuilt when the list changes.
  *
  * @param <P> the comparable type used to define the priority of the items
  * @param <E> the type of the items itself
@@ -56,14 +66,104 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 
 	public final P defaultPriority;
 
-	private static class Entry<P, E> {
+	/**
+	 * Node of a treap. The nodes are heap-ordered by their random weight,
+	 * which keeps the tree balanced in expectation.
+	 */
+	private abstract static class TreapNode<T extends TreapNode<T>> {
+
+		final int weight = ThreadLocalRandom.current().nextInt();
+		T left = null;
+		T right = null;
+		// number of elements in the subtree of this node
+		int count = 0;
+
+		/**
+		 * Returns the number of elements held by this node itself.
+		 */
+		abstract int size();
+	}
+
+	/**
+	 * Node of the treap of groups, containing the elements of a single
+	 * priority. The nodes are ordered by their priority. When the group
+	 * becomes empty, the node is removed from the tree and its items are set
+	 * to null.
+	 */
+	private static final class Node<P, E> extends TreapNode<Node<P, E>> {
 
 		private final P priority;
-		private final E element;
+		private Item<E> items = null;
+		private List<E> view = null;
 
-		public Entry(P priority, E item) {
+		private Node(P priority) {
 			this.priority = priority;
-			this.element = item;
+		}
+
+		@Override
+		int size() {
+			return count(items);
+		}
+	}
+
+	/**
+	 * Node of the treap of the elements of a group. The nodes are ordered by
+	 * their position within the group.
+	 */
+	private static final class Item<E> extends TreapNode<Item<E>> {
+
+		private E element;
+
+		private Item(E element) {
+			this.element = element;
+			this.count = 1;
+		}
+
+		@Override
+		int size() {
+			return 1;
+		}
+	}
+
+	/**
+	 * Iterates the nodes of a treap in their order, starting at the node that
+	 * contains the element of a specific index.
+	 */
+	private static final class Cursor<T extends TreapNode<T>> {
+
+		private final Deque<T> path = new ArrayDeque<>();
+		// index of the start element within the start node
+		private int offset = 0;
+
+		private Cursor(T node, int index) {
+			while (node != null) {
+				int leftCount = count(node.left);
+				if (index < leftCount) {
+					path.push(node);
+					node = node.left;
+				}
+				else if (index < leftCount + node.size()) {
+					path.push(node);
+					offset = index - leftCount;
+					return;
+				}
+				else {
+					index -= leftCount + node.size();
+					node = node.right;
+				}
+			}
+		}
+
+		private boolean hasNext() {
+			return !path.isEmpty();
+		}
+
+		private T next() {
+			T node = path.pop();
+			for (T child = node.right; child != null; child = child.left) {
+				path.push(child);
+			}
+			return node;
 		}
 	}
 
@@ -97,9 +197,9 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 		}
 	}
 
-	private final List<Entry<P, E>> items = new ArrayList<>();
-
-	private transient Map<P, List<E>> cachedPriorityMap = null;
+	private Node<P, E> root = null;
+	private int groupCount = 0;
+	private final Map<P, List<E>> priorityMap = new PriorityMapView();
 
 	public PriorityList(P defaultPriority) {
 		this.defaultPriority = defaultPriority;
@@ -116,12 +216,132 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 
 	@Override
 	public E get(int index) {
-		return items.get(index).element;
+		Objects.checkIndex(index, size());
+		Node<P, E> node = root;
+		while (true) {
+			int leftCount = count(node.left);
+			if (index < leftCount) {
+				node = node.left;
+				continue;
+			}
+			index -= leftCount;
+			if (index < node.size()) {
+				return findItem(node.items, index).element;
+			}
+			index -= node.size();
+			node = node.right;
+		}
 	}
 
 	@Override
 	public int size() {
-		return items.size();
+		return count(root);
+	}
+
+	@NotNull
+	@Override
+	public Iterator<E> iterator() {
+		return new Itr();
+	}
+
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		int expectedModCount = modCount;
+		forEach(root, action);
+		if (modCount != expectedModCount) throw new ConcurrentModificationException();
+	}
+
+	private static <P, E> void forEach(Node<P, E> node, Consumer<? super E> action) {
+		if (node == null) return;
+		forEach(node.left, action);
+		forEachItem(node.items, action);
+		forEach(node.right, action);
+	}
+
+	private static <E> void forEachItem(Item<E> item, Consumer<? super E> action) {
+		if (item == null) return;
+		forEachItem(item.left, action);
+		action.accept(item.element);
+		forEachItem(item.right, action);
+	}
+
+	@Override
+	public int indexOf(Object object) {
+		int index = 0;
+		for (E element : this) {
+			if (Objects.equals(object, element)) return index;
+			index++;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (other == this) return true;
+		if (!(other instanceof List)) return false;
+		Iterator<E> iterator1 = iterator();
+		Iterator<?> iterator2 = ((List<?>) other).iterator();
+		while (iterator1.hasNext() && iterator2.hasNext()) {
+			if (!Objects.equals(iterator1.next(), iterator2.next())) return false;
+		}
+		return !(iterator1.hasNext() || iterator2.hasNext());
+	}
+
+	@Override
+	public int hashCode() {
+		// uses the in-order iterator as well
+		return super.hashCode();
+	}
+
+	/**
+	 * Iterator that walks the groups and their elements in order. The
+	 * iterator fails fast if the list is modified, except by the iterator
+	 * itself.
+	 */
+	private final class Itr implements Iterator<E> {
+
+		private int cursor = 0;
+		private int lastReturned = -1;
+		private int expectedModCount;
+		private Cursor<Node<P, E>> groups;
+		private Cursor<Item<E>> items;
+
+		private Itr() {
+			seek(0);
+		}
+
+		private void seek(int index) {
+			expectedModCount = modCount;
+			groups = new Cursor<>(root, index);
+			items = groups.hasNext() ? new Cursor<>(groups.next().items, groups.offset) : null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size();
+		}
+
+		@Override
+		public E next() {
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			if (cursor >= size()) throw new NoSuchElementException();
+			if (!items.hasNext()) {
+				items = new Cursor<>(groups.next().items, 0);
+			}
+			lastReturned = cursor++;
+			return items.next().element;
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturned < 0) throw new IllegalStateException();
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			PriorityList.this.remove(lastReturned);
+			cursor = lastReturned;
+			lastReturned = -1;
+			seek(cursor);
+		}
 	}
 
 	/*
@@ -130,45 +350,408 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 
 	@Override
 	public E set(int index, E element) {
-		Entry<P, E> oldItem = items.get(index);
-		Entry<P, E> newItem = new Entry<>(oldItem.priority, element);
-		items.set(index, newItem);
-		invalidateCaches();
-		return oldItem.element;
+		Objects.checkIndex(index, size());
+		Node<P, E> node = root;
+		while (true) {
+			int leftCount = count(node.left);
+			if (index < leftCount) {
+				node = node.left;
+				continue;
+			}
+			index -= leftCount;
+			if (index < node.size()) {
+				Item<E> item = findItem(node.items, index);
+				E previous = item.element;
+				item.element = element;
+				return previous;
+			}
+			index -= node.size();
+			node = node.right;
+		}
 	}
 
 	@Override
 	public void add(int index, E element) {
-		P priority;
-		if (index < size()) {
-			// use the priority of the item that is at the specific index
-			priority = items.get(index).priority;
+		int size = size();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
 		}
-		else if (index > 0) {
-			// if there is no such item try the item before
-			priority = items.get(index - 1).priority;
+		modCount++;
+		if (size == 0) {
+			// empty list, use default priority
+			root = insert(root, defaultPriority, 0, element);
+			return;
 		}
-		else {
-			// otherwise (empty list) use default priority
-			priority = defaultPriority;
+
+		// use the priority of the item that is at the specific index,
+		// if there is no such item use the item before
+		boolean append = index == size;
+		int remaining = append ? size - 1 : index;
+		Node<P, E> node = root;
+		while (true) {
+			int leftCount = count(node.left);
+			if (remaining < leftCount) {
+				node = node.left;
+				continue;
+			}
+			remaining -= leftCount;
+			if (remaining < node.size()) break;
+			remaining -= node.size();
+			node = node.right;
 		}
-		items.add(index, new Entry<>(priority, element));
-		invalidateCaches();
+		root = insert(root, node.priority, append ? remaining + 1 : remaining, element);
 	}
 
 	@Override
 	public E remove(int index) {
-		Entry<P, E> removed = items.remove(index);
-		invalidateCaches();
-		return removed.element;
+		Objects.checkIndex(index, size());
+		modCount++;
+		List<E> removed = new ArrayList<>(1);
+		root = removeAt(root, index, removed);
+		return removed.get(0);
+	}
+
+	@Override
+	public void clear() {
+		modCount++;
+		detach(root);
+		root = null;
+		groupCount = 0;
+	}
+
+	/*
+	 * methods to maintain the treap of priority groups
+	 */
+
+	private static int count(TreapNode<?> node) {
+		return (node == null) ? 0 : node.count;
+	}
+
+	private static void update(TreapNode<?> node) {
+		node.count = count(node.left) + node.size() + count(node.right);
+	}
+
+	/**
+	 * Inserts the element into the group of the specified priority at the
+	 * specified offset, creating the group if required. Returns the new root
+	 * of the subtree.
+	 */
+	private Node<P, E> insert(Node<P, E> node, P priority, int offset, E element) {
+		if (node == null) {
+			node = new Node<>(priority);
+			node.items = new Item<>(element);
+			node.view = new GroupView(priority, node);
+			node.count = 1;
+			groupCount++;
+			return node;
+		}
+		int compare = priority.compareTo(node.priority);
+		if (compare == 0) {
+			node.items = insertItem(node.items, offset, element);
+		}
+		else if (compare < 0) {
+			node.left = insert(node.left, priority, offset, element);
+			if (node.left.weight > node.weight) node = rotateRight(node);
+		}
+		else {
+			node.right = insert(node.right, priority, offset, element);
+			if (node.right.weight > node.weight) node = rotateLeft(node);
+		}
+		update(node);
+		return node;
+	}
+
+	/**
+	 * Removes the element at the specified index of the subtree, and adds it
+	 * to the specified list. If its group becomes empty, the group is removed.
+	 * Returns the new root of the subtree.
+	 */
+	private Node<P, E> removeAt(Node<P, E> node, int index, List<E> removed) {
+		int leftCount = count(node.left);
+		int groupSize = node.size();
+		if (index < leftCount) {
+			node.left = removeAt(node.left, index, removed);
+		}
+		else if (index < leftCount + groupSize) {
+			node.items = removeItem(node.items, index - leftCount, removed);
+			if (node.items == null) {
+				groupCount--;
+				return merge(node.left, node.right);
+			}
+		}
+		else {
+			node.right = removeAt(node.right, index - leftCount - groupSize, removed);
+		}
+		update(node);
+		return node;
+	}
+
+	private static void detach(Node<?, ?> node) {
+		if (node == null) return;
+		detach(node.left);
+		detach(node.right);
+		node.items = null;
+	}
+
+	/**
+	 * Inserts the element at the specified index of the subtree of items.
+	 * Returns the new root of the subtree.
+	 */
+	private static <E> Item<E> insertItem(Item<E> item, int index, E element) {
+		if (item == null) return new Item<>(element);
+		int leftCount = count(item.left);
+		if (index <= leftCount) {
+			item.left = insertItem(item.left, index, element);
+			if (item.left.weight > item.weight) item = rotateRight(item);
+		}
+		else {
+			item.right = insertItem(item.right, index - leftCount - 1, element);
+			if (item.right.weight > item.weight) item = rotateLeft(item);
+		}
+		update(item);
+		return item;
+	}
+
+	/**
+	 * Removes the element at the specified index of the subtree of items, and
+	 * adds it to the specified list. Returns the new root of the subtree.
+	 */
+	private static <E> Item<E> removeItem(Item<E> item, int index, List<E> removed) {
+		int leftCount = count(item.left);
+		if (index < leftCount) {
+			item.left = removeItem(item.left, index, removed);
+		}
+		else if (index == leftCount) {
+			removed.add(item.element);
+			return merge(item.left, item.right);
+		}
+		else {
+			item.right = removeItem(item.right, index - leftCount - 1, removed);
+		}
+		update(item);
+		return item;
+	}
+
+	private static <E> Item<E> findItem(Item<E> item, int index) {
+		while (true) {
+			int leftCount = count(item.left);
+			if (index < leftCount) {
+				item = item.left;
+			}
+			else if (index == leftCount) {
+				return item;
+			}
+			else {
+				index -= leftCount + 1;
+				item = item.right;
+			}
+		}
+	}
+
+	private static <E> boolean containsItem(Item<E> item, E element) {
+		while (item != null) {
+			if (EqualsUtils.isSame(item.element, element)) return true;
+			if (item.left != null && containsItem(item.left, element)) return true;
+			item = item.right;
+		}
+		return false;
+	}
+
+	private static <T extends TreapNode<T>> T merge(T left, T right) {
+		if (left == null) return right;
+		if (right == null) return left;
+		if (left.weight > right.weight) {
+			left.right = merge(left.right, right);
+			update(left);
+			return left;
+		}
+		else {
+			right.left = merge(left, right.left);
+			update(right);
+			return right;
+		}
+	}
+
+	private static <T extends TreapNode<T>> T rotateRight(T node) {
+		T left = node.left;
+		node.left = left.right;
+		left.right = node;
+		update(node);
+		update(left);
+		return left;
+	}
+
+	private static <T extends TreapNode<T>> T rotateLeft(T node) {
+		T right = node.right;
+		node.right = right.left;
+		right.left = node;
+		update(node);
+		update(right);
+		return right;
+	}
+
+	private Node<P, E> findNode(P priority) {
+		Node<P, E> node = root;
+		while (node != null) {
+			int compare = priority.compareTo(node.priority);
+			if (compare == 0) return node;
+			node = (compare < 0) ? node.left : node.right;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the node of the lowest priority that is higher than the
+	 * specified one, or the node of the lowest priority if the specified
+	 * priority is null.
+	 */
+	private Node<P, E> findHigherNode(P priority) {
+		Node<P, E> result = null;
+		Node<P, E> node = root;
+		while (node != null) {
+			if (priority == null || priority.compareTo(node.priority) < 0) {
+				result = node;
+				node = node.left;
+			}
+			else {
+				node = node.right;
+			}
+		}
+		return result;
 	}
 
 	/*
 	 * methods to access priority-like access
 	 */
 
-	private void invalidateCaches() {
-		this.cachedPriorityMap = null;
+	/**
+	 * Unmodifiable live view of the elements of a single priority. The view
+	 * remains valid if the group is removed and created again.
+	 */
+	private final class GroupView extends AbstractList<E> {
+
+		private final P priority;
+		private Node<P, E> node;
+
+		private GroupView(P priority, Node<P, E> node) {
+			this.priority = priority;
+			this.node = node;
+		}
+
+		private Node<P, E> node() {
+			// re-attach to the current node of the priority, if the group has been removed
+			if (node == null || node.items == null) node = findNode(priority);
+			return node;
+		}
+
+		@Override
+		public E get(int index) {
+			Objects.checkIndex(index, size());
+			return findItem(node().items, index).element;
+		}
+
+		@Override
+		public int size() {
+			Node<P, E> node = node();
+			return (node == null) ? 0 : node.size();
+		}
+
+		/**
+		 * Returns an iterator that tolerates modifications of the list. After
+		 * a modification, the iteration continues at the same index of the
+		 * group.
+		 */
+		@NotNull
+		@Override
+		public Iterator<E> iterator() {
+			return new Iterator<E>() {
+
+				private int cursor = 0;
+				private int expectedModCount = PriorityList.this.modCount;
+				private Cursor<Item<E>> items = null;
+
+				@Override
+				public boolean hasNext() {
+					return cursor < size();
+				}
+
+				@Override
+				public E next() {
+					if (!hasNext()) throw new NoSuchElementException();
+					if (items == null || !items.hasNext() || expectedModCount != PriorityList.this.modCount) {
+						expectedModCount = PriorityList.this.modCount;
+						items = new Cursor<>(node().items, cursor);
+					}
+					cursor++;
+					return items.next().element;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Unmodifiable live view of the groups of priorities, ordered by their
+	 * priorities.
+	 */
+	private final class PriorityMapView extends AbstractMap<P, List<E>> {
+
+		private final Set<Map.Entry<P, List<E>>> entries = new AbstractSet<Map.Entry<P, List<E>>>() {
+			@NotNull
+			@Override
+			public Iterator<Map.Entry<P, List<E>>> iterator() {
+				return new Iterator<Map.Entry<P, List<E>>>() {
+
+					private Node<P, E> next = findHigherNode(null);
+
+					@Override
+					public boolean hasNext() {
+						return next != null;
+					}
+
+					@Override
+					public Map.Entry<P, List<E>> next() {
+						if (next == null) throw new NoSuchElementException();
+						Node<P, E> node = next;
+						next = findHigherNode(node.priority);
+						return new AbstractMap.SimpleImmutableEntry<>(node.priority, node.view);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return groupCount;
+			}
+		};
+
+		@NotNull
+		@Override
+		public Set<Map.Entry<P, List<E>>> entrySet() {
+			return entries;
+		}
+
+		@Override
+		public int size() {
+			return groupCount;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public List<E> get(Object key) {
+			if (key == null) return null;
+			try {
+				//noinspection unchecked
+				Node<P, E> node = findNode((P) key);
+				return (node == null) ? null : node.view;
+			}
+			catch (ClassCastException e) {
+				return null;
+			}
+		}
 	}
 
 	/**
@@ -181,63 +764,39 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 	 * @param element the element to be added
 	 */
 	public void add(P priority, E element) {
-		// iterate from list end until we reached the first position
-		// or the previous position will not have a less or same priority
-		int index = items.size();
-		while (index > 0 && items.get(index - 1).priority.compareTo(priority) > 0)
-			index--;
-
-		// then insert item at position found
-		items.add(index, new Entry<>(priority, element));
-		invalidateCaches();
+		modCount++;
+		Node<P, E> node = findNode(priority);
+		root = insert(root, priority, (node == null) ? 0 : node.size(), element);
 	}
 
 	/**
 	 * Returns all the prioritized items grouped by their priorities as a map.
 	 * The items of the individual lists contains all items of this
 	 * PriorityList of a specific priority in the order as they are
-	 * available in this list.
+	 * available in this list. The map and the lists are unmodifiable live
+	 * views, reflecting later changes of this list.
 	 * 
 	 * @created 31.10.2013
 	 * @return the items of this list grouped by their priorities
 	 */
 	public Map<P, List<E>> getPriorityMap() {
-		if (cachedPriorityMap == null) {
-			if (isEmpty()) {
-				cachedPriorityMap = Collections.emptyMap();
-			}
-			else {
-				cachedPriorityMap = new LinkedHashMap<>();
-				P currentPrio = null;
-				List<E> currentList = null;
-				for (Entry<P, E> item : this.items) {
-					if (currentPrio == null || !item.priority.equals(currentPrio)) {
-						currentPrio = item.priority;
-						currentList = new LinkedList<>();
-						cachedPriorityMap.put(currentPrio,
-								Collections.unmodifiableList(currentList));
-					}
-					currentList.add(item.element);
-				}
-			}
-		}
-		return Collections.unmodifiableMap(cachedPriorityMap);
+		return priorityMap;
 	}
 
 	/**
 	 * Returns all the prioritized items grouped by their priorities as a list
 	 * of groups. The element-list of the individual groups contains all items
 	 * of this PriorityList of a specific priority in the order as they
-	 * are available in this list.
+	 * are available in this list. The element-lists are unmodifiable live
+	 * views, reflecting later changes of their priority.
 	 * 
 	 * @created 31.10.2013
 	 * @return the items of this list grouped by their priorities
 	 */
 	public List<Group<P, E>> getPriorityGroups() {
-		Map<P, List<E>> priorityMap = getPriorityMap();
-		List<Group<P, E>> result = new ArrayList<>(priorityMap.size());
-		for (java.util.Map.Entry<P, List<E>> entry : priorityMap.entrySet()) {
-			result.add(new Group<>(entry.getKey(), entry.getValue()));
+		List<Group<P, E>> result = new ArrayList<>(groupCount);
+		for (Node<P, E> node = findHigherNode(null); node != null; node = findHigherNode(node.priority)) {
+			result.add(new Group<>(node.priority, node.view));
 		}
 		return result;
 	}
@@ -251,7 +810,9 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 	 * This special implementation also handles if the underlying PriorityList
 	 * changes. Added or removed items with a priority already passed will be
 	 * ignored, while added or removed elements for later priorities that the
-	 * current one will be taken into consideration.
+	 * current one will be taken into consideration. The element-lists of the
+	 * groups are live views, so they can be iterated while adding elements of
+	 * the current priority, and will then also return the added elements.
 	 * 
 	 * @created 31.10.2013
 	 * @return the iterator to iterate securely over modifying priority lists
@@ -265,22 +826,16 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 			@Override
 			public boolean hasNext() {
 				if (currentPrio == null) return !isEmpty();
-				// we have still elements if the current priority has not
-				// already reached the maximum priority
-				P max = getHighestPriority();
-				return (max != null) && currentPrio.compareTo(max) < 0;
+				return findHigherNode(currentPrio) != null;
 			}
 
 			@Override
 			public Group<P, E> next() {
 				// search first priority that is higher that the current one
-				for (P priority : getPriorities()) {
-					if (currentPrio == null || priority.compareTo(currentPrio) > 0) {
-						currentPrio = priority;
-						return new Group<>(priority, getElements(priority));
-					}
-				}
-				throw new NoSuchElementException();
+				Node<P, E> node = findHigherNode(currentPrio);
+				if (node == null) throw new NoSuchElementException();
+				currentPrio = node.priority;
+				return new Group<>(node.priority, node.view);
 			}
 
 			@Override
@@ -294,15 +849,16 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 	 * Returns all the elements of this PriorityList that have the
 	 * specified priority. If there are no such objects, an empty list is
 	 * returned. The elements of the list remain the order the elements have in
-	 * this PriorityList.
+	 * this PriorityList. The returned list is an unmodifiable live view,
+	 * reflecting later changes of the elements of the priority.
 	 * 
 	 * @created 31.10.2013
 	 * @param priority the priority to access the elements for
 	 * @return the elements of the specified priority
 	 */
 	public List<E> getElements(P priority) {
-		List<E> list = getPriorityMap().get(priority);
-		return (list != null) ? list : Collections.emptyList();
+		Node<P, E> node = findNode(priority);
+		return (node != null) ? node.view : new GroupView(priority, null);
 	}
 
 	/**
@@ -315,7 +871,7 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 	 * @return the ordered used priorities
 	 */
 	public Collection<P> getPriorities() {
-		return Collections.unmodifiableCollection(getPriorityMap().keySet());
+		return priorityMap.keySet();
 	}
 
 	/**
@@ -328,8 +884,10 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 	 * @return the lowest used priority
 	 */
 	public P getLowestPriority() {
-		if (isEmpty()) return null;
-		return items.get(0).priority;
+		Node<P, E> node = root;
+		if (node == null) return null;
+		while (node.left != null) node = node.left;
+		return node.priority;
 	}
 
 	/**
@@ -342,8 +900,10 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 	 * @return the lowest used priority
 	 */
 	public P getHighestPriority() {
-		if (isEmpty()) return null;
-		return items.get(items.size() - 1).priority;
+		Node<P, E> node = root;
+		if (node == null) return null;
+		while (node.right != null) node = node.right;
+		return node.priority;
 	}
 
 	/**
@@ -356,10 +916,15 @@ public class PriorityList<P extends Comparable<P>, E> extends AbstractList<E> {
 	 * @return the (lowest) priority of the specified element
 	 */
 	public P getPriority(E element) {
-		for (Entry<P, E> item : this.items) {
-			if (EqualsUtils.isSame(item.element, element)) return item.priority;
-		}
-		return null;
+		return getPriority(root, element);
+	}
+
+	private static <P, E> P getPriority(Node<P, E> node, E element) {
+		if (node == null) return null;
+		P priority = getPriority(node.left, element);
+		if (priority != null) return priority;
+		if (containsItem(node.items, element)) return node.priority;
+		return getPriority(node.right, element);
 	}
 
 	/**
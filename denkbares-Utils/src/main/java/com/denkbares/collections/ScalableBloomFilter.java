@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Probabilistic set that grows with the number of added elements, while keeping the overall false positive rate below a
+ * specified bound. The filter never reports an added element as absent, but may report elements as (possibly)
+ * contained that have never been added.
+ * <p>
+ * The filter is a series of bloom filters, where each filter has twice the capacity of the previous one, and half of
+ * its false positive rate, so the false positive rates of all filters sum up to less than the specified rate. If the
+ * current filter is full, a new filter is appended. The memory required grows linearly with the number of added
+ * elements, but independent of the size of the elements themselves, e.g. about 3 bytes per element for a rate of 1%.
+ * <p>
+ * The elements are hashed to 64 bits, as elements with equal hashes are indistinguishable for the filter. A 32 bit
+ * {@link Object#hashCode()} is not sufficient for that: for some million elements, a relevant share of the elements
+ * would collide with an earlier element, regardless of the false positive rate. Therefore, the filter uses a 64 bit
+ * hash of the characters for strings, and for other elements additionally hashes their {@link Object#toString()},
+ * which must be consistent with {@link Object#equals(Object)}. For other elements, or if converting the elements to
+ * strings is too expensive, a specific 64 bit hash function should be specified. This class is not thread-safe.
+ *
+ * @param <E> the type of the elements of the filter
+ * @created 19.10.2026
+ */
+public class ScalableBloomFilter<E> {
+
+	private static final double TIGHTENING_RATIO = 0.5;
+	private static final int GROWTH_FACTOR = 2;
+
+	private final double falsePositiveRate;
+	private final ToLongFunction<? super E> hasher;
+	private final List<Stage> stages = new ArrayList<>();
+	private long size = 0;
+
+	/**
+	 * Creates a new scalable bloom filter, using the default 64 bit hash of the elements.
+	 *
+	 * @param initialCapacity   the number of elements that can be added before the filter must grow
+	 * @param falsePositiveRate the maximum probability that an element is reported as contained, without being added
+	 *                          before
+	 */
+	public ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+		this(initialCapacity, falsePositiveRate, ScalableBloomFilter::hash);
+	}
+
+	/**
+	 * Creates a new scalable bloom filter, using the specified hash function. The hash function must return equal
+	 * hashes for equal elements, and should return distinct hashes for distinct elements. The hashes need not be
+	 * uniformly distributed, as they are spread over all bits by the filter.
+	 *
+	 * @param initialCapacity   the number of elements that can be added before the filter must grow
+	 * @param falsePositiveRate the maximum probability that an element is reported as contained, without being added
+	 *                          before
+	 * @param hasher            the function to create a 64 bit hash of an element
+	 */
+	public ScalableBloomFilter(int initialCapacity, double falsePositiveRate, ToLongFunction<? super E> hasher) {
+		if (initialCapacity <= 0) {
+			throw new IllegalArgumentException("initial capacity must be positive: " + initialCapacity);
+		}
+		if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+			throw new IllegalArgumentException("false positive rate must be in (0, 1): " + falsePositiveRate);
+		}
+		this.falsePositiveRate = falsePositiveRate;
+		this.hasher = hasher;
+		this.stages.add(new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+	}
+
+	/**
+	 * Returns true if the element might have been added to this filter, and false if the element has definitely not
+	 * been added.
+	 *
+	 * @param element the element to be checked
+	 * @return false if the element is not contained
+	 */
+	public boolean mightContain(E element) {
+		return mightContain(spread(hasher.applyAsLong(element)));
+	}
+
+	private boolean mightContain(long hash) {
+		for (Stage stage : stages) {
+			if (stage.mightContain(hash)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the element to this filter, if it is not already (possibly) contained. Returns true if the element has
+	 * definitely not been added before, or false if it might have been added before. In the latter case the filter
+	 * remains unchanged.
+	 *
+	 * @param element the element to be added
+	 * @return true if the element has been added
+	 */
+	public boolean add(E element) {
+		long hash = spread(hasher.applyAsLong(element));
+		if (mightContain(hash)) return false;
+		Stage stage = stages.get(stages.size() - 1);
+		if (stage.size >= stage.capacity) {
+			long capacity = Math.min((long) stage.capacity * GROWTH_FACTOR, Integer.MAX_VALUE);
+			stage = new Stage((int) capacity, stage.falsePositiveRate * TIGHTENING_RATIO);
+			stages.add(stage);
+		}
+		stage.add(hash);
+		size++;
+		return true;
+	}
+
+	/**
+	 * Returns the number of elements that have been added to this filter.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the maximum false positive rate this filter has been created for.
+	 */
+	public double getFalsePositiveRate() {
+		return falsePositiveRate;
+	}
+
+	/**
+	 * Returns the number of bits used by this filter, which is about the memory consumed by this filter.
+	 */
+	public long getBitCount() {
+		long bits = 0;
+		for (Stage stage : stages) {
+			bits += stage.bitCount;
+		}
+		return bits;
+	}
+
+	/**
+	 * Default 64 bit hash of an element. Strings are hashed by their characters, other elements combine their hash code
+	 * with the hash of their string representation.
+	 */
+	private static long hash(Object element) {
+		if (element == null) return 0;
+		if (element instanceof String) return hash((String) element);
+		return ((long) element.hashCode() << 32) ^ hash(element.toString());
+	}
+
+	private static long hash(String text) {
+		// multiply and fold each character, so that also the high bits affect the low bits
+		long hash = text.length();
+		for (int i = 0; i < text.length(); i++) {
+			hash = (hash ^ text.charAt(i)) * 0x9e3779b97f4a7c15L;
+			hash ^= hash >>> 32;
+		}
+		return hash;
+	}
+
+	private static long spread(long hash) {
+		// spread the hash over all 64 bits (finalizer of murmur3)
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * A single bloom filter of the series.
+	 */
+	private static final class Stage {
+		private final int capacity;
+		private final double falsePositiveRate;
+		private final long[] bits;
+		private final long bitCount;
+		private final int hashCount;
+		private int size = 0;
+
+		private Stage(int capacity, double falsePositiveRate) {
+			this.capacity = capacity;
+			this.falsePositiveRate = falsePositiveRate;
+			double ln2 = Math.log(2);
+			long bitCount = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+			this.bits = new long[(int) ((bitCount + 63) >>> 6)];
+			this.bitCount = bits.length * 64L;
+			this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / capacity * ln2));
+		}
+
+		private boolean mightContain(long hash) {
+			// use double hashing to derive the bit indices from a single hash
+			long h1 = hash;
+			long h2 = Long.rotateLeft(hash, 32) | 1;
+			for (int i = 0; i < hashCount; i++) {
+				long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+				if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) return false;
+			}
+			return true;
+		}
+
+		private void add(long hash) {
+			long h1 = hash;
+			long h2 = Long.rotateLeft(hash, 32) | 1;
+			for (int i = 0; i < hashCount; i++) {
+				long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+				bits[(int) (index >>> 6)] |= 1L << index;
+			}
+			size++;
+		}
+	}
+}
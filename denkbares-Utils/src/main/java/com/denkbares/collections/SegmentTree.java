@@ -1,7 +1,8 @@
 package com.denkbares.collections;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -21,12 +22,17 @@ import org.jetbrains.annotations.NotNull;
  * <br>
  * This data structure was originally implemented to work with parse trees. Here, it's convenient to simplify the
  * original hierarchy of segments by simply inserting segments into a new structure.
+ * <p>
+ * The children of each node are kept sorted by their start, so inserting uses binary search instead of scanning the
+ * children. For stabbing and overlap queries, an {@link IntervalIndex} over all nodes is built on first use and
+ * discarded by the next insertion, so bulk insertions followed by many queries are cheap.
  *
  * @param <T> the kind of data each node holds
  */
 public class SegmentTree<T> {
 
 	private final Node root;
+	private IntervalIndex<Node> index = null;
 
 	/**
 	 * Create a new tree for the interval [start, end]. Each subsequent insertion must be within this interval.
@@ -59,6 +65,7 @@ public class SegmentTree<T> {
 	 */
 	public Node insert(int start, int end, T item) {
 		if (root.contains(start, end)) {
+			index = null;
 			return root.addItem(start, end, item);
 		}
 		else {
@@ -70,6 +77,42 @@ public class SegmentTree<T> {
 		return root;
 	}
 
+	/**
+	 * Returns all nodes (including the root) whose segment contains the specified position. Other than the nodes
+	 * themselves, the query treats the segments as half-open, i.e. a node [start, end] is returned if start &lt;=
+	 * position &lt; end. The nodes are ordered by their start, so nested nodes are returned from outer to inner.
+	 *
+	 * @param position the position to get the nodes for
+	 * @return the nodes containing the position
+	 */
+	@NotNull
+	public List<Node> getNodesAt(int position) {
+		return getIndex().getContaining(position);
+	}
+
+	/**
+	 * Returns all nodes (including the root) whose segment overlaps the half-open interval [start, end), i.e. a node
+	 * [nodeStart, nodeEnd] is returned if nodeStart &lt; end and nodeEnd &gt; start. The nodes are ordered by their
+	 * start.
+	 *
+	 * @param start the (inclusive) start of the interval
+	 * @param end   the (exclusive) end of the interval
+	 * @return the nodes overlapping the interval
+	 */
+	@NotNull
+	public List<Node> getOverlappingNodes(int start, int end) {
+		return getIndex().getOverlapping(start, end);
+	}
+
+	private IntervalIndex<Node> getIndex() {
+		if (index == null) {
+			List<Node> nodes = new ArrayList<>();
+			visit(nodes::add);
+			index = IntervalIndex.build(nodes, Node::getStart, Node::getEnd);
+		}
+		return index;
+	}
+
 	@Override
 	public String toString() {
 		return root.toString();
@@ -84,6 +127,8 @@ public class SegmentTree<T> {
 		private final int end;
 		private final T item;
 		private final List<Node> children = new ArrayList<>();
+		// maxEnds[i] is the maximum end of the children 0..i, so it is monotonic
+		private int[] maxEnds = new int[0];
 
 		private Node(int start, int end, @NotNull T item) {
 			if (start > end) {
@@ -95,29 +140,93 @@ public class SegmentTree<T> {
 		}
 
 		Node addItem(int start, int end, T item) {
-			// check if the new node should be a child of the current one
-			for (Node child : children) {
-				if (child.contains(start, end)) {
-					return child.addItem(start, end, item);
-				}
+			// check if the new node should be a child of the current one,
+			// using the first child (in order) that contains the new segment
+			int candidates = upperBound(start);
+			int containing = firstMaxEndAtLeast(end, candidates);
+			if (containing < candidates) {
+				return children.get(containing).addItem(start, end, item);
 			}
 
-			// otherwise, create a new node and potentially re-parent existing children
+			// otherwise, create a new node and potentially re-parent existing children,
+			// only children starting within the new segment can be contained
 			Node newNode = new Node(start, end, item);
-			List<Node> newChildren = new ArrayList<>();
-			for (Node child : children) {
-				if (newNode.contains(child.start, child.end)) {
-					newChildren.add(child);
+			int from = lowerBound(start);
+			int to = upperBound(end);
+			int kept = from;
+			for (int i = from; i < to; i++) {
+				Node child = children.get(i);
+				if (child.end <= end) {
+					newNode.children.add(child);
+				}
+				else {
+					children.set(kept++, child);
 				}
 			}
-			children.removeAll(newChildren);
-			newNode.children.addAll(newChildren);
-			children.add(newNode);
-			children.sort(Comparator.comparingInt((Node a) -> a.start));
+			children.subList(kept, to).clear();
+			newNode.updateMaxEnds(0);
 
+			int position = upperBound(start);
+			children.add(position, newNode);
+			updateMaxEnds(Math.min(from, position));
 			return newNode;
 		}
 
+		/**
+		 * Returns the index of the first child that starts at or after the specified position.
+		 */
+		private int lowerBound(int position) {
+			int low = 0, high = children.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (children.get(mid).start < position) low = mid + 1;
+				else high = mid;
+			}
+			return low;
+		}
+
+		/**
+		 * Returns the index of the first child that starts after the specified position.
+		 */
+		private int upperBound(int position) {
+			int low = 0, high = children.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (children.get(mid).start <= position) low = mid + 1;
+				else high = mid;
+			}
+			return low;
+		}
+
+		/**
+		 * Returns the index of the first child (below the limit) whose end is greater than or equal to the specified
+		 * position, or the limit if there is no such child. As the max ends are monotonic, binary search is used.
+		 */
+		private int firstMaxEndAtLeast(int position, int limit) {
+			int low = 0, high = limit;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (maxEnds[mid] < position) low = mid + 1;
+				else high = mid;
+			}
+			return low;
+		}
+
+		/**
+		 * Recalculates the maximum end of the children from the specified index on.
+		 */
+		private void updateMaxEnds(int from) {
+			int size = children.size();
+			if (maxEnds.length < size) {
+				maxEnds = Arrays.copyOf(maxEnds, Math.max(size, maxEnds.length * 2));
+			}
+			int max = (from == 0) ? Integer.MIN_VALUE : maxEnds[from - 1];
+			for (int i = from; i < size; i++) {
+				max = Math.max(max, children.get(i).end);
+				maxEnds[i] = max;
+			}
+		}
+
 		public int getStart() {
 			return start;
 		}
@@ -130,8 +239,11 @@ public class SegmentTree<T> {
 			return children.isEmpty();
 		}
 
+		/**
+		 * Returns the child nodes, ordered by their start. The returned list is unmodifiable.
+		 */
 		public List<Node> getChildren() {
-			return children;
+			return Collections.unmodifiableList(children);
 		}
 
 		@NotNull
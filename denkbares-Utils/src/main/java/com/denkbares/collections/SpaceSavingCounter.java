@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate frequency counter for the most frequent elements (heavy hitters) of a stream, based on the Space-Saving
+ * algorithm. The counter monitors a fixed number of elements. If a new element is counted while all monitors are in
+ * use, the element with the lowest count is replaced, and the new element inherits its count as the (maximum)
+ * overestimation error. Therefore every element that occurs more often than <code>total / capacity</code> times is
+ * guaranteed to be monitored, and the count of each monitored element is overestimated by at most {@link
+ * #getError(Object)}.
+ * <p>
+ * The monitored elements are organized in a min-heap, so each update requires O(log capacity) time. The counter
+ * supports null elements. This implementation is not thread-safe.
+ *
+ * @created 19.10.2026
+ */
+public class SpaceSavingCounter<E> implements FrequencyCounter<E> {
+
+	private static final Object NULL = new Object();
+
+	private final Object[] elements;
+	private final int[] counts;
+	private final int[] errors;
+	private final Map<Object, Integer> positions;
+	private int size = 0;
+
+	/**
+	 * Creates a new counter that monitors up to the specified number of elements.
+	 *
+	 * @param capacity the number of monitored elements
+	 */
+	public SpaceSavingCounter(int capacity) {
+		if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		this.elements = new Object[capacity];
+		this.counts = new int[capacity];
+		this.errors = new int[capacity];
+		this.positions = new HashMap<>(capacity * 4 / 3 + 1);
+	}
+
+	@Override
+	public int inc(E object, int amount) {
+		if (amount <= 0) return dec(object, -amount);
+		Object element = mask(object);
+		Integer position = positions.get(element);
+		if (position != null) {
+			counts[position] += amount;
+			return counts[siftDown(position)];
+		}
+		if (size < elements.length) {
+			int index = size++;
+			set(index, element, amount, 0);
+			return counts[siftUp(index)];
+		}
+		// replace the monitored element with the lowest count
+		positions.remove(elements[0]);
+		int min = counts[0];
+		set(0, element, min + amount, min);
+		return counts[siftDown(0)];
+	}
+
+	/**
+	 * Decreases the counter of the specified object, if the object is monitored. If the count drops to 0 or below, the
+	 * object is no longer monitored. For objects that are not monitored, the method returns -amount.
+	 */
+	@Override
+	public int dec(Object object, int amount) {
+		if (amount < 0) {
+			//noinspection unchecked
+			return inc((E) object, -amount);
+		}
+		Integer position = positions.get(mask(object));
+		if (position == null) return -amount;
+		counts[position] -= amount;
+		int count = counts[position];
+		if (count <= 0) {
+			removeAt(position);
+		}
+		else {
+			siftUp(position);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the (overestimated) count of the specified object, or 0 if the object is not monitored.
+	 */
+	@Override
+	public int getCount(E object) {
+		Integer position = positions.get(mask(object));
+		return (position == null) ? 0 : counts[position];
+	}
+
+	/**
+	 * Returns the maximum amount the count of the specified object is overestimated, or 0 if the object is not
+	 * monitored. The true count of a monitored object is within <code>[getCount(object) - getError(object),
+	 * getCount(object)]</code>.
+	 *
+	 * @param object the object to get the error for
+	 * @return the maximum overestimation of the object's count
+	 */
+	public int getError(E object) {
+		Integer position = positions.get(mask(object));
+		return (position == null) ? 0 : errors[position];
+	}
+
+	/**
+	 * Returns the monitored objects, ordered by their (overestimated) count.
+	 */
+	@Override
+	public Iterator<E> iteratorDescendingOrder() {
+		// sort by count (descending), using a single primitive sort
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = ((long) (Integer.MAX_VALUE - counts[i]) << 32) | i;
+		}
+		Arrays.sort(keys);
+		List<E> result = new ArrayList<>(size);
+		for (long key : keys) {
+			result.add(unmask(elements[(int) key]));
+		}
+		return result.iterator();
+	}
+
+	/**
+	 * Returns the number of currently monitored objects.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the maximum number of monitored objects.
+	 */
+	public int getCapacity() {
+		return elements.length;
+	}
+
+	/**
+	 * Removes all monitored objects.
+	 */
+	public void clear() {
+		Arrays.fill(elements, null);
+		positions.clear();
+		size = 0;
+	}
+
+	private void removeAt(int position) {
+		positions.remove(elements[position]);
+		int last = --size;
+		if (position != last) {
+			set(position, elements[last], counts[last], errors[last]);
+			elements[last] = null;
+			siftDown(siftUp(position));
+		}
+		else {
+			elements[last] = null;
+		}
+	}
+
+	private void set(int position, Object element, int count, int error) {
+		elements[position] = element;
+		counts[position] = count;
+		errors[position] = error;
+		positions.put(element, position);
+	}
+
+	private int siftUp(int position) {
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (counts[parent] <= counts[position]) break;
+			swap(position, parent);
+			position = parent;
+		}
+		return position;
+	}
+
+	private int siftDown(int position) {
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size) break;
+			if (child + 1 < size && counts[child + 1] < counts[child]) child++;
+			if (counts[position] <= counts[child]) break;
+			swap(position, child);
+			position = child;
+		}
+		return position;
+	}
+
+	private void swap(int a, int b) {
+		Object element = elements[a];
+		int count = counts[a];
+		int error = errors[a];
+		set(a, elements[b], counts[b], errors[b]);
+		set(b, element, count, error);
+	}
+
+	private static Object mask(Object object) {
+		return (object == null) ? NULL : object;
+	}
+
+	private static <E> E unmask(Object element) {
+		//noinspection unchecked
+		return (element == NULL) ? null : (E) element;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("{");
+		for (Iterator<E> iterator = iteratorDescendingOrder(); iterator.hasNext(); ) {
+			E element = iterator.next();
+			result.append(element).append('=').append(getCount(element));
+			if (iterator.hasNext()) result.append(", ");
+		}
+		return result.append('}').toString();
+	}
+}
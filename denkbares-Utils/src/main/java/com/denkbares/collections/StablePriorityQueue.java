@@ -74,17 +74,17 @@ public class StablePriorityQueue<T> extends AbstractQueue<T> {
 		return peek == null ? null : peek.element;
 	}
 
-	private static class ElementWrapper<T> {
-		private final T element;
+	static class ElementWrapper<T> {
+		final T element;
 		private final long counter;
 
-		private ElementWrapper(T element, long counter) {
+		ElementWrapper(T element, long counter) {
 			this.element = element;
 			this.counter = counter;
 		}
 	}
 
-	private static class ItemCompare<T> implements Comparator<ElementWrapper<T>> {
+	static class ItemCompare<T> implements Comparator<ElementWrapper<T>> {
 
 		private final Comparator<T> comparator;
 
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact {@link SuffixIndex} based on an enhanced suffix array. All words of all keys are concatenated into a single
+ * char buffer, separated by a separator char. The suffix array contains the start positions of all suffixes in the
+ * buffer in lexicographic order, together with the longest common prefix (LCP) of each suffix with its predecessor.
+ * An infix is searched by a binary search for the first suffix starting with the infix, and then all following
+ * suffixes are collected as long as their LCP is at least the length of the infix.
+ * <p>
+ * The index requires some bytes per character of the keys, instead of storing each suffix as a separate string. As the
+ * suffix array cannot be updated efficiently, added keys are first kept in a small pending set that is searched
+ * linearly, and removed keys are only marked as deleted. If there are too many pending changes, the suffix array is
+ * rebuilt with the next search.
+ *
+ * @created 19.10.2026
+ */
+class SuffixArrayIndex implements SuffixIndex {
+
+	private static final char SEPARATOR = '\u0000';
+	private static final int MAX_LCP = Character.MAX_VALUE;
+	private static final int MIN_PENDING_CHANGES = 256;
+
+	// the keys of the suffix array, by their key id
+	private String[] keys = new String[0];
+	private final Map<String, Integer> keyIds = new HashMap<>();
+	private final BitSet deleted = new BitSet();
+	private int deletedCount = 0;
+
+	// the keys that have been added after the suffix array has been built
+	private final Set<String> pending = new LinkedHashSet<>();
+
+	// the concatenated words of all keys, and the start offset of each key in the text
+	private char[] text = new char[0];
+	private int[] keyStarts = new int[0];
+	private int[] suffixes = new int[0];
+	// the longest common prefix of each suffix with the previous one, limited to MAX_LCP
+	private char[] lcp = new char[0];
+
+	@Override
+	public void add(String key) {
+		Integer id = keyIds.get(key);
+		if (id != null && deleted.get(id)) {
+			deleted.clear(id);
+			deletedCount--;
+		}
+		else if (id == null) {
+			pending.add(key);
+		}
+	}
+
+	@Override
+	public void remove(String key) {
+		if (pending.remove(key)) return;
+		Integer id = keyIds.get(key);
+		if (id != null && !deleted.get(id)) {
+			deleted.set(id);
+			deletedCount++;
+		}
+	}
+
+	@Override
+	public void clear() {
+		keys = new String[0];
+		keyIds.clear();
+		deleted.clear();
+		deletedCount = 0;
+		pending.clear();
+		text = new char[0];
+		keyStarts = new int[0];
+		suffixes = new int[0];
+		lcp = new char[0];
+	}
+
+	@Override
+	public Iterable<String> findKeys(String infix) {
+		if (pending.size() + deletedCount > Math.max(MIN_PENDING_CHANGES, keys.length / 8)) {
+			rebuild();
+		}
+
+		List<String> result = new ArrayList<>();
+		BitSet found = new BitSet(keys.length);
+		int length = infix.length();
+		for (int i = lowerBound(infix); i < suffixes.length; i++) {
+			// the first suffix has to be checked, for all others the lcp tells us if the infix still matches
+			int common = lcp[i];
+			if (common < length || common == MAX_LCP) {
+				if (compare(suffixes[i], infix) != 0) break;
+			}
+			int id = keyOf(suffixes[i]);
+			if (!found.get(id) && !deleted.get(id)) {
+				found.set(id);
+				result.add(keys[id]);
+			}
+		}
+		for (String key : pending) {
+			if (key.toLowerCase().contains(infix)) result.add(key);
+		}
+		return result.isEmpty() ? Collections.emptyList() : result;
+	}
+
+	/**
+	 * Rebuilds the suffix array, including the pending keys and excluding the deleted ones.
+	 */
+	void rebuild() {
+		List<String> liveKeys = new ArrayList<>(keys.length - deletedCount + pending.size());
+		for (int id = 0; id < keys.length; id++) {
+			if (!deleted.get(id)) liveKeys.add(keys[id]);
+		}
+		liveKeys.addAll(pending);
+		clear();
+		build(liveKeys);
+	}
+
+	private void build(List<String> liveKeys) {
+		keys = liveKeys.toArray(new String[0]);
+		keyStarts = new int[keys.length];
+		StringBuilder buffer = new StringBuilder();
+		for (int id = 0; id < keys.length; id++) {
+			keyIds.put(keys[id], id);
+			keyStarts[id] = buffer.length();
+			String key = keys[id].toLowerCase();
+			boolean inWord = false;
+			for (int i = 0; i < key.length(); i++) {
+				char c = key.charAt(i);
+				if (isWhitespace(c)) {
+					// the words are separated by whitespaces, as in the tree backend
+					if (inWord) buffer.append(SEPARATOR);
+					inWord = false;
+				}
+				else {
+					buffer.append(c);
+					inWord = true;
+				}
+			}
+			if (inWord) buffer.append(SEPARATOR);
+		}
+		text = new char[buffer.length()];
+		buffer.getChars(0, text.length, text, 0);
+
+		int count = 0;
+		for (char c : text) {
+			if (c != SEPARATOR) count++;
+		}
+		suffixes = new int[count];
+		sortSuffixes(count);
+		buildLcp();
+	}
+
+	/**
+	 * Builds the LCP array in linear time, using the algorithm of Kasai et al. The common prefixes never include the
+	 * separator, so they end at the end of the words.
+	 */
+	private void buildLcp() {
+		int[] rank = new int[text.length];
+		for (int i = 0; i < suffixes.length; i++) {
+			rank[suffixes[i]] = i;
+		}
+		lcp = new char[suffixes.length];
+		int common = 0;
+		for (int position = 0; position < text.length; position++) {
+			if (text[position] == SEPARATOR) {
+				common = 0;
+				continue;
+			}
+			int r = rank[position];
+			if (r == 0) {
+				common = 0;
+				continue;
+			}
+			int previous = suffixes[r - 1];
+			while (text[position + common] == text[previous + common] && text[position + common] != SEPARATOR) {
+				common++;
+			}
+			lcp[r] = (char) Math.min(common, MAX_LCP);
+			if (common > 0) common--;
+		}
+	}
+
+	/**
+	 * Sorts the suffixes by their first two chars in a single primitive sort, where the position is the lower part of
+	 * the sort key. Then the groups of suffixes with the same first two chars are sorted by a multikey quicksort. This
+	 * is much more cache-friendly than sorting all suffixes by the multikey quicksort.
+	 */
+	private void sortSuffixes(int count) {
+		long[] sortKeys = new long[count];
+		for (int position = 0, i = 0; position < text.length; position++) {
+			if (text[position] == SEPARATOR) continue;
+			long prefix = ((long) text[position] << 16) | text[position + 1];
+			// flip the sign bit, so that the signed sort orders the keys as unsigned (chars >= U+8000 last)
+			sortKeys[i++] = ((prefix << 32) | position) ^ Long.MIN_VALUE;
+		}
+		Arrays.sort(sortKeys);
+		for (int i = 0; i < count; i++) {
+			suffixes[i] = (int) sortKeys[i];
+		}
+		for (int from = 0; from < count; ) {
+			long prefix = sortKeys[from] >>> 32;
+			int to = from + 1;
+			while (to < count && (sortKeys[to] >>> 32) == prefix) to++;
+			// if the second char is the separator, the group is already sorted by position
+			if ((prefix & 0xFFFF) != SEPARATOR) sort(suffixes, from, to, 2);
+			from = to;
+		}
+	}
+
+	/**
+	 * Multikey quicksort of the suffixes, starting to compare at the specified depth. Suffixes that are equal up to the
+	 * end of their words are ordered by their position, which is the order of their keys.
+	 */
+	private void sort(int[] positions, int from, int to, int depth) {
+		while (to - from > 1) {
+			if (to - from < 16) {
+				insertionSort(positions, from, to, depth);
+				return;
+			}
+			int pivot = medianOfThree(charAt(positions[from], depth),
+					charAt(positions[(from + to) >>> 1], depth), charAt(positions[to - 1], depth));
+			int less = from, greater = to - 1, i = from;
+			while (i <= greater) {
+				int c = charAt(positions[i], depth);
+				if (c < pivot) swap(positions, less++, i++);
+				else if (c > pivot) swap(positions, i, greater--);
+				else i++;
+			}
+			sort(positions, from, less, depth);
+			sort(positions, greater + 1, to, depth);
+			if (pivot == SEPARATOR) {
+				Arrays.sort(positions, less, greater + 1);
+				return;
+			}
+			// continue with the suffixes of the pivot char, at the next char
+			from = less;
+			to = greater + 1;
+			depth++;
+		}
+	}
+
+	private void insertionSort(int[] positions, int from, int to, int depth) {
+		for (int i = from + 1; i < to; i++) {
+			int position = positions[i];
+			int j = i;
+			while (j > from && compare(positions[j - 1], position, depth) > 0) {
+				positions[j] = positions[j - 1];
+				j--;
+			}
+			positions[j] = position;
+		}
+	}
+
+	private int compare(int position1, int position2, int depth) {
+		while (true) {
+			char c1 = text[position1 + depth];
+			char c2 = text[position2 + depth];
+			if (c1 != c2) return c1 - c2;
+			if (c1 == SEPARATOR) return Integer.compare(position1, position2);
+			depth++;
+		}
+	}
+
+	/**
+	 * Compares the beginning of the suffix with the infix, returning 0 if the suffix starts with the infix.
+	 */
+	private int compare(int position, String infix) {
+		for (int i = 0; i < infix.length(); i++) {
+			char c = text[position + i];
+			if (c == SEPARATOR) return -1;
+			if (c != infix.charAt(i)) return c - infix.charAt(i);
+		}
+		return 0;
+	}
+
+	private int lowerBound(String infix) {
+		int low = 0, high = suffixes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compare(suffixes[middle], infix) < 0) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int keyOf(int position) {
+		int index = Arrays.binarySearch(keyStarts, position);
+		if (index >= 0) {
+			// keys without words have the same start as the next key, so use the last one
+			while (index + 1 < keyStarts.length && keyStarts[index + 1] == position) index++;
+			return index;
+		}
+		return -index - 2;
+	}
+
+	private static boolean isWhitespace(char c) {
+		// same as the regex pattern \s
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private char charAt(int position, int depth) {
+		return text[position + depth];
+	}
+
+	private static int medianOfThree(int a, int b, int c) {
+		return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int temp = array[i];
+		array[i] = array[j];
+		array[j] = temp;
+	}
+}
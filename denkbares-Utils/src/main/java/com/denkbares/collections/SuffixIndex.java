@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections;
+
+/**
+ * Index of the suffixes of the words of string keys, used by the {@link GeneralizedSuffixTree} to find all keys that
+ * contain a particular infix.
+ *
+ * @created 19.10.2026
+ */
+interface SuffixIndex {
+
+	/**
+	 * Adds the suffixes of all words of the specified key to the index.
+	 */
+	void add(String key);
+
+	/**
+	 * Removes the suffixes of the specified key from the index, if the key has been added before.
+	 */
+	void remove(String key);
+
+	/**
+	 * Removes all keys from the index.
+	 */
+	void clear();
+
+	/**
+	 * Returns the keys that contain the specified lower-case infix in any of its words. Keys may be returned multiple
+	 * times, if they contain the infix multiple times.
+	 */
+	Iterable<String> findKeys(String infix);
+}
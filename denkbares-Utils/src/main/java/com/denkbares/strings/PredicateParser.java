@@ -255,7 +255,7 @@ public class PredicateParser {
 		String variable = lexer.consumeVariable();
 		if (isBooleanVariable != null && isBooleanVariable.test(variable) && !lexer.peek(TokenType.compare)) {
 			// if it is a defined boolean variable, and no operator follows, we create a virtual compare to != false
-			return new BoolPredicate(vars -> vars.isTrue(variable), false);
+			return new BoolPredicate(new BooleanVariableNode(variable), false);
 		}
 
 		// otherwise consume normal compare operator and terminal, and create compare node from that
@@ -399,6 +399,18 @@ public class PredicateParser {
 			return root.test(valueProvider);
 		}
 
+		/**
+		 * Compiles this predicate into a flat evaluator, where the variables are resolved to integer slots. Use the
+		 * compiled predicate if the same condition is evaluated against many variable bindings.
+		 *
+		 * @return the compiled predicate
+		 * @see CompiledPredicate
+		 */
+		@NotNull
+		public CompiledPredicate compile() {
+			return new CompiledPredicate(root, new ArrayList<>(variables));
+		}
+
 		/**
 		 * The original parsed source string, as it has been consumed by this parser. When using a custom stop
 		 * token, it is the original source string up to the stop token, including the stop token.
@@ -436,6 +448,408 @@ public class PredicateParser {
 		}
 	}
 
+	/**
+	 * A parsed predicate that has been compiled into a flat evaluator. The variables of the predicate are resolved to
+	 * integer slots, and the literals, numbers and regular expressions are prepared once during compilation. The
+	 * boolean operators are compiled into jumps between the atomic checks, so each evaluation only performs the checks
+	 * required to decide the result, without any recursion or allocation.
+	 * <p>
+	 * The compiled predicate is evaluated against {@link SlotValues}, which are created by {@link #createValues()} and
+	 * may be reused for each evaluation. The compiled predicate is immutable and can be used concurrently, but each
+	 * thread requires its own slot values.
+	 */
+	public static final class CompiledPredicate {
+
+		private static final int TRUE = -1;
+		private static final int FALSE = -2;
+
+		private final List<String> variables;
+		private final Map<String, Integer> slots = new HashMap<>();
+		private final Atom[] atoms;
+		private final int[] onTrue;
+		private final int[] onFalse;
+		private final int entry;
+
+		private CompiledPredicate(Predicate<ValueProvider> root, List<String> variables) {
+			this.variables = Collections.unmodifiableList(variables);
+			for (int i = 0; i < variables.size(); i++) {
+				slots.put(variables.get(i), i);
+			}
+
+			// compile the atoms, from the last to the first one, so that the jump targets are always known
+			List<Atom> atoms = new ArrayList<>();
+			List<int[]> targets = new ArrayList<>();
+			int entry = compile(root, TRUE, FALSE, atoms, targets);
+
+			// and reverse them to get the atoms in the order of the expression
+			int size = atoms.size();
+			this.atoms = new Atom[size];
+			this.onTrue = new int[size];
+			this.onFalse = new int[size];
+			for (int i = 0; i < size; i++) {
+				int index = size - 1 - i;
+				this.atoms[index] = atoms.get(i);
+				this.onTrue[index] = reverse(targets.get(i)[0], size);
+				this.onFalse[index] = reverse(targets.get(i)[1], size);
+			}
+			this.entry = reverse(entry, size);
+		}
+
+		private static int reverse(int target, int size) {
+			return (target < 0) ? target : size - 1 - target;
+		}
+
+		/**
+		 * Compiles the specified node, continuing with the specified targets if the node evaluates to true or false.
+		 * Returns the entry point of the compiled node.
+		 */
+		private int compile(Predicate<ValueProvider> node, int onTrue, int onFalse, List<Atom> atoms, List<int[]> targets) {
+			if (onTrue == onFalse) return onTrue;
+			if (node instanceof TruePredicate) return onTrue;
+			if (node instanceof FalsePredicate) return onFalse;
+			if (node instanceof ParsedPredicate) {
+				return compile(((ParsedPredicate) node).root, onTrue, onFalse, atoms, targets);
+			}
+			if (node instanceof NotPredicate) {
+				return compile(((NotPredicate) node).getNodes().get(0), onFalse, onTrue, atoms, targets);
+			}
+			if (node instanceof BoolPredicate) {
+				return compile(((BoolPredicate) node).getNodes().get(0), onTrue, onFalse, atoms, targets);
+			}
+			if (node instanceof AndPredicate) {
+				List<Predicate<ValueProvider>> nodes = ((AndPredicate) node).getNodes();
+				int entry = onTrue;
+				for (int i = nodes.size() - 1; i >= 0; i--) {
+					entry = compile(nodes.get(i), entry, onFalse, atoms, targets);
+				}
+				return entry;
+			}
+			if (node instanceof OrPredicate) {
+				List<Predicate<ValueProvider>> nodes = ((OrPredicate) node).getNodes();
+				int entry = onFalse;
+				for (int i = nodes.size() - 1; i >= 0; i--) {
+					entry = compile(nodes.get(i), onTrue, entry, atoms, targets);
+				}
+				return entry;
+			}
+			atoms.add(createAtom(node));
+			targets.add(new int[] { onTrue, onFalse });
+			return atoms.size() - 1;
+		}
+
+		private Atom createAtom(Predicate<ValueProvider> node) {
+			if (node instanceof CompareNode) {
+				CompareNode compare = (CompareNode) node;
+				int slot = slots.get(compare.variable);
+				if (compare.textValue == null) {
+					return new Atom(Atom.EMPTY, slot, compare.acceptEqual, null, null, null, node);
+				}
+				int op = (compare.acceptLess && compare.acceptGreater && !compare.acceptEqual) ? Atom.ALL : Atom.ANY;
+				return new Atom(op, slot, false, compare, compare.textValue, null, node);
+			}
+			if (node instanceof RegexNode) {
+				RegexNode regex = (RegexNode) node;
+				return new Atom(Atom.REGEX, slots.get(regex.variable), false, null, null, regex.pattern, node);
+			}
+			if (node instanceof BooleanVariableNode) {
+				int slot = slots.get(((BooleanVariableNode) node).variable);
+				return new Atom(Atom.TRUE_VALUE, slot, false, null, null, null, node);
+			}
+			// for any other node, we evaluate the node itself
+			return new Atom(Atom.CALL, -1, false, null, null, null, node);
+		}
+
+		/**
+		 * Returns the variables of this predicate, ordered by their slots.
+		 *
+		 * @return the variables of the predicate
+		 */
+		@NotNull
+		public List<String> getVariables() {
+			return variables;
+		}
+
+		/**
+		 * Returns the slot of the specified variable, or -1 if the variable is not used by this predicate.
+		 *
+		 * @param variable the variable to get the slot for
+		 * @return the slot of the variable
+		 */
+		public int getSlot(@NotNull String variable) {
+			Integer slot = slots.get(variable);
+			return (slot == null) ? -1 : slot;
+		}
+
+		/**
+		 * Creates new (empty) slot values to evaluate this predicate with. The slot values should be reused for
+		 * subsequent evaluations.
+		 *
+		 * @return the new slot values
+		 */
+		@NotNull
+		public SlotValues createValues() {
+			return new SlotValues(variables, slots);
+		}
+
+		/**
+		 * Evaluates this predicate against the specified slot values. The result is the same as for the parsed
+		 * predicate, evaluated against the same variable bindings.
+		 *
+		 * @param values the values of the variables
+		 * @return the result of the predicate
+		 */
+		public boolean test(@NotNull SlotValues values) {
+			if (values.variables != variables && !values.variables.equals(variables)) {
+				throw new IllegalArgumentException("slot values not created for this predicate");
+			}
+			int index = entry;
+			while (index >= 0) {
+				index = atoms[index].test(values) ? onTrue[index] : onFalse[index];
+			}
+			return index == TRUE;
+		}
+	}
+
+	/**
+	 * An atomic check of a compiled predicate.
+	 */
+	private static final class Atom {
+
+		private static final int EMPTY = 0;
+		private static final int ANY = 1;
+		private static final int ALL = 2;
+		private static final int REGEX = 3;
+		private static final int TRUE_VALUE = 4;
+		private static final int CALL = 5;
+
+		private final int op;
+		private final int slot;
+		private final boolean acceptEmpty;
+		private final boolean acceptLess, acceptEqual, acceptGreater;
+		private final boolean isNumber;
+		private final double number;
+		private final String text;
+		private final Pattern pattern;
+		private final Predicate<ValueProvider> node;
+
+		private Atom(int op, int slot, boolean acceptEmpty, CompareNode compare, String text, Pattern pattern, Predicate<ValueProvider> node) {
+			this.op = op;
+			this.slot = slot;
+			this.acceptEmpty = acceptEmpty;
+			this.acceptLess = compare != null && compare.acceptLess;
+			this.acceptEqual = compare != null && compare.acceptEqual;
+			this.acceptGreater = compare != null && compare.acceptGreater;
+			this.isNumber = compare != null && compare.numValue != null;
+			this.number = isNumber ? compare.numValue.doubleValue() : Double.NaN;
+			this.text = text;
+			this.pattern = pattern;
+			this.node = node;
+		}
+
+		private boolean test(SlotValues values) {
+			int count = (slot < 0) ? 0 : values.counts[slot];
+			switch (op) {
+				case EMPTY:
+					return (count == 0) == acceptEmpty;
+				case ANY:
+					for (int i = 0; i < count; i++) {
+						if (accept(values, i)) return true;
+					}
+					return false;
+				case ALL:
+					for (int i = 0; i < count; i++) {
+						if (!accept(values, i)) return false;
+					}
+					return true;
+				case REGEX:
+					String[] strings = values.values[slot];
+					for (int i = 0; i < count; i++) {
+						if (strings[i] != null && pattern.matcher(strings[i]).matches()) return true;
+					}
+					return false;
+				case TRUE_VALUE:
+					for (int i = 0; i < count; i++) {
+						String value = values.values[slot][i];
+						if (value != null && !"false".equalsIgnoreCase(value)) return true;
+					}
+					return false;
+				default:
+					return node.test(values);
+			}
+		}
+
+		private boolean accept(SlotValues values, int index) {
+			int compare;
+			double value = isNumber ? values.getNumbers(slot)[index] : Double.NaN;
+			if (!Double.isNaN(value)) {
+				compare = Double.compare(value, number);
+			}
+			else {
+				compare = NumberAwareComparator.CASE_INSENSITIVE.compare(values.values[slot][index], text);
+			}
+			return (acceptLess && compare < 0) || (acceptEqual && compare == 0) || (acceptGreater && compare > 0);
+		}
+	}
+
+	/**
+	 * Array-backed variable bindings to evaluate a {@link CompiledPredicate}. Each variable of the compiled predicate
+	 * has a slot, that holds the values of the variable. The arrays of the slots are reused when the values are set
+	 * again, so the same instance can be used to evaluate the predicate for many bindings without allocations.
+	 * Numeric values are parsed at most once per binding, even if they are compared multiple times.
+	 * <p>
+	 * The slot values also implement {@link ValueProvider}, so they can also be used to evaluate the (not compiled)
+	 * parsed predicate.
+	 */
+	public static final class SlotValues implements ValueProvider {
+
+		private final List<String> variables;
+		private final Map<String, Integer> slots;
+		private final String[][] values;
+		private final int[] counts;
+		private final double[][] numbers;
+		private final boolean[] numbersParsed;
+
+		private SlotValues(List<String> variables, Map<String, Integer> slots) {
+			this.variables = variables;
+			this.slots = slots;
+			int size = variables.size();
+			this.values = new String[size][1];
+			this.counts = new int[size];
+			this.numbers = new double[size][1];
+			this.numbersParsed = new boolean[size];
+		}
+
+		/**
+		 * Binds the variable of the specified slot to a single value. If the value is null, the variable is unbound.
+		 *
+		 * @param slot  the slot of the variable
+		 * @param value the value of the variable
+		 * @return this instance, to chain method calls
+		 */
+		public SlotValues set(int slot, @Nullable String value) {
+			values[slot][0] = value;
+			counts[slot] = (value == null) ? 0 : 1;
+			numbersParsed[slot] = false;
+			return this;
+		}
+
+		/**
+		 * Binds the variable of the specified slot to the specified values. If the values are null or empty, the
+		 * variable is unbound. The values are copied, so the array may be reused by the caller.
+		 *
+		 * @param slot   the slot of the variable
+		 * @param values the values of the variable
+		 * @return this instance, to chain method calls
+		 */
+		public SlotValues setAll(int slot, @Nullable String... values) {
+			int count = (values == null) ? 0 : values.length;
+			if (count > this.values[slot].length) this.values[slot] = new String[count];
+			if (count > 0) System.arraycopy(values, 0, this.values[slot], 0, count);
+			counts[slot] = count;
+			numbersParsed[slot] = false;
+			return this;
+		}
+
+		/**
+		 * Binds the variable of the specified slot to the specified values. If the values are null or empty, the
+		 * variable is unbound.
+		 *
+		 * @param slot   the slot of the variable
+		 * @param values the values of the variable
+		 * @return this instance, to chain method calls
+		 */
+		public SlotValues setAll(int slot, @Nullable Collection<String> values) {
+			int count = (values == null) ? 0 : values.size();
+			if (count > this.values[slot].length) this.values[slot] = new String[count];
+			if (count > 0) values.toArray(this.values[slot]);
+			counts[slot] = count;
+			numbersParsed[slot] = false;
+			return this;
+		}
+
+		/**
+		 * Binds the specified variable to a single value. If the value is null, the variable is unbound. If the
+		 * variable is not used by the compiled predicate, the value is ignored.
+		 *
+		 * @param variable the variable to bind
+		 * @param value    the value of the variable
+		 * @return this instance, to chain method calls
+		 */
+		public SlotValues set(@NotNull String variable, @Nullable String value) {
+			Integer slot = slots.get(variable);
+			return (slot == null) ? this : set(slot, value);
+		}
+
+		/**
+		 * Unbinds the variable of the specified slot.
+		 *
+		 * @param slot the slot of the variable
+		 * @return this instance, to chain method calls
+		 */
+		public SlotValues clear(int slot) {
+			counts[slot] = 0;
+			numbersParsed[slot] = false;
+			return this;
+		}
+
+		/**
+		 * Unbinds all variables.
+		 *
+		 * @return this instance, to chain method calls
+		 */
+		public SlotValues clear() {
+			Arrays.fill(counts, 0);
+			Arrays.fill(numbersParsed, false);
+			return this;
+		}
+
+		@Override
+		public Collection<String> get(@NotNull String variable) {
+			Integer slot = slots.get(variable);
+			if (slot == null || counts[slot] == 0) return null;
+			return Collections.unmodifiableList(Arrays.asList(values[slot]).subList(0, counts[slot]));
+		}
+
+		/**
+		 * Returns the numbers of the values of the specified slot, NaN for each value that is not a number.
+		 */
+		private double[] getNumbers(int slot) {
+			if (!numbersParsed[slot]) {
+				int count = counts[slot];
+				if (count > numbers[slot].length) numbers[slot] = new double[values[slot].length];
+				for (int i = 0; i < count; i++) {
+					numbers[slot][i] = parseNumber(values[slot][i]);
+				}
+				numbersParsed[slot] = true;
+			}
+			return numbers[slot];
+		}
+
+		/**
+		 * Parses the value if it is a number as accepted by {@link TokenType#number}, otherwise returns NaN.
+		 */
+		private static double parseNumber(String value) {
+			if (value == null) return Double.NaN;
+			int length = value.length();
+			int index = 0;
+			if (index < length && (value.charAt(index) == '+' || value.charAt(index) == '-')) index++;
+			int digits = index;
+			while (index < length && isDigit(value.charAt(index))) index++;
+			if (index == digits) return Double.NaN;
+			if (index < length) {
+				if (value.charAt(index++) != '.') return Double.NaN;
+				int fraction = index;
+				while (index < length && isDigit(value.charAt(index))) index++;
+				if (index == fraction || index < length) return Double.NaN;
+			}
+			return Double.parseDouble(value);
+		}
+
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
+		}
+	}
+
 	/**
 	 * Interface that represents a binding of variables, returning the set of values for each given variable name. If a
 	 * variable is unbound (aka 'null' or 'nil'), the method should return an empty collection (or null). Otherwise it
@@ -850,6 +1264,19 @@ public class PredicateParser {
 		}
 	}
 
+	private static class BooleanVariableNode implements Predicate<ValueProvider> {
+		private final String variable;
+
+		private BooleanVariableNode(String variable) {
+			this.variable = variable;
+		}
+
+		@Override
+		public boolean test(ValueProvider valueProvider) {
+			return valueProvider.isTrue(variable);
+		}
+	}
+
 	private static class RegexNode implements Predicate<ValueProvider> {
 		private final String variable;
 		private final Pattern pattern;
@@ -20,18 +20,37 @@ package com.denkbares.strings;
 
 public class StringFragment {
 
-	private final String content;
+	private String content;
 	private final int offset;
+	private final int end;
 	private final String fatherString;
 
 	public StringFragment(String content, int offset, String fatherString) {
 		super();
 		this.content = content;
 		this.offset = offset;
+		this.end = offset + content.length();
+		this.fatherString = fatherString;
+	}
+
+	/**
+	 * Creates a fragment for the specified range of the father string. The content of the fragment is only created
+	 * when it is requested.
+	 *
+	 * @param start        the start index of the fragment (inclusive)
+	 * @param end          the end index of the fragment (exclusive)
+	 * @param fatherString the string containing the fragment
+	 */
+	public StringFragment(int start, int end, String fatherString) {
+		this.offset = start;
+		this.end = end;
 		this.fatherString = fatherString;
 	}
 
 	public String getContent() {
+		if (content == null) {
+			content = fatherString.substring(offset, end);
+		}
 		return content;
 	}
 
@@ -40,18 +59,19 @@ public class StringFragment {
 	}
 
 	public int getEnd() {
-		return offset + content.length();
+		return end;
 	}
 
 	public int length() {
-		return content.length();
+		return end - offset;
 	}
 
 	public String getContentTrimmed() {
-		return Strings.trim(content);
+		return Strings.trim(getContent());
 	}
 
 	public int getStartTrimmed() {
+		String content = getContent();
 		return offset + (content.indexOf(Strings.trim(content)));
 	}
 
@@ -60,7 +80,7 @@ public class StringFragment {
 	}
 
 	public int lengthTrimmed() {
-		return Strings.trim(content).length();
+		return getContentTrimmed().length();
 	}
 
 	public String getFatherString() {
@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.strings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiled form of {@link Strings#indexOf(String, int, int, String...)}. The searched strings are compiled once into
+ * an Aho-Corasick automaton, so each search is linear in the length of the text, independent of the number of
+ * strings. The flags {@link Strings#UNQUOTED}, {@link Strings#SKIP_COMMENTS}, {@link Strings#UNBRACED}, {@link
+ * Strings#FIRST_IN_LINE}, {@link Strings#SINGLE_QUOTED}, {@link Strings#CASE_INSENSITIVE} and {@link
+ * Strings#LAST_INDEX} behave exactly as they do for the uncompiled method.
+ * <p>
+ * If the same text is searched repeatedly with increasing offsets (e.g. when splitting or tokenizing it), use {@link
+ * #scan(String)}: the returned {@link Scan} keeps the quote, comment and brace state and continues from where the
+ * previous search stopped, instead of re-scanning the text from its start for each search.
+ * <p>
+ * Instances are immutable and may be shared between threads, a {@link Scan} must only be used by one thread at a
+ * time.
+ *
+ * @created 19.10.2026
+ */
+public final class StringMatcher {
+
+	private static final byte ELIGIBLE = 0x01;
+	private static final byte MATCH = 0x02;
+
+	private final boolean unquoted;
+	private final boolean skipComments;
+	private final boolean last;
+	private final boolean caseInsensitive;
+	private final boolean firstInLine;
+	private final boolean unbraced;
+	private final char quoteChar;
+	private final boolean quoteIsSearched;
+	private final boolean emptyIsSearched;
+
+	// the alphabet of the (folded) strings, all other chars map to class 0
+	private final char[] alphabet;
+	private final int[] asciiClasses = new int[128];
+	private final int classCount;
+
+	// the complete transition table of the automaton, [state * classCount + class] -> state
+	private final int[] transitions;
+	// the lengths of all strings that end in each state, including the ones of the suffix states
+	private final int[][] outputs;
+	private final int maxLength;
+
+	StringMatcher(@Strings.IndexOfFlags int flags, String... strings) {
+		this.unquoted = (flags & Strings.UNQUOTED) != 0;
+		this.skipComments = (flags & Strings.SKIP_COMMENTS) != 0;
+		this.last = (flags & Strings.LAST_INDEX) != 0;
+		this.caseInsensitive = (flags & Strings.CASE_INSENSITIVE) != 0;
+		this.firstInLine = (flags & Strings.FIRST_IN_LINE) != 0;
+		this.unbraced = (flags & Strings.UNBRACED) != 0;
+		this.quoteChar = (flags & Strings.SINGLE_QUOTED) != 0 ? '\'' : '"';
+
+		boolean quoteIsSearched = false;
+		boolean emptyIsSearched = false;
+		int maxLength = 1;
+		TreeSet<Character> chars = new TreeSet<>();
+		String[] folded = new String[strings.length];
+		for (int i = 0; i < strings.length; i++) {
+			String string = strings[i];
+			if (string.length() == 1 && string.charAt(0) == quoteChar) quoteIsSearched = true;
+			if (string.isEmpty()) emptyIsSearched = true;
+			maxLength = Math.max(maxLength, string.length());
+			char[] foldedChars = string.toCharArray();
+			for (int c = 0; c < foldedChars.length; c++) {
+				foldedChars[c] = fold(foldedChars[c]);
+				chars.add(foldedChars[c]);
+			}
+			folded[i] = new String(foldedChars);
+		}
+		this.quoteIsSearched = quoteIsSearched;
+		this.emptyIsSearched = emptyIsSearched;
+		this.maxLength = maxLength;
+
+		this.alphabet = new char[chars.size()];
+		int index = 0;
+		for (Character c : chars) {
+			alphabet[index++] = c;
+			if (c < 128) asciiClasses[c] = index;
+		}
+		this.classCount = alphabet.length + 1;
+
+		// build the trie of the strings
+		List<Map<Integer, Integer>> trie = new ArrayList<>();
+		List<TreeSet<Integer>> lengths = new ArrayList<>();
+		trie.add(new HashMap<>());
+		lengths.add(new TreeSet<>());
+		for (String string : folded) {
+			if (string.isEmpty()) continue;
+			int state = 0;
+			for (int i = 0; i < string.length(); i++) {
+				int charClass = classOf(string.charAt(i));
+				Integer next = trie.get(state).get(charClass);
+				if (next == null) {
+					next = trie.size();
+					trie.get(state).put(charClass, next);
+					trie.add(new HashMap<>());
+					lengths.add(new TreeSet<>());
+				}
+				state = next;
+			}
+			lengths.get(state).add(string.length());
+		}
+
+		// complete the trie to the transition table in breadth first order, using the failure links
+		int states = trie.size();
+		this.transitions = new int[states * classCount];
+		int[] failures = new int[states];
+		this.outputs = new int[states][];
+		Queue<Integer> queue = new ArrayDeque<>();
+		queue.add(0);
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			int failure = failures[state];
+			if (state != 0) lengths.get(state).addAll(lengths.get(failure));
+			outputs[state] = lengths.get(state).stream().mapToInt(Integer::intValue).toArray();
+			for (int charClass = 0; charClass < classCount; charClass++) {
+				Integer child = trie.get(state).get(charClass);
+				int fallback = (state == 0) ? 0 : transitions[failure * classCount + charClass];
+				if (child == null) {
+					transitions[state * classCount + charClass] = fallback;
+				}
+				else {
+					transitions[state * classCount + charClass] = child;
+					failures[child] = fallback;
+					queue.add(child);
+				}
+			}
+		}
+	}
+
+	private char fold(char c) {
+		return caseInsensitive ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+	}
+
+	private int classOf(char folded) {
+		if (folded < 128) return asciiClasses[folded];
+		int index = Arrays.binarySearch(alphabet, folded);
+		return (index < 0) ? 0 : index + 1;
+	}
+
+	/**
+	 * Finds the index of the first occurrence of one of the compiled strings in the given text, or the last one if
+	 * compiled with {@link Strings#LAST_INDEX}. If text is null it is treated as an empty string.
+	 *
+	 * @param text the text where we search for the strings
+	 * @return the index of any of the strings in the text or -1 if none of the strings is found
+	 * @see Strings#indexOf(String, int, String...)
+	 */
+	public int indexOf(@Nullable String text) {
+		return indexOf(text, 0);
+	}
+
+	/**
+	 * Finds the index of the first occurrence of one of the compiled strings in the given text after the given
+	 * offset, or the last one if compiled with {@link Strings#LAST_INDEX}. If text is null it is treated as an empty
+	 * string. The result is the same as for {@link Strings#indexOf(String, int, int, String...)} called with the
+	 * flags and strings of this matcher.
+	 *
+	 * @param text   the text where we search for the strings
+	 * @param offset the offset from where we start to look for the strings (flags like UNQUOTED or FIRST_IN_LINE also
+	 *               consider the text before the offset!)
+	 * @return the index of any of the strings in the text or -1 if none of the strings is found
+	 */
+	public int indexOf(@Nullable String text, int offset) {
+		Scan scan = scan(text);
+		return last ? scan.lastIndexOf(offset) : scan.indexOf(offset);
+	}
+
+	/**
+	 * Creates a new resumable scan over the specified text. The scan finds the first occurrences of the compiled
+	 * strings after some offset, ignoring the {@link Strings#LAST_INDEX} flag. As long as the offsets of subsequent
+	 * searches do not decrease, each search continues from the state where the previous one stopped, so all searches
+	 * together are linear in the length of the text.
+	 *
+	 * @param text the text to be scanned, null is treated as an empty string
+	 * @return the scan over the text
+	 */
+	@NotNull
+	public Scan scan(@Nullable String text) {
+		return new Scan(text == null ? "" : text);
+	}
+
+	/**
+	 * The state of a (partially) scanned text. It remembers the position up to which the text has been scanned, as
+	 * well as the quote, comment and brace state at that position, and the recently found candidate matches.
+	 */
+	public final class Scan {
+
+		private final String text;
+		// the flags of the most recent positions, indexed by position & mask
+		private final byte[] marks;
+		private final int mask;
+
+		private int offset;
+		private int lastFound;
+		// the first position that may still be the next match
+		private int candidate;
+
+		// the next position to be scanned and the state before that position
+		private int position;
+		private int state;
+		private int backslashes;
+		private boolean quoted;
+		private boolean comment;
+		private boolean atLineStart;
+		private int bracedLevel;
+
+		private Scan(String text) {
+			this.text = text;
+			this.marks = new byte[Integer.highestOneBit(maxLength) << 1];
+			this.mask = marks.length - 1;
+			reset();
+		}
+
+		private void reset() {
+			offset = 0;
+			lastFound = -1;
+			candidate = 0;
+			position = 0;
+			state = 0;
+			backslashes = 0;
+			quoted = false;
+			comment = false;
+			atLineStart = true;
+			bracedLevel = 0;
+		}
+
+		/**
+		 * Returns the scanned text.
+		 */
+		@NotNull
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * Finds the index of the first occurrence of one of the compiled strings in the text after the given offset.
+		 * If the offset is below the offset of the previous search, the text is scanned again from its start.
+		 *
+		 * @param offset the offset from where we start to look for the strings
+		 * @return the index of any of the strings in the text or -1 if none of the strings is found
+		 */
+		public int indexOf(int offset) {
+			if (offset < this.offset) reset();
+			this.offset = offset;
+			if (offset >= text.length()) return -1;
+			if (candidate < offset) candidate = offset;
+			while (true) {
+				// all positions before the limit are complete, no further matches may start there
+				int limit = (position >= text.length()) ? position : position - maxLength + 1;
+				while (candidate < position) {
+					if ((marks[candidate & mask] & MATCH) != 0) return lastFound = candidate;
+					if (candidate >= limit) break;
+					candidate++;
+				}
+				if (position >= text.length()) return lastFound = -1;
+				step();
+			}
+		}
+
+		/**
+		 * Finds the index of the next occurrence of one of the compiled strings, after the occurrence found by the
+		 * previous search of this scan. If there has been no previous search, the first occurrence is returned. If the
+		 * previous search has not found any occurrence, -1 is returned.
+		 *
+		 * @return the index of any of the strings in the text or -1 if none of the strings is found
+		 */
+		public int next() {
+			if (lastFound == -1 && position > 0) return -1;
+			return indexOf(lastFound + 1);
+		}
+
+		private int lastIndexOf(int offset) {
+			int lastIndex = -1;
+			while (position < text.length()) {
+				int end = position;
+				if (step() && end >= offset) return end;
+				if (end >= offset && (marks[end & mask] & MATCH) != 0) lastIndex = end;
+				for (int length : outputs[state]) {
+					int start = end - length + 1;
+					if (start > lastIndex && start >= offset && (marks[start & mask] & MATCH) != 0) lastIndex = start;
+				}
+			}
+			return lastIndex;
+		}
+
+		/**
+		 * Scans the next position of the text, updates the state and marks the (eligible) start positions of all
+		 * strings that end at this position. Returns true if the position is an unquoted quote that is searched for,
+		 * which the uncompiled method reports immediately.
+		 */
+		private boolean step() {
+			int i = position++;
+			char c = text.charAt(i);
+			state = transitions[state * classCount + classOf(fold(c))];
+
+			boolean special = false;
+			boolean eligible = true;
+			if (c == '\n') {
+				comment = false;
+				atLineStart = true;
+			}
+			if (skipComments && comment) {
+				eligible = false;
+			}
+			else if (firstInLine && !atLineStart && (!quoted || (unbraced && bracedLevel != 0))) {
+				eligible = false;
+			}
+			else {
+				if (firstInLine && !Strings.isWhitespace(c)) {
+					atLineStart = false;
+				}
+				if (unquoted) {
+					if (c == quoteChar && backslashes % 2 == 0) {
+						special = quoteIsSearched;
+						quoted = !quoted;
+					}
+					if (quoted) eligible = false;
+				}
+				if (eligible && skipComments) {
+					if (c == '/' && i + 1 < text.length() && text.charAt(i + 1) == '/') {
+						comment = true;
+					}
+					if (comment) eligible = false;
+				}
+				if (eligible && unbraced) {
+					if (c == '(') {
+						bracedLevel++;
+					}
+					else if (c == ')' && bracedLevel > 0) {
+						bracedLevel--;
+					}
+					if (bracedLevel > 0) eligible = false;
+				}
+			}
+			backslashes = (c == '\\') ? backslashes + 1 : 0;
+
+			byte mark = 0;
+			if (eligible) mark |= ELIGIBLE;
+			if (special || (eligible && emptyIsSearched)) mark |= MATCH;
+			marks[i & mask] = mark;
+			for (int length : outputs[state]) {
+				int start = i - length + 1;
+				if ((marks[start & mask] & ELIGIBLE) != 0) marks[start & mask] |= MATCH;
+			}
+			return special;
+		}
+	}
+}
@@ -36,7 +36,6 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -880,14 +879,7 @@ public class Strings {
 	}
 
 	public static String[] splitUnquotedToArray(String text, String splitSymbol) {
-
-		List<StringFragment> stringFragments = splitUnquoted(text, splitSymbol, true, new QuoteSet(QUOTE_DOUBLE));
-		String[] result = new String[stringFragments.size()];
-
-		for (int i = 0; i < stringFragments.size(); i++) {
-			result[i] = stringFragments.get(i).getContent();
-		}
-		return result;
+		return new UnquotedSplitter(splitSymbol, true, new QuoteSet(QUOTE_DOUBLE)).splitToArray(text);
 	}
 
 	public static List<StringFragment> splitUnquoted(String text, String splitSymbol) {
@@ -918,7 +910,7 @@ public class Strings {
 	 * @return the fragments of the text
 	 */
 	public static List<StringFragment> splitUnquoted(String text, String splitSymbol, boolean includeBlankFragments, QuoteSet... quotes) {
-		return splitUnquoted(text, Pattern.compile(Pattern.quote(splitSymbol)), includeBlankFragments, quotes);
+		return new UnquotedSplitter(splitSymbol, includeBlankFragments, quotes).split(text);
 	}
 
 	/**
@@ -1040,29 +1032,20 @@ public class Strings {
 		return lastIndex;
 	}
 
-	private static void toggleQuoteState(int[] quoteStates, int q) {
-		if (quoteStates[q] == 0) {
-			quoteStates[q] = 1;
-		}
-		else if (quoteStates[q] == 1) {
-			quoteStates[q] = 0;
-		}
-	}
-
-	private static boolean isHiddenByOtherQuote(int[] quoteStates, QuoteSet[] quotes, int q) {
-		for (int i = 0; i < quotes.length; i++) {
-			if (quoteStates[i] > 0 && quotes[i].hidesOtherQuotes() && q != i) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private static boolean quoted(int[] quoteStates) {
-		for (int b : quoteStates) {
-			if (b > 0) return true;
-		}
-		return false;
+	/**
+	 * Compiles the given strings and flags into a matcher that finds the strings the same way as {@link
+	 * #indexOf(String, int, int, String...)}. The strings are compiled once into an automaton, so each search is linear
+	 * in the length of the text, independent of the number of strings. For repeated searches on the same text with
+	 * increasing offsets, use {@link StringMatcher#scan(String)}, which continues scanning from the state of the
+	 * previous search, instead of re-scanning the text from its start.
+	 *
+	 * @param flags   the settings flags to influence the behavior of the matcher
+	 * @param strings the strings to be searched by the matcher
+	 * @return the compiled matcher
+	 */
+	@NotNull
+	public static StringMatcher compileMatcher(@IndexOfFlags int flags, String... strings) {
+		return new StringMatcher(flags, strings);
 	}
 
 	/**
@@ -2285,123 +2268,7 @@ public class Strings {
 	 * @return the fragments of the text
 	 */
 	public static List<StringFragment> splitUnquoted(String text, Pattern splitPattern, boolean includeBlankFragments, QuoteSet... quotes) {
-		List<StringFragment> parts = new ArrayList<>();
-		if (text == null) return parts;
-
-		quotes = Arrays.copyOf(quotes, quotes.length);
-		// make sure triple quotes are first
-		Arrays.sort(quotes, (o1, o2) -> {
-			if (o1 == QuoteSet.TRIPLE_QUOTES && o2 != QuoteSet.TRIPLE_QUOTES) return -1;
-			if (o1 != QuoteSet.TRIPLE_QUOTES && o2 == QuoteSet.TRIPLE_QUOTES) return 1;
-			return 0;
-		});
-
-		// init quote state for each quote
-		int[] quoteStates = new int[quotes.length];
-
-		StringBuilder actualPart = new StringBuilder();
-
-		Matcher matcher = splitPattern.matcher(text);
-		List<Group> candidates = new ArrayList<>();
-		while (matcher.find()) {
-			candidates.add(new Group(matcher.start(), matcher.end()));
-		}
-		if (candidates.isEmpty()) {
-			// not splitting in this text
-			return Collections.singletonList(new StringFragment(text, 0, text));
-		}
-		Iterator<Group> candidateIterator = candidates.iterator();
-
-		// scanning the text
-		Group nextCandidate = candidateIterator.next();
-		int startOfNewPart = 0;
-		int skipQuoteDetectionUntil = -1;
-		for (int i = 0; i < text.length(); i++) {
-
-			// go to next split candidate if possible
-			if (i > nextCandidate.start) {
-				if (candidateIterator.hasNext()) {
-					nextCandidate = candidateIterator.next();
-				}
-				else {
-					// no more candidates, rest of the string is one fragment
-					actualPart.append(text.substring(i));
-					break;
-				}
-			}
-
-			// tracking multiple quote states
-			for (int q = 0; q < quotes.length; q++) {
-
-				if (i <= skipQuoteDetectionUntil) continue;
-
-				QuoteSet quoteSet = quotes[q];
-
-				// check whether the quote is hidden by another quote, e.g. a
-				// bracket in a literal-quote
-				if (!isHiddenByOtherQuote(quoteStates, quotes, q)) {
-
-					// first handle unary quotes
-					if (quoteSet.isUnary()) {
-						// handle special case for triple quotes (""")
-						if (quoteSet == QuoteSet.TRIPLE_QUOTES
-								// triple quotes cannot be escaped, so just try a match
-								&& text.length() >= i + 3
-								&& text.startsWith(TRIPLE_QUOTES, i)
-								// don't match closing triple quotes at the start, but at the end of
-								// a sequence of more than 3 quotes (e.g. """Hi there "stranger"""")
-								&& !(quoteStates[q] == 1 && text.length() > i + 3 && text.charAt(i + 3) == TRIPLE_QUOTES
-								.charAt(0))) {
-
-							toggleQuoteState(quoteStates, q);
-
-							// triple quotes might also match other quote set, so we skip
-							skipQuoteDetectionUntil = i + TRIPLE_QUOTES.length();
-							break;
-						}
-						// just ordinary unary quotes, open() == close()
-						else if (isUnEscapedQuote(text, i, quoteSet.open())) {
-							toggleQuoteState(quoteStates, q);
-						}
-					}
-					// then handle binary (potentially nested) quotes
-					else {
-
-						// check for opening char
-						if (isUnEscapedQuote(text, i, quoteSet.open())) {
-							// this one is just being opened (once more)
-							quoteStates[q]++;
-						}
-						// check for closing char
-						if (isUnEscapedQuote(text, i, quoteSet.close())) {
-							// this one is just being closed (once)
-							quoteStates[q]--;
-						}
-					}
-				}
-			}
-			if (quoted(quoteStates)) {
-				actualPart.append(text.charAt(i));
-				continue;
-			}
-
-			if (nextCandidate.start == i) {
-				String actualPartString = actualPart.toString();
-				if (includeBlankFragments || !isBlank(actualPartString)) {
-					parts.add(new StringFragment(actualPartString, startOfNewPart, text));
-				}
-				actualPart = new StringBuilder();
-				i = nextCandidate.end - 1;
-				startOfNewPart = nextCandidate.end;
-				continue;
-			}
-			actualPart.append(text.charAt(i));
-		}
-		String actualPartString = actualPart.toString();
-		if (includeBlankFragments || !isBlank(actualPartString)) {
-			parts.add(new StringFragment(actualPartString, startOfNewPart, text));
-		}
-		return parts;
+		return new UnquotedSplitter(splitPattern, includeBlankFragments, quotes).split(text);
 	}
 
 	/**
@@ -2765,17 +2632,6 @@ public class Strings {
 		return longVersion ? " " + TIME_UNITS_LONG[i] + (plural ? "s" : "") : TIME_UNITS[i];
 	}
 
-	private static class Group {
-		private static final Logger LOGGER = LoggerFactory.getLogger(Group.class);
-		final int start;
-		final int end;
-
-		public Group(int start, int end) {
-			this.start = start;
-			this.end = end;
-		}
-	}
-
 	/**
 	 * Converts an array of (Unicode) integer codepoints to a corresponding String representation
 	 *
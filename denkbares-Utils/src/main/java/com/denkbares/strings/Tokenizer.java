@@ -19,12 +19,314 @@
 
 package com.denkbares.strings;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
 
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Splits texts into word tokens. The static methods use the default word characters of {@link #isWordChar(char)}.
+ * Instances of this class additionally provide a streaming tokenization, based on a {@link WordRule}, that only
+ * reports the start and end offsets of the tokens, so no strings are created unless the caller needs them. Texts may be
+ * tokenized from any {@link CharSequence}, in parallel, or chunk by chunk from a {@link Reader}.
+ * <p>
+ * Instances are immutable and can be used concurrently, if the word rule is thread-safe.
+ */
 public class Tokenizer {
 
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MIN_PARALLEL_CHUNK = 1 << 16;
+
+	/**
+	 * Decides which unicode code points are part of the word tokens. All other code points separate the tokens.
+	 */
+	@FunctionalInterface
+	public interface WordRule {
+
+		/**
+		 * Letters, digits and '-'. For characters of the basic multilingual plane this is the same as {@link
+		 * Tokenizer#isWordChar(char)}, but letters and digits of the supplementary planes (like CJK extensions) are
+		 * also accepted, as the rule checks whole code points instead of single chars.
+		 */
+		WordRule DEFAULT = codePoint -> Character.isLetterOrDigit(codePoint) || codePoint == '-';
+
+		/**
+		 * Like {@link #DEFAULT}, but additionally keeps combining marks and connector punctuation (like '_') inside
+		 * the words, so that decomposed accented letters are not split.
+		 */
+		WordRule UNICODE = codePoint -> {
+			if (Character.isLetterOrDigit(codePoint) || codePoint == '-') return true;
+			switch (Character.getType(codePoint)) {
+				case Character.NON_SPACING_MARK:
+				case Character.COMBINING_SPACING_MARK:
+				case Character.ENCLOSING_MARK:
+				case Character.CONNECTOR_PUNCTUATION:
+					return true;
+				default:
+					return false;
+			}
+		};
+
+		/**
+		 * Returns true if the code point is part of a word token.
+		 *
+		 * @param codePoint the unicode code point to check
+		 * @return if the code point is a word character
+		 */
+		boolean isWordChar(int codePoint);
+	}
+
+	/**
+	 * Receives the tokens of a tokenized char sequence.
+	 */
+	@FunctionalInterface
+	public interface TokenConsumer {
+		/**
+		 * Called for each token, in the order of the tokens.
+		 *
+		 * @param start the start index of the token in the tokenized text (inclusive)
+		 * @param end   the end index of the token in the tokenized text (exclusive)
+		 */
+		void accept(int start, int end);
+	}
+
+	/**
+	 * Receives the tokens of a tokenized reader.
+	 */
+	@FunctionalInterface
+	public interface BufferTokenConsumer {
+		/**
+		 * Called for each token, in the order of the tokens. The buffer is reused for the subsequent tokens, so its
+		 * contents are only valid during this call.
+		 *
+		 * @param buffer   the buffer containing the token
+		 * @param start    the start index of the token in the buffer (inclusive)
+		 * @param end      the end index of the token in the buffer (exclusive)
+		 * @param position the index of the token start in the characters read from the reader
+		 */
+		void accept(char[] buffer, int start, int end, long position);
+	}
+
+	private final WordRule rule;
+
+	/**
+	 * Creates a new tokenizer, using the {@link WordRule#DEFAULT} word rule.
+	 */
+	public Tokenizer() {
+		this(WordRule.DEFAULT);
+	}
+
+	/**
+	 * Creates a new tokenizer, using the specified word rule.
+	 *
+	 * @param rule the rule to decide which code points are part of the tokens
+	 */
+	public Tokenizer(@NotNull WordRule rule) {
+		this.rule = Objects.requireNonNull(rule);
+	}
+
+	/**
+	 * Reports the start and end index of each token of the specified text to the consumer.
+	 *
+	 * @param text     the text to be tokenized
+	 * @param consumer the consumer to receive the tokens
+	 */
+	public void forEachToken(@NotNull CharSequence text, @NotNull TokenConsumer consumer) {
+		forEachToken(text, 0, text.length(), consumer);
+	}
+
+	/**
+	 * Reports the start and end index of each token within the specified range of the text to the consumer. Tokens
+	 * are cut at the range boundaries.
+	 *
+	 * @param text     the text to be tokenized
+	 * @param from     the start index of the range (inclusive)
+	 * @param to       the end index of the range (exclusive)
+	 * @param consumer the consumer to receive the tokens
+	 */
+	public void forEachToken(@NotNull CharSequence text, int from, int to, @NotNull TokenConsumer consumer) {
+		int index = from;
+		while (index < to) {
+			int codePoint = Character.codePointAt(text, index);
+			if (!rule.isWordChar(codePoint)) {
+				index += Character.charCount(codePoint);
+				continue;
+			}
+			int start = index;
+			do {
+				index += Character.charCount(codePoint);
+			} while (index < to && rule.isWordChar(codePoint = Character.codePointAt(text, index)));
+			consumer.accept(start, Math.min(index, to));
+		}
+	}
+
+	/**
+	 * Finds the next tokens of the specified text, starting at the specified index, and writes their start and end
+	 * indices into the specified buffer, as long as there is space left. The method returns the number of tokens
+	 * written, which is 0 if there are no further tokens. To continue with the subsequent tokens, call this method
+	 * again, starting at the end of the last token written.
+	 *
+	 * @param text   the text to be tokenized
+	 * @param from   the index to start the tokenization at
+	 * @param bounds the buffer to receive the start and end index of each token, at the even and odd indices
+	 * @return the number of tokens written
+	 */
+	public int nextTokens(@NotNull CharSequence text, int from, @NotNull int[] bounds) {
+		int count = 0;
+		int index = from;
+		int length = text.length();
+		while (index < length && count * 2 + 1 < bounds.length) {
+			int codePoint = Character.codePointAt(text, index);
+			if (!rule.isWordChar(codePoint)) {
+				index += Character.charCount(codePoint);
+				continue;
+			}
+			bounds[count * 2] = index;
+			do {
+				index += Character.charCount(codePoint);
+			} while (index < length && rule.isWordChar(codePoint = Character.codePointAt(text, index)));
+			bounds[count * 2 + 1] = index;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the start and end indices of all tokens of the specified text, at the even and odd indices of the
+	 * returned array.
+	 *
+	 * @param text the text to be tokenized
+	 * @return the token bounds
+	 */
+	@NotNull
+	public int[] getTokenBounds(@NotNull CharSequence text) {
+		return getTokenBounds(text, 0, text.length());
+	}
+
+	/**
+	 * Returns the start and end indices of all tokens of the specified text, at the even and odd indices of the
+	 * returned array. For large texts, the text is split into chunks that are tokenized in parallel. The chunks are
+	 * only split at non-word characters (e.g. whitespaces), so the result is the same as for {@link
+	 * #getTokenBounds(CharSequence)}. The text must not be modified during the tokenization.
+	 *
+	 * @param text the text to be tokenized
+	 * @return the token bounds
+	 */
+	@NotNull
+	public int[] getTokenBoundsParallel(@NotNull CharSequence text) {
+		int length = text.length();
+		int chunkCount = Math.max(1, Math.min(length / MIN_PARALLEL_CHUNK,
+				Runtime.getRuntime().availableProcessors() * 4));
+		if (chunkCount == 1) return getTokenBounds(text);
+
+		// determine the chunk boundaries, moved forward to the next non-word character
+		// (once a long word pushes a split point to the end of the text, the remaining chunks stay empty)
+		int[] splits = new int[chunkCount + 1];
+		Arrays.fill(splits, 1, chunkCount + 1, length);
+		for (int i = 1; i < chunkCount; i++) {
+			int split = Math.max(splits[i - 1], (int) ((long) length * i / chunkCount));
+			if (split >= length) break;
+			if (split > 0 && Character.isLowSurrogate(text.charAt(split))
+					&& Character.isHighSurrogate(text.charAt(split - 1))) {
+				split++;
+			}
+			while (split < length) {
+				int codePoint = Character.codePointAt(text, split);
+				if (!rule.isWordChar(codePoint)) break;
+				split += Character.charCount(codePoint);
+			}
+			splits[i] = split;
+		}
+
+		int[][] chunks = IntStream.range(0, chunkCount).parallel()
+				.mapToObj(i -> getTokenBounds(text, splits[i], splits[i + 1]))
+				.toArray(int[][]::new);
+		int size = 0;
+		for (int[] chunk : chunks) size += chunk.length;
+		int[] result = new int[size];
+		int pos = 0;
+		for (int[] chunk : chunks) {
+			System.arraycopy(chunk, 0, result, pos, chunk.length);
+			pos += chunk.length;
+		}
+		return result;
+	}
+
+	private int[] getTokenBounds(CharSequence text, int from, int to) {
+		int[][] bounds = { new int[64] };
+		int[] size = { 0 };
+		forEachToken(text, from, to, (start, end) -> {
+			if (size[0] + 2 > bounds[0].length) bounds[0] = Arrays.copyOf(bounds[0], bounds[0].length * 2);
+			bounds[0][size[0]++] = start;
+			bounds[0][size[0]++] = end;
+		});
+		return Arrays.copyOf(bounds[0], size[0]);
+	}
+
+	/**
+	 * Reads the specified reader chunk by chunk and reports each token to the consumer, so texts of arbitrary size
+	 * can be tokenized. The tokens are reported within a reused buffer, which only grows if a single token does not
+	 * fit into it. The reader is not closed by this method.
+	 *
+	 * @param reader   the reader to be tokenized
+	 * @param consumer the consumer to receive the tokens
+	 * @throws IOException if the reader cannot be read
+	 */
+	public void forEachToken(@NotNull Reader reader, @NotNull BufferTokenConsumer consumer) throws IOException {
+		char[] buffer = new char[BUFFER_SIZE];
+		int length = 0;
+		long position = 0;
+		boolean eof = false;
+		while (!eof) {
+			int read = reader.read(buffer, length, buffer.length - length);
+			if (read < 0) {
+				eof = true;
+			}
+			else {
+				length += read;
+			}
+
+			// tokenize all tokens that are complete, and keep the (potential) remainder of the last one,
+			// also keep a trailing high surrogate, as its low surrogate has not been read yet
+			int limit = (!eof && length > 0 && Character.isHighSurrogate(buffer[length - 1])) ? length - 1 : length;
+			int index = 0;
+			int remainder = limit;
+			while (index < limit) {
+				int codePoint = Character.codePointAt(buffer, index, limit);
+				if (!rule.isWordChar(codePoint)) {
+					index += Character.charCount(codePoint);
+					continue;
+				}
+				int start = index;
+				do {
+					index += Character.charCount(codePoint);
+				} while (index < limit && rule.isWordChar(codePoint = Character.codePointAt(buffer, index, limit)));
+				if (index == limit && !eof) {
+					// the token may continue in the next chunk
+					remainder = start;
+					break;
+				}
+				consumer.accept(buffer, start, index, position + start);
+			}
+
+			// move the remainder to the start of the buffer, and grow if it occupies more than the half buffer
+			if (remainder < length) {
+				System.arraycopy(buffer, remainder, buffer, 0, length - remainder);
+			}
+			length -= remainder;
+			position += remainder;
+			if (length > buffer.length / 2) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+	}
+
 	/**
 	 * Creates a list of single word tokens out of the specified text. The tokens are ordered as
 	 * they appear in the text.
@@ -35,7 +337,7 @@ public class Tokenizer {
 	 */
 	public static List<String> tokenize(String text) {
 		if (Strings.isBlank(text)) return Collections.emptyList();
-		List<String> result = new LinkedList<>();
+		List<String> result = new ArrayList<>();
 		int len = text.length();
 		int start = -1;
 		while ((start = nextWordIndex(text, start + 1)) < len) {
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Precompiled splitter that splits texts by a split symbol or pattern, disregarding split symbols which are quoted
+ * by any of the specified {@link QuoteSet}s. The text is scanned in a single pass, and the fragments are reported as
+ * start and end offsets into the split text, so no part of the text is copied unless the content of a fragment is
+ * actually requested.
+ * <p>
+ * The splitter is immutable, so it can be created once and used for many texts, also concurrently.
+ *
+ * @created 19.10.2026
+ * @see Strings#splitUnquoted(String, Pattern, boolean, QuoteSet...)
+ */
+public final class UnquotedSplitter {
+
+	/**
+	 * Receives the fragments of a split text.
+	 */
+	@FunctionalInterface
+	public interface FragmentConsumer {
+		/**
+		 * Called for each fragment of the split text, in the order of the fragments.
+		 *
+		 * @param start the start index of the fragment in the split text (inclusive)
+		 * @param end   the end index of the fragment in the split text (exclusive)
+		 */
+		void accept(int start, int end);
+	}
+
+	private final String splitSymbol;
+	private final Pattern splitPattern;
+	private final boolean includeBlankFragments;
+	private final QuoteSet[] quotes;
+	private final char[] quoteChars;
+
+	/**
+	 * Creates a new splitter, splitting by the specified (non-regex) split symbol.
+	 *
+	 * @param splitSymbol           the symbol to split by
+	 * @param includeBlankFragments if blank fragments should also be reported
+	 * @param quotes                the quotes that hide the split symbols
+	 */
+	public UnquotedSplitter(@NotNull String splitSymbol, boolean includeBlankFragments, QuoteSet... quotes) {
+		this(splitSymbol.isEmpty() ? null : splitSymbol,
+				splitSymbol.isEmpty() ? Pattern.compile("") : null, includeBlankFragments, quotes);
+	}
+
+	/**
+	 * Creates a new splitter, splitting by all matches of the specified pattern.
+	 *
+	 * @param splitPattern          the regex to split by
+	 * @param includeBlankFragments if blank fragments should also be reported
+	 * @param quotes                the quotes that hide the split symbols
+	 */
+	public UnquotedSplitter(@NotNull Pattern splitPattern, boolean includeBlankFragments, QuoteSet... quotes) {
+		this(null, splitPattern, includeBlankFragments, quotes);
+	}
+
+	private UnquotedSplitter(String splitSymbol, Pattern splitPattern, boolean includeBlankFragments, QuoteSet... quotes) {
+		this.splitSymbol = splitSymbol;
+		this.splitPattern = splitPattern;
+		this.includeBlankFragments = includeBlankFragments;
+
+		// make sure triple quotes are first
+		this.quotes = Arrays.copyOf(quotes, quotes.length);
+		Arrays.sort(this.quotes, (o1, o2) -> {
+			if (o1 == QuoteSet.TRIPLE_QUOTES && o2 != QuoteSet.TRIPLE_QUOTES) return -1;
+			if (o1 != QuoteSet.TRIPLE_QUOTES && o2 == QuoteSet.TRIPLE_QUOTES) return 1;
+			return 0;
+		});
+
+		// collect all chars that may change any quote state
+		StringBuilder chars = new StringBuilder();
+		for (QuoteSet quote : this.quotes) {
+			chars.append(quote.open()).append(quote.close());
+			if (quote == QuoteSet.TRIPLE_QUOTES) chars.append(Strings.TRIPLE_QUOTES.charAt(0));
+		}
+		this.quoteChars = chars.toString().toCharArray();
+	}
+
+	/**
+	 * Splits the specified text and returns the fragments. If the text does not contain any (quoted or unquoted)
+	 * split symbol, the whole text is returned as the only fragment. The contents of the fragments are only created
+	 * when requested.
+	 *
+	 * @param text the text to be split
+	 * @return the fragments of the text
+	 */
+	@NotNull
+	public List<StringFragment> split(@Nullable String text) {
+		if (text == null) return new ArrayList<>();
+		List<StringFragment> parts = new ArrayList<>();
+		if (!split(text, (start, end) -> parts.add(new StringFragment(start, end, text)))) {
+			// not splitting in this text
+			return Collections.singletonList(parts.get(0));
+		}
+		return parts;
+	}
+
+	/**
+	 * Splits the specified text and returns the contents of the fragments.
+	 *
+	 * @param text the text to be split
+	 * @return the contents of the fragments of the text
+	 */
+	@NotNull
+	public String[] splitToArray(@Nullable String text) {
+		if (text == null) return new String[0];
+		List<String> parts = new ArrayList<>();
+		split(text, (start, end) -> parts.add(text.substring(start, end)));
+		return parts.toArray(new String[0]);
+	}
+
+	/**
+	 * Splits the specified text and reports the start and end offsets of each fragment to the specified consumer. If
+	 * the text does not contain any (quoted or unquoted) split symbol, the whole text is reported as the only
+	 * fragment, even if it is blank.
+	 *
+	 * @param text     the text to be split
+	 * @param consumer the consumer to receive the fragments
+	 * @return true if the text contains at least one (quoted or unquoted) split symbol
+	 */
+	public boolean split(@NotNull CharSequence text, @NotNull FragmentConsumer consumer) {
+		Candidates candidates = new Candidates(text);
+		int length = text.length();
+		if (!candidates.next()) {
+			// not splitting in this text
+			consumer.accept(0, length);
+			return false;
+		}
+
+		int[] quoteStates = new int[quotes.length];
+		boolean exhausted = false;
+		int startOfNewPart = 0;
+		int skipQuoteDetectionUntil = -1;
+		for (int i = 0; i < length; i++) {
+
+			// go to next split candidate if possible
+			if (i > candidates.start) {
+				if (exhausted || !candidates.next()) {
+					// no more candidates, rest of the string is one fragment
+					break;
+				}
+			}
+
+			if (i > skipQuoteDetectionUntil && isQuoteChar(text.charAt(i))) {
+				skipQuoteDetectionUntil = updateQuoteStates(text, i, quoteStates, skipQuoteDetectionUntil);
+			}
+			if (quoted(quoteStates)) continue;
+
+			if (candidates.start == i) {
+				accept(text, startOfNewPart, i, consumer);
+				startOfNewPart = candidates.end;
+				if (candidates.end > i) {
+					i = candidates.end - 1;
+				}
+				else if (!candidates.next()) {
+					// empty split match, we continue directly behind it
+					exhausted = true;
+				}
+			}
+		}
+		accept(text, startOfNewPart, length, consumer);
+		return true;
+	}
+
+	private void accept(CharSequence text, int start, int end, FragmentConsumer consumer) {
+		if (includeBlankFragments || !isBlank(text, start, end)) {
+			consumer.accept(start, end);
+		}
+	}
+
+	private boolean isQuoteChar(char c) {
+		for (char quoteChar : quoteChars) {
+			if (c == quoteChar) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tracks the states of all quotes at the specified index and returns the (updated) index up to which the quote
+	 * detection is skipped.
+	 */
+	private int updateQuoteStates(CharSequence text, int i, int[] quoteStates, int skipQuoteDetectionUntil) {
+		for (int q = 0; q < quotes.length; q++) {
+			QuoteSet quoteSet = quotes[q];
+
+			// check whether the quote is hidden by another quote, e.g. a
+			// bracket in a literal-quote
+			if (isHiddenByOtherQuote(quoteStates, q)) continue;
+
+			// first handle unary quotes
+			if (quoteSet.isUnary()) {
+				// handle special case for triple quotes ("""), they cannot be escaped, so just try a match,
+				// but don't match closing triple quotes at the start, but at the end of
+				// a sequence of more than 3 quotes (e.g. """Hi there "stranger"""")
+				if (quoteSet == QuoteSet.TRIPLE_QUOTES
+						&& startsWithTripleQuotes(text, i)
+						&& !(quoteStates[q] == 1 && startsWithTripleQuotes(text, i + 1))) {
+					toggleQuoteState(quoteStates, q);
+					// triple quotes might also match other quote set, so we skip
+					return i + Strings.TRIPLE_QUOTES.length();
+				}
+				// just ordinary unary quotes, open() == close()
+				else if (isUnEscapedQuote(text, i, quoteSet.open())) {
+					toggleQuoteState(quoteStates, q);
+				}
+			}
+			// then handle binary (potentially nested) quotes
+			else {
+				// check for opening char, this one is just being opened (once more)
+				if (isUnEscapedQuote(text, i, quoteSet.open())) {
+					quoteStates[q]++;
+				}
+				// check for closing char, this one is just being closed (once)
+				if (isUnEscapedQuote(text, i, quoteSet.close())) {
+					quoteStates[q]--;
+				}
+			}
+		}
+		return skipQuoteDetectionUntil;
+	}
+
+	private boolean isHiddenByOtherQuote(int[] quoteStates, int q) {
+		for (int i = 0; i < quotes.length; i++) {
+			if (quoteStates[i] > 0 && quotes[i].hidesOtherQuotes() && q != i) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void toggleQuoteState(int[] quoteStates, int q) {
+		if (quoteStates[q] == 0) {
+			quoteStates[q] = 1;
+		}
+		else if (quoteStates[q] == 1) {
+			quoteStates[q] = 0;
+		}
+	}
+
+	private static boolean quoted(int[] quoteStates) {
+		for (int state : quoteStates) {
+			if (state > 0) return true;
+		}
+		return false;
+	}
+
+	private static boolean startsWithTripleQuotes(CharSequence text, int i) {
+		if (i + Strings.TRIPLE_QUOTES.length() > text.length()) return false;
+		for (int k = 0; k < Strings.TRIPLE_QUOTES.length(); k++) {
+			if (text.charAt(i + k) != Strings.TRIPLE_QUOTES.charAt(k)) return false;
+		}
+		return true;
+	}
+
+	private static boolean isUnEscapedQuote(CharSequence text, int i, char quoteChar) {
+		if (text.charAt(i) != quoteChar) return false;
+		int backslashes = 0;
+		while (i > 0 && text.charAt(--i) == '\\') {
+			backslashes++;
+		}
+		return backslashes % 2 == 0;
+	}
+
+	private static boolean isBlank(CharSequence text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			// same as the regex "[\\s\\xA0]*" used by Strings.isBlank
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r' && c != '\u00A0') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Lazily finds the (non-overlapping) split candidates of the text, the same way as {@link Matcher#find()}.
+	 */
+	private final class Candidates {
+
+		private final CharSequence text;
+		private final Matcher matcher;
+		private int start = -1;
+		private int end = 0;
+
+		private Candidates(CharSequence text) {
+			this.text = text;
+			this.matcher = (splitPattern == null) ? null : splitPattern.matcher(text);
+		}
+
+		private boolean next() {
+			if (matcher != null) {
+				if (!matcher.find()) return false;
+				start = matcher.start();
+				end = matcher.end();
+				return true;
+			}
+			int index = indexOf(end);
+			if (index < 0) return false;
+			start = index;
+			end = index + splitSymbol.length();
+			return true;
+		}
+
+		private int indexOf(int from) {
+			if (text instanceof String) return ((String) text).indexOf(splitSymbol, from);
+			int last = text.length() - splitSymbol.length();
+			char first = splitSymbol.charAt(0);
+			for (int i = from; i <= last; i++) {
+				if (text.charAt(i) != first) continue;
+				int k = 1;
+				while (k < splitSymbol.length() && text.charAt(i + k) == splitSymbol.charAt(k)) k++;
+				if (k == splitSymbol.length()) return i;
+			}
+			return -1;
+		}
+	}
+}
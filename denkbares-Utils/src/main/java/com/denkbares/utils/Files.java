@@ -65,8 +65,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import com.denkbares.collections.Matrix;
+import com.denkbares.strings.QuoteSet;
 import com.denkbares.strings.StringFragment;
 import com.denkbares.strings.Strings;
+import com.denkbares.strings.UnquotedSplitter;
 
 public class Files {
 
@@ -658,9 +660,10 @@ public class Files {
 	public static Matrix<String> getCSVCells(File file, String splitSymbol) throws IOException {
 		List<String> lines = getLines(file);
 		Matrix<String> matrix = new Matrix<>();
+		UnquotedSplitter splitter = new UnquotedSplitter(splitSymbol, true, new QuoteSet(Strings.QUOTE_DOUBLE));
 		int row = 0;
 		for (String line : lines) {
-			List<StringFragment> fragments = Strings.splitUnquoted(line, splitSymbol);
+			List<StringFragment> fragments = splitter.split(line);
 			int col = 0;
 			for (StringFragment fragment : fragments) {
 				String raw = fragment.getContent().trim();
@@ -22,13 +22,20 @@ package com.denkbares.collections.test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 
 import com.denkbares.collections.CombinedOrderedIterator;
+import com.denkbares.collections.MappingIterator;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * @author Volker Belli (denkbares GmbH)
@@ -65,4 +72,138 @@ public class CombinedOrderedIteratorTest {
 
 		assertEquals(Arrays.asList(9, 8, 7, 6, 5, 4, 3, 2, 1), all);
 	}
+
+	@Test
+	public void manyIterators() {
+		Random random = new Random(42);
+		List<Iterator<Integer>> iterators = new ArrayList<>();
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			List<Integer> segment = new ArrayList<>();
+			int count = random.nextInt(50);
+			for (int k = 0; k < count; k++) segment.add(random.nextInt(1000));
+			Collections.sort(segment);
+			expected.addAll(segment);
+			iterators.add(segment.iterator());
+		}
+		Collections.sort(expected);
+
+		CombinedOrderedIterator<Integer> combine = new CombinedOrderedIterator<>(iterators);
+		List<Integer> all = new ArrayList<>();
+		// mix single steps and bulk iteration
+		for (int i = 0; i < 100 && combine.hasNext(); i++) all.add(combine.next());
+		combine.forEachRemaining(all::add);
+		assertFalse(combine.hasNext());
+		assertEquals(expected, all);
+	}
+
+	@Test
+	public void stableOrder() {
+		// equal elements are returned in the order of their iterators
+		Comparator<String> byLength = Comparator.comparingInt(String::length);
+		CombinedOrderedIterator<String> combine = new CombinedOrderedIterator<>(Arrays.asList(
+				Arrays.asList("a", "bb", "ccc").iterator(),
+				Arrays.asList("d", "ee").iterator(),
+				Arrays.asList("f", "ggg").iterator()), byLength);
+
+		List<String> all = new ArrayList<>();
+		while (combine.hasNext()) all.add(combine.next());
+		assertEquals(Arrays.asList("a", "d", "f", "bb", "ee", "ccc", "ggg"), all);
+	}
+
+	@Test
+	public void prefetching() {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Iterator<Integer>> iterators = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				List<Integer> segment = new ArrayList<>();
+				for (int k = i; k < 1000; k += 20) segment.add(k);
+				iterators.add(segment.iterator());
+			}
+			iterators.add(Collections.emptyIterator());
+			CombinedOrderedIterator<Integer> combine =
+					CombinedOrderedIterator.prefetching(iterators, Comparator.naturalOrder(), 7, executor);
+			List<Integer> all = new ArrayList<>();
+			combine.forEachRemaining(all::add);
+			assertEquals(1000, all.size());
+			for (int i = 0; i < 1000; i++) assertEquals(i, all.get(i).intValue());
+
+			// exceptions of the iterators are passed to the caller
+			Iterator<Integer> failing = new Iterator<Integer>() {
+				int next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return true;
+				}
+
+				@Override
+				public Integer next() {
+					if (next == 10) throw new IllegalStateException("failed");
+					return next++;
+				}
+			};
+			combine = CombinedOrderedIterator.prefetching(Collections.singletonList(failing), Comparator.naturalOrder(), 4, executor);
+			for (int i = 0; i < 10; i++) assertEquals(i, combine.next().intValue());
+			assertTrue(combine.hasNext());
+			try {
+				combine.next();
+				fail("expected exception");
+			}
+			catch (IllegalStateException e) {
+				assertEquals("failed", e.getMessage());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void lazyHeads() {
+		List<Integer> read = new ArrayList<>();
+		List<Iterator<Integer>> iterators = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			iterators.add(new MappingIterator<>(Arrays.asList(i, i + 3).iterator(), value -> {
+				read.add(value);
+				return value;
+			}));
+		}
+		CombinedOrderedIterator<Integer> combine = new CombinedOrderedIterator<>(iterators);
+		assertTrue(read.isEmpty());
+		assertTrue(combine.hasNext());
+		assertEquals(Arrays.asList(0, 1, 2), read);
+
+		// for streams the first items are read while creating the iterator
+		read.clear();
+		combine = new CombinedOrderedIterator<>(Stream.of(Arrays.asList(1, 2).iterator(),
+				new MappingIterator<>(Arrays.asList(0, 3).iterator(), value -> {
+					read.add(value);
+					return value;
+				})));
+		assertEquals(Collections.singletonList(0), read);
+		List<Integer> all = new ArrayList<>();
+		combine.forEachRemaining(all::add);
+		assertEquals(Arrays.asList(0, 1, 2, 3), all);
+	}
+
+	@Test
+	public void closePrefetching() {
+		// collect the read ahead tasks without executing them
+		List<Runnable> tasks = new ArrayList<>();
+		List<Integer> read = new ArrayList<>();
+		Iterator<Integer> source = new MappingIterator<>(Arrays.asList(1, 2, 3).iterator(), value -> {
+			read.add(value);
+			return value;
+		});
+		CombinedOrderedIterator<Integer> combine = CombinedOrderedIterator.prefetching(
+				Collections.singletonList(source), Comparator.naturalOrder(), 2, tasks::add);
+		assertEquals(1, tasks.size());
+
+		combine.close();
+		assertFalse(combine.hasNext());
+		tasks.forEach(Runnable::run);
+		assertTrue(read.isEmpty());
+	}
 }
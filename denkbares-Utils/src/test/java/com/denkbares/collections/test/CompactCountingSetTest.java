@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.denkbares.collections.CompactCountingSet;
+import com.denkbares.collections.CountingSet;
+
+import static org.junit.Assert.*;
+
+public class CompactCountingSetTest {
+
+	@Test
+	public void basic() {
+		CompactCountingSet<String> set = new CompactCountingSet<>();
+		assertTrue(set.isEmpty());
+		assertTrue(set.add("foo"));
+		assertFalse(set.add("foo"));
+		assertTrue(set.add("bar"));
+		assertEquals("{foo=2, bar=1}", set.toString());
+		assertEquals(2, set.size());
+		assertEquals(2, set.getCount("foo"));
+		assertEquals(0, set.getCount("baz"));
+		assertEquals(7, set.inc("baz", 7));
+		assertEquals(5, set.dec("baz", 2));
+		assertEquals(-1, set.dec("unknown"));
+
+		assertFalse(set.remove("foo"));
+		assertTrue(set.contains("foo"));
+		assertTrue(set.remove("foo"));
+		assertFalse(set.contains("foo"));
+		assertEquals(2, set.size());
+
+		set.clear();
+		assertEquals("{}", set.toString());
+		assertEquals(0, set.getCount("bar"));
+	}
+
+	@Test
+	public void nullElements() {
+		CompactCountingSet<String> set = new CompactCountingSet<>();
+		set.add(null);
+		set.add(null);
+		assertTrue(set.contains(null));
+		assertEquals(2, set.getCount(null));
+		assertEquals(Collections.singletonList(null), new ArrayList<>(set));
+		set.dec(null, 2);
+		assertFalse(set.contains(null));
+	}
+
+	@Test
+	public void descendingOrder() {
+		CompactCountingSet<String> set = new CompactCountingSet<>(Arrays.asList("a", "b", "b", "c", "c", "c"));
+		List<String> order = new ArrayList<>();
+		set.iteratorDescendingOrder().forEachRemaining(order::add);
+		assertEquals(Arrays.asList("c", "b", "a"), order);
+	}
+
+	@Test
+	public void iteratorRemove() {
+		CompactCountingSet<Integer> set = new CompactCountingSet<>();
+		for (int i = 0; i < 100; i++) set.inc(i, i + 1);
+		for (Iterator<Integer> iterator = set.iterator(); iterator.hasNext(); ) {
+			if (iterator.next() % 2 == 0) iterator.remove();
+		}
+		assertEquals(50, set.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i % 2 == 0 ? 0 : i + 1, set.getCount(i));
+		}
+	}
+
+	@Test
+	public void randomized() {
+		// compare against the reference implementation
+		Random random = new Random(42);
+		CompactCountingSet<Integer> compact = new CompactCountingSet<>(4);
+		CountingSet<Integer> reference = new CountingSet<>();
+		for (int i = 0; i < 200_000; i++) {
+			Integer key = random.nextInt(2000);
+			int amount = random.nextInt(3) + 1;
+			if (random.nextInt(3) == 0) {
+				assertEquals(reference.dec(key, amount), compact.dec(key, amount));
+			}
+			else {
+				assertEquals(reference.inc(key, amount), compact.inc(key, amount));
+			}
+		}
+		assertEquals(reference.size(), compact.size());
+		assertEquals(new HashSet<>(reference), compact);
+		for (Integer key : reference) {
+			assertEquals(reference.getCount(key), compact.getCount(key));
+		}
+	}
+}
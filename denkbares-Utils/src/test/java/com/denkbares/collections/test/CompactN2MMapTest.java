@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.denkbares.collections.CompactN2MMap;
+import com.denkbares.collections.MultiMap;
+import com.denkbares.collections.MultiMaps;
+import com.denkbares.collections.N2MMap;
+
+import static org.junit.Assert.*;
+
+public class CompactN2MMapTest {
+
+	@Test
+	public void basic() {
+		MultiMap<String, Integer> map = MultiMaps.compactBidirectional();
+		assertTrue(map.isEmpty());
+		assertTrue(map.put("a", 1));
+		assertTrue(map.put("a", 2));
+		assertTrue(map.put("b", 2));
+		assertFalse(map.put("a", 1));
+		assertEquals(3, map.size());
+
+		assertEquals(Set.of(1, 2), map.getValues("a"));
+		assertEquals(Set.of("a", "b"), map.getKeys(2));
+		assertEquals(Set.of("a"), map.getKeys(1));
+		assertTrue(map.getKeys(3).isEmpty());
+		assertTrue(map.contains("b", 2));
+		assertFalse(map.contains("b", 1));
+		assertTrue(map.containsValue(2));
+		assertFalse(map.containsValue(3));
+		assertEquals(Set.of("a", "b"), map.keySet());
+		assertEquals(Set.of(1, 2), map.valueSet());
+
+		assertEquals(Set.of("a", "b"), map.removeValue(2));
+		assertFalse(map.containsKey("b"));
+		assertEquals(1, map.size());
+		assertEquals(Set.of(1), map.removeKey("a"));
+		assertTrue(map.isEmpty());
+		assertTrue(map.keySet().isEmpty());
+		assertTrue(map.valueSet().isEmpty());
+	}
+
+	@Test
+	public void nullKeysAndValues() {
+		MultiMap<String, Integer> map = new CompactN2MMap<>();
+		map.put(null, 1);
+		map.put("a", null);
+		map.put(null, null);
+		assertEquals(3, map.size());
+		assertTrue(map.contains(null, null));
+		assertEquals(new HashSet<>(List.of("a")), withoutNull(map.getKeys(null)));
+		assertTrue(map.getKeys(null).contains(null));
+		assertTrue(map.remove(null, null));
+		assertFalse(map.contains(null, null));
+		assertTrue(map.containsKey(null));
+		assertTrue(map.containsValue(null));
+	}
+
+	private static Set<String> withoutNull(Set<String> set) {
+		Set<String> result = new HashSet<>(set);
+		result.remove(null);
+		return result;
+	}
+
+	@Test
+	public void views() {
+		MultiMap<String, Integer> map = new CompactN2MMap<>();
+		map.put("a", 1);
+		map.put("a", 2);
+		map.put("b", 1);
+		Set<Integer> values = map.getValues("a");
+		assertEquals(2, values.size());
+		map.remove("a", 1);
+		assertEquals(Set.of(2), values);
+		map.removeKey("a");
+		assertTrue(values.isEmpty());
+		// the view must not show the values of other keys that reuse the id
+		map.put("c", 3);
+		assertTrue(values.isEmpty());
+
+		Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+		iterator.next();
+		map.put("d", 4);
+		try {
+			iterator.next();
+			fail();
+		}
+		catch (ConcurrentModificationException ignored) {
+		}
+
+		// remove through the entry iterator
+		for (Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator(); it.hasNext(); ) {
+			if (it.next().getValue() % 2 == 1) it.remove();
+		}
+		assertEquals("{d=4}", map.toString());
+	}
+
+	@Test
+	public void sameAsN2MMap() {
+		Random random = new Random(4711);
+		MultiMap<Integer, Integer> expected = new N2MMap<>();
+		MultiMap<Integer, Integer> actual = MultiMaps.compactBidirectional(4);
+		for (int i = 0; i < 20000; i++) {
+			int key = random.nextInt(200);
+			int value = random.nextInt(200);
+			switch (random.nextInt(10)) {
+				case 0:
+					assertEquals(expected.removeKey(key), actual.removeKey(key));
+					break;
+				case 1:
+					assertEquals(expected.removeValue(value), actual.removeValue(value));
+					break;
+				case 2:
+				case 3:
+					assertEquals(expected.remove(key, value), actual.remove(key, value));
+					break;
+				default:
+					assertEquals(expected.put(key, value), actual.put(key, value));
+			}
+			assertEquals(expected.size(), actual.size());
+			assertEquals(expected.getValues(key), actual.getValues(key));
+			assertEquals(expected.getKeys(value), actual.getKeys(value));
+			assertEquals(expected.contains(key, value), actual.contains(key, value));
+		}
+		assertEquals(expected, actual);
+		assertEquals(new TreeSet<>(expected.keySet()), new TreeSet<>(actual.keySet()));
+		assertEquals(new TreeSet<>(expected.valueSet()), new TreeSet<>(actual.valueSet()));
+		List<Integer> keys = new ArrayList<>(expected.keySet());
+		for (Integer key : keys) {
+			assertEquals(expected.getValues(key).size(), actual.getValues(key).size());
+		}
+		actual.clear();
+		assertTrue(actual.isEmpty());
+		assertFalse(actual.containsKey(keys.get(0)));
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections.test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.denkbares.collections.ConcurrentCache;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentCacheTest {
+
+	@Test
+	public void basic() {
+		ConcurrentCache<String, Integer> cache = ConcurrentCache.<String, Integer>builder().maximumSize(10).build();
+		assertNull(cache.getIfPresent("a"));
+		cache.put("a", 1);
+		cache.put("b", 2);
+		assertEquals(Integer.valueOf(1), cache.getIfPresent("a"));
+		assertEquals(Integer.valueOf(2), cache.get("b"));
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.weightedSize());
+
+		cache.put("a", 3);
+		assertEquals(Integer.valueOf(3), cache.getIfPresent("a"));
+		assertEquals(2, cache.weightedSize());
+
+		assertEquals(Integer.valueOf(3), cache.remove("a"));
+		assertNull(cache.remove("a"));
+		assertNull(cache.getIfPresent("a"));
+		assertEquals(1, cache.weightedSize());
+
+		cache.invalidateAll();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.weightedSize());
+
+		ConcurrentCache.Stats stats = cache.stats();
+		assertEquals(3, stats.getHitCount());
+		assertEquals(2, stats.getMissCount());
+		assertEquals(0.6, stats.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void maximumSize() {
+		ConcurrentCache<Integer, Integer> cache = ConcurrentCache.<Integer, Integer>builder().maximumSize(100).build();
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, i);
+			assertTrue(cache.size() <= 100);
+		}
+		assertEquals(100, cache.weightedSize());
+		assertEquals(900, cache.stats().getEvictionCount());
+	}
+
+	@Test
+	public void frequentEntriesSurviveScan() {
+		ConcurrentCache<Integer, Integer> cache = ConcurrentCache.<Integer, Integer>builder().maximumSize(100).build();
+		for (int i = 0; i < 50; i++) {
+			cache.put(i, i);
+		}
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 50; i++) {
+				assertNotNull(cache.getIfPresent(i));
+			}
+		}
+		// scan over many keys that are used only once
+		for (int i = 1000; i < 2000; i++) {
+			cache.put(i, i);
+		}
+		int hot = 0;
+		for (int i = 0; i < 50; i++) {
+			if (cache.getIfPresent(i) != null) hot++;
+		}
+		assertTrue("only " + hot + " frequent entries survived", hot >= 45);
+		assertEquals(100, cache.weightedSize());
+	}
+
+	@Test
+	public void frequentEntriesSurviveScanInLargeCache() {
+		// the frequency sketch grows with the entries, also for weighted caches
+		ConcurrentCache<Integer, Integer> cache = ConcurrentCache.<Integer, Integer>builder()
+				.maximumWeight(50_000).weigher((key, value) -> 1).build();
+		for (int i = 0; i < 25_000; i++) {
+			cache.put(i, i);
+		}
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 25_000; i++) {
+				assertNotNull(cache.getIfPresent(i));
+			}
+		}
+		for (int i = 100_000; i < 200_000; i++) {
+			cache.put(i, i);
+		}
+		int hot = 0;
+		for (int i = 0; i < 25_000; i++) {
+			if (cache.getIfPresent(i) != null) hot++;
+		}
+		assertTrue("only " + hot + " frequent entries survived", hot >= 22_500);
+		assertEquals(50_000, cache.weightedSize());
+	}
+
+	@Test
+	public void weigher() {
+		ConcurrentCache<String, String> cache = ConcurrentCache.<String, String>builder()
+				.maximumWeight(10)
+				.weigher((key, value) -> value.length())
+				.build();
+		cache.put("a", "1234");
+		cache.put("b", "1234");
+		assertEquals(8, cache.weightedSize());
+		cache.put("c", "1234");
+		assertTrue(cache.weightedSize() <= 10);
+		assertEquals(2, cache.size());
+		assertEquals(4, cache.stats().getEvictionWeight());
+
+		// entries heavier than the maximum weight are not kept
+		cache.put("d", "12345678901");
+		assertNull(cache.getIfPresent("d"));
+		assertTrue(cache.weightedSize() <= 10);
+	}
+
+	@Test
+	public void expireAfterWrite() {
+		AtomicLong time = new AtomicLong();
+		ConcurrentCache<String, String> cache = ConcurrentCache.<String, String>builder()
+				.expireAfterWrite(Duration.ofNanos(100))
+				.ticker(time::get)
+				.build();
+		cache.put("a", "A");
+		time.set(50);
+		cache.put("b", "B");
+		time.set(99);
+		assertEquals("A", cache.getIfPresent("a"));
+		time.set(100);
+		assertNull(cache.getIfPresent("a"));
+		assertEquals("B", cache.getIfPresent("b"));
+		assertEquals(1, cache.size());
+		time.set(150);
+		cache.cleanUp();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.weightedSize());
+	}
+
+	@Test
+	public void expireAfterAccess() {
+		AtomicLong time = new AtomicLong();
+		ConcurrentCache<String, String> cache = ConcurrentCache.<String, String>builder()
+				.expireAfterAccess(Duration.ofNanos(100))
+				.ticker(time::get)
+				.build();
+		cache.put("a", "A");
+		cache.put("b", "B");
+		for (int i = 1; i <= 5; i++) {
+			time.set(i * 80);
+			assertEquals("A", cache.getIfPresent("a"));
+		}
+		assertNull(cache.getIfPresent("b"));
+	}
+
+	@Test
+	public void loader() {
+		AtomicInteger loads = new AtomicInteger();
+		ConcurrentCache<Integer, String> cache = ConcurrentCache.<Integer, String>builder()
+				.maximumSize(10)
+				.build(key -> {
+					loads.incrementAndGet();
+					return (key < 0) ? null : String.valueOf(key);
+				});
+		assertEquals("1", cache.get(1));
+		assertEquals("1", cache.get(1));
+		assertNull(cache.get(-1));
+		assertEquals(2, loads.get());
+		assertEquals(1, cache.size());
+
+		try {
+			cache.get(2, key -> {
+				throw new IllegalStateException();
+			});
+			fail();
+		}
+		catch (IllegalStateException ignored) {
+		}
+		assertNull(cache.getIfPresent(2));
+
+		ConcurrentCache.Stats stats = cache.stats();
+		assertEquals(1, stats.getHitCount());
+		assertEquals(4, stats.getMissCount());
+		assertEquals(1, stats.getLoadSuccessCount());
+		assertEquals(2, stats.getLoadFailureCount());
+	}
+
+	@Test
+	public void concurrentAccess() throws InterruptedException {
+		AtomicInteger loads = new AtomicInteger();
+		ConcurrentCache<Integer, Integer> cache = ConcurrentCache.<Integer, Integer>builder()
+				.maximumSize(500)
+				.build(key -> {
+					loads.incrementAndGet();
+					return key * 2;
+				});
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> errors = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			int seed = t;
+			Thread thread = new Thread(() -> {
+				try {
+					for (int i = 0; i < 20000; i++) {
+						int key = (i * 31 + seed * 7) % 1000;
+						assertEquals(Integer.valueOf(key * 2), cache.get(key));
+						if (i % 100 == 0) cache.remove(key);
+					}
+				}
+				catch (Throwable e) {
+					synchronized (errors) {
+						errors.add(e);
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(errors.toString(), errors.isEmpty());
+		assertTrue(cache.size() <= 500);
+		assertEquals(cache.size(), cache.weightedSize());
+		ConcurrentCache.Stats stats = cache.stats();
+		assertEquals(8 * 20000, stats.getRequestCount());
+		assertEquals(loads.get(), stats.getLoadSuccessCount());
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.denkbares.collections.ConcurrentCachedIterable;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentCachedIterableTest {
+
+	@Test
+	public void basic() {
+		List<String> list = Arrays.asList("a", "b", "c");
+		Iterator<String> iterator = list.iterator();
+		ConcurrentCachedIterable<String> cache = new ConcurrentCachedIterable<>(iterator);
+		assertEquals(list, toList(cache.iterator()));
+		assertEquals(list, toList(cache.iterator()));
+		assertFalse(iterator.hasNext());
+
+		assertEquals(list.subList(1, 3), toList(cache.iterator(1, 1000)));
+		assertEquals(list.subList(0, 1), toList(cache.iterator(-1, 1)));
+		assertEquals(List.of(), toList(cache.iterator(2, 1)));
+	}
+
+	@Test
+	public void concurrentReaders() throws Exception {
+		List<Integer> expected = IntStream.range(0, 10000).boxed().collect(Collectors.toList());
+		CountingIterator source = new CountingIterator(expected.size());
+		ConcurrentCachedIterable<Integer> cache = new ConcurrentCachedIterable<>(source);
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<Integer>>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> toList(cache.iterator())));
+			}
+			for (Future<List<Integer>> result : results) {
+				assertEquals(expected, result.get());
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		assertEquals(expected.size(), source.pulled.get());
+	}
+
+	@Test
+	public void prefetch() throws Exception {
+		CountingIterator source = new CountingIterator(1000);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			ConcurrentCachedIterable<Integer> cache = new ConcurrentCachedIterable<>(source, 50, pool, Integer.MAX_VALUE);
+			Iterator<Integer> iterator = cache.iterator();
+			assertEquals(0, iterator.next().intValue());
+
+			// wait until the next 50 elements have been prefetched, but not more
+			for (int i = 0; i < 100 && source.pulled.get() < 51; i++) {
+				Thread.sleep(10);
+			}
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+			assertEquals(51, source.pulled.get());
+			assertEquals(IntStream.range(1, 1000).boxed().collect(Collectors.toList()), toList(iterator));
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void retained() {
+		ConcurrentCachedIterable<Integer> cache =
+				new ConcurrentCachedIterable<>(new CountingIterator(10000), 0, null, 300);
+		Iterator<Integer> lagging = cache.iterator();
+		assertEquals(0, lagging.next().intValue());
+		assertEquals(10000, toList(cache.iterator()).size());
+		assertEquals(List.of(9998, 9999), toList(cache.iterator(9998, 10000)));
+		assertTrue(lagging.hasNext());
+		try {
+			lagging.next();
+			fail("discarded element returned");
+		}
+		catch (IllegalStateException ignored) {
+		}
+	}
+
+	@Test
+	public void failure() {
+		Iterator<Integer> source = new Iterator<>() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Integer next() {
+				if (index == 3) throw new IllegalArgumentException("broken");
+				return index++;
+			}
+		};
+		ConcurrentCachedIterable<Integer> cache = new ConcurrentCachedIterable<>(source);
+		for (int i = 0; i < 2; i++) {
+			Iterator<Integer> iterator = cache.iterator();
+			assertEquals(List.of(0, 1, 2), List.of(iterator.next(), iterator.next(), iterator.next()));
+			try {
+				iterator.hasNext();
+				fail("exception expected");
+			}
+			catch (IllegalArgumentException e) {
+				assertEquals("broken", e.getMessage());
+			}
+		}
+	}
+
+	private static <E> List<E> toList(Iterator<E> iterator) {
+		List<E> result = new ArrayList<>();
+		iterator.forEachRemaining(result::add);
+		return result;
+	}
+
+	private static class CountingIterator implements Iterator<Integer> {
+		private final int size;
+		private final AtomicInteger pulled = new AtomicInteger();
+
+		private CountingIterator(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return pulled.get() < size;
+		}
+
+		@Override
+		public Integer next() {
+			return pulled.getAndIncrement();
+		}
+	}
+}
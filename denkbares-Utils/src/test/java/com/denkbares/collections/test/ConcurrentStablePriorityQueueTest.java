@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.denkbares.collections.ConcurrentStablePriorityQueue;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentStablePriorityQueueTest {
+
+	@Test
+	public void stableOrder() {
+		ConcurrentStablePriorityQueue<String> queue =
+				new ConcurrentStablePriorityQueue<>(10, Comparator.comparing(s -> s.charAt(0)));
+		queue.add("b1");
+		queue.add("a1");
+		queue.add("b2");
+		queue.add("a2");
+		queue.add("c1");
+		assertEquals(5, queue.size());
+		assertEquals(5, queue.remainingCapacity());
+		assertEquals("a1", queue.peek());
+		assertEquals("a1", queue.poll());
+		assertEquals("a2", queue.poll());
+
+		List<String> drained = new ArrayList<>();
+		assertEquals(2, queue.drainTo(drained, 2));
+		assertEquals(List.of("b1", "b2"), drained);
+		assertTrue(queue.remove("c1"));
+		assertFalse(queue.remove("c1"));
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void bounded() throws InterruptedException {
+		ConcurrentStablePriorityQueue<Integer> queue = new ConcurrentStablePriorityQueue<>(2);
+		assertTrue(queue.offer(2));
+		assertTrue(queue.offer(1));
+		assertFalse(queue.offer(3));
+		assertFalse(queue.offer(3, 10, TimeUnit.MILLISECONDS));
+		assertEquals(0, queue.remainingCapacity());
+		assertNull(new ConcurrentStablePriorityQueue<Integer>(1).poll(10, TimeUnit.MILLISECONDS));
+
+		// a blocked producer continues as soon as an element is taken
+		Thread producer = new Thread(() -> {
+			try {
+				queue.put(0);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		producer.start();
+		assertEquals(1, queue.take().intValue());
+		producer.join(1000);
+		assertFalse(producer.isAlive());
+		assertEquals(0, queue.take().intValue());
+		assertEquals(2, queue.take().intValue());
+	}
+
+	@Test
+	public void workerPool() throws InterruptedException {
+		int count = 20000;
+		ConcurrentStablePriorityQueue<Integer> queue =
+				new ConcurrentStablePriorityQueue<>(100, Comparator.<Integer>naturalOrder(), 8);
+		Set<Integer> taken = ConcurrentHashMap.newKeySet();
+		CountDownLatch done = new CountDownLatch(count);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			for (int worker = 0; worker < 4; worker++) {
+				pool.execute(() -> {
+					try {
+						while (true) {
+							assertTrue(taken.add(queue.take()));
+							done.countDown();
+						}
+					}
+					catch (InterruptedException ignored) {
+					}
+				});
+			}
+			for (int producer = 0; producer < 4; producer++) {
+				int offset = producer;
+				pool.execute(() -> {
+					try {
+						for (int i = offset; i < count; i += 4) {
+							queue.put(i);
+						}
+					}
+					catch (InterruptedException ignored) {
+					}
+				});
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		assertEquals(count, taken.size());
+		assertEquals(new HashSet<>(taken).size(), count);
+		assertTrue(queue.isEmpty());
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.denkbares.collections.ConcurrentSoftValueHashMap;
+import com.denkbares.collections.ConcurrentWeakValueHashMap;
+import com.denkbares.collections.test.WeakValueHashMapTest.Key;
+import com.denkbares.collections.test.WeakValueHashMapTest.Value;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentWeakValueHashMapTest {
+
+	@Test
+	public void basic() {
+		ConcurrentWeakValueHashMap<Key, Value> map = new ConcurrentWeakValueHashMap<>();
+		Key key1 = new Key("key1");
+		Key key2 = new Key("key2");
+		Value value1 = new Value("value1");
+		Value value2 = new Value("value2");
+
+		assertTrue(map.isEmpty());
+		assertNull(map.get(key1));
+		assertNull(map.put(key1, value1));
+		assertSame(value1, map.putIfAbsent(key1, value2));
+		assertNull(map.putIfAbsent(key2, value2));
+		assertEquals(2, map.size());
+		assertTrue(map.containsKey(new Key("key2")));
+
+		assertFalse(map.replace(key1, value2, value2));
+		assertTrue(map.replace(key1, value1, value2));
+		assertSame(value2, map.replace(key1, value1));
+		assertFalse(map.remove(key1, value2));
+		assertTrue(map.remove(key1, value1));
+		assertFalse(map.containsKey(key1));
+
+		Iterator<Map.Entry<Key, Value>> iterator = map.entrySet().iterator();
+		assertTrue(iterator.hasNext());
+		Map.Entry<Key, Value> entry = iterator.next();
+		assertEquals(key2, entry.getKey());
+		assertSame(value2, entry.getValue());
+		iterator.remove();
+		assertFalse(iterator.hasNext());
+		assertTrue(map.isEmpty());
+
+		map.put(key1, value1);
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.stats().getHitCount());
+		assertEquals(1, map.stats().getMissCount());
+	}
+
+	@Test
+	public void computeIfAbsent() throws InterruptedException {
+		ConcurrentWeakValueHashMap<String, Value> map = new ConcurrentWeakValueHashMap<>();
+		AtomicInteger created = new AtomicInteger();
+		// keep strong references to the canonical values, to prevent them from being collected
+		Set<Value> canonical = ConcurrentHashMap.newKeySet();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			pool.execute(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					Value value = map.computeIfAbsent("key" + (i % 100), key -> {
+						created.incrementAndGet();
+						return new Value(key);
+					});
+					assertNotNull(value);
+					canonical.add(value);
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+		assertEquals(100, created.get());
+		assertEquals(100, canonical.size());
+		assertEquals(100, map.size());
+
+		ConcurrentWeakValueHashMap.Stats stats = map.stats();
+		assertEquals(40_000, stats.getRequestCount());
+		assertTrue(stats.getHitRate() > 0.99);
+		assertNull(map.computeIfAbsent("other", key -> null));
+		assertFalse(map.containsKey("other"));
+	}
+
+	@SuppressWarnings("UnusedAssignment")
+	@Test
+	public void weakness() {
+		ConcurrentWeakValueHashMap<Key, Value> map = new ConcurrentWeakValueHashMap<>();
+		Key key1 = new Key("key1");
+		Key key2 = new Key("key2");
+		Value value1 = new Value("value1");
+		Value value3 = new Value("value3");
+		map.put(key1, value1);
+		map.put(key2, new Value("value2"));
+		map.put(key2, value3);
+		value1 = null;
+		performSecureGC(map, 1);
+
+		assertEquals(1, map.size());
+		assertNull(map.get(key1));
+		assertSame(value3, map.get(key2));
+		assertTrue(map.stats().getClearedCount() >= 1);
+
+		// cleared values are never returned, but recreated
+		Value recreated = map.computeIfAbsent(key1, key -> new Value("value1b"));
+		assertEquals("value1b", recreated.toString());
+	}
+
+	@Test
+	public void softValues() {
+		ConcurrentWeakValueHashMap<Key, Value> map = new ConcurrentSoftValueHashMap<>();
+		List<Value> values = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			values.add(map.computeIfAbsent(new Key("key" + i), key -> new Value("value" + key)));
+		}
+		assertEquals(100, map.size());
+		assertEquals("valuekey42", map.get(new Key("key42")).toString());
+		assertEquals(values.get(7), map.get(new Key("key7")));
+	}
+
+	private static void performSecureGC(Map<Key, Value> map, int targetSize) {
+		try {
+			for (int i = 0; i < 1000; i++) {
+				if (map.size() <= targetSize) return;
+				if (i > 0) Thread.sleep(10);
+				System.gc();
+			}
+		}
+		catch (InterruptedException ignored) {
+		}
+	}
+}
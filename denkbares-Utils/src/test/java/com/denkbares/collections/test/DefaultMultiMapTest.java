@@ -19,11 +19,15 @@
 package com.denkbares.collections.test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -235,6 +239,55 @@ public class DefaultMultiMapTest {
 		assertFalse(hash.equals(map));
 	}
 
+	@Test
+	public void entryStream() {
+		DefaultMultiMap<Integer, Integer> map = new DefaultMultiMap<>();
+		for (int i = 0; i < 10_000; i++) {
+			map.put(i % 1000, i);
+		}
+		assertEquals(10_000, map.entryStream().count());
+		assertEquals(10_000, map.entryStream().parallel().count());
+		assertEquals(map.entrySet(), map.entryStream().parallel().collect(Collectors.toSet()));
+		// the spliterator splits into balanced parts
+		Spliterator<Map.Entry<Integer, Integer>> spliterator = map.entryStream().spliterator();
+		Spliterator<Map.Entry<Integer, Integer>> prefix = spliterator.trySplit();
+		assertNotNull(prefix);
+		assertTrue(prefix.estimateSize() > 2_000 && spliterator.estimateSize() > 2_000);
+
+		// the default implementation preserves the order of linked maps
+		MultiMap<String, Integer> linked = MultiMaps.synchronizedMultiMap(DefaultMultiMap.newLinked());
+		linked.putAll("b", 2, 1);
+		linked.putAll("a", 3);
+		assertEquals("[b=2, b=1, a=3]", linked.entryStream().collect(Collectors.toList()).toString());
+	}
+
+	@Test
+	public void putAllValues() {
+		assertFalse(map.putAll("a", Collections.emptyList()));
+		assertFalse(map.containsKey("a"));
+		assertTrue(map.putAll("a", Arrays.asList(1, 2, 3)));
+		assertTrue(map.putAll("a", Arrays.asList(3, 4)));
+		assertFalse(map.putAll("a", Arrays.asList(1, 4)));
+		assertEquals(4, map.size());
+		assertEquals("[1, 2, 3, 4]", toString(map.getValues("a")));
+	}
+
+	@Test
+	public void concurrentSize() {
+		MultiMap<Integer, Integer> concurrent = IntStream.range(0, 100_000).boxed().parallel()
+				.collect(MultiMaps.toConcurrentMultiMap(i -> i % 100));
+		assertEquals(100_000, concurrent.size());
+		assertEquals(100, concurrent.keySet().size());
+		assertEquals(1000, concurrent.getValues(42).size());
+
+		IntStream.range(0, 100).parallel().forEach(i -> concurrent.putAll(i, Arrays.asList(-i, i)));
+		assertEquals(100_099, concurrent.size());
+		concurrent.removeKey(0);
+		assertEquals(100_099 - 1000, concurrent.size());
+		concurrent.clear();
+		assertEquals(0, concurrent.size());
+	}
+
 	private static <T extends Comparable<? super T>> String toString(Collection<T> c) {
 		List<T> list = new ArrayList<>(c);
 		Collections.sort(list);
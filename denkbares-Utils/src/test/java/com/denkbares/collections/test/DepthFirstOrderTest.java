@@ -19,8 +19,19 @@
 
 package com.denkbares.collections.test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -50,4 +61,128 @@ public class DepthFirstOrderTest {
 		List<String> nodes = order.getOrderedNodes();
 		Assert.assertEquals(Arrays.asList("A", "B", "C", "D", "E", "F", "G"), nodes);
 	}
+
+	@Test
+	public void compareWithRecursiveOrder() {
+		// for acyclic graphs, the order must be identical to the original (exponential) recursive order
+		Random random = new Random(42);
+		for (int run = 0; run < 200; run++) {
+			int size = 2 + random.nextInt(12);
+			MultiMap<Integer, Integer> next = DefaultMultiMap.newLinked();
+			for (int i = 0; i < size; i++) {
+				for (int k = random.nextInt(4); k > 0; k--) {
+					int target = i + 1 + random.nextInt(size);
+					if (target < size) next.put(i, target);
+				}
+			}
+			List<Integer> starts = new ArrayList<>();
+			for (int k = 1 + random.nextInt(3); k > 0; k--) starts.add(random.nextInt(size));
+
+			List<Integer> expected = recursiveOrder(next::getValues, new LinkedHashSet<>(starts));
+			DepthFirstOrder<Integer> order = new DepthFirstOrder<>(next::getValues, starts);
+			Assert.assertEquals(expected, order.getOrderedNodes());
+			Assert.assertTrue(order.isAcyclic());
+			assertTopological(next, order.getTopologicalOrder());
+		}
+	}
+
+	@Test
+	public void levels() {
+		MultiMap<String, String> next = DefaultMultiMap.newLinked();
+		next.putAll("A", "B", "C");
+		next.putAll("B", "D");
+		next.putAll("C", "D", "E");
+		next.putAll("E", "D");
+
+		DepthFirstOrder<String> order = new DepthFirstOrder<>(next::getValues, "A");
+		List<List<String>> expected = Arrays.asList(
+				Collections.singletonList("A"), Arrays.asList("B", "C"),
+				Collections.singletonList("E"), Collections.singletonList("D"));
+		Assert.assertEquals(expected, order.getLevels());
+		Assert.assertEquals(Arrays.asList("A", "B", "C", "E", "D"), order.getTopologicalOrder());
+		Assert.assertEquals(expected, new DepthFirstOrder<>(next::getValues, "A").getLevels(true));
+	}
+
+	@Test
+	public void stronglyConnectedComponents() {
+		MultiMap<String, String> next = DefaultMultiMap.newLinked();
+		next.putAll("A", "B");
+		next.putAll("B", "C", "E");
+		next.putAll("C", "D");
+		next.putAll("D", "B");
+		next.putAll("E", "F");
+		next.putAll("F", "F");
+
+		DepthFirstOrder<String> order = new DepthFirstOrder<>(next::getValues, "A");
+		Assert.assertEquals(Arrays.asList(
+				Collections.singletonList("A"), Arrays.asList("B", "C", "D"),
+				Collections.singletonList("E"), Collections.singletonList("F")),
+				order.getStronglyConnectedComponents());
+		Assert.assertFalse(order.isAcyclic());
+		Assert.assertEquals(Arrays.asList("A", "B", "C", "D", "E", "F"), order.getOrderedNodes());
+		try {
+			order.getLevels();
+			Assert.fail("cycles not detected");
+		}
+		catch (IllegalStateException ignored) {
+		}
+
+		// self references are cycles
+		Assert.assertFalse(new DepthFirstOrder<>(next::getValues, "F").isAcyclic());
+		Assert.assertTrue(new DepthFirstOrder<>(next::getValues, "E", "A").getStronglyConnectedComponents()
+				.stream().anyMatch(c -> c.size() == 3));
+	}
+
+	@Test
+	public void deepAndShared() {
+		// deep chain, that would overflow the stack of a recursive implementation
+		int size = 200_000;
+		DepthFirstOrder<Integer> chain = new DepthFirstOrder<>(
+				i -> (i < size) ? Collections.singletonList(i + 1) : Collections.emptyList(), 0);
+		List<Integer> nodes = chain.getOrderedNodes();
+		Assert.assertEquals(size + 1, nodes.size());
+		Assert.assertEquals(Integer.valueOf(size), nodes.get(size));
+		Assert.assertEquals(size + 1, chain.getStronglyConnectedComponents().size());
+
+		// ladder with exponential number of paths
+		Function<Integer, Collection<Integer>> ladder =
+				i -> (i < 200) ? Arrays.asList(i + 1, i + 2) : (i == 200) ? Collections.singletonList(201) : Collections.emptyList();
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i <= 201; i++) expected.add(i);
+		Assert.assertEquals(expected, new DepthFirstOrder<>(ladder, 0).getOrderedNodes());
+		Assert.assertEquals(expected, new DepthFirstOrder<>(ladder, 0).getTopologicalOrder());
+	}
+
+	private static void assertTopological(MultiMap<Integer, Integer> next, List<Integer> order) {
+		Map<Integer, Integer> positions = new HashMap<>();
+		for (int i = 0; i < order.size(); i++) positions.put(order.get(i), i);
+		for (Integer node : order) {
+			for (Integer successor : next.getValues(node)) {
+				Assert.assertTrue(positions.get(node) < positions.get(successor));
+			}
+		}
+	}
+
+	/**
+	 * The original recursive implementation, re-visiting each node on every path.
+	 */
+	private static <Node> List<Node> recursiveOrder(Function<Node, ? extends Collection<Node>> successors, Collection<Node> startNodes) {
+		Map<Node, Integer> positions = new HashMap<>();
+		int[] nextPosition = { 0 };
+		for (Node node : startNodes) {
+			recurse(successors, node, new HashSet<>(), positions, nextPosition);
+		}
+		List<Node> order = new ArrayList<>(positions.keySet());
+		order.sort(Comparator.comparingInt(positions::get));
+		return order;
+	}
+
+	private static <Node> void recurse(Function<Node, ? extends Collection<Node>> successors, Node node, Set<Node> stackNodes, Map<Node, Integer> positions, int[] nextPosition) {
+		if (!stackNodes.add(node)) return;
+		positions.put(node, nextPosition[0]++);
+		for (Node next : successors.apply(node)) {
+			recurse(successors, next, stackNodes, positions, nextPosition);
+		}
+		stackNodes.remove(node);
+	}
 }
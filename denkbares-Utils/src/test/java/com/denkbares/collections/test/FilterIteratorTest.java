@@ -21,14 +21,18 @@ package com.denkbares.collections.test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
+import com.denkbares.collections.FilterDuplicateIterator;
 import com.denkbares.collections.FilterIterator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Volker Belli (denkbares GmbH)
@@ -36,6 +40,31 @@ import static org.junit.Assert.assertEquals;
  */
 public class FilterIteratorTest {
 
+	@Test
+	public void filterDuplicates() {
+		List<Integer> source = Arrays.asList(3, 1, 3, 2, 1, 4, 4);
+		List<Integer> expected = Arrays.asList(3, 1, 2, 4);
+		assertEquals(expected, toList(new FilterDuplicateIterator<>(source.iterator())));
+		assertEquals(expected, toList(FilterDuplicateIterator.prefiltered(source.iterator(), new HashSet<>(), 1, 0.01)));
+		assertEquals(expected, toList(FilterDuplicateIterator.approximate(source.iterator(), 10, 0.01)));
+
+		// the prefiltered iterator is exact, even if the filter has a high false positive rate
+		List<Integer> many = new ArrayList<>();
+		IntStream.range(0, 20000).forEach(i -> many.add(i % 10000));
+		assertEquals(10000, toList(FilterDuplicateIterator.prefiltered(many.iterator(), new HashSet<>(), 10, 0.5)).size());
+
+		// the approximate iterator never returns duplicates, but may skip some unique elements
+		List<Integer> approximate = toList(FilterDuplicateIterator.approximate(many.iterator(), 10, 0.01));
+		assertEquals(approximate.size(), new HashSet<>(approximate).size());
+		assertTrue(approximate.size() > 9800);
+	}
+
+	private static <E> List<E> toList(Iterator<E> iterator) {
+		List<E> result = new ArrayList<>();
+		iterator.forEachRemaining(result::add);
+		return result;
+	}
+
 	@Test
 	public void basic() {
 		List<Integer> list = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9);
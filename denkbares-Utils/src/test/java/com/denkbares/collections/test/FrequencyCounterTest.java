@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.denkbares.collections.ConcurrentCountingSet;
+import com.denkbares.collections.CountMinSketch;
+import com.denkbares.collections.SpaceSavingCounter;
+
+import static org.junit.Assert.*;
+
+public class FrequencyCounterTest {
+
+	@Test
+	public void concurrentCountingSet() throws InterruptedException {
+		ConcurrentCountingSet<Integer> set = new ConcurrentCountingSet<>();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			pool.execute(() -> {
+				for (int i = 0; i < 10_000; i++) set.inc(i % 10);
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+		assertEquals(10, set.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(4_000, set.getCount(i));
+		}
+
+		assertEquals(3_999, set.dec(0));
+		assertEquals(0, set.dec(0, 3_999));
+		assertFalse(set.contains(0));
+		assertEquals(-1, set.dec(0));
+		assertEquals(0, set.getCount(null));
+		assertTrue(set.add(0));
+		set.inc(1);
+		assertEquals(Integer.valueOf(1), set.iteratorDescendingOrder().next());
+	}
+
+	@Test
+	public void concurrentCountingSetIncDec() throws InterruptedException {
+		// all threads increment and decrement the same key, so its counter is removed and re-created concurrently
+		for (int round = 0; round < 10; round++) {
+			ConcurrentCountingSet<Integer> set = new ConcurrentCountingSet<>();
+			ExecutorService pool = Executors.newFixedThreadPool(8);
+			for (int t = 0; t < 8; t++) {
+				pool.execute(() -> {
+					for (int i = 0; i < 100_000; i++) {
+						set.inc(0);
+						set.dec(0);
+					}
+					set.inc(0);
+				});
+			}
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+			assertEquals(8, set.getCount(0));
+			assertEquals(1, set.size());
+		}
+	}
+
+	@Test
+	public void countMinSketch() {
+		CountMinSketch<String> sketch = CountMinSketch.create(0.001, 0.99, 3);
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			sketch.inc("noise" + random.nextInt(5000));
+		}
+		sketch.inc("a", 1000);
+		sketch.inc("b", 500);
+		sketch.inc("c", 200);
+		assertEquals(11_700, sketch.getTotal());
+
+		// never underestimated, overestimated by epsilon * total at most (with high probability)
+		assertTrue(sketch.getCount("a") >= 1000 && sketch.getCount("a") <= 1000 + 12);
+		assertTrue(sketch.getCount("b") >= 500 && sketch.getCount("b") <= 500 + 12);
+		assertTrue(sketch.getCount("unknown") <= 12);
+
+		List<String> top = new ArrayList<>();
+		sketch.iteratorDescendingOrder().forEachRemaining(top::add);
+		assertEquals(Arrays.asList("a", "b", "c"), top);
+
+		int count = sketch.getCount("c");
+		assertEquals(count - 100, sketch.dec("c", 100));
+
+		// heavy hitters dropping to zero are removed, new ones replace the least frequent one
+		assertEquals(0, sketch.dec("a", sketch.getCount("a")));
+		sketch.inc("d", 300);
+		sketch.inc("e", 50);
+		top.clear();
+		sketch.iteratorDescendingOrder().forEachRemaining(top::add);
+		assertEquals(Arrays.asList("b", "d", "c"), top);
+		sketch.inc("f", 2000);
+		top.clear();
+		sketch.iteratorDescendingOrder().forEachRemaining(top::add);
+		assertEquals(Arrays.asList("f", "b", "d"), top);
+		sketch.clear();
+		assertEquals(0, sketch.getCount("a"));
+		assertEquals(-1, sketch.dec("a"));
+		assertFalse(sketch.iteratorDescendingOrder().hasNext());
+	}
+
+	@Test
+	public void spaceSaving() {
+		SpaceSavingCounter<String> counter = new SpaceSavingCounter<>(50);
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			counter.inc("noise" + random.nextInt(5000));
+			if (i % 10 == 0) counter.inc("a");
+			if (i % 20 == 0) counter.inc("b");
+		}
+		assertEquals(50, counter.size());
+
+		// frequent elements are guaranteed to be monitored, and their true count is within the error bounds
+		List<String> top = new ArrayList<>();
+		counter.iteratorDescendingOrder().forEachRemaining(top::add);
+		assertEquals(Arrays.asList("a", "b"), top.subList(0, 2));
+		assertTrue(counter.getCount("a") >= 1000);
+		assertTrue(counter.getCount("a") - counter.getError("a") <= 1000);
+		assertTrue(counter.getCount("b") >= 500);
+		assertTrue(counter.getCount("b") - counter.getError("b") <= 500);
+
+		int count = counter.getCount("a");
+		assertEquals(count - 1, counter.dec("a"));
+		assertEquals(0, counter.dec("a", count - 1));
+		assertEquals(0, counter.getCount("a"));
+		assertEquals(49, counter.size());
+		assertEquals(-1, counter.dec("a"));
+	}
+
+	@Test
+	public void spaceSavingExact() {
+		// as long as the capacity is not exceeded, the counts are exact
+		SpaceSavingCounter<Integer> counter = new SpaceSavingCounter<>(100);
+		for (int i = 0; i < 100; i++) counter.inc(i, i + 1);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i + 1, counter.getCount(i));
+			assertEquals(0, counter.getError(i));
+		}
+		assertEquals(Integer.valueOf(99), counter.iteratorDescendingOrder().next());
+		// replaces the least frequent element, inheriting its count as error
+		counter.inc(null, 1000);
+		assertEquals(1001, counter.getCount(null));
+		assertEquals(0, counter.getCount(0));
+		assertEquals(1, counter.getError(null));
+		assertNull(counter.iteratorDescendingOrder().next());
+	}
+}
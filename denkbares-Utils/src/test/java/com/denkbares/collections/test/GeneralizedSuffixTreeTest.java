@@ -20,6 +20,7 @@
 package com.denkbares.collections.test;
 
 import java.util.Arrays;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -37,7 +38,15 @@ public class GeneralizedSuffixTreeTest {
 
 	@Test
 	public void basic() {
-		GeneralizedSuffixTree<Integer> lookup = new GeneralizedSuffixTree<>();
+		basic(new GeneralizedSuffixTree<>());
+	}
+
+	@Test
+	public void basicSuffixArray() {
+		basic(new GeneralizedSuffixTree<>(GeneralizedSuffixTree.Backend.SUFFIX_ARRAY));
+	}
+
+	private void basic(GeneralizedSuffixTree<Integer> lookup) {
 		lookup.put("Hello World", 17);
 		lookup.put("Hello", 5);
 		lookup.put("Bananas", 7);
@@ -81,6 +90,72 @@ public class GeneralizedSuffixTreeTest {
 		assertTrue(lookup.isEmpty());
 	}
 
+	@Test
+	public void suffixArrayMatchesTree() {
+		Random random = new Random(17);
+		GeneralizedSuffixTree<Integer> tree = new GeneralizedSuffixTree<>();
+		GeneralizedSuffixTree<Integer> array = new GeneralizedSuffixTree<>(GeneralizedSuffixTree.Backend.SUFFIX_ARRAY);
+		String[] phrases = { "a", "an", "ana", "b ana", "xyz", "ba na", "", " ", "ab ba", "bbb", "na n" };
+		for (int round = 0; round < 20; round++) {
+			// modify the index in batches, so the suffix array is used with pending and deleted keys, and rebuilt
+			for (int i = 0; i < 200; i++) {
+				String key = randomKey(random);
+				int value = random.nextInt(500);
+				if (random.nextInt(3) == 0) {
+					tree.removeKey(key);
+					array.removeKey(key);
+				}
+				else if (random.nextInt(4) == 0) {
+					tree.removeValue(value);
+					array.removeValue(value);
+				}
+				else {
+					tree.put(key, value);
+					array.put(key, value);
+				}
+			}
+			for (String phrase : phrases) {
+				assertEquals(phrase, search(tree, phrase), search(array, phrase));
+				assertEquals(phrase, search(tree, phrase, false), search(array, phrase, false));
+			}
+		}
+	}
+
+	@Test
+	public void suffixArrayNonAscii() {
+		Random random = new Random(23);
+		GeneralizedSuffixTree<Integer> tree = new GeneralizedSuffixTree<>();
+		GeneralizedSuffixTree<Integer> array = new GeneralizedSuffixTree<>(GeneralizedSuffixTree.Backend.SUFFIX_ARRAY);
+		String alphabet = "ab \u00E9\u4E2D\u6587\uD55C\uAD6D\uFF21";
+		// enough keys to force a rebuild of the suffix array
+		for (int i = 0; i < 1000; i++) {
+			StringBuilder key = new StringBuilder();
+			int length = 1 + random.nextInt(8);
+			for (int k = 0; k < length; k++) {
+				key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			tree.put(key.toString(), i);
+			array.put(key.toString(), i);
+		}
+		array.put("\uD55C\uAD6D\uC5B4", -1);
+		tree.put("\uD55C\uAD6D\uC5B4", -1);
+		String[] phrases = { "a", "\u4E2D", "\u4E2D\u6587", "\uD55C\uAD6D", "\uC5B4", "b\uFF21", "\u00E9 a", "\uAD6D\uC5B4" };
+		for (String phrase : phrases) {
+			assertFalse(phrase, search(tree, phrase).isEmpty());
+			assertEquals(phrase, search(tree, phrase), search(array, phrase));
+			assertEquals(phrase, search(tree, phrase, false), search(array, phrase, false));
+		}
+	}
+
+	private static String randomKey(Random random) {
+		StringBuilder key = new StringBuilder();
+		int length = 1 + random.nextInt(12);
+		for (int i = 0; i < length; i++) {
+			key.append(random.nextInt(5) == 0 ? ' ' : "abnAN".charAt(random.nextInt(5)));
+		}
+		return key.toString();
+	}
+
 	@SafeVarargs
 	private static <E extends Comparable<E>> void assertSearch(GeneralizedSuffixTree<E> gst, String phrase, E... items) {
 		Set<E> expected = new TreeSet<>(Arrays.asList(items));
@@ -89,8 +164,12 @@ public class GeneralizedSuffixTreeTest {
 	}
 
 	private static <E extends Comparable<E>> Set<E> search(GeneralizedSuffixTree<E> gst, String phrase) {
+		return search(gst, phrase, true);
+	}
+
+	private static <E extends Comparable<E>> Set<E> search(GeneralizedSuffixTree<E> gst, String phrase, boolean matchJoinedKeys) {
 		Set<E> actual = new TreeSet<>();
-		for (E item : gst.search(phrase)) {
+		for (E item : gst.search(phrase, matchJoinedKeys)) {
 			actual.add(item);
 		}
 		return actual;
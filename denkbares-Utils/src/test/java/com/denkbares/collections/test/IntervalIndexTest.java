@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.denkbares.collections.IntervalIndex;
+
+import static org.junit.Assert.*;
+
+public class IntervalIndexTest {
+
+	@Test
+	public void basic() {
+		List<int[]> spans = List.of(new int[] { 5, 8 }, new int[] { 0, 10 }, new int[] { 2, 2 }, new int[] { 2, 6 });
+		IntervalIndex<int[]> index = IntervalIndex.build(spans, s -> s[0], s -> s[1]);
+		assertEquals(4, index.size());
+		assertFalse(index.isEmpty());
+
+		assertEquals(List.of(spans.get(1), spans.get(3)), index.getContaining(2));
+		assertEquals(List.of(spans.get(1), spans.get(0)), index.getContaining(7));
+		assertEquals(List.of(), index.getContaining(10));
+		assertEquals(List.of(spans.get(1), spans.get(3), spans.get(0)), index.getOverlapping(5, 6));
+		assertEquals(List.of(), index.getOverlapping(8, 8));
+		assertEquals(List.of(), index.getOverlapping(10, 20));
+
+		assertTrue(IntervalIndex.build(List.<int[]>of(), s -> s[0], s -> s[1]).getContaining(0).isEmpty());
+	}
+
+	@Test
+	public void random() {
+		Random random = new Random(42);
+		List<int[]> spans = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			int start = random.nextInt(10000);
+			spans.add(new int[] { start, start + random.nextInt(random.nextBoolean() ? 10 : 1000) });
+		}
+		IntervalIndex<int[]> index = IntervalIndex.build(spans, s -> s[0], s -> s[1]);
+
+		for (int i = 0; i < 500; i++) {
+			int start = random.nextInt(11000) - 500;
+			int end = start + 1 + random.nextInt(200);
+			List<int[]> expected = new ArrayList<>();
+			for (int[] span : spans) {
+				if (span[0] < end && span[1] > start) expected.add(span);
+			}
+			expected.sort((a, b) -> Integer.compare(a[0], b[0]));
+			assertEquals(expected, index.getOverlapping(start, end));
+
+			expected.clear();
+			for (int[] span : spans) {
+				if (span[0] <= start && span[1] > start) expected.add(span);
+			}
+			expected.sort((a, b) -> Integer.compare(a[0], b[0]));
+			assertEquals(expected, index.getContaining(start));
+		}
+	}
+}
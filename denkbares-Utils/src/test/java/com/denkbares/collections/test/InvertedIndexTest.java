@@ -19,17 +19,25 @@
 
 package com.denkbares.collections.test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 
 import com.denkbares.collections.InvertedIndex;
+import com.denkbares.utils.Pair;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * @author Albrecht Striffler (denkbares GmbH)
@@ -65,6 +73,67 @@ public class InvertedIndexTest {
 		assertTrue(allExpected.containsAll(all) && all.containsAll(allExpected));
 	}
 
+	@Test
+	public void random() {
+		Random random = new Random(7);
+		InvertedIndex<Integer> invertedIndex = new InvertedIndex<>();
+		Map<String, Set<Integer>> reference = new HashMap<>();
+		for (int i = 0; i < 3000; i++) {
+			int element = random.nextInt(500);
+			String token = "t" + random.nextInt(40);
+			if (random.nextInt(4) == 0) {
+				Set<Integer> elements = reference.getOrDefault(token, new HashSet<>());
+				assertEquals(elements.remove(element), invertedIndex.remove(token, element));
+			}
+			else {
+				boolean added = reference.computeIfAbsent(token, k -> new HashSet<>()).add(element);
+				assertEquals(added, invertedIndex.put(token.toUpperCase(), element));
+			}
+		}
+		for (int i = 0; i < 200; i++) {
+			List<String> tokens = new ArrayList<>();
+			for (int j = random.nextInt(4); j >= 0; j--) tokens.add("t" + random.nextInt(45));
+			Set<Integer> any = new HashSet<>();
+			Set<Integer> all = null;
+			for (String token : tokens) {
+				Set<Integer> elements = reference.getOrDefault(token, Collections.emptySet());
+				any.addAll(elements);
+				if (all == null) all = new HashSet<>(elements);
+				else all.retainAll(elements);
+			}
+			String phrase = String.join(" ", tokens);
+			assertEquals(any, invertedIndex.getAny(phrase));
+			assertEquals(all, invertedIndex.getAll(phrase));
+		}
+	}
+
+	@Test
+	public void prefixAndRanking() {
+		InvertedIndex<String> invertedIndex = new InvertedIndex<>();
+		invertedIndex.putAll(Stream.of(
+				new Pair<>("red apple", "a"),
+				new Pair<>("green apple apple", "b"),
+				new Pair<>("red cherry", "c"),
+				new Pair<>("ripe banana", "d")).parallel());
+
+		assertEquals(Arrays.asList("red", "ripe"), invertedIndex.getTokens("R"));
+		assertEquals(new HashSet<>(Arrays.asList("a", "c", "d")), invertedIndex.getAllWithPrefix("r"));
+		assertEquals(new HashSet<>(Arrays.asList("a", "c")), invertedIndex.getAllWithPrefix("re"));
+		assertEquals(Collections.singleton("a"), invertedIndex.getAllWithPrefix("r app"));
+		assertTrue(invertedIndex.getAllWithPrefix("x").isEmpty());
+
+		// "b" contains apple twice, "a" contains the rarer token red
+		assertEquals(Arrays.asList("b", "a"), invertedIndex.getRanked("apple", 10));
+		assertEquals(Arrays.asList("a", "b", "c"), invertedIndex.getRanked("red apple", 10));
+		assertEquals(Collections.singletonList("a"), invertedIndex.getRanked("red apple", 1));
+		assertTrue(invertedIndex.getRanked("unknown", 10).isEmpty());
+
+		invertedIndex.remove("red", "a");
+		invertedIndex.remove("apple", "a");
+		assertFalse(invertedIndex.getAny("red apple").contains("a"));
+		assertEquals(Collections.singleton("c"), invertedIndex.getAllWithPrefix("re"));
+	}
+
 	@Test
 	public void matches() {
 		assertEquals(7, InvertedIndex.matches("Hi, how are you?", 4, "how"));
@@ -19,15 +19,18 @@
 
 package com.denkbares.collections.test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
 import com.denkbares.collections.Matrix;
 import com.denkbares.utils.Consoles;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * @author Albrecht Striffler (denkbares GmbH)
@@ -82,4 +85,95 @@ public class MatrixTest {
 
 		matrix.dumpTable("Col 0","Header", Consoles.formatText("Formatted Header", Consoles.Color.CYAN));
 	}
+
+	@Test
+	public void sparseAndDense() {
+		// compare random access against a plain array, passing both sparse and dense row layouts
+		Random random = new Random(42);
+		Matrix<Integer> matrix = new Matrix<>();
+		Integer[][] expected = new Integer[600][100];
+		for (int i = 0; i < 30_000; i++) {
+			int row = random.nextInt(600);
+			int col = (row % 2 == 0) ? random.nextInt(100) : random.nextInt(10) * 10;
+			Integer value = (random.nextInt(10) == 0) ? null : i;
+			assertEquals(expected[row][col], matrix.set(row, col, value));
+			expected[row][col] = value;
+		}
+		for (int row = 0; row < 600; row++) {
+			assertEquals(Arrays.asList(expected[row]).subList(0, matrix.getColSize()), matrix.getRow(row));
+			for (int col = 0; col < 100; col++) {
+				assertEquals(expected[row][col], matrix.get(row, col));
+			}
+		}
+		for (int col = 0; col < matrix.getColSize(); col++) {
+			List<Integer> column = new ArrayList<>();
+			for (int row = 0; row < matrix.getRowSize(); row++) column.add(expected[row][col]);
+			assertEquals(column, matrix.getColumn(col));
+		}
+
+		List<Integer> visited = new ArrayList<>();
+		matrix.forEachInRow(3, (value, col) -> {
+			assertEquals(expected[3][col], value);
+			visited.add(col);
+		});
+		assertEquals(visited.stream().sorted().distinct().count(), visited.size());
+		assertNull(matrix.get(10_000, 10_000));
+		matrix.forEachInRow(10_000, (value, col) -> fail());
+	}
+
+	@Test
+	public void append() {
+		Matrix<String> matrix = new Matrix<>();
+		matrix.set(0, 0, "a");
+		Matrix<String> other = new Matrix<>();
+		other.set(0, 1, "b");
+		other.set(2, 0, "c");
+		matrix.append(other);
+		assertEquals(4, matrix.getRowSize());
+		assertEquals(2, matrix.getColSize());
+		assertEquals(Arrays.asList("a", null, null, "c"), matrix.getColumn(0));
+		assertEquals(Arrays.asList(null, "b", null, null), matrix.getColumn(1));
+
+		matrix.clear();
+		assertEquals(0, matrix.getRowSize());
+		assertNull(matrix.get(0, 0));
+	}
+
+	@Test
+	public void dumpString() {
+		Matrix<Object> matrix = new Matrix<>();
+		matrix.set(0, 0, "Name");
+		matrix.set(0, 1, "Value");
+		matrix.set(1, 0, "pi");
+		matrix.set(1, 1, 3.14);
+		matrix.set(2, 0, "unknown");
+		matrix.set(3, 1, -1);
+		String expected = "\n" +
+				"Name    │ Value\n" +
+				"────────┼──────\n" +
+				"pi      │ 3.14 \n" +
+				"unknown │ null \n" +
+				"null    │ -1   \n";
+		assertEquals(expected, matrix.toString(10).replace(System.lineSeparator(), "\n"));
+	}
+
+	@Test
+	public void dumpStringBlocks() {
+		Matrix<Object> matrix = new Matrix<>();
+		matrix.set(0, 0, "n");
+		for (int row = 1; row <= 2000; row++) {
+			matrix.set(row, 0, row);
+		}
+		matrix.set(1500, 0, "wide value");
+		String[] lines = matrix.toString(5000).split(System.lineSeparator());
+		assertEquals(2003, lines.length);
+		// the rows are dumped in blocks, later blocks widen the columns if required
+		assertEquals("   n", lines[1]);
+		assertEquals("────", lines[2]);
+		assertEquals("   1", lines[3]);
+		assertEquals("1023", lines[1025]);
+		assertEquals("1024      ", lines[1026]);
+		assertEquals("wide value", lines[1502]);
+		assertEquals("2000      ", lines[2002]);
+	}
 }
@@ -166,6 +166,75 @@ public class PartialHierarchyTreeTest {
 		assertEquals(0, tree.find("ABA").getParents().size());
 	}
 
+	@Test
+	public void testCopyMultipleParents() throws PartialHierarchyException {
+		PartialHierarchyTree<String> tree = new PartialHierarchyTree<>((node1, node2) -> !node1.equals(node2) && node1.contains(node2));
+		tree.insertNode("A");
+		tree.insertNode("B");
+		tree.insertNode("ABA");
+		tree.insertNode("ABAC");
+
+		PartialHierarchyTree<String> copy = tree.createCopy();
+		assertEquals(tree.toDashTree(), copy.toDashTree());
+		assertEquals(4, copy.getNodeCount());
+		// the node with multiple parents is shared within the copy
+		Node<String> aba = copy.find("ABA");
+		assertEquals(2, aba.getParents().size());
+		assertSame(aba, copy.find("A").getChildren().get(0));
+		assertSame(aba, copy.find("B").getChildren().get(0));
+		assertNotSame(tree.find("ABA"), aba);
+		assertEquals(2, copy.getMaxDepthLevel(copy.find("ABAC")));
+
+		// removing the node from the copy removes it below all parents
+		assertTrue(copy.remove("ABA"));
+		assertEquals(3, copy.getNodeCount());
+		assertEquals(List.of("ABAC"), copy.find("A").getChildren().stream().map(Node::getData).toList());
+		assertEquals(List.of("ABAC"), copy.find("B").getChildren().stream().map(Node::getData).toList());
+		assertEquals(1, copy.getMaxDepthLevel(copy.find("ABAC")));
+
+		// the original tree remains unchanged
+		assertEquals(4, tree.getNodeCount());
+		assertEquals(2, tree.find("ABA").getParents().size());
+	}
+
+	@Test
+	public void testDepthAndSnapshot() throws PartialHierarchyException {
+		PartialHierarchyTree<String> tree = new PartialHierarchyTree<>(new StringPrefixHierarchy());
+		tree.insert("BAC");
+		tree.insert("BA");
+		assertEquals(1, tree.getMaxDepthLevel(tree.find("BAC")));
+
+		PartialHierarchyTree.Snapshot<String> snapshot = tree.getSnapshot();
+		assertSame(snapshot, tree.getSnapshot());
+
+		// inserting a new top level node increases the cached depth of the successors
+		tree.insert("B");
+		assertEquals(0, tree.getMaxDepthLevel(tree.find("B")));
+		assertEquals(1, tree.getMaxDepthLevel(tree.find("BA")));
+		assertEquals(2, tree.getMaxDepthLevel(tree.find("BAC")));
+
+		// the old snapshot is unchanged, the new one reflects the modification
+		assertEquals(2, snapshot.size());
+		assertFalse(snapshot.contains("B"));
+		assertEquals(1, snapshot.getMaxDepthLevel("BAC"));
+		assertEquals(List.of("BA"), snapshot.getRootLevelNodes());
+
+		PartialHierarchyTree.Snapshot<String> current = tree.getSnapshot();
+		assertNotSame(snapshot, current);
+		assertEquals(3, current.size());
+		assertEquals(2, current.getMaxDepthLevel("BAC"));
+		assertEquals(-1, current.getMaxDepthLevel("X"));
+		assertEquals(List.of("BA"), current.getParents("BAC"));
+		assertEquals(List.of("BA"), current.getChildren("B"));
+		assertEquals(List.of("B"), current.getRootLevelNodes());
+
+		// removing a node decreases the cached depth of the successors
+		tree.remove("BA");
+		assertEquals(1, tree.getMaxDepthLevel(tree.find("BAC")));
+		assertEquals(2, tree.getNodeCount());
+		assertEquals(List.of("BAC"), tree.getSnapshot().getChildren("B"));
+	}
+
 	@Test
 	public void testHierarchyRestructuring1() throws PartialHierarchyException {
 		PartialHierarchyTree<String> tree = new PartialHierarchyTree<>(
@@ -16,12 +16,203 @@
  * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
  * site: http://www.fsf.org.
  */
-
 package com.denkbares.collections.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.denkbares.collections.PriorityList;
+
+import static org.junit.Assert.*;
+
 /**
  * @author Albrecht Striffler (denkbares GmbH)
  * @created 23.05.16
  */
 public class PriorityListTest {
+
+	@Test
+	public void basic() {
+		PriorityList<Integer, String> list = new PriorityList<>(5);
+		assertNull(list.getLowestPriority());
+		list.add("d1");
+		list.add(Integer.valueOf(3), "a");
+		list.add(Integer.valueOf(7), "x");
+		list.add(Integer.valueOf(3), "b");
+		list.add(Integer.valueOf(5), "d2");
+		assertEquals(Arrays.asList("a", "b", "d1", "d2", "x"), list);
+		assertEquals(Arrays.asList(3, 5, 7), new ArrayList<>(list.getPriorities()));
+		assertEquals(Arrays.asList("a", "b"), list.getElements(3));
+		assertEquals(Collections.emptyList(), list.getElements(4));
+		assertEquals(3, list.getLowestPriority().intValue());
+		assertEquals(7, list.getHighestPriority().intValue());
+		assertEquals(5, list.getPriority("d2").intValue());
+		assertNull(list.getPriority("z"));
+
+		// inserting by index uses the priority of the element at the index
+		list.add(2, "c");
+		list.add(list.size(), "y");
+		assertEquals(Arrays.asList("a", "b", "c", "d1", "d2", "x", "y"), list);
+		assertEquals(Arrays.asList("c", "d1", "d2"), list.getElements(5));
+		assertEquals(Arrays.asList("x", "y"), list.getElements(7));
+
+		assertEquals("x", list.set(5, "w"));
+		assertEquals("a", list.remove(0));
+		assertEquals("b", list.remove(0));
+		assertEquals(Arrays.asList(5, 7), new ArrayList<>(list.getPriorities()));
+		assertEquals("[5=[c, d1, d2], 7=[w, y]]", list.getPriorityGroups().toString());
+	}
+
+	@Test
+	public void groupIterator() {
+		PriorityList<Integer, String> list = new PriorityList<>(0);
+		list.add(Integer.valueOf(1), "a");
+		list.add(Integer.valueOf(3), "c");
+		Iterator<PriorityList.Group<Integer, String>> iterator = list.groupIterator();
+		assertEquals("1=[a]", iterator.next().toString());
+		// later priorities are considered, passed ones are ignored
+		list.add(Integer.valueOf(2), "b");
+		list.add(Integer.valueOf(0), "z");
+		assertEquals("2=[b]", iterator.next().toString());
+		assertEquals("3=[c]", iterator.next().toString());
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void groupIteratorModifyGroup() {
+		PriorityList<Integer, String> list = new PriorityList<>(0);
+		list.add(Integer.valueOf(1), "a");
+		list.add(Integer.valueOf(1), "b");
+		list.add(Integer.valueOf(2), "c");
+		Iterator<PriorityList.Group<Integer, String>> iterator = list.groupIterator();
+		PriorityList.Group<Integer, String> group = iterator.next();
+		List<String> visited = new ArrayList<>();
+		for (String element : group) {
+			// adding elements of the same priority must not break the iteration
+			if (element.length() == 1) list.add(Integer.valueOf(1), element + "2");
+			list.add(Integer.valueOf(2), element + "3");
+			visited.add(element);
+		}
+		assertEquals(Arrays.asList("a", "b", "a2", "b2"), visited);
+		assertEquals(Arrays.asList("a", "b", "a2", "b2"), group.getElements());
+		assertEquals("2=[c, a3, b3, a23, b23]", iterator.next().toString());
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void liveViews() {
+		PriorityList<Integer, String> list = new PriorityList<>(0);
+		List<String> elements = list.getElements(1);
+		Map<Integer, List<String>> map = list.getPriorityMap();
+		assertEquals(Collections.emptyList(), elements);
+		assertTrue(map.isEmpty());
+
+		list.add(Integer.valueOf(1), "a");
+		list.add(Integer.valueOf(2), "b");
+		list.add(Integer.valueOf(1), "c");
+		assertEquals(Arrays.asList("a", "c"), elements);
+		assertEquals("{1=[a, c], 2=[b]}", map.toString());
+		assertEquals(Arrays.asList("b"), map.get(2));
+		assertNull(map.get(3));
+		assertEquals(Arrays.asList(1, 2), new ArrayList<>(list.getPriorities()));
+
+		// the views remain valid if the group is removed and created again
+		list.set(1, "x");
+		assertEquals(Arrays.asList("a", "x"), elements);
+		list.remove(0);
+		list.remove(0);
+		assertEquals(Collections.emptyList(), elements);
+		assertEquals("{2=[b]}", map.toString());
+		list.add(Integer.valueOf(1), "d");
+		assertEquals(Arrays.asList("d"), elements);
+		list.clear();
+		assertEquals(Collections.emptyList(), elements);
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void iterator() {
+		PriorityList<Integer, String> list = new PriorityList<>(0);
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			list.add(Integer.valueOf(i % 7), "e" + i);
+		}
+		for (int i = 0; i < 100; i++) {
+			expected.add(list.get(i));
+		}
+		assertEquals(expected, new ArrayList<>(list));
+		List<String> visited = new ArrayList<>();
+		list.forEach(visited::add);
+		assertEquals(expected, visited);
+		assertEquals(expected.hashCode(), list.hashCode());
+		assertEquals(list, expected);
+		assertEquals(expected.indexOf("e50"), list.indexOf("e50"));
+		assertTrue(list.contains("e99"));
+		assertEquals(Integer.valueOf(99 % 7), list.getPriority("e99"));
+
+		// removing by the iterator
+		for (Iterator<String> iterator = list.iterator(); iterator.hasNext(); ) {
+			if (iterator.next().endsWith("3")) iterator.remove();
+		}
+		expected.removeIf(element -> element.endsWith("3"));
+		assertEquals(expected, list);
+
+		Iterator<String> iterator = list.iterator();
+		iterator.next();
+		list.add(Integer.valueOf(3), "x");
+		try {
+			iterator.next();
+			fail("expected ConcurrentModificationException");
+		}
+		catch (ConcurrentModificationException ignored) {
+		}
+	}
+
+	@Test
+	public void random() {
+		Random random = new Random(13);
+		PriorityList<Integer, String> list = new PriorityList<>(0);
+		List<Integer> priorities = new ArrayList<>();
+		List<String> elements = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			int operation = random.nextInt(10);
+			if (operation < 5) {
+				int priority = random.nextInt(50);
+				int index = 0;
+				while (index < priorities.size() && priorities.get(index) <= priority) index++;
+				priorities.add(index, priority);
+				elements.add(index, "e" + i);
+				list.add(Integer.valueOf(priority), "e" + i);
+			}
+			else if (operation < 7) {
+				int index = random.nextInt(elements.size() + 1);
+				int priority = elements.isEmpty() ? 0 : priorities.get(Math.min(index, elements.size() - 1));
+				priorities.add(index, priority);
+				elements.add(index, "e" + i);
+				list.add(index, "e" + i);
+			}
+			else if (!elements.isEmpty()) {
+				int index = random.nextInt(elements.size());
+				priorities.remove(index);
+				assertEquals(elements.remove(index), list.remove(index));
+			}
+		}
+		assertEquals(elements, list);
+		int index = 0;
+		for (PriorityList.Group<Integer, String> group : list.getPriorityGroups()) {
+			for (String element : group) {
+				assertEquals(priorities.get(index), group.getPriority());
+				assertEquals(elements.get(index++), element);
+			}
+		}
+		assertEquals(elements.size(), index);
+	}
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package com.denkbares.collections.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.denkbares.collections.ScalableBloomFilter;
+
+import static org.junit.Assert.*;
+
+public class ScalableBloomFilterTest {
+
+	@Test
+	public void noFalseNegatives() {
+		ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(100, 0.01);
+		int added = 0;
+		for (int i = 0; i < 100_000; i++) {
+			// unique elements are only rejected as false positives
+			if (filter.add("element" + i)) added++;
+		}
+		assertEquals(added, filter.size());
+		// the configured rate (with a tolerance of 10%) is kept while adding
+		assertTrue("added: " + added, added > 100_000 * (1 - 0.011));
+		for (int i = 0; i < 100_000; i++) {
+			assertTrue(filter.mightContain("element" + i));
+			assertFalse(filter.add("element" + i));
+		}
+		assertEquals(added, filter.size());
+	}
+
+	@Test
+	public void falsePositiveRate() {
+		ScalableBloomFilter<Integer> filter = new ScalableBloomFilter<>(1000, 0.01);
+		for (int i = 0; i < 200_000; i++) {
+			filter.add(i);
+		}
+		int falsePositives = 0;
+		for (int i = 200_000; i < 400_000; i++) {
+			if (filter.mightContain(i)) falsePositives++;
+		}
+		assertTrue("false positives: " + falsePositives, falsePositives < 200_000 * 0.011);
+		// less than 4 bytes per element, even with the growing stages
+		assertTrue(filter.getBitCount() < 200_000 * 32);
+		assertEquals(0.01, filter.getFalsePositiveRate(), 0);
+	}
+
+	@Test
+	public void equalHashCodes() {
+		// all these strings have the same hash code, e.g. "AaAa", "AaBB", "BBAa", "BBBB"
+		List<String> elements = new ArrayList<>();
+		elements.add("");
+		for (int i = 0; i < 14; i++) {
+			List<String> next = new ArrayList<>();
+			for (String element : elements) {
+				next.add(element + "Aa");
+				next.add(element + "BB");
+			}
+			elements = next;
+		}
+		assertEquals(1, elements.stream().mapToInt(String::hashCode).distinct().count());
+
+		ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(100, 0.01);
+		int rejected = 0;
+		for (String element : elements) {
+			if (!filter.add(element)) rejected++;
+		}
+		assertTrue("rejected: " + rejected, rejected < elements.size() * 0.011);
+
+		// the same with a specified hash function, for elements with equal hash codes and string representations
+		ScalableBloomFilter<long[]> arrays = new ScalableBloomFilter<>(100, 0.01, array -> array[0]);
+		rejected = 0;
+		for (long i = 0; i < elements.size(); i++) {
+			if (!arrays.add(new long[] { (i << 32) | i })) rejected++;
+		}
+		assertTrue("rejected: " + rejected, rejected < elements.size() * 0.011);
+		int falsePositives = 0;
+		for (long i = elements.size(); i < 3L * elements.size(); i++) {
+			if (arrays.mightContain(new long[] { (i << 32) | i })) falsePositives++;
+		}
+		assertTrue("false positives: " + falsePositives, falsePositives < 2 * elements.size() * 0.011);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidRate() {
+		new ScalableBloomFilter<>(10, 1.0);
+	}
+}
@@ -1,5 +1,8 @@
 package com.denkbares.collections.test;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -63,6 +66,30 @@ public class SegmentTreeTest {
 		Assert.assertEquals(expected, actual);
 	}
 
+	@Test
+	public void testQueries() {
+		SegmentTree<String> tree = new SegmentTree<>(0, 10, "root");
+		tree.insert(1, 4, "A");
+		tree.insert(3, 7, "B");
+		tree.insert(6, 10, "C");
+		tree.insert(3, 4, "D");
+
+		Assert.assertEquals(List.of("root", "A", "D", "B"), items(tree.getNodesAt(3)));
+		Assert.assertEquals(List.of("root", "B"), items(tree.getNodesAt(4)));
+		Assert.assertEquals(List.of("root", "C"), items(tree.getNodesAt(9)));
+		Assert.assertEquals(List.of(), items(tree.getNodesAt(10)));
+		Assert.assertEquals(List.of("root", "B", "C"), items(tree.getOverlappingNodes(5, 7)));
+		Assert.assertEquals(List.of(), items(tree.getOverlappingNodes(5, 5)));
+
+		// inserting invalidates the index
+		tree.insert(8, 9, "E");
+		Assert.assertEquals(List.of("root", "C", "E"), items(tree.getNodesAt(8)));
+	}
+
+	private static List<String> items(List<SegmentTree<String>.Node> nodes) {
+		return nodes.stream().map(SegmentTree.Node::getItem).collect(Collectors.toList());
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void assertInvalid() {
 		SegmentTree<String> tree = new SegmentTree<>(0, 10, "root");
@@ -23,14 +23,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
 import java.util.function.Predicate;
 
 import org.junit.Test;
 
 import com.denkbares.collections.DefaultMultiMap;
 import com.denkbares.strings.PredicateParser;
+import com.denkbares.strings.PredicateParser.CompiledPredicate;
 import com.denkbares.strings.PredicateParser.ParseException;
 import com.denkbares.strings.PredicateParser.ParsedPredicate;
+import com.denkbares.strings.PredicateParser.SlotValues;
 import com.denkbares.strings.PredicateParser.ValueBindings;
 import com.denkbares.strings.PredicateParser.ValueProvider;
 import com.denkbares.utils.Predicates;
@@ -220,6 +224,60 @@ public class PredicateParserTest {
 		assertTrue(predicate.test(values));
 	}
 
+	@Test
+	public void compiled() throws ParseException {
+		String[] conditions = {
+				"(processor == i5 OR weight >= 1.5) && (weight <= 2 OR ports = audio)",
+				"price > '2.000,00 €' || weight < -1",
+				"processor != i5 AND NOT (ports ~= '.*us.*' OR weight == null)",
+				"true && (weight != null || false) && !(false)",
+				"false || weight = 1 || weight != 2",
+				"flag && !(processor = I7 | flag) || flag & ports != audio" };
+		String[][] domain = {
+				{ null, "i5", "I7", "i3" },
+				{ null, "1", "1.5", "2", "-3", "2.000,00 €", "abc", "2.0" },
+				{ null, "audio", "USB", "usb", "hdmi" },
+				{ null, "true", "false", "FALSE", "x" } };
+		String[] variables = { "processor", "weight", "ports", "flag" };
+		PredicateParser parser = new PredicateParser().isBoolean("flag");
+		Random random = new Random(9);
+		for (String condition : conditions) {
+			ParsedPredicate predicate = parser.parse(condition);
+			CompiledPredicate compiled = predicate.compile();
+			SlotValues values = compiled.createValues();
+			for (int round = 0; round < 500; round++) {
+				ValueBindings bindings = new ValueBindings();
+				values.clear();
+				for (int v = 0; v < variables.length; v++) {
+					List<String> bound = new ArrayList<>();
+					int count = random.nextInt(3);
+					for (int i = 0; i < count; i++) {
+						String value = domain[v][random.nextInt(domain[v].length)];
+						if (value != null) bound.add(value);
+					}
+					bindings.constants(variables[v], bound);
+					int slot = compiled.getSlot(variables[v]);
+					if (slot >= 0) values.setAll(slot, bound);
+				}
+				assertEquals(condition, predicate.test(bindings), compiled.test(values));
+				assertEquals(condition, predicate.test(values), compiled.test(values));
+			}
+		}
+
+		CompiledPredicate compiled = parser.parse("weight >= 1 && weight <= 2").compile();
+		assertEquals(Collections.singletonList("weight"), compiled.getVariables());
+		assertEquals(-1, compiled.getSlot("ports"));
+		SlotValues values = compiled.createValues();
+		assertTrue(compiled.test(values.set("weight", "1.5")));
+		assertFalse(compiled.test(values.set("weight", "2.5")));
+		assertTrue(compiled.test(values.setAll(0, "3", "1")));
+		assertFalse(compiled.test(values.set(0, null)));
+		assertTrue(compiled.test(values.set(0, "2")));
+		assertFalse(compiled.test(values.clear(0)));
+		assertTrue(compiled.test(values.set(0, "1")));
+		assertFalse(compiled.test(values.clear()));
+	}
+
 	@Test(expected = ParseException.class)
 	public void failBooleanParsing() throws ParseException {
 		new PredicateParser()
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.strings.test;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.denkbares.strings.StringMatcher;
+import com.denkbares.strings.Strings;
+
+import static org.junit.Assert.*;
+
+public class StringMatcherTest {
+
+	private static final String ALPHABET = "ab\"'\\/()\n ,;";
+	private static final int[] FLAGS = { Strings.UNQUOTED, Strings.SKIP_COMMENTS, Strings.LAST_INDEX,
+			Strings.CASE_INSENSITIVE, Strings.FIRST_IN_LINE, Strings.UNBRACED, Strings.SINGLE_QUOTED };
+
+	@Test
+	public void basic() {
+		StringMatcher matcher = Strings.compileMatcher(Strings.UNQUOTED | Strings.SKIP_COMMENTS, ",", ";;");
+		assertEquals(7, matcher.indexOf("\"a,b\" c, d"));
+		assertEquals(-1, matcher.indexOf("a // b, c"));
+		assertEquals(9, matcher.indexOf("a // b,\nc;;d"));
+		assertEquals(-1, matcher.indexOf(null));
+
+		StringMatcher.Scan scan = matcher.scan("a, \"b,c\", d;;e,");
+		assertEquals(1, scan.next());
+		assertEquals(8, scan.next());
+		assertEquals(11, scan.next());
+		assertEquals(14, scan.next());
+		assertEquals(-1, scan.next());
+		assertEquals(8, scan.indexOf(2));
+
+		StringMatcher ignoreCase = Strings.compileMatcher(Strings.CASE_INSENSITIVE | Strings.LAST_INDEX, "AND", "or");
+		assertEquals(8, ignoreCase.indexOf("a and b OR c"));
+	}
+
+	@Test
+	public void random() {
+		Random random = new Random(47);
+		for (int round = 0; round < 3000; round++) {
+			int flags = 0;
+			for (int flag : FLAGS) {
+				if (random.nextInt(3) == 0) flags |= flag;
+			}
+			String[] strings = new String[1 + random.nextInt(4)];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = randomText(random, random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(3));
+			}
+			StringMatcher matcher = Strings.compileMatcher(flags, strings);
+			String text = randomText(random, random.nextInt(60));
+
+			for (int offset = 0; offset <= text.length(); offset++) {
+				assertEquals(Strings.indexOf(text, offset, flags, strings), matcher.indexOf(text, offset));
+			}
+
+			int scanFlags = flags & ~Strings.LAST_INDEX;
+			StringMatcher.Scan scan = Strings.compileMatcher(scanFlags, strings).scan(text);
+			for (int offset = 0; offset <= text.length(); offset += random.nextInt(4)) {
+				assertEquals(Strings.indexOf(text, offset, scanFlags, strings), scan.indexOf(offset));
+			}
+		}
+	}
+
+	private static String randomText(Random random, int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+			builder.append(random.nextInt(8) == 0 ? Character.toUpperCase(c) : c);
+		}
+		return builder.toString();
+	}
+}
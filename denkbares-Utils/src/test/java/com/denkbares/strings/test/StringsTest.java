@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -40,6 +41,7 @@ import org.junit.Test;
 import com.denkbares.strings.QuoteSet;
 import com.denkbares.strings.StringFragment;
 import com.denkbares.strings.Strings;
+import com.denkbares.strings.UnquotedSplitter;
 
 import static org.junit.Assert.*;
 
@@ -164,6 +166,27 @@ public class StringsTest {
 						.toString());
 	}
 
+	@Test
+	public void unquotedSplitter() {
+		UnquotedSplitter splitter = new UnquotedSplitter(";", false, new QuoteSet('"'), new QuoteSet('(', ')'));
+		StringBuilder text = new StringBuilder("a; \"b;c\";(d;e) ; ;f");
+		List<String> fragments = new ArrayList<>();
+		assertTrue(splitter.split(text, (start, end) -> fragments.add(start + "-" + end)));
+		assertEquals(Arrays.asList("0-1", "2-8", "9-15", "18-19"), fragments);
+
+		assertArrayEquals(new String[] { "a", " \"b;c\"", "(d;e) ", "f" }, splitter.splitToArray(text.toString()));
+		assertArrayEquals(new String[] { "a", "b" }, new UnquotedSplitter(Pattern.compile("\\s*,\\s*"), true)
+				.splitToArray("a ,  b"));
+		assertEquals(0, splitter.splitToArray(null).length);
+
+		List<StringFragment> parts = splitter.split("x ;; y");
+		assertEquals(2, parts.size());
+		assertEquals(4, parts.get(1).getStart());
+		assertEquals(6, parts.get(1).getEnd());
+		assertEquals("y", parts.get(1).getContentTrimmed());
+		assertEquals(5, parts.get(1).getStartTrimmed());
+	}
+
 	@Test
 	public void isBlank() {
 		assertTrue(Strings.isBlank(null));
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package com.denkbares.strings.test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.denkbares.strings.Tokenizer;
+
+import static org.junit.Assert.*;
+
+public class TokenizerTest {
+
+	@Test
+	public void tokens() {
+		Tokenizer tokenizer = new Tokenizer();
+		String text = "  Hello, world-wide web\t42x ";
+		List<String> tokens = new ArrayList<>();
+		tokenizer.forEachToken(text, (start, end) -> tokens.add(text.substring(start, end)));
+		assertEquals(Arrays.asList("Hello", "world-wide", "web", "42x"), tokens);
+		assertEquals(Tokenizer.tokenize(text), tokens);
+		assertArrayEquals(new int[] { 2, 7, 9, 19, 20, 23, 24, 27 }, tokenizer.getTokenBounds(text));
+
+		int[] bounds = new int[4];
+		assertEquals(2, tokenizer.nextTokens(text, 0, bounds));
+		assertArrayEquals(new int[] { 2, 7, 9, 19 }, bounds);
+		assertEquals(2, tokenizer.nextTokens(text, bounds[3], bounds));
+		assertArrayEquals(new int[] { 20, 23, 24, 27 }, bounds);
+		assertEquals(0, tokenizer.nextTokens(text, bounds[3], bounds));
+	}
+
+	@Test
+	public void wordRules() {
+		// decomposed accent and a supplementary letter
+		String text = "cafe\u0301 a_b \uD835\uDC00x";
+		assertArrayEquals(new int[] { 0, 4, 6, 7, 8, 9, 10, 13 }, new Tokenizer().getTokenBounds(text));
+		assertArrayEquals(new int[] { 0, 5, 6, 9, 10, 13 },
+				new Tokenizer(Tokenizer.WordRule.UNICODE).getTokenBounds(text));
+		assertArrayEquals(new int[] { 0, 5, 6, 9 }, new Tokenizer(c -> c != ' ').getTokenBounds("a,b;c x,y"));
+	}
+
+	@Test
+	public void reader() throws IOException {
+		Random random = new Random(3);
+		Tokenizer tokenizer = new Tokenizer();
+		for (int round = 0; round < 50; round++) {
+			String text = randomText(random, random.nextInt(30000), round % 5 == 0 ? 20000 : 12);
+			int[] expected = tokenizer.getTokenBounds(text);
+			List<Integer> actual = new ArrayList<>();
+			tokenizer.forEachToken(new ChoppyReader(text, random), (buffer, start, end, position) -> {
+				assertEquals(text.substring((int) position, (int) position + end - start),
+						new String(buffer, start, end - start));
+				actual.add((int) position);
+				actual.add((int) position + end - start);
+			});
+			assertArrayEquals(expected, actual.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	@Test
+	public void parallel() {
+		Random random = new Random(5);
+		Tokenizer tokenizer = new Tokenizer();
+		String text = randomText(random, 2_000_000, 15);
+		assertArrayEquals(tokenizer.getTokenBounds(text), tokenizer.getTokenBoundsParallel(text));
+		assertArrayEquals(tokenizer.getTokenBounds("a b"), tokenizer.getTokenBoundsParallel("a b"));
+
+		// a single word spanning all split points, and a long last word spanning the last split points
+		StringBuilder word = new StringBuilder();
+		for (int i = 0; i < 300_000; i++) word.append((char) ('a' + i % 26));
+		assertArrayEquals(new int[] { 0, 300_000 }, tokenizer.getTokenBoundsParallel(word));
+		String tail = randomText(random, 200_000, 15) + word;
+		assertArrayEquals(tokenizer.getTokenBounds(tail), tokenizer.getTokenBoundsParallel(tail));
+	}
+
+	private static String randomText(Random random, int length, int maxWordLength) {
+		String separators = " \n.,";
+		StringBuilder builder = new StringBuilder();
+		while (builder.length() < length) {
+			int word = random.nextInt(maxWordLength);
+			for (int i = 0; i < word; i++) {
+				int kind = random.nextInt(20);
+				if (kind == 0) builder.append("\uD835\uDC00");
+				else if (kind == 1) builder.append('-');
+				else builder.append((char) ('a' + random.nextInt(26)));
+			}
+			builder.append(separators.charAt(random.nextInt(separators.length())));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Reader that only returns a few chars on each read, to split tokens and surrogate pairs across reads.
+	 */
+	private static class ChoppyReader extends Reader {
+		private final StringReader delegate;
+		private final Random random;
+
+		private ChoppyReader(String text, Random random) {
+			this.delegate = new StringReader(text);
+			this.random = random;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) throws IOException {
+			return delegate.read(buffer, offset, Math.min(length, 1 + random.nextInt(random.nextBoolean() ? 3 : 5000)));
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
+	}
+}